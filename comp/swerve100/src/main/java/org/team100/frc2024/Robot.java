@@ -7,7 +7,9 @@ import org.team100.lib.config.Identity;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
+import org.team100.lib.motor.SignalRegistry;
 import org.team100.lib.telemetry.JvmLogger;
+import org.team100.lib.telemetry.LoopProfiler;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.util.Names;
@@ -30,6 +32,11 @@ public class Robot extends TimedRobot implements Glassy {
     private final String m_name = Names.name(this);
     private RobotContainer m_robotContainer;
     private JvmLogger m_jvmLogger;
+    private final LoopProfiler m_profiler = LoopProfiler.get();
+    private final LoopProfiler.Section m_signalSection = m_profiler.section("CAN signals");
+    private final LoopProfiler.Section m_schedulerSection = m_profiler.section("CommandScheduler");
+    private final LoopProfiler.Section m_containerSection = m_profiler.section("RobotContainer");
+    private final LoopProfiler.Section m_loggingSection = m_profiler.section("Robot logging");
 
     @Override
     public void robotInit() {
@@ -65,8 +72,21 @@ public class Robot extends TimedRobot implements Glassy {
 
     @Override
     public void robotPeriodic() {
+        m_profiler.beginLoop();
+        long startNs = m_signalSection.start();
+        // one CAN refresh per bus, before anyone reads the motors.
+        SignalRegistry.refreshAll();
+        m_signalSection.stop(startNs);
+
+        startNs = m_schedulerSection.start();
         CommandScheduler.getInstance().run();
+        m_schedulerSection.stop(startNs);
+
+        startNs = m_containerSection.start();
         m_robotContainer.periodic();
+        m_containerSection.stop(startNs);
+
+        startNs = m_loggingSection.start();
         // t.log(Level.DEBUG, m_name, "Voltage", m_pdh.getVoltage());
         // t.log(Level.DEBUG, m_name, "Total Current", m_pdh.getTotalCurrent());
 
@@ -84,11 +104,13 @@ public class Robot extends TimedRobot implements Glassy {
         m_jvmLogger.logGarbageCollectors();
         m_jvmLogger.logMemoryPools();
         m_jvmLogger.logMemoryUsage();
+        m_loggingSection.stop(startNs);
 
         if (Experiments.instance.enabled(Experiment.FlushOften)) {
             Util.warn("FLUSHING EVERY LOOP, DO NOT USE IN COMP");
             NetworkTableInstance.getDefault().flush();
         }
+        m_profiler.endLoop();
     }
 
     @Override
@@ -99,6 +121,9 @@ public class Robot extends TimedRobot implements Glassy {
 
         // this forces the static initializer to run, so that the widget appears.
         t.log(Level.INFO, m_name, "active auton routine", AutonChooser.routine().name());
+
+        // once the routine and alliance are known, start planning.
+        m_robotContainer.prefetchAuton();
     }
 
     @Override
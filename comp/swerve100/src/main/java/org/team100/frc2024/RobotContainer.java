@@ -3,7 +3,9 @@ package org.team100.frc2024;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.BooleanSupplier;
+import java.util.function.Function;
 
 import org.team100.frc2024.commands.AutonCommand;
 import org.team100.frc2024.commands.Feed;
@@ -31,6 +33,7 @@ import org.team100.frc2024.motion.shooter.Shooter;
 import org.team100.frc2024.motion.shooter.TestShoot;
 import org.team100.lib.commands.AllianceCommand;
 import org.team100.lib.commands.drivetrain.DriveManually;
+import org.team100.lib.commands.drivetrain.DriveToTranslationWithReplanning;
 import org.team100.lib.commands.drivetrain.FancyTrajectory;
 import org.team100.lib.commands.drivetrain.ResetPose;
 import org.team100.lib.commands.drivetrain.SetRotation;
@@ -51,6 +54,7 @@ import org.team100.lib.localization.AprilTagFieldLayoutWithCorrectOrientation;
 import org.team100.lib.localization.CameraUpdater;
 import org.team100.lib.localization.FireControl;
 import org.team100.lib.localization.NotePosition24ArrayListener;
+import org.team100.lib.localization.OdometryThread;
 import org.team100.lib.localization.SwerveDrivePoseEstimator100;
 import org.team100.lib.localization.VisionDataProvider24;
 import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
@@ -64,20 +68,27 @@ import org.team100.lib.motion.drivetrain.manual.ManualWithHeading;
 import org.team100.lib.motion.drivetrain.manual.ManualWithNoteRotation;
 import org.team100.lib.motion.drivetrain.manual.ManualWithTargetLock;
 import org.team100.lib.motion.drivetrain.manual.SimpleManualModuleStates;
+import org.team100.lib.motor.Phoenix100;
 import org.team100.lib.motion.drivetrain.module.SwerveModuleCollection;
 import org.team100.lib.sensors.HeadingFactory;
 import org.team100.lib.sensors.HeadingInterface;
 import org.team100.lib.timing.TimingConstraint;
 import org.team100.lib.timing.TimingConstraintFactory;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
+import org.team100.lib.trajectory.TrajectoryCache;
+import org.team100.lib.trajectory.TrajectoryReplanner;
 import org.team100.lib.util.Names;
 
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.ParallelDeadlineGroup;
 import edu.wpi.first.wpilibj2.command.PrintCommand;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 
@@ -91,9 +102,20 @@ public class RobotContainer implements Glassy {
     // https://www.chiefdelphi.com/t/the-brushless-era-needs-sensible-default-current-limits/461056/51
     private static final double kDriveCurrentLimit = 50;
     private static final double kDriveStatorLimit = 100;
+    /** 250 Hz */
+    private static final double kOdometryPeriodS = 0.004;
+    /** Enough for a few main loops. */
+    private static final int kOdometryCapacity = 64;
+    /** Time limit for replanning the note chase, a fraction of the main loop. */
+    private static final double kReplanBudgetS = 0.005;
+    /** Trajectories for the driver's test button. */
+    private static final String kTestGroup = "test";
+    /** For the vision worker threads; just above the main loop. */
+    private static final int kVisionPriority = Thread.NORM_PRIORITY + 1;
 
     private final SwerveModuleCollection m_modules;
     private final Command m_auton;
+    private final AsyncTrajectoryPlanner m_planner;
     private final SelfTestRunner m_selfTest;
     private final Shooter m_shooter;
     private final String m_name;
@@ -144,19 +166,37 @@ public class RobotContainer implements Glassy {
         VisionDataProvider24 visionDataProvider = new VisionDataProvider24(
                 m_layout,
                 poseEstimator,
-                fireControl);
+                fireControl,
+                kVisionPriority);
         visionDataProvider.enable();
 
-        NotePosition24ArrayListener notePositionDetector = new NotePosition24ArrayListener(poseEstimator);
+        NotePosition24ArrayListener notePositionDetector = new NotePosition24ArrayListener(
+                poseEstimator,
+                kVisionPriority);
         notePositionDetector.enable();
 
         SwerveLocal swerveLocal = new SwerveLocal(swerveKinodynamics, m_modules);
 
+        // the simulated modules aren't thread-safe, so this is only for real robots.
+        OdometryThread odometry = null;
+        if (Experiments.instance.enabled(Experiment.OdometryThread)
+                && RobotBase.isReal()
+                && m_modules.hasOdometryPositions()) {
+            odometry = new OdometryThread(
+                    m_name,
+                    m_modules,
+                    m_heading,
+                    OdometryThread.phoenix(kOdometryPeriodS, Phoenix100.odometrySignals()),
+                    kOdometryCapacity);
+            odometry.start();
+        }
+
         m_drive = new SwerveDriveSubsystem(
                 m_heading,
                 poseEstimator,
                 swerveLocal,
-                driverControl::speed);
+                driverControl::speed,
+                odometry);
         cameraUpdater = new CameraUpdater(() -> poseEstimator.getEstimatedPosition().pose(), m_layout);
 
         final FeederSubsystem m_feeder = new FeederSubsystem(m_sensors);
@@ -206,14 +246,36 @@ public class RobotContainer implements Glassy {
         // 254 PID follower
         DriveMotionController drivePID = DriveMotionControllerFactory.goodPIDF();
 
-        // Drive With Profile
-        whileTrue(driverControl::driveToNote,
-                new DriveWithProfileNote(
-                        m_intake,
-                        notePositionDetector::getClosestTranslation2d,
-                        m_drive,
-                        dthetaController,
-                        swerveKinodynamics));
+        if (Experiments.instance.enabled(Experiment.ReplanNoteChase)) {
+            // replan whenever the note moves, within a few ms of each loop.
+            // like DriveWithProfileNote, intake the whole time, and face the
+            // note with the intake (on the back) if that experiment is on.
+            Optional<Rotation2d> aimOffset = Experiments.instance.enabled(Experiment.DriveToNoteWithRotation)
+                    ? Optional.of(GeometryUtil.kRotation180)
+                    : Optional.empty();
+            whileTrue(driverControl::driveToNote,
+                    new ParallelDeadlineGroup(
+                            new DriveToTranslationWithReplanning(
+                                    notePositionDetector::getClosestTranslation2d,
+                                    m_drive,
+                                    DriveMotionControllerFactory.purePursuit(swerveKinodynamics),
+                                    new TrajectoryReplanner(
+                                            constraints,
+                                            swerveKinodynamics.getMaxDriveVelocityM_S(),
+                                            swerveKinodynamics.getMaxDriveAccelerationM_S2(),
+                                            kReplanBudgetS),
+                                    aimOffset),
+                            m_intake.run(m_intake::intakeSmart)));
+        } else {
+            // Drive With Profile
+            whileTrue(driverControl::driveToNote,
+                    new DriveWithProfileNote(
+                            m_intake,
+                            notePositionDetector::getClosestTranslation2d,
+                            m_drive,
+                            dthetaController,
+                            swerveKinodynamics));
+        }
 
         whileTrue(operatorControl::intake, new RunIntakeAndAmpFeeder(m_intake, m_feeder, m_ampFeeder));
 
@@ -318,6 +380,10 @@ public class RobotContainer implements Glassy {
                 thetaController,
                 omega2Controller);
 
+        // autos are made ahead of time, but their trajectories are planned later,
+        // in the background, or come from the deploy directory.
+        m_planner = new AsyncTrajectoryPlanner(new TrajectoryCache());
+
         AutoMaker m_AutoMaker = new AutoMaker(
                 m_drive,
                 drivePID,
@@ -327,9 +393,13 @@ public class RobotContainer implements Glassy {
                 m_intake,
                 m_sensors,
                 notePositionDetector,
-                constraints);
+                constraints,
+                m_planner);
 
-        whileTrue(driverControl::test, m_AutoMaker.citrus(Alliance.Blue));
+        // the test binding is always available, so plan it right away.
+        whileTrue(driverControl::test,
+                m_planner.group(kTestGroup, () -> m_AutoMaker.citrus(Alliance.Blue)));
+        m_planner.prefetch(kTestGroup);
 
         whileTrue(driverControl::ampLock,
                 new AmpLockCommand(ampLock, driverControl::velocity, m_drive));
@@ -362,26 +432,18 @@ public class RobotContainer implements Glassy {
         // this illustrates how to use AutonCommand together with AllianceCommand
         Command choosableAuton = new AutonCommand(
                 Map.of(
-                        AutonChooser.Routine.FIVE_NOTE, new AllianceCommand(
-                                m_AutoMaker.fourNoteAuto(
-                                        Alliance.Red, m_sensors),
-                                m_AutoMaker.fourNoteAuto(
-                                        Alliance.Blue, m_sensors)),
-                        AutonChooser.Routine.COMPLEMENTARY, new AllianceCommand(
-                                m_AutoMaker.citrus(
-                                        Alliance.Red),
-                                m_AutoMaker.citrus(
-                                        Alliance.Blue)),
-                        AutonChooser.Routine.COMPLEMENTARY2, new AllianceCommand(
-                                m_AutoMaker.citrusv2(
-                                        Alliance.Red),
-                                m_AutoMaker.citrusv2(
-                                        Alliance.Blue)),
-                        AutonChooser.Routine.SIBLING, new AllianceCommand(
-                                m_AutoMaker.sibling(
-                                        Alliance.Red),
-                                m_AutoMaker.sibling(
-                                        Alliance.Blue)),
+                        AutonChooser.Routine.FIVE_NOTE, allianceAuton(
+                                AutonChooser.Routine.FIVE_NOTE,
+                                alliance -> m_AutoMaker.fourNoteAuto(alliance, m_sensors)),
+                        AutonChooser.Routine.COMPLEMENTARY, allianceAuton(
+                                AutonChooser.Routine.COMPLEMENTARY,
+                                m_AutoMaker::citrus),
+                        AutonChooser.Routine.COMPLEMENTARY2, allianceAuton(
+                                AutonChooser.Routine.COMPLEMENTARY2,
+                                m_AutoMaker::citrusv2),
+                        AutonChooser.Routine.SIBLING, allianceAuton(
+                                AutonChooser.Routine.SIBLING,
+                                m_AutoMaker::sibling),
                         AutonChooser.Routine.NOTHING, new AllianceCommand(
                                 new PrintCommand("nothing red goes here"),
                                 new PrintCommand("nothing blue goes here"))),
@@ -423,6 +485,31 @@ public class RobotContainer implements Glassy {
         m_selfTest.schedule();
     }
 
+    /**
+     * Make the routine for each alliance, remembering the trajectories for each,
+     * so they can be prefetched.
+     */
+    private Command allianceAuton(AutonChooser.Routine routine, Function<Alliance, Command> maker) {
+        return new AllianceCommand(
+                m_planner.group(autonGroup(routine, Alliance.Red), () -> maker.apply(Alliance.Red)),
+                m_planner.group(autonGroup(routine, Alliance.Blue), () -> maker.apply(Alliance.Blue)));
+    }
+
+    private static String autonGroup(AutonChooser.Routine routine, Alliance alliance) {
+        return routine.name() + "/" + alliance.name();
+    }
+
+    /**
+     * Start planning the trajectories for the chosen routine and alliance, in
+     * the background, so they're ready when auton starts.
+     */
+    public void prefetchAuton() {
+        Optional<Alliance> alliance = DriverStation.getAlliance();
+        if (alliance.isEmpty())
+            return;
+        m_planner.prefetch(autonGroup(AutonChooser.routine(), alliance.get()));
+    }
+
     public void scheduleAuton() {
         if (m_auton == null)
             return;
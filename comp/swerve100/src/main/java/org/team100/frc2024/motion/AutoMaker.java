@@ -20,8 +20,8 @@ import org.team100.lib.experiments.Experiments;
 import org.team100.lib.localization.NotePosition24ArrayListener;
 import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.timing.TimingConstraint;
-import org.team100.lib.trajectory.Trajectory100;
-import org.team100.lib.trajectory.TrajectoryPlanner;
+import org.team100.lib.trajectory.AsyncTrajectoryPlanner;
+import org.team100.lib.trajectory.PlannedTrajectory;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -47,6 +47,7 @@ public class AutoMaker {
     private final Shooter m_shooter;
     private final FeederSubsystem m_feeder;
     private final NotePosition24ArrayListener m_notePosition24ArrayListener;
+    private final AsyncTrajectoryPlanner m_planner;
     private final double kShooterScale;
 
     public enum FieldPoint {
@@ -65,8 +66,10 @@ public class AutoMaker {
             Intake intake,
             SensorInterface sensor,
             NotePosition24ArrayListener notePosition24ArrayListener,
-            List<TimingConstraint> constraints) {
+            List<TimingConstraint> constraints,
+            AsyncTrajectoryPlanner planner) {
         m_notePosition24ArrayListener = notePosition24ArrayListener;
+        m_planner = planner;
         m_swerve = swerve;
         m_controller = controller;
         m_constraints = constraints;
@@ -286,7 +289,7 @@ public class AutoMaker {
                 startPose.getRotation(),
                 betweenHeading,
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -326,7 +329,7 @@ public class AutoMaker {
                 betweenHeading,
                 betweenHeading,
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -352,7 +355,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 new Rotation2d(Math.PI),
                 new Rotation2d(Math.PI));
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -370,7 +373,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 Rotation2d.fromDegrees(0),
                 Rotation2d.fromDegrees(0));
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -388,7 +391,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 new Rotation2d(Math.PI),
                 new Rotation2d(Math.PI));
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -406,7 +409,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 new Rotation2d(Math.PI),
                 new Rotation2d());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -424,7 +427,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 new Rotation2d(),
                 new Rotation2d(Math.PI));
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -454,7 +457,7 @@ public class AutoMaker {
                 startPose.getRotation(),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -488,7 +491,7 @@ public class AutoMaker {
                 startPose.getRotation(),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -519,7 +522,7 @@ public class AutoMaker {
                 startPose.getRotation(),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -550,7 +553,7 @@ public class AutoMaker {
                 startPose.getRotation(),
                 heading,
                 heading);
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -581,7 +584,7 @@ public class AutoMaker {
                 new Rotation2d(begHeading),
                 endPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -607,7 +610,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 startPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -631,7 +634,7 @@ public class AutoMaker {
                 endWaypoint);
         List<Rotation2d> headings = List.of(begHeading,
                 endHeading);
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -656,7 +659,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 startPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -686,7 +689,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 startPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -720,7 +723,7 @@ public class AutoMaker {
         List<Rotation2d> headings = List.of(
                 startHeading,
                 endHeading);
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -755,7 +758,7 @@ public class AutoMaker {
                 startPose.getRotation(),
                 betweenPose.getRotation(),
                 endPose.getRotation());
-        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+        PlannedTrajectory trajectory = m_planner.plan(
                 waypointsM,
                 headings,
                 m_constraints,
@@ -1,10 +1,13 @@
 package org.team100.frc2024.motion;
 
+import java.util.Optional;
+
 import org.team100.lib.commands.Command100;
 import org.team100.lib.controller.DriveMotionController;
 import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.trajectory.PlannedTrajectory;
 import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.trajectory.TrajectoryTimeIterator;
 import org.team100.lib.trajectory.TrajectoryTimeSampler;
@@ -19,35 +22,64 @@ import edu.wpi.first.wpilibj.Timer;
  * types.
  * 
  * This is an experiment.
+ *
+ * AutoMaker makes lots of these ahead of time, so the trajectory is planned
+ * lazily: it's usually prefetched while disabled. If it's not ready when the
+ * command starts, planning continues in the background, and the robot holds
+ * still until it's done.
  */
 public class TrajectoryCommand100 extends Command100 {
     private final Telemetry t = Telemetry.get();
     private final SwerveDriveSubsystem m_robotDrive;
     private final DriveMotionController m_controller;
-    private final Trajectory100 m_trajectory;
-    private final Pose2d m_goal;
+    private final PlannedTrajectory m_trajectory;
+    private Pose2d m_goal;
+    /** False until the trajectory is ready. */
+    private boolean m_following;
 
     public TrajectoryCommand100(
             SwerveDriveSubsystem robotDrive,
             Trajectory100 trajectory,
             DriveMotionController controller) {
+        this(robotDrive, PlannedTrajectory.of(trajectory), controller);
+    }
+
+    public TrajectoryCommand100(
+            SwerveDriveSubsystem robotDrive,
+            PlannedTrajectory trajectory,
+            DriveMotionController controller) {
         m_robotDrive = robotDrive;
         m_trajectory = trajectory;
         m_controller = controller;
-        m_goal = m_trajectory.getLastPoint().state().state().getPose();
-        t.log(Level.TRACE, m_name, "goal", m_goal);
         addRequirements(m_robotDrive);
     }
 
     @Override
     public void initialize100() {
-        TrajectoryVisualization.setViz(m_trajectory);
-        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(new TrajectoryTimeSampler(m_trajectory));
+        m_following = false;
+        m_trajectory.poll().ifPresent(this::follow);
+    }
+
+    private void follow(Trajectory100 trajectory) {
+        m_following = true;
+        m_goal = trajectory.getLastPoint().state().state().getPose();
+        t.log(Level.TRACE, m_name, "goal", m_goal);
+        TrajectoryVisualization.setViz(trajectory);
+        TrajectoryTimeIterator iter = new TrajectoryTimeIterator(new TrajectoryTimeSampler(trajectory));
         m_controller.setTrajectory(iter);
     }
 
     @Override
     public void execute100(double dt) {
+        if (!m_following) {
+            Optional<Trajectory100> trajectory = m_trajectory.poll();
+            if (trajectory.isEmpty()) {
+                t.log(Level.TRACE, m_name, "waiting for planner", true);
+                m_robotDrive.stop();
+                return;
+            }
+            follow(trajectory.get());
+        }
         final double now = Timer.getFPGATimestamp();
         Pose2d currentPose = m_robotDrive.getPose();
         ChassisSpeeds currentRobotRelativeSpeed = m_robotDrive.getState().chassisSpeeds();
@@ -63,7 +95,7 @@ public class TrajectoryCommand100 extends Command100 {
 
     @Override
     public boolean isFinished() {
-        return m_controller.isDone();
+        return m_following && m_controller.isDone();
     }
 
     @Override
@@ -0,0 +1,84 @@
+package org.team100.lib.motion.drivetrain.kinodynamics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Forward and inverse kinematics for the 4-module drivetrain, using either the
+ * unrolled four-module math or the general matrices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwerveDriveKinematics100Benchmark {
+    @Param({ "unrolled", "matrix" })
+    public String m_impl;
+
+    private SwerveDriveKinematics100 m_kinematics;
+    private ChassisSpeeds m_speeds;
+    private SwerveModuleState[] m_states;
+    private SwerveModulePosition[] m_deltas;
+    private SwerveModuleState[] m_statesOut;
+    private ChassisSpeeds m_speedsOut;
+
+    @Setup
+    public void setup() {
+        m_kinematics = new SwerveDriveKinematics100(
+                m_impl.equals("unrolled"),
+                new Translation2d(0.5, 0.5),
+                new Translation2d(0.5, -0.5),
+                new Translation2d(-0.5, 0.5),
+                new Translation2d(-0.5, -0.5));
+        m_speeds = new ChassisSpeeds(2, 1, 3);
+        m_states = m_kinematics.toSwerveModuleStates(m_speeds);
+        m_deltas = new SwerveModulePosition[] {
+                new SwerveModulePosition(0.02, Rotation2d.fromDegrees(10)),
+                new SwerveModulePosition(0.03, Rotation2d.fromDegrees(20)),
+                new SwerveModulePosition(0.02, Rotation2d.fromDegrees(30)),
+                new SwerveModulePosition(0.01, Rotation2d.fromDegrees(40)) };
+        m_statesOut = new SwerveModuleState[] {
+                new SwerveModuleState(),
+                new SwerveModuleState(),
+                new SwerveModuleState(),
+                new SwerveModuleState() };
+        m_speedsOut = new ChassisSpeeds();
+    }
+
+    @Benchmark
+    public SwerveModuleState[] toSwerveModuleStates() {
+        return m_kinematics.toSwerveModuleStates(m_speeds);
+    }
+
+    @Benchmark
+    public ChassisSpeeds toChassisSpeeds() {
+        return m_kinematics.toChassisSpeeds(m_states);
+    }
+
+    @Benchmark
+    public Twist2d toTwist2d() {
+        return m_kinematics.toTwist2d(m_deltas);
+    }
+
+    /** Module states to chassis speeds and back, into preallocated outputs. */
+    @Benchmark
+    public ChassisSpeeds roundTrip() {
+        m_kinematics.toSwerveModuleStates(m_speeds, m_statesOut);
+        m_kinematics.toChassisSpeeds(m_statesOut, m_speedsOut);
+        return m_speedsOut;
+    }
+}
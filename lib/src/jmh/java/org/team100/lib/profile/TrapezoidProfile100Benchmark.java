@@ -0,0 +1,50 @@
+package org.team100.lib.profile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.team100.lib.controller.State100;
+
+/** One step of the profile, from rest, during accel, and during cruise. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TrapezoidProfile100Benchmark {
+    private static final double kDt = 0.02;
+
+    private TrapezoidProfile100 m_profile;
+    private State100 m_rest;
+    private State100 m_accel;
+    private State100 m_cruise;
+    private State100 m_goal;
+
+    @Setup
+    public void setup() {
+        m_profile = new TrapezoidProfile100(2, 4, 0.01);
+        m_rest = new State100(0, 0);
+        m_accel = new State100(0.1, 1);
+        m_cruise = new State100(1, 2);
+        m_goal = new State100(5, 0);
+    }
+
+    @Benchmark
+    public State100 fromRest() {
+        return m_profile.calculate(kDt, m_rest, m_goal);
+    }
+
+    @Benchmark
+    public State100 accel() {
+        return m_profile.calculate(kDt, m_accel, m_goal);
+    }
+
+    @Benchmark
+    public State100 cruise() {
+        return m_profile.calculate(kDt, m_cruise, m_goal);
+    }
+}
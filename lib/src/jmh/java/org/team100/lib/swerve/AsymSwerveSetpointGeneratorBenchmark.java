@@ -0,0 +1,54 @@
+package org.team100.lib.swerve;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * One control-loop step of the setpoint generator, alternating between two
+ * goals so that the limits are always active.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AsymSwerveSetpointGeneratorBenchmark {
+    private static final double kDt = 0.02;
+
+    private AsymSwerveSetpointGenerator m_generator;
+    private SwerveSetpoint m_setpoint;
+    private ChassisSpeeds[] m_goals;
+    private int m_step;
+
+    @Setup
+    public void setup() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.get();
+        m_generator = new AsymSwerveSetpointGenerator("benchmark", limits);
+        m_setpoint = new SwerveSetpoint(new ChassisSpeeds(), new SwerveModuleState[] {
+                new SwerveModuleState(),
+                new SwerveModuleState(),
+                new SwerveModuleState(),
+                new SwerveModuleState() });
+        m_goals = new ChassisSpeeds[] {
+                new ChassisSpeeds(3, 1, 2),
+                new ChassisSpeeds(-2, 2, -1) };
+    }
+
+    @Benchmark
+    public SwerveSetpoint generateSetpoint() {
+        // switch goals every second
+        ChassisSpeeds goal = m_goals[(m_step++ / 50) % 2];
+        m_setpoint = m_generator.generateSetpoint(m_setpoint, goal, kDt);
+        return m_setpoint;
+    }
+}
@@ -0,0 +1,60 @@
+package org.team100.lib.telemetry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
+import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.Pose2dLogger;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * String-keyed logging compared with the pre-bound handles. The value changes
+ * every call so that NT doesn't skip anything.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TelemetryBenchmark {
+    private final Telemetry t = Telemetry.get();
+    private DoubleLogger m_doubleLogger;
+    private Pose2dLogger m_poseLogger;
+    private Pose2d m_pose;
+    private double m_value;
+
+    @Setup
+    public void setup() {
+        m_doubleLogger = t.doubleLogger(Level.INFO, "benchmark", "handle");
+        m_poseLogger = t.pose2dLogger(Level.INFO, "benchmark", "pose handle");
+        m_pose = new Pose2d(1, 2, new Rotation2d(3));
+    }
+
+    @Benchmark
+    public void logDouble() {
+        // this boxes the value, as most callers do.
+        t.log(Level.INFO, "benchmark", "string key", m_value++);
+    }
+
+    @Benchmark
+    public void logDoubleHandle() {
+        m_doubleLogger.log(m_value++);
+    }
+
+    @Benchmark
+    public void logPose() {
+        t.log(Level.INFO, "benchmark", "pose", m_pose);
+    }
+
+    @Benchmark
+    public void logPoseHandle() {
+        m_poseLogger.log(m_pose);
+    }
+}
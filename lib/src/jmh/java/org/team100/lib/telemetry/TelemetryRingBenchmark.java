@@ -0,0 +1,44 @@
+package org.team100.lib.telemetry;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Caller-side cost of handing a sample to the ring, with the drain thread
+ * running. The sink does nothing, so this is just the queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TelemetryRingBenchmark {
+    private TelemetryRing m_ring;
+    private TelemetryRing.Sink m_sink;
+    private long m_value;
+
+    @Setup
+    public void setup() {
+        m_ring = new TelemetryRing(8192);
+        m_sink = (bits, timeUs) -> {
+        };
+        m_ring.start();
+    }
+
+    @TearDown
+    public void teardown() throws InterruptedException {
+        m_ring.stop();
+    }
+
+    @Benchmark
+    public boolean offer() {
+        ++m_value;
+        return m_ring.offer(m_sink, m_value, m_value);
+    }
+}
@@ -0,0 +1,59 @@
+package org.team100.lib.trajectory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingConstraintFactory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A typical 2024 auto leg: from the subwoofer, past the first wing note, out to
+ * the first center note, with the AutoMaker speed limits.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TrajectoryPlannerBenchmark {
+    private static final double kMaxVelM_S = 2;
+    private static final double kMaxAccelM_S_S = 2;
+
+    private List<Pose2d> m_waypoints;
+    private List<Rotation2d> m_headings;
+    private List<TimingConstraint> m_constraints;
+
+    @Setup
+    public void setup() {
+        m_waypoints = List.of(
+                new Pose2d(1.4, 5.5583, Rotation2d.fromDegrees(45)),
+                new Pose2d(2.8956, 7.0061, Rotation2d.fromDegrees(0)),
+                new Pose2d(8.271, 7.4633, Rotation2d.fromDegrees(0)));
+        m_headings = List.of(
+                Rotation2d.fromDegrees(180),
+                Rotation2d.fromDegrees(200),
+                Rotation2d.fromDegrees(180));
+        m_constraints = new TimingConstraintFactory(SwerveKinodynamicsFactory.get()).allGood();
+    }
+
+    @Benchmark
+    public Trajectory100 generateTrajectory() {
+        return TrajectoryPlanner.generateTrajectory(
+                m_waypoints,
+                m_headings,
+                m_constraints,
+                0.0,
+                0.0,
+                kMaxVelM_S,
+                kMaxAccelM_S_S);
+    }
+}
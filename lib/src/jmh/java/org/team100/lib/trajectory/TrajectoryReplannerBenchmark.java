@@ -0,0 +1,61 @@
+package org.team100.lib.trajectory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.timing.TimingConstraintFactory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * The same auto leg as TrajectoryPlannerBenchmark, planned by the replanner,
+ * with the path sampled by arc length, or by subdividing against the
+ * tolerances.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TrajectoryReplannerBenchmark {
+    private static final double kMaxVelM_S = 2;
+    private static final double kMaxAccelM_S_S = 2;
+
+    @Param({ "distance", "tolerance" })
+    public String m_sampling;
+
+    private List<Pose2d> m_waypoints;
+    private List<Rotation2d> m_headings;
+    private TrajectoryReplanner m_replanner;
+
+    @Setup
+    public void setup() {
+        m_waypoints = List.of(
+                new Pose2d(1.4, 5.5583, Rotation2d.fromDegrees(45)),
+                new Pose2d(2.8956, 7.0061, Rotation2d.fromDegrees(0)),
+                new Pose2d(8.271, 7.4633, Rotation2d.fromDegrees(0)));
+        m_headings = List.of(
+                Rotation2d.fromDegrees(180),
+                Rotation2d.fromDegrees(200),
+                Rotation2d.fromDegrees(180));
+        m_replanner = new TrajectoryReplanner(
+                new TimingConstraintFactory(SwerveKinodynamicsFactory.get()).allGood(),
+                kMaxVelM_S,
+                kMaxAccelM_S_S,
+                1.0,
+                m_sampling.equals("distance"));
+    }
+
+    @Benchmark
+    public Trajectory100 plan() {
+        return m_replanner.plan(m_waypoints, m_headings, 0.0, 0.0);
+    }
+}
@@ -13,6 +13,7 @@ import java.io.Writer;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
+import org.team100.lib.telemetry.LoopProfiler;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.util.Names;
@@ -33,6 +34,13 @@ public abstract class Command100 extends Command implements Glassy {
     private static final ScheduledExecutorService m_scheduler = Executors.newSingleThreadScheduledExecutor(
             new MaxPriorityThreads());
     protected final String m_name;
+    /**
+     * Looked up when the command is first scheduled, not in the constructor, so
+     * commands that are built and thrown away (e.g. per-button or per-replan)
+     * don't register anything. Sections are keyed by name, i.e. by class, so
+     * all the instances of a class share one.
+     */
+    private LoopProfiler.Section m_section;
 
     private double prevTime;
     private Future<?> m_task;
@@ -55,6 +63,8 @@ public abstract class Command100 extends Command implements Glassy {
     @Override
     public final void initialize() {
         t.log(Level.DEBUG, m_name, "command state", "initialize");
+        if (m_section == null)
+            m_section = LoopProfiler.get().section(m_name);
         prevTime = Timer.getFPGATimestamp();
         initialize100();
         if (Experiments.instance.enabled(Experiment.UseCommandExecutor)) {
@@ -77,7 +87,9 @@ public abstract class Command100 extends Command implements Glassy {
         double dt = now - prevTime;
         t.log(Level.DEBUG, m_name, "dt", dt);
         prevTime = now;
+        long startNs = m_section.start();
         execute100(dt);
+        m_section.stop(startNs);
     }
 
     @Override
@@ -131,7 +143,9 @@ public abstract class Command100 extends Command implements Glassy {
                 double dt = now - prevTime;
                 t.log(Level.DEBUG, m_name, "dt", dt);
                 prevTime = now;
+                long startNs = m_section.start();
                 execute100(dt);
+                m_section.stop(startNs);
             } catch (Throwable e) {
                 Util.warn(e.toString());
                 Writer writer = new StringWriter();
@@ -1,14 +1,17 @@
 package org.team100.lib.commands;
 
 import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.telemetry.LoopProfiler;
 
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 
-/** provides periodic with dt. */
+/** provides periodic with dt, and profiles it. */
 public abstract class Subsystem100 extends SubsystemBase implements Glassy {
 
     private double prevTime = Timer.getFPGATimestamp();
+    /** Made on first use, since the glass name isn't ready in the constructor. */
+    private LoopProfiler.Section m_section;
 
     public abstract void periodic100(double dt);
 
@@ -17,7 +20,11 @@ public abstract class Subsystem100 extends SubsystemBase implements Glassy {
         double now = Timer.getFPGATimestamp();
         double dt = now - prevTime;
         prevTime = now;
+        if (m_section == null)
+            m_section = LoopProfiler.get().section(getGlassName());
+        long startNs = m_section.start();
         periodic100(dt);
+        m_section.stop(startNs);
     }
 
 }
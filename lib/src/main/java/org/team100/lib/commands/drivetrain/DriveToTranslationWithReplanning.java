@@ -0,0 +1,156 @@
+package org.team100.lib.commands.drivetrain;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.team100.lib.commands.Command100;
+import org.team100.lib.controller.DrivePursuitController;
+import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
+import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.trajectory.Trajectory100;
+import org.team100.lib.trajectory.TrajectoryReplanner;
+import org.team100.lib.trajectory.TrajectoryTimeIterator;
+import org.team100.lib.trajectory.TrajectoryTimeSampler;
+import org.team100.lib.util.DriveUtil;
+import org.team100.lib.visualization.TrajectoryVisualization;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Chase a moving goal, e.g. a note from NotePosition24ArrayListener, using
+ * pure pursuit.
+ *
+ * The first plan is made when the goal is first seen. After that, whenever the
+ * goal moves, the trajectory is replanned from the current progress, so the
+ * robot keeps moving instead of stopping to plan.
+ *
+ * If an aim offset is given, the robot turns to face the goal, plus the
+ * offset, e.g. 180 degrees for an intake on the back. Otherwise, the heading
+ * stays the same as the start.
+ */
+public class DriveToTranslationWithReplanning extends Command100 {
+    /** Ignore goal movement less than this. */
+    private static final double kMinGoalMoveM = 0.05;
+    private static final Telemetry t = Telemetry.get();
+
+    private final Supplier<Optional<Translation2d>> m_goal;
+    private final SwerveDriveSubsystem m_swerve;
+    private final DrivePursuitController m_controller;
+    private final TrajectoryReplanner m_replanner;
+    private final Optional<Rotation2d> m_aimOffset;
+
+    private Translation2d m_plannedGoal;
+    private Rotation2d m_heading;
+
+    public DriveToTranslationWithReplanning(
+            Supplier<Optional<Translation2d>> goal,
+            SwerveDriveSubsystem drivetrain,
+            DrivePursuitController controller,
+            TrajectoryReplanner replanner) {
+        this(goal, drivetrain, controller, replanner, Optional.empty());
+    }
+
+    /**
+     * @param aimOffset face the goal plus this, or, if empty, keep the starting
+     *                  heading.
+     */
+    public DriveToTranslationWithReplanning(
+            Supplier<Optional<Translation2d>> goal,
+            SwerveDriveSubsystem drivetrain,
+            DrivePursuitController controller,
+            TrajectoryReplanner replanner,
+            Optional<Rotation2d> aimOffset) {
+        m_goal = goal;
+        m_swerve = drivetrain;
+        m_controller = controller;
+        m_replanner = replanner;
+        m_aimOffset = aimOffset;
+        addRequirements(m_swerve);
+    }
+
+    @Override
+    public void initialize100() {
+        m_plannedGoal = null;
+        m_heading = m_swerve.getPose().getRotation();
+    }
+
+    @Override
+    public void execute100(double dt) {
+        Optional<Translation2d> optGoal = m_goal.get();
+        if (optGoal.isPresent()) {
+            Translation2d goal = optGoal.get();
+            t.log(Level.DEBUG, m_name, "goal", goal);
+            if (m_plannedGoal == null) {
+                plan(goal);
+            } else if (goal.getDistance(m_plannedGoal) > kMinGoalMoveM) {
+                replan(goal);
+            }
+        }
+        if (m_plannedGoal == null) {
+            // nothing to follow yet.
+            m_swerve.setChassisSpeeds(new ChassisSpeeds(), dt);
+            return;
+        }
+        ChassisSpeeds output = m_controller.update(
+                Timer.getFPGATimestamp(),
+                m_swerve.getPose(),
+                m_swerve.getState().chassisSpeeds());
+        if (output == null)
+            return;
+        t.log(Level.DEBUG, m_name, "chassis speeds", output);
+        DriveUtil.checkSpeeds(output);
+        m_swerve.setChassisSpeedsNormally(output, dt);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return m_plannedGoal != null && m_controller.isDone();
+    }
+
+    @Override
+    public void end100(boolean interrupted) {
+        m_swerve.stop();
+        TrajectoryVisualization.clear();
+    }
+
+    ////////////////////////////////////////////////////
+
+    private void plan(Translation2d goal) {
+        Translation2d start = m_swerve.getPose().getTranslation();
+        Rotation2d course = goal.minus(start).getAngle();
+        Trajectory100 trajectory = m_replanner.plan(
+                List.of(new Pose2d(start, course), new Pose2d(goal, course)),
+                List.of(m_heading, goalHeading(course)),
+                0,
+                0);
+        if (trajectory.isEmpty())
+            return;
+        TrajectoryVisualization.setViz(trajectory);
+        m_controller.setTrajectory(new TrajectoryTimeIterator(new TrajectoryTimeSampler(trajectory)));
+        m_plannedGoal = goal;
+    }
+
+    private void replan(Translation2d goal) {
+        Translation2d start = m_swerve.getPose().getTranslation();
+        Rotation2d course = goal.minus(start).getAngle();
+        if (m_controller.replan(
+                m_replanner,
+                List.of(new Pose2d(goal, course)),
+                List.of(goalHeading(course)))) {
+            m_plannedGoal = goal;
+        }
+    }
+
+    /** The heading at the goal, approached along the course. */
+    private Rotation2d goalHeading(Rotation2d course) {
+        if (m_aimOffset.isEmpty())
+            return m_heading;
+        return course.plus(m_aimOffset.get());
+    }
+}
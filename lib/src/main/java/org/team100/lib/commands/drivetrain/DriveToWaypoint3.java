@@ -1,5 +1,6 @@
 package org.team100.lib.commands.drivetrain;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.team100.lib.commands.Command100;
@@ -11,6 +12,8 @@ import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeVelocity;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.timing.TimedPose;
+import org.team100.lib.timing.TimingStream;
+import org.team100.lib.timing.TimingUtil.TimingException;
 import org.team100.lib.trajectory.StraightLineTrajectory;
 import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.trajectory.TrajectorySamplePoint;
@@ -26,6 +29,11 @@ import edu.wpi.first.math.geometry.Pose2d;
  * 
  * The trajectory is supplied; the supplier is free to ignore the current state.
  * 
+ * The trajectory is timed a chunk at a time, so the robot can start moving
+ * before the whole thing is planned. Each cycle appends a chunk until the
+ * stream is done; chunks are much longer than one cycle of motion, so the
+ * follower never catches up with the end.
+ * 
  * The goal rotation is used as the setpoint the entire time, which will put
  * a lot of error into the rotational controller.
  * 
@@ -39,7 +47,11 @@ public class DriveToWaypoint3 extends Command100 {
     private final StraightLineTrajectory m_trajectories;
     private final HolonomicDriveController3 m_controller;
 
+    private Optional<TimingStream> m_stream;
+    /** Timed poses so far; each chunk is appended. */
     private Trajectory100 m_trajectory;
+    /** Null until the first chunk. */
+    private TrajectoryTimeSampler m_sampler;
     private TrajectoryTimeIterator m_iter;
 
     /**
@@ -68,18 +80,59 @@ public class DriveToWaypoint3 extends Command100 {
     @Override
     public void initialize100() {
         m_controller.reset();
-        m_trajectory = m_trajectories.apply(m_swerve.getState(), m_goal);
-        m_iter = new TrajectoryTimeIterator(
-                new TrajectoryTimeSampler(m_trajectory));
-        TrajectoryVisualization.setViz(m_trajectory);
+        m_trajectory = new Trajectory100();
+        m_sampler = null;
+        m_iter = null;
+        m_stream = m_trajectories.stream(m_swerve.getState(), m_goal);
+        if (m_stream.isEmpty()) {
+            Util.warn("no trajectory, nothing to do");
+        } else {
+            extend();
+        }
         m_steeringAligned = false;
     }
 
+    /**
+     * Time the next chunk and append it. The sampler reads only the new points,
+     * and the iterator keeps its place.
+     */
+    private void extend() {
+        try {
+            List<TimedPose> chunk = m_stream.get().next();
+            if (chunk.isEmpty())
+                return;
+            m_trajectory.append(chunk);
+        } catch (TimingException e) {
+            Util.warn("Timing exception, following what we have");
+            m_stream = Optional.empty();
+        }
+        if (m_trajectory.isEmpty())
+            return;
+        boolean first = m_iter == null;
+        if (first) {
+            m_sampler = new TrajectoryTimeSampler(m_trajectory);
+            m_iter = new TrajectoryTimeIterator(m_sampler);
+        } else {
+            m_sampler.extend();
+        }
+        // drawing is O(n), so only draw the first chunk and the whole thing.
+        if (first || streamDone())
+            TrajectoryVisualization.setViz(m_trajectory);
+    }
+
+    /** True if the trajectory is complete. */
+    private boolean streamDone() {
+        return m_stream.isEmpty() || m_stream.get().isDone();
+    }
+
     @Override
     public void execute100(double dt) {
-        if (m_trajectory == null)
+        if (m_iter == null)
             return;
 
+        if (!streamDone())
+            extend();
+
         if (m_steeringAligned) {
             Optional<TrajectorySamplePoint> optSamplePoint = m_iter.advance(dt);
             if (optSamplePoint.isEmpty()) {
@@ -129,9 +182,9 @@ public class DriveToWaypoint3 extends Command100 {
 
     @Override
     public boolean isFinished() {
-        if (m_trajectory == null)
+        if (m_iter == null)
             return true;
-        return m_iter.isDone() && m_controller.atReference();
+        return streamDone() && m_iter.isDone() && m_controller.atReference();
     }
 
     @Override
@@ -41,7 +41,7 @@ public class DriveMotionControllerFactory {
         return new DrivePIDFController(true, 2.4, 1.3);
     }
 
-    public static DriveMotionController purePursuit(SwerveKinodynamics swerveKinodynamics) {
+    public static DrivePursuitController purePursuit(SwerveKinodynamics swerveKinodynamics) {
         return new DrivePursuitController(swerveKinodynamics);
     }
 
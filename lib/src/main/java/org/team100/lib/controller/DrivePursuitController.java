@@ -1,5 +1,6 @@
 package org.team100.lib.controller;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.OptionalDouble;
 
@@ -9,8 +10,11 @@ import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.timing.TimedPose;
+import org.team100.lib.trajectory.Trajectory100;
+import org.team100.lib.trajectory.TrajectoryReplanner;
 import org.team100.lib.trajectory.TrajectorySamplePoint;
 import org.team100.lib.trajectory.TrajectoryTimeIterator;
+import org.team100.lib.trajectory.TrajectoryTimeSampler;
 import org.team100.lib.util.DriveUtil;
 import org.team100.lib.util.Math100;
 import org.team100.lib.util.Names;
@@ -86,6 +90,35 @@ public class DrivePursuitController implements DriveMotionController {
                 m_limits.getMaxDriveVelocityM_S());
     }
 
+    /**
+     * Real-time replanning: replan from the current progress to the waypoints,
+     * e.g. when the goal moves, and keep following the spliced trajectory from
+     * the same progress. Unlike setTrajectory(), this doesn't reset the min
+     * speed, so there's no stop-and-plan stutter. The replanner has a time
+     * budget, so this can be called every loop.
+     * 
+     * @param waypoints the rest of the waypoints, not including the start.
+     * @return true if the trajectory was replaced.
+     */
+    public boolean replan(
+            TrajectoryReplanner replanner,
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings) {
+        if (m_iter == null)
+            return false;
+        double progress = m_iter.getProgress();
+        Optional<Trajectory100> replanned = replanner.replan(
+                m_iter.trajectory(), progress, waypoints, headings, 0);
+        if (replanned.isEmpty()) {
+            t.log(Level.DEBUG, m_name, "replanned", false);
+            return false;
+        }
+        t.log(Level.DEBUG, m_name, "replanned", true);
+        m_iter = new TrajectoryTimeIterator(new TrajectoryTimeSampler(replanned.get()));
+        m_iter.advance(progress - m_iter.getProgress());
+        return true;
+    }
+
     /**
      * 
      * @param timestamp        ignored
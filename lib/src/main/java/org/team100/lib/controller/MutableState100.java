@@ -0,0 +1,60 @@
+package org.team100.lib.controller;
+
+/**
+ * A State100 that can be overwritten in place.
+ * 
+ * Owners keep one of these and reuse it every cycle, so the control loop
+ * doesn't allocate. Don't hand it to anyone who might keep it: use copy() for
+ * that.
+ */
+public class MutableState100 extends State100 {
+    private double m_x;
+    private double m_v;
+    private double m_a;
+
+    public MutableState100(double x, double v, double a) {
+        set(x, v, a);
+    }
+
+    public MutableState100(double x, double v) {
+        this(x, v, 0);
+    }
+
+    public MutableState100() {
+        this(0, 0, 0);
+    }
+
+    public void set(double x, double v, double a) {
+        m_x = x;
+        m_v = v;
+        m_a = a;
+    }
+
+    public void set(double x, double v) {
+        set(x, v, 0);
+    }
+
+    public void set(State100 other) {
+        set(other.x(), other.v(), other.a());
+    }
+
+    /** An immutable snapshot. */
+    public State100 copy() {
+        return new State100(m_x, m_v, m_a);
+    }
+
+    @Override
+    public double x() {
+        return m_x;
+    }
+
+    @Override
+    public double v() {
+        return m_v;
+    }
+
+    @Override
+    public double a() {
+        return m_a;
+    }
+}
@@ -11,6 +11,11 @@ import edu.wpi.first.math.MathUtil;
  * 
  * The usual state-space representation would be X = (x,v) and Xdot = (v,a).
  * Units are meters, radians, and seconds.
+ * 
+ * A State100 may be a MutableState100, which its owner overwrites every
+ * cycle, so if you keep one you didn't create, keep a copy (see
+ * MutableState100.copy()). Comparisons go through the accessors so the two
+ * kinds compare equal.
  */
 public class State100 {
     private final double m_x;
@@ -32,6 +37,8 @@ public class State100 {
         this(0, 0, 0);
     }
 
+    public static final State100Struct struct = new State100Struct();
+
     public double x() {
         return m_x;
     }
@@ -45,19 +52,19 @@ public class State100 {
     }
 
     public boolean near(State100 other, double tolerance) {
-        return MathUtil.isNear(m_x, other.m_x, tolerance) &&
-                MathUtil.isNear(m_v, other.m_v, tolerance);
+        return MathUtil.isNear(x(), other.x(), tolerance) &&
+                MathUtil.isNear(v(), other.v(), tolerance);
     }
 
     public String toString() {
-        return String.format("State100(X: %5.3f, V: %5.3f, A: %5.3f)", m_x, m_v, m_a);
+        return String.format("State100(X: %5.3f, V: %5.3f, A: %5.3f)", x(), v(), a());
     }
 
     @Override
     public boolean equals(Object other) {
         if (other instanceof State100) {
             State100 rhs = (State100) other;
-            return this.m_x == rhs.m_x && this.m_v == rhs.m_v;
+            return this.x() == rhs.x() && this.v() == rhs.v();
         } else {
             return false;
         }
@@ -65,7 +72,7 @@ public class State100 {
 
     @Override
     public int hashCode() {
-        return Objects.hash(m_x, m_v);
+        return Objects.hash(x(), v());
     }
 
 }
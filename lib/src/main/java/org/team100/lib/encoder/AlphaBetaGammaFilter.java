@@ -0,0 +1,98 @@
+package org.team100.lib.encoder;
+
+/**
+ * Constant-acceleration tracking filter, i.e. the steady-state Kalman filter
+ * for position, velocity, and acceleration, with the critically-damped
+ * ("fading memory") gains, so there's just one knob: the time constant.
+ *
+ * Each update predicts the state forward by dt, and corrects it with the
+ * residual, weighted by alpha, beta, and gamma, which all derive from
+ * theta = exp(-dt/tau). A longer time constant means less noise and more lag.
+ * There's no steady-state error for constant acceleration, and the lag for a
+ * step change in acceleration decays in a few time constants.
+ *
+ * The gains depend on dt, so jitter in the sampling is fine. They're cached,
+ * since dt is usually the same every time.
+ *
+ * See Brookner, "Tracking and Kalman Filtering Made Easy," section 1.3.
+ */
+public class AlphaBetaGammaFilter implements RateEstimator {
+    private final double m_tauS;
+
+    private boolean m_initialized;
+    private double m_timeS;
+    private double m_position;
+    private double m_velocity;
+    private double m_acceleration;
+
+    // cached gains for the most recent dt
+    private double m_dt;
+    private double m_alpha;
+    private double m_beta;
+    private double m_gamma;
+
+    /**
+     * @param tauS time constant, seconds. About 0.03 works well for absolute
+     *             steering encoders at 50 to 250 Hz.
+     */
+    public AlphaBetaGammaFilter(double tauS) {
+        if (tauS <= 0)
+            throw new IllegalArgumentException("time constant must be positive");
+        m_tauS = tauS;
+    }
+
+    @Override
+    public void update(double position, double timeS) {
+        if (!m_initialized) {
+            m_initialized = true;
+            m_timeS = timeS;
+            m_position = position;
+            m_velocity = 0;
+            m_acceleration = 0;
+            return;
+        }
+        double dt = timeS - m_timeS;
+        if (dt <= 0)
+            return;
+        if (dt != m_dt)
+            gains(dt);
+        double predictedPosition = m_position + m_velocity * dt + 0.5 * m_acceleration * dt * dt;
+        double predictedVelocity = m_velocity + m_acceleration * dt;
+        double residual = position - predictedPosition;
+        m_position = predictedPosition + m_alpha * residual;
+        m_velocity = predictedVelocity + m_beta * residual / dt;
+        m_acceleration = m_acceleration + 2 * m_gamma * residual / (dt * dt);
+        m_timeS = timeS;
+    }
+
+    @Override
+    public double getPosition() {
+        return m_position;
+    }
+
+    @Override
+    public double getVelocity() {
+        return m_velocity;
+    }
+
+    @Override
+    public double getAcceleration() {
+        return m_acceleration;
+    }
+
+    @Override
+    public void reset() {
+        m_initialized = false;
+    }
+
+    ////////////////////////////////////////
+
+    private void gains(double dt) {
+        double theta = Math.exp(-dt / m_tauS);
+        double oneMinus = 1 - theta;
+        m_dt = dt;
+        m_alpha = 1 - theta * theta * theta;
+        m_beta = 1.5 * oneMinus * oneMinus * (1 + theta);
+        m_gamma = 0.5 * oneMinus * oneMinus * oneMinus;
+    }
+}
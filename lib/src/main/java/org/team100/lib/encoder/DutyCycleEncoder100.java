@@ -16,27 +16,38 @@ public class DutyCycleEncoder100 implements Encoder100<Distance100> {
     private final String m_name;
     public final DutyCycleEncoder m_encoder;
 
-    private Double prevAngle = null;
-    private Double prevTime = null;
+    private final RateEstimator m_rateEstimator;
 
     private boolean m_reversed;
 
+    /** Uses finite difference for the rate. */
+    public DutyCycleEncoder100(
+            String name,
+            int channel,
+            double inputOffset,
+            boolean reversed) {
+        this(name, channel, inputOffset, reversed, new FiniteDifference());
+    }
+
     /**
-     * @param name        may not start with a slash
-     * @param channel     roboRIO analog input channel
-     * @param inputOffset unit = turns, i.e. [0,1] subtracted from the raw
-     *                    measurement
-     * @param reversed    polarity
+     * @param name          may not start with a slash
+     * @param channel       roboRIO analog input channel
+     * @param inputOffset   unit = turns, i.e. [0,1] subtracted from the raw
+     *                      measurement
+     * @param reversed      polarity
+     * @param rateEstimator for the rate, updated by sample()
      */
     public DutyCycleEncoder100(
             String name,
             int channel,
             double inputOffset,
-            boolean reversed) {
+            boolean reversed,
+            RateEstimator rateEstimator) {
         if (name.startsWith("/"))
             throw new IllegalArgumentException();
 
         m_reversed = reversed;
+        m_rateEstimator = rateEstimator;
         m_name = Names.append(name, this);
         m_encoder = new DutyCycleEncoder(channel);
         m_encoder.setPositionOffset(inputOffset);
@@ -46,31 +57,36 @@ public class DutyCycleEncoder100 implements Encoder100<Distance100> {
 
     @Override
     public Double getPosition() {
-
         if (!m_encoder.isConnected()) {
             return null;
         }
-        if (m_reversed) {
-            return -(m_encoder.getAbsolutePosition() - m_encoder.getPositionOffset())
-                    * m_encoder.getDistancePerRotation();
+        return getAbsolutePosition();
+    }
+
+    /** Also updates the rate estimator. Invalid if the PWM signal is missing. */
+    @Override
+    public synchronized void sample(EncoderSample out) {
+        double time = Timer.getFPGATimestamp();
+        if (!m_encoder.isConnected()) {
+            // the next good reading shouldn't make a rate spike.
+            m_rateEstimator.reset();
+            out.invalidate(time);
+            return;
         }
-        return (m_encoder.getAbsolutePosition() - m_encoder.getPositionOffset()) * m_encoder.getDistancePerRotation();
+        out.set(getAbsolutePosition(), getRateRad_S(getPositionRad(), time), time);
     }
 
     /**
-     * Current rate in rad/s.
-     * 
-     * This is simply the backward finite difference over one time step.
-     * 
-     * As such, it is likely to be very noisy.
-     * 
-     * Use a simple filter if you want a lagged, smoother measurement.
+     * Rate in rad/s, as of the most recent sample(), which is the only thing
+     * that updates the estimator, so reading it doesn't change it.
      * 
-     * Use a Kalman filter if you can, to reduce the lag.
+     * By default this is the backward finite difference over one time step, so
+     * it is likely to be very noisy; use AlphaBetaGammaFilter for a smoother
+     * measurement with a little lag.
      */
     @Override
-    public double getRate() {
-        return getRateRad_S();
+    public synchronized double getRate() {
+        return m_rateEstimator.getVelocity();
     }
 
     @Override
@@ -97,21 +113,16 @@ public class DutyCycleEncoder100 implements Encoder100<Distance100> {
         return m_encoder.getDistance();
     }
 
-    /** finite difference == noise! */
-    private double getRateRad_S() {
-        double angle = getPositionRad();
-        double time = Timer.getFPGATimestamp();
-        if (prevAngle == null) {
-            prevAngle = angle;
-            prevTime = time;
-            return 0;
+    private double getAbsolutePosition() {
+        if (m_reversed) {
+            return -(m_encoder.getAbsolutePosition() - m_encoder.getPositionOffset())
+                    * m_encoder.getDistancePerRotation();
         }
-        double dx = angle - prevAngle;
-        double dt = time - prevTime;
-
-        prevAngle = angle;
-        prevTime = time;
+        return (m_encoder.getAbsolutePosition() - m_encoder.getPositionOffset()) * m_encoder.getDistancePerRotation();
+    }
 
-        return dx / dt;
+    private double getRateRad_S(double angle, double time) {
+        m_rateEstimator.update(angle, time);
+        return m_rateEstimator.getVelocity();
     }
 }
@@ -3,6 +3,8 @@ package org.team100.lib.encoder;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.units.Measure100;
 
+import edu.wpi.first.wpilibj.Timer;
+
 /**
  * Used for both angle and length.
  * 
@@ -16,6 +18,8 @@ public interface Encoder100<T extends Measure100> extends Glassy {
      * Distance is meters
      * Angle measure is counterclockwise-positive rad, and accumulates
      * turns; use MathUtil.AngleModulus if you want.
+     * 
+     * Null if the sensor is disconnected. Prefer sample(), which doesn't box.
      */
     Double getPosition();
 
@@ -28,6 +32,23 @@ public interface Encoder100<T extends Measure100> extends Glassy {
      */
     double getRate();
 
+    /**
+     * Position, rate, and time, written into the caller's sample, without
+     * allocating. If the sensor is disconnected, the sample is marked invalid.
+     * 
+     * The default just calls getPosition() and getRate(), which boxes;
+     * implementations on the control path should override it.
+     */
+    default void sample(EncoderSample out) {
+        double timeS = Timer.getFPGATimestamp();
+        Double position = getPosition();
+        if (position == null) {
+            out.invalidate(timeS);
+            return;
+        }
+        out.set(position, getRate(), timeS);
+    }
+
     /**
      * Resets position to zero
      */
@@ -0,0 +1,9 @@
+package org.team100.lib.encoder;
+
+/** How an encoder estimates its rate, chosen for each encoder. */
+public enum EncoderRate {
+    /** Backward finite difference over one time step: no lag, but very noisy. */
+    FINITE_DIFFERENCE,
+    /** Tracking filter, see AlphaBetaGammaFilter: smoother, with a little lag. */
+    FILTERED
+}
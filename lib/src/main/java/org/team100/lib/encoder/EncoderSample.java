@@ -0,0 +1,58 @@
+package org.team100.lib.encoder;
+
+/**
+ * One reading of an Encoder100: position, rate, and the time it was taken.
+ *
+ * The caller owns this and reuses it, so reading doesn't allocate.
+ *
+ * If the sensor is disconnected, valid() is false, and the position and rate
+ * keep their last valid values, so callers that ignore validity get something
+ * stale rather than something crazy.
+ */
+public class EncoderSample {
+    private double m_position;
+    private double m_rate;
+    private double m_timeS;
+    private boolean m_valid;
+
+    /** A good reading. */
+    public void set(double position, double rate, double timeS) {
+        m_position = position;
+        m_rate = rate;
+        m_timeS = timeS;
+        m_valid = true;
+    }
+
+    /** No reading was possible at this time. */
+    public void invalidate(double timeS) {
+        m_timeS = timeS;
+        m_valid = false;
+    }
+
+    /** Meters, or radians accumulating turns, see Encoder100.getPosition(). */
+    public double position() {
+        return m_position;
+    }
+
+    /** Meters per second, or radians per second. */
+    public double rate() {
+        return m_rate;
+    }
+
+    /** FPGA time of the reading, in seconds. */
+    public double timeS() {
+        return m_timeS;
+    }
+
+    public boolean valid() {
+        return m_valid;
+    }
+
+    @Override
+    public String toString() {
+        return "EncoderSample [position=" + m_position
+                + ", rate=" + m_rate
+                + ", timeS=" + m_timeS
+                + ", valid=" + m_valid + "]";
+    }
+}
@@ -0,0 +1,55 @@
+package org.team100.lib.encoder;
+
+/**
+ * Backward difference over one time step.
+ *
+ * No lag to speak of, but very noisy: the velocity noise is the position noise
+ * times sqrt(2)/dt, which gets worse as the sampling gets faster.
+ */
+public class FiniteDifference implements RateEstimator {
+    private boolean m_initialized;
+    private double m_timeS;
+    private double m_position;
+    private double m_velocity;
+    private double m_acceleration;
+
+    @Override
+    public void update(double position, double timeS) {
+        if (!m_initialized) {
+            m_initialized = true;
+            m_timeS = timeS;
+            m_position = position;
+            m_velocity = 0;
+            m_acceleration = 0;
+            return;
+        }
+        double dt = timeS - m_timeS;
+        if (dt <= 0)
+            return;
+        double velocity = (position - m_position) / dt;
+        m_acceleration = (velocity - m_velocity) / dt;
+        m_velocity = velocity;
+        m_position = position;
+        m_timeS = timeS;
+    }
+
+    @Override
+    public double getPosition() {
+        return m_position;
+    }
+
+    @Override
+    public double getVelocity() {
+        return m_velocity;
+    }
+
+    @Override
+    public double getAcceleration() {
+        return m_acceleration;
+    }
+
+    @Override
+    public void reset() {
+        m_initialized = false;
+    }
+}
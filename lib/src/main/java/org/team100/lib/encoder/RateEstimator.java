@@ -0,0 +1,28 @@
+package org.team100.lib.encoder;
+
+/**
+ * Estimates velocity and acceleration from a stream of position measurements.
+ *
+ * Each encoder that needs a rate owns one of these. Only the encoder's
+ * sample(), which the servo calls once per control cycle, updates it; getRate()
+ * just reads the latest estimate, so other readers don't change the time step.
+ * Implementations keep their state in primitive fields, so updating doesn't
+ * allocate.
+ */
+public interface RateEstimator {
+    /**
+     * Incorporate a position measurement. The first measurement after reset()
+     * just initializes the state, with zero velocity. Measurements that aren't
+     * later than the previous one are ignored.
+     */
+    void update(double position, double timeS);
+
+    double getPosition();
+
+    double getVelocity();
+
+    double getAcceleration();
+
+    /** Forget everything, e.g. after a disconnect. */
+    void reset();
+}
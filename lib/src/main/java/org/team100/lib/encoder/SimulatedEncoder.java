@@ -51,14 +51,12 @@ public class SimulatedEncoder<T extends Measure100> implements Encoder100<T> {
 
     @Override
     public Double getPosition() {
-        double now = Timer.getFPGATimestamp();
-        double dt = now - m_time;
-        double m_rate = m_motor.getVelocity() / m_reduction;
-        m_position += m_rate * dt;
-        m_position = MathUtil.clamp(m_position, m_lowerLimit, m_upperLimit);
-        m_time = now;
-        t.log(Level.TRACE, m_name, "position", m_position);
-        return m_position;
+        return integratePosition();
+    }
+
+    @Override
+    public void sample(EncoderSample out) {
+        out.set(integratePosition(), getRate(), m_time);
     }
 
     @Override
@@ -78,4 +76,17 @@ public class SimulatedEncoder<T extends Measure100> implements Encoder100<T> {
     public void close() {
         //
     }
+
+    ///////////////////////////////////////
+
+    private double integratePosition() {
+        double now = Timer.getFPGATimestamp();
+        double dt = now - m_time;
+        double m_rate = m_motor.getVelocity() / m_reduction;
+        m_position += m_rate * dt;
+        m_position = MathUtil.clamp(m_position, m_lowerLimit, m_upperLimit);
+        m_time = now;
+        t.log(Level.TRACE, m_name, "position", m_position);
+        return m_position;
+    }
 }
@@ -1,12 +1,15 @@
 package org.team100.lib.encoder.drive;
 
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
 import org.team100.lib.motor.drive.NeoDriveMotor;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.units.Distance100;
 import org.team100.lib.util.Names;
 
+import edu.wpi.first.wpilibj.Timer;
+
 /**
  * The built-in encoder in Neo motors.
  * 
@@ -46,6 +49,12 @@ public class NeoDriveEncoder implements Encoder100<Distance100> {
         return getVelocityM_S();
     }
 
+    /** The built-in encoder can't be disconnected, so this is always valid. */
+    @Override
+    public void sample(EncoderSample out) {
+        out.set(getPositionM(), getVelocityM_S(), Timer.getFPGATimestamp());
+    }
+
     @Override
     public void reset() {
         m_motor.resetPosition();
@@ -1,6 +1,9 @@
 package org.team100.lib.encoder.turning;
 
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
+import org.team100.lib.encoder.FiniteDifference;
+import org.team100.lib.encoder.RateEstimator;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.units.Angle100;
@@ -19,26 +22,38 @@ public class AnalogTurningEncoder implements Encoder100<Angle100> {
     private final AnalogInput m_input;
     private final AnalogEncoder m_encoder;
 
-    private Double prevAngle = null;
-    private Double prevTime = null;
+    private final RateEstimator m_rateEstimator;
+
+    /** Uses finite difference for the rate. */
+    public AnalogTurningEncoder(
+            String name,
+            int channel,
+            double inputOffset,
+            double gearRatio,
+            Drive drive) {
+        this(name, channel, inputOffset, gearRatio, drive, new FiniteDifference());
+    }
 
     /**
-     * @param name        may not start with a slash
-     * @param channel     roboRIO analog input channel
-     * @param inputOffset unit = turns, i.e. [0,1] subtracted from the raw
-     *                    measurement
+     * @param name          may not start with a slash
+     * @param channel       roboRIO analog input channel
+     * @param inputOffset   unit = turns, i.e. [0,1] subtracted from the raw
+     *                      measurement
      * @param gearRatio
-     * @param drive       polarity
+     * @param drive         polarity
+     * @param rateEstimator for the rate, updated by sample()
      */
     public AnalogTurningEncoder(
             String name,
             int channel,
             double inputOffset,
             double gearRatio,
-            Drive drive) {
+            Drive drive,
+            RateEstimator rateEstimator) {
         if (name.startsWith("/"))
             throw new IllegalArgumentException();
         m_name = Names.append(name, this);
+        m_rateEstimator = rateEstimator;
         m_input = new AnalogInput(channel);
         m_encoder = new AnalogEncoder(m_input);
         m_encoder.setPositionOffset(inputOffset);
@@ -59,19 +74,27 @@ public class AnalogTurningEncoder implements Encoder100<Angle100> {
     }
 
     /**
-     * Current rate in rad/s.
-     * 
-     * This is simply the backward finite difference over one time step.
-     * 
-     * As such, it is likely to be very noisy.
+     * Rate in rad/s, as of the most recent sample(), which is the only thing
+     * that updates the estimator, so reading it doesn't change it.
      * 
-     * Use a simple filter if you want a lagged, smoother measurement.
-     * 
-     * Use a Kalman filter if you can, to reduce the lag.
+     * By default this is the backward finite difference over one time step, so
+     * it is likely to be very noisy; use AlphaBetaGammaFilter for a smoother
+     * measurement with a little lag.
      */
     @Override
-    public double getRate() {
-        return getRateRad_S();
+    public synchronized double getRate() {
+        return m_rateEstimator.getVelocity();
+    }
+
+    /**
+     * Also updates the rate estimator. The analog input has no way to detect
+     * disconnection, so this is always valid.
+     */
+    @Override
+    public synchronized void sample(EncoderSample out) {
+        double angle = getPositionRad();
+        double time = Timer.getFPGATimestamp();
+        out.set(angle, getRateRad_S(angle, time), time);
     }
 
     @Override
@@ -101,26 +124,9 @@ public class AnalogTurningEncoder implements Encoder100<Angle100> {
         return positionRad;
     }
 
-    /**
-     * This is *just* the discrete difference looking back one time period, so it
-     * will be very noisy.
-     */
-    private double getRateRad_S() {
-
-        double angle = getPositionRad();
-        double time = Timer.getFPGATimestamp();
-        if (prevAngle == null) {
-            prevAngle = angle;
-            prevTime = time;
-            return 0;
-        }
-        double dx = angle - prevAngle;
-        double dt = time - prevTime;
-
-        prevAngle = angle;
-        prevTime = time;
-
-        double rateRad_S = dx / dt;
+    private double getRateRad_S(double angle, double time) {
+        m_rateEstimator.update(angle, time);
+        double rateRad_S = m_rateEstimator.getVelocity();
         t.log(Level.DEBUG, m_name, "rate (rad)s)", rateRad_S);
         return rateRad_S;
     }
@@ -1,6 +1,9 @@
 package org.team100.lib.encoder.turning;
 
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
+import org.team100.lib.encoder.FiniteDifference;
+import org.team100.lib.encoder.RateEstimator;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.units.Angle100;
@@ -22,18 +25,32 @@ public class DutyCycleTurningEncoder implements Encoder100<Angle100> {
     private final DutyCycleEncoder m_encoder;
     private final String m_name;
 
-    private Double prevAngle = null;
-    private Double prevTime = null;
+    private final RateEstimator m_rateEstimator;
 
+    /** Uses finite difference for the rate. */
     public DutyCycleTurningEncoder(
             String name,
             int channel,
             double inputOffset,
             double gearRatio,
             Drive drive) {
+        this(name, channel, inputOffset, gearRatio, drive, new FiniteDifference());
+    }
+
+    /**
+     * @param rateEstimator for the rate, updated by sample()
+     */
+    public DutyCycleTurningEncoder(
+            String name,
+            int channel,
+            double inputOffset,
+            double gearRatio,
+            Drive drive,
+            RateEstimator rateEstimator) {
         if (name.startsWith("/"))
             throw new IllegalArgumentException();
         m_name = Names.append(name, this);
+        m_rateEstimator = rateEstimator;
         m_encoder = new DutyCycleEncoder(channel);
         m_encoder.setPositionOffset(inputOffset);
         switch (drive) {
@@ -53,9 +70,27 @@ public class DutyCycleTurningEncoder implements Encoder100<Angle100> {
         return getPositionRad();
     }
 
+    /**
+     * Rate in rad/s, as of the most recent sample(), which is the only thing
+     * that updates the estimator, so reading it doesn't change it.
+     */
+    @Override
+    public synchronized double getRate() {
+        return m_rateEstimator.getVelocity();
+    }
+
+    /** Also updates the rate estimator. Invalid if the PWM signal is missing. */
     @Override
-    public double getRate() {
-        return getRateRad_S();
+    public synchronized void sample(EncoderSample out) {
+        double time = Timer.getFPGATimestamp();
+        if (!m_encoder.isConnected()) {
+            // the next good reading shouldn't make a rate spike.
+            m_rateEstimator.reset();
+            out.invalidate(time);
+            return;
+        }
+        double angle = getPositionRad();
+        out.set(angle, getRateRad_S(angle, time), time);
     }
 
     @Override
@@ -82,22 +117,9 @@ public class DutyCycleTurningEncoder implements Encoder100<Angle100> {
         return positionRad;
     }
 
-    /** this is just finite difference over one time step. noisy! */
-    private double getRateRad_S() {
-        double angle = getPositionRad();
-        double time = Timer.getFPGATimestamp();
-        if (prevAngle == null) {
-            prevAngle = angle;
-            prevTime = time;
-            return 0;
-        }
-        double dx = angle - prevAngle;
-        double dt = time - prevTime;
-
-        prevAngle = angle;
-        prevTime = time;
-
-        double rateRad_S = dx / dt;
+    private double getRateRad_S(double angle, double time) {
+        m_rateEstimator.update(angle, time);
+        double rateRad_S = m_rateEstimator.getVelocity();
         t.log(Level.DEBUG, m_name, "rate (rad_s)", rateRad_S);
         return rateRad_S;
     }
@@ -1,12 +1,15 @@
 package org.team100.lib.encoder.turning;
 
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
 import org.team100.lib.motor.turning.NeoTurningMotor;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.units.Angle100;
 import org.team100.lib.util.Names;
 
+import edu.wpi.first.wpilibj.Timer;
+
 /**
  * The built-in encoder in Neo motors.
  * 
@@ -47,6 +50,12 @@ public class NeoTurningEncoder implements Encoder100<Angle100> {
         return getRateRad_S();
     }
 
+    /** The built-in encoder can't be disconnected, so this is always valid. */
+    @Override
+    public void sample(EncoderSample out) {
+        out.set(getPositionRad(), getRateRad_S(), Timer.getFPGATimestamp());
+    }
+
     @Override
     public void reset() {
         m_motor.resetPosition();
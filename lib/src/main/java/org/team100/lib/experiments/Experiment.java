@@ -79,5 +79,25 @@ public enum Experiment {
     /**
      * Periodically publish all tag poses to all cameras
      */
-    UseCameraUpdater
+    UseCameraUpdater,
+    /**
+     * Publish primitive telemetry handles from a low-priority thread, via a
+     * ring buffer, instead of on the caller's thread.
+     */
+    AsyncTelemetry,
+    /**
+     * Decode and use camera input on a dedicated thread, instead of on the NT
+     * listener thread.
+     */
+    VisionWorker,
+    /**
+     * Sample the modules and gyro on a dedicated thread, at 250 Hz, and drain
+     * the samples into the pose estimator.
+     */
+    OdometryThread,
+    /**
+     * Chase notes with pure pursuit, replanning as the note moves, instead of
+     * with a profile.
+     */
+    ReplanNoteChase
 }
@@ -148,6 +148,11 @@ public class Pose2dWithMotion {
         return GeometryUtil.getCourse(m_fieldRelativeMotionDirection);
     }
 
+    /** False if motionless, i.e. if getCourse() would be empty. */
+    public boolean hasCourse() {
+        return GeometryUtil.norm(m_fieldRelativeMotionDirection) > 1e-12;
+    }
+
     /**
      * Heading rate is radians per meter.
      * 
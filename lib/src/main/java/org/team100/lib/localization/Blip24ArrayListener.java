@@ -2,6 +2,7 @@ package org.team100.lib.localization;
 
 import java.util.EnumSet;
 
+import org.team100.lib.telemetry.LoopProfiler;
 import org.team100.lib.util.Util;
 
 import edu.wpi.first.networktables.NetworkTableEvent;
@@ -52,6 +53,6 @@ public class Blip24ArrayListener {
         NetworkTableInstance.getDefault().addListener(
                 new String[] { "vision" },
                 EnumSet.of(NetworkTableEvent.Kind.kValueAll),
-                this::consumeValues);
+                LoopProfiler.get().wrap("Blip24ArrayListener", this::consumeValues));
     }
 }
@@ -4,10 +4,14 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.team100.lib.config.Camera;
 import org.team100.lib.config.Identity;
 import org.team100.lib.config.SimulatedCamera;
+import org.team100.lib.experiments.Experiment;
+import org.team100.lib.experiments.Experiments;
+import org.team100.lib.telemetry.LoopProfiler;
 import org.team100.lib.util.NotePicker;
 import org.team100.lib.util.Util;
 
@@ -23,21 +27,52 @@ import edu.wpi.first.networktables.ValueEventData;
 import edu.wpi.first.util.struct.StructBuffer;
 import edu.wpi.first.wpilibj.Timer;
 
-/** For testing the NotePosition struct array */
+/**
+ * For testing the NotePosition struct array.
+ * 
+ * With the VisionWorker experiment, decoding runs on a worker thread, like
+ * VisionDataProvider24, and the results are read from the main loop.
+ */
 public class NotePosition24ArrayListener {
+    /** Notes change slowly; just keep the latest couple of frames. */
+    private static final int kQueueCapacity = 2;
+
     private StructBuffer<Rotation3d> m_buf = StructBuffer.create(Rotation3d.struct);
-    private Optional<List<Translation2d>> notes = Optional.empty();
+    private volatile Optional<List<Translation2d>> notes = Optional.empty();
     private final SwerveDrivePoseEstimator100 m_poseEstimator;
-    private double latestTime = 0;
+    private final int m_workerPriority;
+    private volatile double latestTime = 0;
 
     public NotePosition24ArrayListener(SwerveDrivePoseEstimator100 poseEstimator) {
+        this(poseEstimator, VisionDataProvider24.kDefaultWorkerPriority);
+    }
+
+    /**
+     * @param poseEstimator
+     * @param workerPriority for the worker thread, if that experiment is enabled;
+     *                       see Thread.setPriority()
+     */
+    public NotePosition24ArrayListener(SwerveDrivePoseEstimator100 poseEstimator, int workerPriority) {
         m_poseEstimator = poseEstimator;
+        m_workerPriority = workerPriority;
     }
 
     void consumeValues(NetworkTableEvent e) {
         ValueEventData ve = e.valueData;
         NetworkTableValue v = ve.value;
-        String name = ve.getTopic().getName();
+        if (!v.isRaw()) {
+            // FPS and latency are not used by the robot
+            return;
+        }
+        consume(ve.getTopic().getName(), v.getRaw(), v.getTime());
+    }
+
+    /**
+     * Decode one raw value. Runs on the NT listener thread or on the worker.
+     * 
+     * @param receivedUs NT arrival time, which is the FPGA time on the RoboRIO
+     */
+    void consume(String name, byte[] b, long receivedUs) {
         String[] fields = name.split("/");
         if (fields.length != 3) {
             return;
@@ -48,7 +83,6 @@ public class NotePosition24ArrayListener {
             // latency is not used by the robot
         } else if (fields[2].equals("Rotation3d")) {
             // decode the way StructArrayEntryImpl does
-            byte[] b = v.getRaw();
             if (b.length == 0) {
                 return;
             }
@@ -56,7 +90,6 @@ public class NotePosition24ArrayListener {
             try {
                 synchronized (m_buf) {
                     positions = m_buf.readArray(b);
-                    latestTime = Timer.getFPGATimestamp();
                 }
             } catch (RuntimeException ex) {
                 return;
@@ -67,6 +100,7 @@ public class NotePosition24ArrayListener {
                             m_poseEstimator.getEstimatedPosition().pose(),
                             cameraInRobotCoordinates,
                             positions));
+            latestTime = receivedUs * 1e-6;
         } else {
             Util.warn("note weird vision update key: " + name);
         }
@@ -117,9 +151,16 @@ public class NotePosition24ArrayListener {
         inst.startServer();
         MultiSubscriber sub = new MultiSubscriber(inst, new String[] { "noteVision" },
                 PubSubOption.keepDuplicates(true));
+        Consumer<NetworkTableEvent> listener = this::consumeValues;
+        if (Experiments.instance.enabled(Experiment.VisionWorker)) {
+            VisionWorker worker = new VisionWorker(
+                    "NotePosition24ArrayListener", kQueueCapacity, m_workerPriority, this::consume);
+            worker.start();
+            listener = worker::accept;
+        }
         inst.addListener(
                 sub,
                 EnumSet.of(NetworkTableEvent.Kind.kValueAll),
-                this::consumeValues);
+                LoopProfiler.get().wrap("NotePosition24ArrayListener", listener));
     }
 }
\ No newline at end of file
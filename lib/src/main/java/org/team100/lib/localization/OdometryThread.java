@@ -0,0 +1,218 @@
+package org.team100.lib.localization;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleSupplier;
+
+import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.motion.drivetrain.module.SwerveModuleCollection;
+import org.team100.lib.motor.Phoenix100;
+import org.team100.lib.sensors.HeadingInterface;
+import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
+import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.LongLogger;
+import org.team100.lib.util.Util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Samples odometry, i.e. all the module positions and the gyro, on a dedicated
+ * thread, faster than the main loop, e.g. at 250 Hz.
+ *
+ * Each sample is one timestamped batch, so the positions and the gyro are
+ * aligned in time. Samples go into a lock-free queue, which
+ * SwerveDrivePoseEstimator100 drains, in order, once per loop. If the queue is
+ * full, the newest sample is dropped; since positions are absolute, not
+ * deltas, a dropped sample just means a little less resolution.
+ *
+ * The pace is set by the Sync: on real hardware, it waits for fresh drive
+ * position frames from the Talons (see Phoenix100.odometrySignals()), so each
+ * sample is taken right after the CAN data arrives.
+ *
+ * This thread never touches anything the main loop uses. The drive positions
+ * come from separate copies of the Talon position signals, which only this
+ * thread refreshes, and the steering angles come straight from the encoders,
+ * bypassing the servos and their rate estimators (see
+ * SwerveModuleCollection.odometryPositions()). The gyro is a NavX, which the
+ * vendor library updates on its own thread, so reading the yaw doesn't change
+ * anything.
+ *
+ * The simulated modules and gyro aren't thread-safe, so in simulation and in
+ * tests, don't start the thread, call sampleOnce() instead.
+ */
+public class OdometryThread implements Glassy {
+    /** One batch of measurements, all taken at about the same time. */
+    public record Sample(double timeS, Rotation2d gyroAngle, SwerveModulePosition[] positions) {
+    }
+
+    /** Waits until it's time for the next sample. */
+    public interface Sync {
+        void await() throws InterruptedException;
+    }
+
+    private final Telemetry t = Telemetry.get();
+    private final String m_name;
+    private final SwerveModuleCollection m_modules;
+    private final HeadingInterface m_heading;
+    private final Sync m_sync;
+    private final DoubleSupplier m_clock;
+    private final int m_capacity;
+    private final Queue<Sample> m_queue;
+    private final AtomicInteger m_size;
+    private final AtomicLong m_drops;
+
+    // LOGGERS
+    private final LongLogger m_log_drops;
+    private final DoubleLogger m_log_sample;
+
+    /**
+     * @param sync     paces the sampling, see periodic() and phoenix().
+     * @param clock    timestamps in seconds, e.g. Timer::getFPGATimestamp.
+     * @param capacity queue size, which should cover a few main loops.
+     */
+    public OdometryThread(
+            String parent,
+            SwerveModuleCollection modules,
+            HeadingInterface heading,
+            Sync sync,
+            DoubleSupplier clock,
+            int capacity) {
+        if (!modules.hasOdometryPositions())
+            throw new IllegalArgumentException("modules can't be sampled on another thread");
+        m_name = parent + "/" + getGlassName();
+        m_modules = modules;
+        m_heading = heading;
+        m_sync = sync;
+        m_clock = clock;
+        m_capacity = capacity;
+        m_queue = new ConcurrentLinkedQueue<>();
+        m_size = new AtomicInteger();
+        m_drops = new AtomicLong();
+        m_log_drops = t.longLogger(Level.DEBUG, m_name, "drops");
+        m_log_sample = t.doubleLogger(Level.DEBUG, m_name, "sample ms");
+    }
+
+    /** Uses FPGA time. */
+    public OdometryThread(
+            String parent,
+            SwerveModuleCollection modules,
+            HeadingInterface heading,
+            Sync sync,
+            int capacity) {
+        this(parent, modules, heading, sync, Timer::getFPGATimestamp, capacity);
+    }
+
+    /** Fixed-rate sampling, for sensors that can't signal fresh data. */
+    public static Sync periodic(double periodS) {
+        long periodNs = (long) (periodS * 1e9);
+        return new Sync() {
+            private long m_nextNs = System.nanoTime();
+
+            @Override
+            public void await() throws InterruptedException {
+                m_nextNs += periodNs;
+                long now = System.nanoTime();
+                if (m_nextNs < now) {
+                    // overrun, don't try to catch up.
+                    m_nextNs = now;
+                    return;
+                }
+                LockSupport.parkNanos(m_nextNs - now);
+                if (Thread.interrupted())
+                    throw new InterruptedException();
+            }
+        };
+    }
+
+    /**
+     * Speeds up the signals to match the period, and waits for all of them to
+     * be refreshed, which keeps the samples in step with the CAN frames. If that
+     * fails, e.g. if there are no signals, or they're not all on the same bus,
+     * this falls back to fixed-rate sampling.
+     */
+    public static Sync phoenix(double periodS, BaseStatusSignal... signals) {
+        Sync fallback = periodic(periodS);
+        if (signals.length == 0)
+            return fallback;
+        Phoenix100.warn(() -> BaseStatusSignal.setUpdateFrequencyForAll(1 / periodS, signals));
+        // allow a missed frame before giving up.
+        double timeoutS = 2 * periodS;
+        return () -> {
+            StatusCode status = BaseStatusSignal.waitForAll(timeoutS, signals);
+            if (!status.isOK())
+                fallback.await();
+        };
+    }
+
+    /** Start the sampling thread, at high priority, since the data is timely. */
+    public void start() {
+        Thread thread = new Thread(this::run);
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.setDaemon(true);
+        thread.setName(m_name);
+        thread.start();
+    }
+
+    /** Wait for the next sample time, and then take a sample. */
+    void sampleOnce() throws InterruptedException {
+        m_sync.await();
+        long startNs = System.nanoTime();
+        double timeS = m_clock.getAsDouble();
+        Rotation2d gyroAngle = m_heading.getHeadingNWU();
+        SwerveModulePosition[] positions = m_modules.odometryPositions();
+        offer(new Sample(timeS, gyroAngle, positions));
+        m_log_sample.log((System.nanoTime() - startNs) * 1e-6);
+    }
+
+    /** Enqueue a sample, dropping it if the queue is full. */
+    void offer(Sample sample) {
+        if (m_size.incrementAndGet() > m_capacity) {
+            m_size.decrementAndGet();
+            m_log_drops.log(m_drops.incrementAndGet());
+            return;
+        }
+        m_queue.offer(sample);
+    }
+
+    /** Oldest sample, or null if there isn't one. Only one thread should poll. */
+    public Sample poll() {
+        Sample sample = m_queue.poll();
+        if (sample != null)
+            m_size.decrementAndGet();
+        return sample;
+    }
+
+    /** Samples dropped because the queue was full. */
+    public long drops() {
+        return m_drops.get();
+    }
+
+    @Override
+    public String getGlassName() {
+        return "OdometryThread";
+    }
+
+    ///////////////////////////////////////
+
+    private void run() {
+        while (true) {
+            try {
+                sampleOnce();
+            } catch (InterruptedException e) {
+                Util.warn("odometry thread interrupted");
+                return;
+            } catch (Throwable e) {
+                Util.warn(e.toString());
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.team100.lib.localization;
 import java.util.EnumSet;
 import java.util.HashMap;
 import org.team100.lib.config.Camera;
+import org.team100.lib.telemetry.LoopProfiler;
 import org.team100.lib.util.Util;
 
 import edu.wpi.first.math.geometry.Transform3d;
@@ -67,6 +68,6 @@ public class OpticalFlow24ArrayListener {
         inst.addListener(
                 sub,
                 EnumSet.of(NetworkTableEvent.Kind.kValueAll),
-                this::consumeValues);
+                LoopProfiler.get().wrap("OpticalFlow24ArrayListener", this::consumeValues));
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.team100.lib.localization;
 
+import java.util.List;
 import java.util.Optional;
 
 import edu.wpi.first.math.Matrix;
@@ -24,6 +25,19 @@ public interface PoseEstimator100 {
             Pose2d visionRobotPoseMeters,
             double timestampSeconds);
 
+    /**
+     * Adds several vision measurements at once, e.g. all the tags in a frame.
+     *
+     * The default just adds them one at a time; implementations that replay
+     * history for each measurement should override this to replay once.
+     */
+    default void addVisionMeasurements(List<VisionMeasurement> measurements) {
+        for (VisionMeasurement m : measurements) {
+            setStdDevs(m.stateStdDevs(), m.visionMeasurementStdDevs());
+            addVisionMeasurement(m.pose(), m.timestampS());
+        }
+    }
+
     /**
      * Sets the pose estimator's trust of global measurements. This might be used to
      * change trust in vision measurements after the autonomous period, or to change
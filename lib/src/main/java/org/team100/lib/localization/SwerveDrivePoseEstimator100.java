@@ -1,5 +1,7 @@
 package org.team100.lib.localization;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -15,7 +17,11 @@ import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeDelta;
 import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeVelocity;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.LongLogger;
+import org.team100.lib.telemetry.Telemetry.Rotation2dLogger;
+import org.team100.lib.telemetry.Telemetry.SwerveModulePositionLogger;
 import org.team100.lib.util.DriveUtil;
 import org.team100.lib.util.Names;
 import org.team100.lib.util.SlipperyTireUtil;
@@ -37,6 +43,10 @@ import edu.wpi.first.math.numbers.N3;
  * call update() periodically.
  *
  * call addVisionMeasurement} asynchronously.
+ *
+ * The mutators are synchronized, so vision can be added from another thread,
+ * e.g. the vision worker. The getters don't lock, since the pose buffer is
+ * safe to read while it's being written.
  */
 public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
     private static final double kBufferDuration = 1.5;
@@ -51,6 +61,19 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
     private final Matrix<N3, N3> m_visionK;
     private final TimeInterpolatableBuffer100<InterpolationRecord> m_poseBuffer;
     private final SlipperyTireUtil m_tireUtil;
+    /** Reused by replay, so it doesn't allocate; only touched with the lock held. */
+    private final double[] m_replayTimes;
+    private final InterpolationRecord[] m_replayRecords;
+
+    // LOGGERS
+    private final Rotation2dLogger m_log_offset;
+    private final DoubleLogger m_log_t1;
+    private final DoubleLogger m_log_t0;
+    private final SwerveModulePositionLogger m_log_delta0;
+    private final SwerveModulePositionLogger m_log_delta1;
+    private final DoubleLogger m_log_posex;
+    private final LongLogger m_log_samples;
+
     /**
      * maintained in resetPosition().
      */
@@ -85,6 +108,13 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
             Matrix<N3, N1> stateStdDevs,
             Matrix<N3, N1> visionMeasurementStdDevs) {
         m_name = Names.name(this);
+        m_log_offset = t.rotation2dLogger(Level.TRACE, m_name, "GYRO OFFSET");
+        m_log_t1 = t.doubleLogger(Level.DEBUG, m_name, "t1");
+        m_log_t0 = t.doubleLogger(Level.DEBUG, m_name, "t0");
+        m_log_delta0 = t.swerveModulePositionLogger(Level.DEBUG, m_name, "delta0");
+        m_log_delta1 = t.swerveModulePositionLogger(Level.DEBUG, m_name, "delta1");
+        m_log_posex = t.doubleLogger(Level.TRACE, m_name, "posex");
+        m_log_samples = t.longLogger(Level.TRACE, m_name, "odometry samples");
         m_numModules = modulePositions.length;
         m_kinodynamics = kinodynamics;
         m_tireUtil = new SlipperyTireUtil(m_kinodynamics.getTire());
@@ -101,12 +131,14 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
                                 new FieldRelativeAcceleration(0, 0, 0)),
                         gyroAngle,
                         new SwerveDriveWheelPositions(modulePositions)));
+        m_replayTimes = new double[m_poseBuffer.capacity()];
+        m_replayRecords = new InterpolationRecord[m_poseBuffer.capacity()];
         m_gyroOffset = initialPoseMeters.getRotation().minus(gyroAngle);
         setStdDevs(stateStdDevs, visionMeasurementStdDevs);
     }
 
     @Override
-    public void setStdDevs(
+    public synchronized void setStdDevs(
             Matrix<N3, N1> stateStdDevs,
             Matrix<N3, N1> visionMeasurementStdDevs) {
         for (int i = 0; i < 3; ++i) {
@@ -136,7 +168,7 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
      * update and reading doesn't matter.
      */
     public SwerveState getEstimatedPosition() {
-        return m_poseBuffer.lastEntry().getValue().m_state;
+        return m_poseBuffer.lastValue().m_state;
     }
 
     @Override
@@ -146,7 +178,7 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
     }
 
     @Override
-    public void addVisionMeasurement(Pose2d visionRobotPoseMeters, double timestampSeconds) {
+    public synchronized void addVisionMeasurement(Pose2d visionRobotPoseMeters, double timestampSeconds) {
         // Step 0: If this measurement is old enough to be outside the pose buffer's
         // timespan, skip.
 
@@ -154,6 +186,74 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
             return;
         }
 
+        correct(visionRobotPoseMeters, timestampSeconds);
+
+        // Step 7: Replay odometry inputs between sample time and latest recorded sample
+        // to update the pose buffer and correct odometry.
+        // note exclusive tail, don't need to reprocess the entry we just put there.
+        int n = m_poseBuffer.copyTail(timestampSeconds, false, m_replayTimes, m_replayRecords);
+        for (int j = 0; j < n; ++j) {
+            replay(j);
+        }
+    }
+
+    /**
+     * Applies the measurements in time order, replaying odometry once, from the
+     * earliest one, instead of once per measurement.
+     *
+     * Between measurements, odometry is replayed only up to the next
+     * measurement, so that each correction is applied to a pose that includes the
+     * earlier ones. The result is the same as adding them one at a time, in time
+     * order.
+     */
+    @Override
+    public synchronized void addVisionMeasurements(List<VisionMeasurement> measurements) {
+        if (measurements.isEmpty())
+            return;
+        List<VisionMeasurement> sorted = new ArrayList<>(measurements);
+        sorted.sort(Comparator.comparingDouble(VisionMeasurement::timestampS));
+
+        // Step 0: skip the measurements outside the pose buffer's timespan.
+        double oldestS = m_poseBuffer.lastKey() - kBufferDuration;
+        int i = 0;
+        while (i < sorted.size() && oldestS > sorted.get(i).timestampS()) {
+            ++i;
+        }
+        if (i == sorted.size())
+            return;
+
+        // the odometry inputs don't change during replay, so one snapshot is enough.
+        int n = m_poseBuffer.copyTail(sorted.get(i).timestampS(), false, m_replayTimes, m_replayRecords);
+        int next = 0;
+        boolean corrected = false;
+        for (; i < sorted.size(); ++i) {
+            VisionMeasurement m = sorted.get(i);
+            if (corrected) {
+                // bring odometry up to this measurement
+                while (next < n && m_replayTimes[next] <= m.timestampS()) {
+                    replay(next);
+                    next++;
+                }
+                // the sample interpolates with the next entry, so replay it too; it
+                // will be replayed again after the correction.
+                if (next < n)
+                    replay(next);
+            }
+            setStdDevs(m.stateStdDevs(), m.visionMeasurementStdDevs());
+            correct(m.pose(), m.timestampS());
+            corrected = true;
+        }
+        // and the rest of the way
+        for (; next < n; ++next) {
+            replay(next);
+        }
+    }
+
+    /**
+     * Steps 1 through 6 of the vision update: adjust the pose at the measurement
+     * time, without replaying anything after it.
+     */
+    private void correct(Pose2d visionRobotPoseMeters, double timestampSeconds) {
         // Step 1: Get the pose odometry measured at the moment the vision measurement
         // was made.
         InterpolationRecord sample = m_poseBuffer.get(timestampSeconds);
@@ -176,7 +276,7 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
         // this should have no effect if you disregard vision angle input
 
         m_gyroOffset = newPose.getRotation().minus(sample.m_gyroAngle);
-        t.log(Level.TRACE, m_name, "GYRO OFFSET", m_gyroOffset);
+        m_log_offset.log(m_gyroOffset);
 
         // Step 6: Record the current pose to allow multiple measurements from the same
         // timestamp
@@ -187,18 +287,15 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
                         new SwerveState(newPose, sample.m_state.velocity(), sample.m_state.acceleration()),
                         sample.m_gyroAngle,
                         sample.m_wheelPositions));
-        // Step 7: Replay odometry inputs between sample time and latest recorded sample
-        // to update the pose buffer and correct odometry.
-        // note exclusive tailmap, don't need to reprocess the entry we just put there.
-        for (Map.Entry<Double, InterpolationRecord> entry : m_poseBuffer.tailMap(timestampSeconds, false).entrySet()) {
-            double entryTimestampS = entry.getKey();
-            Rotation2d entryGyroAngle = entry.getValue().m_gyroAngle;
-            SwerveDriveWheelPositions wheelPositions = entry.getValue().m_wheelPositions;
-            update(entryTimestampS, entryGyroAngle, wheelPositions);
-        }
     }
 
-    public void resetPosition(
+    /** Recompute the pose for one odometry entry from the replay snapshot. */
+    private void replay(int j) {
+        InterpolationRecord record = m_replayRecords[j];
+        update(m_replayTimes[j], record.m_gyroAngle, record.m_wheelPositions);
+    }
+
+    public synchronized void resetPosition(
             Rotation2d gyroAngle,
             SwerveDriveWheelPositions modulePositions,
             Pose2d pose,
@@ -220,20 +317,20 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
                         gyroAngle,
                         modulePositions.copy()));
 
-        t.log(Level.TRACE, m_name, "GYRO OFFSET", m_gyroOffset);
+        m_log_offset.log(m_gyroOffset);
     }
 
     void resetOdometry(
             Rotation2d gyroAngle,
             Pose2d pose) {
         m_gyroOffset = pose.getRotation().minus(gyroAngle);
-        t.log(Level.TRACE, m_name, "GYRO OFFSET", m_gyroOffset);
+        m_log_offset.log(m_gyroOffset);
     }
 
     /**
      * Allow vision and stdev changes in one fn.
      */
-    public void addVisionMeasurement(
+    public synchronized void addVisionMeasurement(
             Pose2d visionRobotPoseMeters,
             double timestampSeconds,
             Matrix<N3, N1> stateStdDevs,
@@ -255,7 +352,7 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
      *                       the swerve modules.
      * @return The estimated pose of the robot at the given time.
      */
-    public SwerveState update(
+    public synchronized SwerveState update(
             double currentTimeS,
             Rotation2d gyroAngle,
             SwerveDriveWheelPositions wheelPositions) {
@@ -274,7 +371,7 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
         Entry<Double, InterpolationRecord> lowerEntry = consistentPair.get(0);
 
         double t1 = currentTimeS - lowerEntry.getKey();
-        t.log(Level.DEBUG, m_name, "t1", t1);
+        m_log_t1.log(t1);
         InterpolationRecord value = lowerEntry.getValue();
         SwerveState previousPose = value.m_state;
 
@@ -289,15 +386,15 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
             Map.Entry<Double, InterpolationRecord> earlierEntry = consistentPair.get(1);
 
             t0 = lowerEntry.getKey() - earlierEntry.getKey();
-            t.log(Level.DEBUG, m_name, "t0", t0);
+            m_log_t0.log(t0);
             earlierPose = earlierEntry.getValue().m_state;
             Vector2d[] corners = SlipperyTireUtil.cornerDeltas(
                     m_kinodynamics.getKinematics(),
                     earlierPose.pose(),
                     previousPose.pose());
-            t.log(Level.DEBUG, m_name, "delta0", modulePositionDelta[0]);
+            m_log_delta0.log(modulePositionDelta[0]);
             modulePositionDelta = m_tireUtil.adjust(corners, t0, modulePositionDelta, t1);
-            t.log(Level.DEBUG, m_name, "delta1", modulePositionDelta[0]);
+            m_log_delta1.log(modulePositionDelta[0]);
         }
 
         Twist2d twist = m_kinodynamics.getKinematics().toTwist2d(modulePositionDelta);
@@ -310,7 +407,7 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
 
         Pose2d newPose = new Pose2d(previousPose.pose().exp(twist).getTranslation(), angle);
 
-        t.log(Level.TRACE, m_name, "posex", newPose.getX());
+        m_log_posex.log(newPose.getX());
 
         FieldRelativeDelta deltaTransform = FieldRelativeDelta.delta(
                 previousPose.pose(), newPose).div(t1);
@@ -337,6 +434,24 @@ public class SwerveDrivePoseEstimator100 implements PoseEstimator100, Glassy {
         return swerveState;
     }
 
+    /**
+     * Applies all the odometry samples taken since the last call, oldest first.
+     * 
+     * This should be called periodically, instead of the other update().
+     * 
+     * @return the number of samples applied.
+     */
+    public synchronized int update(OdometryThread odometry) {
+        int count = 0;
+        OdometryThread.Sample sample;
+        while ((sample = odometry.poll()) != null) {
+            update(sample.timeS(), sample.gyroAngle(), new SwerveDriveWheelPositions(sample.positions()));
+            count++;
+        }
+        m_log_samples.log(count);
+        return count;
+    }
+
     @Override
     public String getGlassName() {
         return "SwerveDrivePoseEstimator100";
@@ -1,77 +1,94 @@
 package org.team100.lib.localization;
 
-import java.util.Map.Entry;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.List;
-import java.util.NavigableMap;
-import java.util.SortedMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
-import org.team100.lib.telemetry.Telemetry;
-import org.team100.lib.telemetry.Telemetry.Level;
+import java.util.Map.Entry;
 
 import edu.wpi.first.math.interpolation.Interpolatable;
 
 /**
  * Uses an Interpolator to provide interpolated sampling with a history limit.
- * 
+ *
  * The buffer is never empty, so get() always returns *something*.
+ *
+ * The entries are kept in time order in a preallocated ring of primitive
+ * timestamps and value references, so lookups are binary searches over a
+ * double[], and eviction is just moving the head index. Entries are usually
+ * added at the end; out-of-order entries (e.g. vision) are inserted by shifting
+ * the newer ones.
+ *
+ * If the ring fills up before the history limit is reached, the oldest entries
+ * are dropped.
+ *
+ * Writes are serialized with a lock. Reads don't lock: they use a sequence
+ * number (a "seqlock"), which is odd during writes. A reader notes the
+ * sequence, does its reads, and retries if the sequence changed, so multi-read
+ * operations like consistentPair() are always consistent.
  */
 public final class TimeInterpolatableBuffer100<T extends Interpolatable<T>> {
-    private static final Telemetry t = Telemetry.get();
+    /** Enough for 1.5 s of 250 Hz odometry, plus vision. */
+    private static final int kDefaultCapacity = 1024;
 
     private final double m_historyS;
-    private final NavigableMap<Double, T> m_pastSnapshots = new ConcurrentSkipListMap<>();
+    private final int m_mask;
+    private final double[] m_times;
+    private final Object[] m_values;
+    /** Index of the oldest entry. */
+    private int m_head;
+    private int m_size;
+    /** Odd while a write is in progress. */
+    private volatile long m_seq;
+
+    public TimeInterpolatableBuffer100(double historyS, double timeS, T initialValue) {
+        this(historyS, kDefaultCapacity, timeS, initialValue);
+    }
 
     /**
-     * We allow concurrent operations on the map, with one exception: when we want
-     * two reads to be consistent with each other. For this purpose we use a
-     * read-write lock with the semantics inverted: it's the double-read operation
-     * that takes the "write" (exclusive) lock, and the write operations take the
-     * "read" (non-exclusive) lock.
+     * @param capacity rounded up to a power of two.
      */
-    private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
-
-    public TimeInterpolatableBuffer100(double historyS, double timeS, T initialValue) {
+    public TimeInterpolatableBuffer100(double historyS, int capacity, double timeS, T initialValue) {
+        if (capacity < 2)
+            throw new IllegalArgumentException("capacity must be at least 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
         m_historyS = historyS;
-        // no lock needed in constructor
-        m_pastSnapshots.put(timeS, initialValue);
+        m_mask = size - 1;
+        m_times = new double[size];
+        m_values = new Object[size];
+        m_times[0] = timeS;
+        m_values[0] = initialValue;
+        m_size = 1;
     }
 
     /**
-     * Remove stale entries and add the new one.
+     * Remove stale entries and add the new one. An entry with the same timestamp
+     * is replaced.
      */
-    public void put(double timeS, T value) {
+    public synchronized void put(double timeS, T value) {
+        beginWrite();
         try {
-            // wait for in-progress double-reads
-            m_lock.readLock().lock();
-            while (!m_pastSnapshots.isEmpty()) {
-                Entry<Double, T> oldest = m_pastSnapshots.firstEntry();
-                Double oldestTimeS = oldest.getKey();
-                double oldestAgeS = timeS - oldestTimeS;
-                // if oldest is younger than the history limit, we're done
-                if (oldestAgeS < m_historyS)
-                    break;
-                m_pastSnapshots.remove(oldestTimeS);
+            // if oldest is younger than the history limit, we're done
+            while (m_size > 0 && timeS - time(m_head, 0) >= m_historyS) {
+                evictOldest();
             }
-            m_pastSnapshots.put(timeS, value);
+            insert(timeS, value);
         } finally {
-            m_lock.readLock().unlock();
+            endWrite();
         }
     }
 
     /**
      * Remove all entries and add the new one.
      */
-    public void reset(double timeS, T value) {
+    public synchronized void reset(double timeS, T value) {
+        beginWrite();
         try {
-            // wait for in-progress double-reads
-            m_lock.readLock().lock();
-            m_pastSnapshots.clear();
-            m_pastSnapshots.put(timeS, value);
+            while (m_size > 0) {
+                evictOldest();
+            }
+            insert(timeS, value);
         } finally {
-            m_lock.readLock().unlock();
+            endWrite();
         }
     }
 
@@ -79,82 +96,108 @@ public final class TimeInterpolatableBuffer100<T extends Interpolatable<T>> {
      * Sample the buffer at the given time.
      */
     public T get(double timeSeconds) {
-        // Special case for when the requested time is the same as a sample
-        T nowEntry = m_pastSnapshots.get(timeSeconds);
-        if (nowEntry != null) {
-            return nowEntry;
-        }
-        Entry<Double, T> topBound = null;
-        Entry<Double, T> bottomBound = null;
-        try {
-            // this pair should be consistent, so prohibit writes briefly.
-            m_lock.writeLock().lock();
-            topBound = m_pastSnapshots.ceilingEntry(timeSeconds);
-            bottomBound = m_pastSnapshots.floorEntry(timeSeconds);
-        } finally {
-            m_lock.writeLock().unlock();
-        }
-        // Return the opposite bound if the other is null
-        if (topBound == null) {
-            t.log(Level.TRACE, "buffer", "bottom", bottomBound.getValue().toString());
-            return bottomBound.getValue();
-        }
-        if (bottomBound == null) {
-            t.log(Level.TRACE, "buffer", "top", topBound.getValue().toString());
-            return topBound.getValue();
-        }
-
-        // If both bounds exist, interpolate between them.
-        // Because T is between [0, 1], we want the ratio of
-        // (the difference between the current time and bottom bound) and (the
-        // difference between top and bottom bounds).
+        while (true) {
+            long seq = stableSeq();
+            int head = m_head;
+            int size = m_size;
+            int ceiling = lowerBound(head, size, timeSeconds);
+            T topBound = null;
+            double topTimeS = 0;
+            if (ceiling < size) {
+                topBound = value(head, ceiling);
+                topTimeS = time(head, ceiling);
+            }
+            T bottomBound = null;
+            double bottomTimeS = 0;
+            if (ceiling > 0) {
+                bottomBound = value(head, ceiling - 1);
+                bottomTimeS = time(head, ceiling - 1);
+            }
+            if (!validate(seq))
+                continue;
+            // Special case for when the requested time is the same as a sample
+            if (topBound != null && topTimeS == timeSeconds)
+                return topBound;
+            // Return the opposite bound if the other is null
+            if (topBound == null)
+                return bottomBound;
+            if (bottomBound == null)
+                return topBound;
 
-        t.log(Level.TRACE, "buffer", "bottom", bottomBound.getValue().toString());
-        t.log(Level.TRACE, "buffer", "top", topBound.getValue().toString());
-        double timeSinceBottom = timeSeconds - bottomBound.getKey();
-        double timeSpan = topBound.getKey() - bottomBound.getKey();
-        double timeFraction = timeSinceBottom / timeSpan;
-        return bottomBound.getValue().interpolate(topBound.getValue(), timeFraction);
+            // If both bounds exist, interpolate between them.
+            // Because T is between [0, 1], we want the ratio of
+            // (the difference between the current time and bottom bound) and (the
+            // difference between top and bottom bounds).
+            double timeSinceBottom = timeSeconds - bottomTimeS;
+            double timeSpan = topTimeS - bottomTimeS;
+            double timeFraction = timeSinceBottom / timeSpan;
+            return bottomBound.interpolate(topBound, timeFraction);
+        }
     }
 
     /**
      * Return the lowerEntry before t. and another floorEntry dt before that.
-     * 
+     *
      * The first is used as the basis for integration. The second is used to
      * estimate velocity.
-     * 
-     * Writes are prohibited between the two reads, so that they are consistent.
-     * 
+     *
+     * The two reads are consistent with each other.
+     *
      * This might return an empty list (if no entries exist before t) or one item
      * (if one entry exists before t, but there are no entries earlier than dt
      * before that), or two items.
-     * 
+     *
      * If present, the first item in the list is the lowerEntry, and the second item
      * is the earlierEntry, if present.
      */
     public List<Entry<Double, T>> consistentPair(double t, double dt) {
-        try {
-            // this pair should be consistent, so prohibit writes briefly.
-            m_lock.writeLock().lock();
-            Entry<Double, T> lowerEntry = m_pastSnapshots.lowerEntry(t);
-            if (lowerEntry == null) {
+        while (true) {
+            long seq = stableSeq();
+            int head = m_head;
+            int size = m_size;
+            int lower = lowerBound(head, size, t) - 1;
+            double lowerTimeS = 0;
+            T lowerValue = null;
+            int earlier = -1;
+            double earlierTimeS = 0;
+            T earlierValue = null;
+            if (lower >= 0) {
+                lowerTimeS = time(head, lower);
+                lowerValue = value(head, lower);
+                earlier = upperBound(head, size, lowerTimeS - dt) - 1;
+                if (earlier >= 0) {
+                    earlierTimeS = time(head, earlier);
+                    earlierValue = value(head, earlier);
+                }
+            }
+            if (!validate(seq))
+                continue;
+            if (lower < 0) {
                 // if there's no lower entry, then return nothing.
                 return List.of();
             }
-            Entry<Double, T> earlierEntry = m_pastSnapshots.floorEntry(lowerEntry.getKey() - dt);
-            if (earlierEntry == null) {
+            if (earlier < 0) {
                 // if there's no earlier entry, return the lower entry alone.
-                return List.of(lowerEntry);
+                return List.of(entry(lowerTimeS, lowerValue));
             }
-
-            return List.of(lowerEntry, earlierEntry);
-        } finally {
-            m_lock.writeLock().unlock();
+            return List.of(entry(lowerTimeS, lowerValue), entry(earlierTimeS, earlierValue));
         }
     }
 
-    public SortedMap<Double, T> tailMap(double t, boolean inclusive) {
-        return m_pastSnapshots.tailMap(t, inclusive);
+    /**
+     * Copies the entries after t into the caller's arrays, for replay, and
+     * returns how many there are. Since it's a copy, it's fine to put() while
+     * iterating over it. The arrays should be at least capacity() long; the
+     * caller should keep them, so replay doesn't allocate.
+     */
+    public synchronized int copyTail(double t, boolean inclusive, double[] timesOut, T[] valuesOut) {
+        int start = inclusive ? lowerBound(m_head, m_size, t) : upperBound(m_head, m_size, t);
+        int n = m_size - start;
+        for (int i = 0; i < n; ++i) {
+            timesOut[i] = time(m_head, start + i);
+            valuesOut[i] = value(m_head, start + i);
+        }
+        return n;
     }
 
     /**
@@ -162,19 +205,189 @@ public final class TimeInterpolatableBuffer100<T extends Interpolatable<T>> {
      * empty.
      */
     public double lastKey() {
-        return m_pastSnapshots.lastKey();
+        while (true) {
+            long seq = stableSeq();
+            double result = time(m_head, m_size - 1);
+            if (validate(seq))
+                return result;
+        }
+    }
+
+    /** The most recent value, without allocating an entry. */
+    public T lastValue() {
+        while (true) {
+            long seq = stableSeq();
+            T result = value(m_head, m_size - 1);
+            if (validate(seq))
+                return result;
+        }
     }
 
     /** The most recent entry. */
     public Entry<Double, T> lastEntry() {
-        return m_pastSnapshots.lastEntry();
+        while (true) {
+            long seq = stableSeq();
+            int head = m_head;
+            int last = m_size - 1;
+            double timeS = time(head, last);
+            T value = value(head, last);
+            if (validate(seq))
+                return entry(timeS, value);
+        }
     }
 
     public Entry<Double, T> lowerEntry(double t) {
-        return m_pastSnapshots.lowerEntry(t);
+        while (true) {
+            long seq = stableSeq();
+            int head = m_head;
+            int lower = lowerBound(head, m_size, t) - 1;
+            double timeS = 0;
+            T value = null;
+            if (lower >= 0) {
+                timeS = time(head, lower);
+                value = value(head, lower);
+            }
+            if (validate(seq))
+                return lower < 0 ? null : entry(timeS, value);
+        }
     }
 
     public Entry<Double, T> ceilingEntry(double arg0) {
-        return m_pastSnapshots.ceilingEntry(arg0);
+        while (true) {
+            long seq = stableSeq();
+            int head = m_head;
+            int size = m_size;
+            int ceiling = lowerBound(head, size, arg0);
+            double timeS = 0;
+            T value = null;
+            if (ceiling < size) {
+                timeS = time(head, ceiling);
+                value = value(head, ceiling);
+            }
+            if (validate(seq))
+                return ceiling < size ? entry(timeS, value) : null;
+        }
+    }
+
+    /** Number of entries. */
+    public int size() {
+        return m_size;
+    }
+
+    /** The most entries it will ever hold. */
+    public int capacity() {
+        return m_values.length;
+    }
+
+    /////////////////////////////////////////////////////////
+    //
+    // writer side, always called with the lock held.
+
+    private void beginWrite() {
+        m_seq = m_seq + 1;
+        // keep the data writes below from moving above the sequence write.
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        // volatile write, so the data writes above are visible first.
+        m_seq = m_seq + 1;
+    }
+
+    private void evictOldest() {
+        m_values[m_head] = null;
+        m_head = (m_head + 1) & m_mask;
+        m_size--;
+    }
+
+    private void insert(double timeS, T value) {
+        int i = lowerBound(m_head, m_size, timeS);
+        if (i < m_size && time(m_head, i) == timeS) {
+            // same time, replace.
+            m_values[(m_head + i) & m_mask] = value;
+            return;
+        }
+        if (m_size == m_values.length) {
+            if (i == 0) {
+                // full, and this is older than everything, so drop it.
+                return;
+            }
+            evictOldest();
+            i--;
+        }
+        // shift the newer entries to make room.
+        for (int j = m_size; j > i; --j) {
+            int to = (m_head + j) & m_mask;
+            int from = (m_head + j - 1) & m_mask;
+            m_times[to] = m_times[from];
+            m_values[to] = m_values[from];
+        }
+        int slot = (m_head + i) & m_mask;
+        m_times[slot] = timeS;
+        m_values[slot] = value;
+        m_size++;
+    }
+
+    /////////////////////////////////////////////////////////
+    //
+    // reader side. indices are masked, so reads during a write may see garbage,
+    // but never go out of bounds.
+
+    /** Wait for any write in progress, and return the sequence. */
+    private long stableSeq() {
+        long seq = m_seq;
+        while ((seq & 1) != 0) {
+            Thread.onSpinWait();
+            seq = m_seq;
+        }
+        return seq;
+    }
+
+    /** True if there were no writes since stableSeq(). */
+    private boolean validate(long seq) {
+        // keep the data reads above from moving below the sequence read.
+        VarHandle.acquireFence();
+        return m_seq == seq;
+    }
+
+    private double time(int head, int i) {
+        return m_times[(head + i) & m_mask];
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value(int head, int i) {
+        return (T) m_values[(head + i) & m_mask];
+    }
+
+    /** Index of the first entry at or after timeS, or size if none. */
+    private int lowerBound(int head, int size, double timeS) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (time(head, mid) < timeS)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /** Index of the first entry after timeS, or size if none. */
+    private int upperBound(int head, int size, double timeS) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (time(head, mid) <= timeS)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private Entry<Double, T> entry(double timeS, T value) {
+        return new SimpleImmutableEntry<>(timeS, value);
     }
-}
\ No newline at end of file
+}
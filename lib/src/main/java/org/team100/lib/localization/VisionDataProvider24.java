@@ -1,14 +1,18 @@
 package org.team100.lib.localization;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.team100.lib.config.Camera;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
 import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.telemetry.LoopProfiler;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.util.Names;
@@ -33,7 +37,6 @@ import edu.wpi.first.util.struct.StructBuffer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.RobotController;
-import edu.wpi.first.wpilibj.Timer;
 
 /**
  * Extracts robot pose estimates from camera input.
@@ -43,12 +46,12 @@ import edu.wpi.first.wpilibj.Timer;
  */
 public class VisionDataProvider24 implements Glassy {
     /**
-     * Time between events in reality and their appearance here; the average
-     * end-to-end latency of the camera, detection code, network tables, and rio
-     * looping.
+     * Time between events in reality and their arrival in network tables; the
+     * average latency of the camera, detection code, and network. Measurements
+     * are stamped relative to the NT arrival time, so time spent waiting to be
+     * processed on the RoboRIO doesn't count.
      * 
-     * Note this latency varies a little bit, depending on the relative timing of
-     * the camera frame and the rio loop.
+     * Note this latency varies a little bit, depending on the camera frame timing.
      * 
      * TODO: use the correct timing instead of this average.
      */
@@ -70,12 +73,18 @@ public class VisionDataProvider24 implements Glassy {
     private static final double kVisionChangeToleranceMeters = 0.1;
     // private static final double kVisionChangeToleranceMeters = 1;
 
+    /** A few frames from each camera. */
+    private static final int kQueueCapacity = 16;
+    /** Just above the main loop, since the estimate is only useful if it's fresh. */
+    public static final int kDefaultWorkerPriority = Thread.NORM_PRIORITY + 1;
+
     private final Telemetry t = Telemetry.get();
 
     private final PoseEstimator100 m_poseEstimator;
     private final FireControl m_fireControl;
     private final AprilTagFieldLayoutWithCorrectOrientation m_layout;
     private final String m_name;
+    private final int m_workerPriority;
 
     // for blip filtering
     private Pose2d lastRobotInFieldCoords;
@@ -83,33 +92,67 @@ public class VisionDataProvider24 implements Glassy {
     // reuse the buffer since it takes some time to make
     private StructBuffer<Blip24> m_buf = StructBuffer.create(Blip24.struct);
 
-    private long latestTimeUs = 0;
+    private volatile long latestTimeUs = 0;
+
+    /**
+     * Estimates not yet given to the pose estimator; reused to avoid allocation.
+     * The worker fills this from several frames before flushing.
+     */
+    private final List<VisionMeasurement> m_measurements = new ArrayList<>();
+
+    public VisionDataProvider24(
+            AprilTagFieldLayoutWithCorrectOrientation layout,
+            PoseEstimator100 poseEstimator,
+            FireControl fireControl) throws IOException {
+        this(layout, poseEstimator, fireControl, kDefaultWorkerPriority);
+    }
 
     /**
      * @param layout
      * @param poseEstimator
-     * @param rotationSupplier rotation for the given time in seconds
+     * @param fireControl
+     * @param workerPriority for the vision worker thread, if that experiment is
+     *                       enabled; see Thread.setPriority()
      * @throws IOException
      */
     public VisionDataProvider24(
             AprilTagFieldLayoutWithCorrectOrientation layout,
             PoseEstimator100 poseEstimator,
-            FireControl fireControl) throws IOException {
+            FireControl fireControl,
+            int workerPriority) throws IOException {
         // load the JNI (used by PoseEstimationHelper)
         CameraServerCvJNI.forceLoad();
         m_layout = layout;
         m_poseEstimator = poseEstimator;
         m_fireControl = fireControl;
         m_name = Names.name(this);
+        m_workerPriority = workerPriority;
     }
 
     /** Start listening for updates. */
     public void enable() {
+        Consumer<NetworkTableEvent> listener = this::accept;
+        if (Experiments.instance.enabled(Experiment.VisionWorker)) {
+            VisionWorker worker = new VisionWorker(m_name, kQueueCapacity, m_workerPriority,
+                    new VisionWorker.Handler() {
+                        @Override
+                        public void accept(String topic, byte[] raw, long receivedUs) {
+                            decode(topic, raw, receivedUs);
+                        }
+
+                        @Override
+                        public void flush() {
+                            flushMeasurements();
+                        }
+                    });
+            worker.start();
+            listener = worker::accept;
+        }
         NetworkTableInstance.getDefault().addListener(
                 new String[] { "vision" },
                 EnumSet.of(NetworkTableEvent.Kind.kValueAll),
-                this::accept);
-    } 
+                LoopProfiler.get().wrap(m_name, listener));
+    }
 
     /**
      * The age of the last pose estimate, in microseconds.
@@ -129,17 +172,25 @@ public class VisionDataProvider24 implements Glassy {
     public void accept(NetworkTableEvent e) {
         ValueEventData ve = e.valueData;
         NetworkTableValue v = ve.value;
-        String name = ve.getTopic().getName();
+        // FPS and latency are not used by the robot
+        if (!v.isRaw())
+            return;
+        decode(ve.getTopic().getName(), v.getRaw(), v.getTime());
+        flushMeasurements();
+    }
+
+    /**
+     * Decode one raw value, accumulating pose estimates for the next flush. Runs
+     * on the NT listener thread or on the vision worker.
+     * 
+     * @param receivedUs NT arrival time, which is the FPGA time on the RoboRIO
+     */
+    void decode(String name, byte[] b, long receivedUs) {
         String[] fields = name.split("/");
         if (fields.length != 3)
             return;
-        if (fields[2].equals("fps")) {
-            // FPS is not used by the robot
-        } else if (fields[2].equals("latency")) {
-            // latency is not used by the robot
-        } else if (fields[2].equals("blips")) {
+        if (fields[2].equals("blips")) {
             // decode the way StructArrayEntryImpl does
-            byte[] b = v.getRaw();
             if (b.length == 0)
                 return;
             Blip24[] blips;
@@ -157,9 +208,10 @@ public class VisionDataProvider24 implements Glassy {
             if (!alliance.isPresent())
                 return;
 
-            estimateRobotPose(
+            estimate(
                     cameraSerialNumber,
                     blips,
+                    receivedUs,
                     alliance.get());
         } else {
             // this event is not for us
@@ -167,20 +219,49 @@ public class VisionDataProvider24 implements Glassy {
         }
     }
 
+    /** Estimate from one frame that just arrived, and use the result immediately. */
+    void estimateRobotPose(
+            String cameraSerialNumber,
+            final Blip24[] blips,
+            Alliance alliance) {
+        estimateRobotPose(cameraSerialNumber, blips, RobotController.getFPGATime(), alliance);
+    }
+
+    /** Estimate from one frame and use the result immediately. */
+    void estimateRobotPose(
+            String cameraSerialNumber,
+            final Blip24[] blips,
+            long receivedUs,
+            Alliance alliance) {
+        estimate(cameraSerialNumber, blips, receivedUs, alliance);
+        flushMeasurements();
+    }
+
+    /**
+     * Give all the accumulated estimates to the pose estimator at once, so the
+     * history is replayed once.
+     */
+    void flushMeasurements() {
+        if (m_measurements.isEmpty())
+            return;
+        m_poseEstimator.addVisionMeasurements(m_measurements);
+        m_measurements.clear();
+    }
+
     /**
-     * @param estimateConsumer   is the pose estimator but exposing it here makes it
-     *                           easier to test.
      * @param cameraSerialNumber the camera identity, obtained from proc/cpuinfo
      * @param blips              all the targets the camera sees right now
+     * @param receivedUs         NT arrival time, FPGA time on the RoboRIO
      */
-    void estimateRobotPose(
+    private void estimate(
             String cameraSerialNumber,
             final Blip24[] blips,
+            long receivedUs,
             Alliance alliance) {
         final Transform3d cameraInRobotCoordinates = Camera.get(cameraSerialNumber).getOffset();
 
         // Estimated instant represented by the blips
-        final double frameTimeSec = Timer.getFPGATimestamp() - kTotalLatencySeconds;
+        final double frameTimeSec = receivedUs * 1e-6 - kTotalLatencySeconds;
         Optional<Rotation2d> optionalGyroRotation = m_poseEstimator.getSampledRotation(frameTimeSec);
 
         if (optionalGyroRotation.isEmpty()) {
@@ -298,13 +379,12 @@ public class VisionDataProvider24 implements Glassy {
                 if (distanceM <= kVisionChangeToleranceMeters) {
                     // this hard limit excludes false positives, which were a bigger problem in 2023
                     // due to the coarse tag family used. in 2024 this might not be an issue.
-                    m_poseEstimator.setStdDevs(
-                            stateStdDevs(),
-                            visionMeasurementStdDevs(distanceM));
                     latestTimeUs = RobotController.getFPGATime();
-                    m_poseEstimator.addVisionMeasurement(
+                    m_measurements.add(new VisionMeasurement(
                             currentRobotinFieldCoords,
-                            frameTimeSec);
+                            frameTimeSec,
+                            stateStdDevs(),
+                            visionMeasurementStdDevs(distanceM)));
 
                 }
             }
@@ -366,11 +446,12 @@ public class VisionDataProvider24 implements Glassy {
                     if (distanceM <= kVisionChangeToleranceMeters) {
                         // this hard limit excludes false positives, which were a bigger problem in 2023
                         // due to the coarse tag family used. in 2024 this might not be an issue.
-                        m_poseEstimator.setStdDevs(
-                                stateStdDevs(),
-                                visionMeasurementStdDevs(distanceM));
                         latestTimeUs = RobotController.getFPGATime();
-                        m_poseEstimator.addVisionMeasurement(currentRobotinFieldCoords, frameTimeSec);
+                        m_measurements.add(new VisionMeasurement(
+                                currentRobotinFieldCoords,
+                                frameTimeSec,
+                                stateStdDevs(),
+                                visionMeasurementStdDevs(distanceM)));
                     }
                 }
                 lastRobotInFieldCoords = currentRobotinFieldCoords;
@@ -0,0 +1,22 @@
+package org.team100.lib.localization;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+
+/**
+ * One vision pose estimate, with the trust to use for it, for batched
+ * correction.
+ *
+ * @param pose                     pose as measured by the camera.
+ * @param timestampS               same epoch as update().
+ * @param stateStdDevs             see PoseEstimator100.setStdDevs()
+ * @param visionMeasurementStdDevs see PoseEstimator100.setStdDevs()
+ */
+public record VisionMeasurement(
+        Pose2d pose,
+        double timestampS,
+        Matrix<N3, N1> stateStdDevs,
+        Matrix<N3, N1> visionMeasurementStdDevs) {
+}
@@ -0,0 +1,184 @@
+package org.team100.lib.localization;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
+import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.LongLogger;
+import org.team100.lib.util.Util;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableValue;
+import edu.wpi.first.networktables.NetworkTablesJNI;
+
+/**
+ * Moves camera input processing off the NT listener thread.
+ *
+ * The listener just captures the topic name, the raw bytes, and the receive
+ * time, into a bounded queue. A dedicated thread decodes and processes them.
+ * If the queue is full, the oldest item is dropped, since a fresh frame is
+ * worth more than a stale one.
+ *
+ * Each wakeup drains everything pending, hands each frame to the handler, and
+ * then flushes once, so frames from several cameras that arrive together
+ * produce a single pose estimator replay.
+ *
+ * The handler runs on the worker thread, so anything it touches must be
+ * thread-safe.
+ *
+ * Logs queue depth, drops, time waiting in the queue, time processing, and
+ * total age since NT received the value, i.e. how far behind the camera we are
+ * (not counting the camera's own latency).
+ */
+public class VisionWorker implements Glassy {
+    /** Receives frames on the worker thread. */
+    public interface Handler {
+        /**
+         * Decode one frame, accumulating any results.
+         * 
+         * @param receivedUs NT arrival time, which is the FPGA time on the RoboRIO.
+         *                   Use this, not the current time, to stamp measurements,
+         *                   so time spent in the queue isn't counted as latency.
+         */
+        void accept(String topic, byte[] raw, long receivedUs);
+
+        /** Use the results accumulated since the last flush. */
+        default void flush() {
+            //
+        }
+    }
+
+    /** A raw value, captured on the listener thread. */
+    private record Frame(String topic, byte[] raw, long receivedUs, long enqueuedNs) {
+    }
+
+    private final Telemetry t = Telemetry.get();
+    private final String m_name;
+    private final BlockingQueue<Frame> m_queue;
+    private final Handler m_handler;
+    private final int m_priority;
+    private final AtomicLong m_drops;
+    /** Frames drained in one wakeup; reused, touched only by the worker. */
+    private final List<Frame> m_batch;
+
+    // LOGGERS
+    private final LongLogger m_log_depth;
+    private final LongLogger m_log_batch;
+    private final LongLogger m_log_drops;
+    private final DoubleLogger m_log_wait;
+    private final DoubleLogger m_log_process;
+    private final DoubleLogger m_log_age;
+
+    /**
+     * @param name     for the thread and the logs
+     * @param capacity queue size
+     * @param priority thread priority, see Thread.setPriority()
+     * @param handler  receives frames on the worker thread
+     */
+    public VisionWorker(
+            String name,
+            int capacity,
+            int priority,
+            Handler handler) {
+        m_name = name + "/" + getGlassName();
+        m_queue = new ArrayBlockingQueue<>(capacity);
+        m_handler = handler;
+        m_priority = priority;
+        m_drops = new AtomicLong();
+        m_batch = new ArrayList<>(capacity);
+        m_log_depth = t.longLogger(Level.DEBUG, m_name, "queue depth");
+        m_log_batch = t.longLogger(Level.DEBUG, m_name, "batch size");
+        m_log_drops = t.longLogger(Level.DEBUG, m_name, "drops");
+        m_log_wait = t.doubleLogger(Level.DEBUG, m_name, "queue wait ms");
+        m_log_process = t.doubleLogger(Level.DEBUG, m_name, "process ms");
+        m_log_age = t.doubleLogger(Level.DEBUG, m_name, "age ms");
+    }
+
+    /** Start the worker thread. */
+    public void start() {
+        Thread thread = new Thread(this::run);
+        thread.setPriority(m_priority);
+        thread.setDaemon(true);
+        thread.setName(m_name);
+        thread.start();
+    }
+
+    /**
+     * NT listener side: capture raw values, ignore everything else. Does very
+     * little, so the listener thread is free for other topics.
+     */
+    public void accept(NetworkTableEvent e) {
+        NetworkTableValue v = e.valueData.value;
+        if (!v.isRaw())
+            return;
+        offer(e.valueData.getTopic().getName(), v.getRaw(), v.getTime());
+    }
+
+    /**
+     * Enqueue a value, dropping the oldest one if the queue is full.
+     *
+     * @param receivedUs NT time, see NetworkTablesJNI.now()
+     */
+    public void offer(String topic, byte[] raw, long receivedUs) {
+        Frame frame = new Frame(topic, raw, receivedUs, System.nanoTime());
+        while (!m_queue.offer(frame)) {
+            if (m_queue.poll() != null)
+                m_drops.incrementAndGet();
+        }
+    }
+
+    /** Items dropped because the queue was full. */
+    public long drops() {
+        return m_drops.get();
+    }
+
+    /**
+     * Process everything pending, waiting if there's nothing. The handler is
+     * flushed once for the whole batch.
+     */
+    void processBatch() throws InterruptedException {
+        m_batch.add(m_queue.take());
+        m_queue.drainTo(m_batch);
+        try {
+            long startNs = System.nanoTime();
+            // the oldest frame waited longest
+            m_log_wait.log((startNs - m_batch.get(0).enqueuedNs()) * 1e-6);
+            for (int i = 0; i < m_batch.size(); ++i) {
+                Frame frame = m_batch.get(i);
+                m_handler.accept(frame.topic(), frame.raw(), frame.receivedUs());
+            }
+            m_handler.flush();
+            m_log_process.log((System.nanoTime() - startNs) * 1e-6);
+            m_log_age.log((NetworkTablesJNI.now() - m_batch.get(0).receivedUs()) * 1e-3);
+            m_log_batch.log(m_batch.size());
+            m_log_depth.log(m_queue.size());
+            m_log_drops.log(m_drops.get());
+        } finally {
+            m_batch.clear();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            try {
+                processBatch();
+            } catch (InterruptedException e) {
+                Util.warn("vision worker interrupted");
+                return;
+            } catch (Throwable e) {
+                Util.warn(e.toString());
+            }
+        }
+    }
+
+    @Override
+    public String getGlassName() {
+        return "VisionWorker";
+    }
+}
@@ -20,6 +20,8 @@ public class ArmAngles {
         this.th2 = th2;
     }
 
+    public static final ArmAnglesStruct struct = new ArmAnglesStruct();
+
     @Override
     public String toString() {
         return "ArmAngles [th1=" + th1 + ", th2=" + th2 + "]";
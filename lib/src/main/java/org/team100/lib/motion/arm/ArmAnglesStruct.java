@@ -0,0 +1,42 @@
+package org.team100.lib.motion.arm;
+
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.util.struct.Struct;
+
+public class ArmAnglesStruct implements Struct<ArmAngles> {
+
+    @Override
+    public Class<ArmAngles> getTypeClass() {
+        return ArmAngles.class;
+    }
+
+    @Override
+    public String getTypeString() {
+        return "struct:ArmAngles";
+    }
+
+    @Override
+    public int getSize() {
+        return kSizeDouble * 2;
+    }
+
+    @Override
+    public String getSchema() {
+        return "double th1;double th2";
+    }
+
+    @Override
+    public ArmAngles unpack(ByteBuffer bb) {
+        double th1 = bb.getDouble();
+        double th2 = bb.getDouble();
+        return new ArmAngles(th1, th2);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, ArmAngles value) {
+        bb.putDouble(value.th1);
+        bb.putDouble(value.th2);
+    }
+
+}
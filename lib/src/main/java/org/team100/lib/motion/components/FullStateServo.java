@@ -3,6 +3,7 @@ package org.team100.lib.motion.components;
 import org.team100.lib.controller.State100;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
 import org.team100.lib.profile.Profile100;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
@@ -32,6 +33,8 @@ public class FullStateServo<T extends Measure100> implements Glassy {
     private final String m_name;
     private final Profile100 m_profile;
     private final T m_instance;
+    // reused for each reading
+    private final EncoderSample m_sample = new EncoderSample();
 
     private State100 m_setpoint;
 
@@ -77,7 +80,14 @@ public class FullStateServo<T extends Measure100> implements Glassy {
             Util.warn("No FullStateServo.m_setpoint! Call reset() before setPosition()");
             return;
         }
-        double measurement = m_instance.modulus(m_encoder.getPosition());
+        m_encoder.sample(m_sample);
+        if (!m_sample.valid()) {
+            // with no measurement, there's nothing to control, so stop.
+            m_servo.stop();
+            t.log(Level.WARN, m_name, "encoder disconnected", true);
+            return;
+        }
+        double measurement = m_instance.modulus(m_sample.position());
         // make sure the goal and setpoint use the modulus that's close to the
         // measurement.
         State100 m_goal = new State100(
@@ -90,7 +100,7 @@ public class FullStateServo<T extends Measure100> implements Glassy {
         m_setpoint = m_profile.calculate(m_period, m_setpoint, m_goal);
         double u_XFB = m_xController.calculate(measurement, m_setpoint.x());
 
-        double velocityMeasurement = m_encoder.getRate();
+        double velocityMeasurement = m_sample.rate();
         double u_VFB = m_vController.calculate(velocityMeasurement, m_setpoint.v());
 
         double u_FF = m_setpoint.v();
@@ -127,7 +137,13 @@ public class FullStateServo<T extends Measure100> implements Glassy {
      * @return For distance this is meters, for angle this is radians.
      */
     public double getPosition() {
-        return m_instance.modulus(m_encoder.getPosition());
+        // position only: sample() would also update the rate estimator.
+        Double position = m_encoder.getPosition();
+        if (position == null) {
+            // disconnected, so use the last valid position.
+            return m_instance.modulus(m_sample.position());
+        }
+        return m_instance.modulus(position);
     }
 
     public double getVelocity() {
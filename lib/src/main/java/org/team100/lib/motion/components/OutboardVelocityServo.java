@@ -1,6 +1,7 @@
 package org.team100.lib.motion.components;
 
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
 import org.team100.lib.motor.Motor100;
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
@@ -17,6 +18,8 @@ public class OutboardVelocityServo<T extends Measure100> implements VelocityServ
     private final Motor100<T> m_motor;
     private final Encoder100<T> m_encoder;
     private final String m_name;
+    // reused for each reading
+    private final EncoderSample m_sample = new EncoderSample();
 
     // for calculating acceleration
     private double previousSetpoint = 0;
@@ -82,7 +85,9 @@ public class OutboardVelocityServo<T extends Measure100> implements VelocityServ
 
     @Override
     public double getDistance() {
-        return m_encoder.getPosition();
+        // if the encoder is disconnected, this is the last valid position.
+        m_encoder.sample(m_sample);
+        return m_sample.position();
     }
 
     /** For testing */
@@ -1,11 +1,15 @@
 package org.team100.lib.motion.components;
 
+import org.team100.lib.controller.MutableState100;
 import org.team100.lib.controller.State100;
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
 import org.team100.lib.motor.Motor100;
 import org.team100.lib.profile.Profile100;
 import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.State100Logger;
 import org.team100.lib.units.Measure100;
 import org.team100.lib.util.Names;
 
@@ -15,6 +19,9 @@ import edu.wpi.first.wpilibj.Timer;
 
 /**
  * Positional control.
+ * 
+ * The goal and setpoint are updated in place, and logging uses pre-bound
+ * handles, so the setPosition methods don't allocate in steady state.
  */
 public class PositionServo<T extends Measure100> implements PositionServoInterface<T> {
     private final Telemetry t = Telemetry.get();
@@ -26,9 +33,25 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
     private final String m_name;
     private final Profile100 m_profile;
     private final T m_instance;
+    // reused for each reading
+    private final EncoderSample m_sample = new EncoderSample();
+
+    // reused every cycle, see Profile100.calculate(dt, initial, goal, out)
+    private final MutableState100 m_goal = new MutableState100(0, 0);
+    private final MutableState100 m_setpoint = new MutableState100(0, 0);
+
+    private final DoubleLogger m_log_desired;
+    private final DoubleLogger m_log_u_FB;
+    private final DoubleLogger m_log_u_FF;
+    private final DoubleLogger m_log_u_TOTAL;
+    private final DoubleLogger m_log_measurement;
+    private final State100Logger m_log_goal;
+    private final State100Logger m_log_setpoint;
+    private final DoubleLogger m_log_setpoint_v;
+    private final DoubleLogger m_log_position_error;
+    private final DoubleLogger m_log_velocity_error;
+    private final DoubleLogger m_log_ff_torque;
 
-    private State100 m_goal = new State100(0, 0);
-    private State100 m_setpoint = new State100(0, 0);
     // for calculating acceleration
     private double previousSetpoint = 0;
     private double prevTime;
@@ -54,6 +77,17 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
         m_name = Names.append(name, this);
         m_profile = profile;
         m_instance = instance;
+        m_log_desired = t.doubleLogger(Level.DEBUG, m_name, "Desired velocity setpoint");
+        m_log_u_FB = t.doubleLogger(Level.TRACE, m_name, "u_FB");
+        m_log_u_FF = t.doubleLogger(Level.TRACE, m_name, "u_FF");
+        m_log_u_TOTAL = t.doubleLogger(Level.TRACE, m_name, "u_TOTAL");
+        m_log_measurement = t.doubleLogger(Level.DEBUG, m_name, "Measurement");
+        m_log_goal = t.state100Logger(Level.DEBUG, m_name, "Goal");
+        m_log_setpoint = t.state100Logger(Level.DEBUG, m_name, "Setpoint");
+        m_log_setpoint_v = t.doubleLogger(Level.DEBUG, m_name, "Setpoint Velocity");
+        m_log_position_error = t.doubleLogger(Level.TRACE, m_name, "Controller Position Error");
+        m_log_velocity_error = t.doubleLogger(Level.TRACE, m_name, "Controller Velocity Error");
+        m_log_ff_torque = t.doubleLogger(Level.TRACE, m_name, "Feedforward Torque");
     }
 
     /**
@@ -65,7 +99,7 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
     @Override
     public void reset() {
         m_controller.reset();
-        m_setpoint = new State100(getPosition(), getVelocity());
+        m_setpoint.set(getPosition(), getVelocity());
         prevTime = Timer.getFPGATimestamp();
 
         // ALERT! @joel 2/19/24: I think encoder reset changes the internal offset
@@ -79,17 +113,14 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
      */
     @Override
     public void setPosition(double goal) {
-        double measurement = m_instance.modulus(m_encoder.getPosition());
+        m_encoder.sample(m_sample);
+        if (!m_sample.valid()) {
+            disconnected();
+            return;
+        }
+        double measurement = m_instance.modulus(m_sample.position());
 
-        // use the modulus closest to the measurement.
-        // note zero velocity in the goal.
-        m_goal = new State100(m_instance.modulus(goal - measurement) + measurement, 0.0);
-
-        m_setpoint = new State100(
-                m_instance.modulus(m_setpoint.x() - measurement) + measurement,
-                m_setpoint.v());
-
-        m_setpoint = m_profile.calculate(m_period, m_setpoint, m_goal);
+        updateSetpoint(goal, measurement);
 
         double u_FB = m_controller.calculate(measurement, m_setpoint.x());
         double u_FF = m_setpoint.v();
@@ -99,19 +130,11 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
         u_TOTAL = MathUtil.clamp(u_TOTAL, -m_maxVel, m_maxVel);
 
         m_motor.setVelocity(u_TOTAL, accel(u_TOTAL), 0);
-        t.log(Level.DEBUG, m_name, "Desired velocity setpoint", u_TOTAL);
+        m_log_desired.log(u_TOTAL);
 
         m_controller.setIntegratorRange(0, 0.1);
 
-        t.log(Level.TRACE, m_name, "u_FB", u_FB);
-        t.log(Level.TRACE, m_name, "u_FF", u_FF);
-        t.log(Level.TRACE, m_name, "u_TOTAL", u_TOTAL);
-        t.log(Level.DEBUG, m_name, "Measurement", measurement);
-        t.log(Level.DEBUG, m_name, "Goal", m_goal);
-        t.log(Level.DEBUG, m_name, "Setpoint", m_setpoint);
-        t.log(Level.DEBUG, m_name, "Setpoint Velocity", m_setpoint.v());
-        t.log(Level.TRACE, m_name, "Controller Position Error", m_controller.getPositionError());
-        t.log(Level.TRACE, m_name, "Controller Velocity Error", m_controller.getVelocityError());
+        log(u_FB, u_FF, u_TOTAL, measurement);
     }
 
      /**
@@ -119,17 +142,14 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
      */
     @Override
     public void setPositionDirect(double goal) {
-        double measurement = m_instance.modulus(m_encoder.getPosition());
-
-        // use the modulus closest to the measurement.
-        // note zero velocity in the goal.
-        m_goal = new State100(m_instance.modulus(goal - measurement) + measurement, 0.0);
-
-        m_setpoint = new State100(
-                m_instance.modulus(m_setpoint.x() - measurement) + measurement,
-                m_setpoint.v());
+        m_encoder.sample(m_sample);
+        if (!m_sample.valid()) {
+            disconnected();
+            return;
+        }
+        double measurement = m_instance.modulus(m_sample.position());
 
-        m_setpoint = m_profile.calculate(m_period, m_setpoint, m_goal);
+        updateSetpoint(goal, measurement);
 
         double u_FB = m_controller.calculate(measurement, m_setpoint.x());
         double u_FF = m_setpoint.v();
@@ -139,19 +159,11 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
         u_TOTAL = MathUtil.clamp(u_TOTAL, -1, 1);
 
         m_motor.setDutyCycle(u_TOTAL);
-        t.log(Level.DEBUG, m_name, "Desired velocity setpoint", u_TOTAL);
+        m_log_desired.log(u_TOTAL);
 
         m_controller.setIntegratorRange(0, 0.1);
 
-        t.log(Level.TRACE, m_name, "u_FB", u_FB);
-        t.log(Level.TRACE, m_name, "u_FF", u_FF);
-        t.log(Level.TRACE, m_name, "u_TOTAL", u_TOTAL);
-        t.log(Level.DEBUG, m_name, "Measurement", measurement);
-        t.log(Level.DEBUG, m_name, "Goal", m_goal);
-        t.log(Level.DEBUG, m_name, "Setpoint", m_setpoint);
-        t.log(Level.DEBUG, m_name, "Setpoint Velocity", m_setpoint.v());
-        t.log(Level.TRACE, m_name, "Controller Position Error", m_controller.getPositionError());
-        t.log(Level.TRACE, m_name, "Controller Velocity Error", m_controller.getVelocityError());
+        log(u_FB, u_FF, u_TOTAL, measurement);
     }
 
     /**
@@ -161,17 +173,14 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
      */
     @Override
     public void setPosition(double goal, double feedForwardTorqueNm) {
-        double measurement = m_instance.modulus(m_encoder.getPosition());
-
-        // use the modulus closest to the measurement.
-        // note zero velocity in the goal.
-        m_goal = new State100(m_instance.modulus(goal - measurement) + measurement, 0.0);
-
-        m_setpoint = new State100(
-                m_instance.modulus(m_setpoint.x() - measurement) + measurement,
-                m_setpoint.v());
+        m_encoder.sample(m_sample);
+        if (!m_sample.valid()) {
+            disconnected();
+            return;
+        }
+        double measurement = m_instance.modulus(m_sample.position());
 
-        m_setpoint = m_profile.calculate(m_period, m_setpoint, m_goal);
+        updateSetpoint(goal, measurement);
 
         double u_FB = m_controller.calculate(measurement, m_setpoint.x());
         double u_FF = m_setpoint.v();
@@ -182,27 +191,19 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
 
         // pass the feedforward through unmodified
         m_motor.setVelocity(u_TOTAL, accel(u_TOTAL), feedForwardTorqueNm);
-        t.log(Level.DEBUG, m_name, "Desired velocity setpoint", u_TOTAL);
+        m_log_desired.log(u_TOTAL);
 
         m_controller.setIntegratorRange(0, 0.1);
 
-        t.log(Level.TRACE, m_name, "u_FB", u_FB);
-        t.log(Level.TRACE, m_name, "u_FF", u_FF);
-        t.log(Level.TRACE, m_name, "u_TOTAL", u_TOTAL);
-        t.log(Level.DEBUG, m_name, "Measurement", measurement);
-        t.log(Level.DEBUG, m_name, "Goal", m_goal);
-        t.log(Level.DEBUG, m_name, "Setpoint", m_setpoint);
-        t.log(Level.DEBUG, m_name, "Setpoint Velocity", m_setpoint.v());
-        t.log(Level.TRACE, m_name, "Controller Position Error", m_controller.getPositionError());
-        t.log(Level.TRACE, m_name, "Controller Velocity Error", m_controller.getVelocityError());
-        t.log(Level.TRACE, m_name, "Feedforward Torque", feedForwardTorqueNm);
+        log(u_FB, u_FF, u_TOTAL, measurement);
+        m_log_ff_torque.log(feedForwardTorqueNm);
     }
 
     /** Direct velocity control for testing */
     @Override
     public void setVelocity(double velocity) {
         m_motor.setVelocity(velocity, accel(velocity), 0);
-        t.log(Level.DEBUG, m_name, "Desired velocity setpoint", velocity);
+        m_log_desired.log(velocity);
     }
 
     /**
@@ -211,7 +212,13 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
      */
     @Override
     public double getPosition() {
-        return m_instance.modulus(m_encoder.getPosition());
+        // position only: sample() would also update the rate estimator.
+        Double position = m_encoder.getPosition();
+        if (position == null) {
+            // disconnected, so use the last valid position.
+            return m_instance.modulus(m_sample.position());
+        }
+        return m_instance.modulus(position);
     }
 
     @Override
@@ -263,14 +270,45 @@ public class PositionServo<T extends Measure100> implements PositionServoInterfa
         m_encoder.close();
     }
 
-    /** for testing only */
+    /** for testing only; a snapshot, since the setpoint is reused. */
     @Override
     public State100 getSetpoint() {
-        return m_setpoint;
+        return m_setpoint.copy();
     }
 
     ////////////////////////////////////////////////
 
+    /**
+     * Use the modulus closest to the measurement, for both the goal (with zero
+     * velocity) and the previous setpoint, and then take one profile step,
+     * overwriting the setpoint.
+     */
+    private void updateSetpoint(double goal, double measurement) {
+        m_goal.set(m_instance.modulus(goal - measurement) + measurement, 0.0);
+        m_setpoint.set(
+                m_instance.modulus(m_setpoint.x() - measurement) + measurement,
+                m_setpoint.v());
+        m_profile.calculate(m_period, m_setpoint, m_goal, m_setpoint);
+    }
+
+    private void log(double u_FB, double u_FF, double u_TOTAL, double measurement) {
+        m_log_u_FB.log(u_FB);
+        m_log_u_FF.log(u_FF);
+        m_log_u_TOTAL.log(u_TOTAL);
+        m_log_measurement.log(measurement);
+        m_log_goal.log(m_goal);
+        m_log_setpoint.log(m_setpoint);
+        m_log_setpoint_v.log(m_setpoint.v());
+        m_log_position_error.log(m_controller.getPositionError());
+        m_log_velocity_error.log(m_controller.getVelocityError());
+    }
+
+    /** With no measurement, there's nothing to control, so stop. */
+    private void disconnected() {
+        m_motor.stop();
+        t.log(Level.WARN, m_name, "encoder disconnected", true);
+    }
+
     /**
      * there will be some jitter in dt, which will result in a small amount of
      * jitter in acceleration, and since this is a trailing difference there will be
@@ -3,7 +3,11 @@ package org.team100.lib.motion.components;
 import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.config.SysParam;
+import org.team100.lib.encoder.AlphaBetaGammaFilter;
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderRate;
+import org.team100.lib.encoder.FiniteDifference;
+import org.team100.lib.encoder.RateEstimator;
 import org.team100.lib.encoder.SimulatedEncoder;
 import org.team100.lib.encoder.drive.NeoDriveEncoder;
 import org.team100.lib.encoder.drive.NeoVortexDriveEncoder;
@@ -22,6 +26,23 @@ import org.team100.lib.units.Distance100;
 import edu.wpi.first.math.controller.PIDController;
 
 public class ServoFactory {
+    /** Smooths analog and PWM steering encoders, with little lag. */
+    private static final double kSteeringRateTauS = 0.03;
+
+    /**
+     * A new rate estimator for an absolute steering encoder; each encoder needs
+     * its own. The finite difference is very noisy, so the filter is better, but
+     * check it on the robot before choosing it.
+     */
+    public static RateEstimator steeringRateEstimator(EncoderRate rate) {
+        switch (rate) {
+            case FILTERED:
+                return new AlphaBetaGammaFilter(kSteeringRateTauS);
+            case FINITE_DIFFERENCE:
+            default:
+                return new FiniteDifference();
+        }
+    }
 
     /**
      * 
@@ -7,13 +7,18 @@ import org.team100.lib.commands.Subsystem100;
 import org.team100.lib.config.DriverSkill;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.hid.DriverControl;
+import org.team100.lib.localization.OdometryThread;
 import org.team100.lib.localization.SwerveDrivePoseEstimator100;
 import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeAcceleration;
 import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeVelocity;
 import org.team100.lib.sensors.HeadingInterface;
 import org.team100.lib.swerve.SwerveSetpoint;
 import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.DoubleArrayLogger;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
+import org.team100.lib.telemetry.Telemetry.EnumLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.SwerveStateLogger;
 import org.team100.lib.util.ExpiringMemoizingSupplier;
 import org.team100.lib.util.Names;
 
@@ -35,7 +40,22 @@ public class SwerveDriveSubsystem extends Subsystem100 {
     private final SwerveDrivePoseEstimator100 m_poseEstimator;
     private final SwerveLocal m_swerveLocal;
     private final Supplier<DriverControl.Speed> m_speed;
+    /** If null, odometry is sampled in update(), otherwise it's drained. */
+    private final OdometryThread m_odometry;
     private final String m_name;
+    // reused for the pose array logs
+    private final double[] m_poseArray;
+    private final double[] m_fieldArray;
+
+    // LOGGERS
+    private final SwerveStateLogger m_log_pose;
+    private final DoubleLogger m_log_turning;
+    private final DoubleArrayLogger m_log_pose_array;
+    private final SwerveStateLogger m_log_state;
+    private final DoubleArrayLogger m_log_field_robot;
+    private final DoubleLogger m_log_heading_rate;
+    private final EnumLogger m_log_control_speed;
+    private final EnumLogger m_log_skill_level;
 
     private ExpiringMemoizingSupplier<SwerveState> m_stateSupplier;
 
@@ -44,11 +64,34 @@ public class SwerveDriveSubsystem extends Subsystem100 {
             SwerveDrivePoseEstimator100 poseEstimator,
             SwerveLocal swerveLocal,
             Supplier<DriverControl.Speed> speed) {
+        this(heading, poseEstimator, swerveLocal, speed, null);
+    }
+
+    /**
+     * @param odometry samples the modules and gyro on its own thread; may be null.
+     */
+    public SwerveDriveSubsystem(
+            HeadingInterface heading,
+            SwerveDrivePoseEstimator100 poseEstimator,
+            SwerveLocal swerveLocal,
+            Supplier<DriverControl.Speed> speed,
+            OdometryThread odometry) {
         m_heading = heading;
         m_poseEstimator = poseEstimator;
         m_swerveLocal = swerveLocal;
         m_speed = speed;
+        m_odometry = odometry;
         m_name = Names.name(this);
+        m_poseArray = new double[3];
+        m_fieldArray = new double[3];
+        m_log_pose = t.swerveStateLogger(Level.DEBUG, m_name, "pose");
+        m_log_turning = t.doubleLogger(Level.TRACE, m_name, "Tur Deg");
+        m_log_pose_array = t.doubleArrayLogger(Level.DEBUG, m_name, "pose array");
+        m_log_state = t.swerveStateLogger(Level.DEBUG, m_name, "state");
+        m_log_field_robot = t.doubleArrayLogger(Level.INFO, "field", "robot");
+        m_log_heading_rate = t.doubleLogger(Level.DEBUG, m_name, "heading rate rad_s");
+        m_log_control_speed = t.enumLogger(Level.TRACE, m_name, "control_speed");
+        m_log_skill_level = t.enumLogger(Level.TRACE, m_name, "skill level");
         // state update at 200 hz.
         m_stateSupplier = new ExpiringMemoizingSupplier<>(this::update, 5000);
         stop();
@@ -71,25 +114,23 @@ public class SwerveDriveSubsystem extends Subsystem100 {
      */
     @Override
     public void periodic100(double dt) {
-        t.log(Level.DEBUG, m_name, "pose", m_stateSupplier.get());
-        t.log(Level.TRACE, m_name, "Tur Deg", m_stateSupplier.get().pose().getRotation().getDegrees());
-        t.log(Level.DEBUG, m_name, "pose array",
-                new double[] {
-                        m_stateSupplier.get().pose().getX(),
-                        m_stateSupplier.get().pose().getY(),
-                        m_stateSupplier.get().pose().getRotation().getRadians()
-                });
-        t.log(Level.DEBUG, m_name, "state", m_stateSupplier.get());
+        SwerveState state = m_stateSupplier.get();
+        m_log_pose.log(state);
+        m_log_turning.log(Math.toDegrees(state.theta().x()));
+        m_poseArray[0] = state.x().x();
+        m_poseArray[1] = state.y().x();
+        m_poseArray[2] = state.theta().x();
+        m_log_pose_array.log(m_poseArray);
+        m_log_state.log(state);
 
         // Update the Field2d widget
         // the name "field" is used by Field2d.
         // the name "robot" can be anything.
-        t.log(Level.INFO, "field", "robot", new double[] {
-                m_stateSupplier.get().pose().getX(),
-                m_stateSupplier.get().pose().getY(),
-                m_stateSupplier.get().pose().getRotation().getDegrees()
-        });
-        t.log(Level.DEBUG, m_name, "heading rate rad_s", m_heading.getHeadingRateNWU());
+        m_fieldArray[0] = state.x().x();
+        m_fieldArray[1] = state.y().x();
+        m_fieldArray[2] = Math.toDegrees(state.theta().x());
+        m_log_field_robot.log(m_fieldArray);
+        m_log_heading_rate.log(m_heading.getHeadingRateNWU());
     }
 
 
@@ -122,11 +163,11 @@ public class SwerveDriveSubsystem extends Subsystem100 {
      */
     public void driveInFieldCoords(FieldRelativeVelocity twist, double kDtSec) {
         DriverControl.Speed speed = m_speed.get();
-        t.log(Level.TRACE, m_name, "control_speed", speed);
+        m_log_control_speed.log(speed);
 
         // scale for driver skill; default is half speed.
         DriverSkill.Level driverSkillLevel = DriverSkill.level();
-        t.log(Level.TRACE, m_name, "skill level", driverSkillLevel);
+        m_log_skill_level.log(driverSkillLevel);
         twist = GeometryUtil.scale(twist, driverSkillLevel.scale());
 
         ChassisSpeeds targetChassisSpeeds = ChassisSpeeds.fromFieldRelativeSpeeds(
@@ -166,7 +207,7 @@ public class SwerveDriveSubsystem extends Subsystem100 {
     public void setChassisSpeeds(ChassisSpeeds speeds, double kDtSec) {
         // scale for driver skill; default is half speed.
         DriverSkill.Level driverSkillLevel = DriverSkill.level();
-        t.log(Level.TRACE, m_name, "skill level", driverSkillLevel);
+        m_log_skill_level.log(driverSkillLevel);
         speeds = speeds.times(driverSkillLevel.scale());
 
         m_swerveLocal.setChassisSpeeds(speeds, m_heading.getHeadingRateNWU(), kDtSec);
@@ -278,6 +319,10 @@ public class SwerveDriveSubsystem extends Subsystem100 {
 
     /** used by the supplier */
     private SwerveState update() {
+        if (m_odometry != null) {
+            m_poseEstimator.update(m_odometry);
+            return m_poseEstimator.getEstimatedPosition();
+        }
         return m_poseEstimator.update(
                 Timer.getFPGATimestamp(),
                 m_heading.getHeadingNWU(),
@@ -52,6 +52,8 @@ public class SwerveLocal implements Glassy {
     private final AsymSwerveSetpointGenerator m_SwerveSetpointGenerator;
     private final String m_name;
     private SwerveSetpoint prevSetpoint;
+    /** Reused by the setpoint generator, to avoid garbage. */
+    private final SwerveSetpoint m_setpoint;
 
     public SwerveLocal(
             SwerveKinodynamics swerveKinodynamics,
@@ -61,6 +63,7 @@ public class SwerveLocal implements Glassy {
         m_name = Names.name(this);
         m_SwerveSetpointGenerator = new AsymSwerveSetpointGenerator(m_name, m_swerveKinodynamics);
         prevSetpoint = new SwerveSetpoint();
+        m_setpoint = new SwerveSetpoint();
     }
 
     //////////////////////////////////////////////////////////
@@ -207,18 +210,20 @@ public class SwerveLocal implements Glassy {
     private void setChassisSpeedsWithSetpointGenerator(
             ChassisSpeeds speeds,
             double kDtSec) {
+        t.log(Level.TRACE, m_name, "prevSetpoint chassis speed", prevSetpoint.getChassisSpeeds());
         // Informs SwerveDriveKinematics of the module states.
-        SwerveSetpoint setpoint = m_SwerveSetpointGenerator.generateSetpoint(
+        // prevSetpoint may be m_setpoint, which is fine.
+        m_SwerveSetpointGenerator.generateSetpoint(
                 prevSetpoint,
                 speeds,
-                kDtSec);
+                kDtSec,
+                m_setpoint);
         // ideally delta would be zero because our input would be feasible.
-        ChassisSpeeds delta = setpoint.getChassisSpeeds().minus(speeds);
+        ChassisSpeeds delta = m_setpoint.getChassisSpeeds().minus(speeds);
         t.log(Level.DEBUG, m_name, "setpoint delta", delta);
-        t.log(Level.TRACE, m_name, "prevSetpoint chassis speed", prevSetpoint.getChassisSpeeds());
-        t.log(Level.DEBUG, m_name, "setpoint chassis speed", setpoint.getChassisSpeeds());
-        setModuleStates(setpoint.getModuleStates());
-        prevSetpoint = setpoint;
+        t.log(Level.DEBUG, m_name, "setpoint chassis speed", m_setpoint.getChassisSpeeds());
+        setModuleStates(m_setpoint.getModuleStates());
+        prevSetpoint = m_setpoint;
     }
 
     /** Desaturation mutates states. */
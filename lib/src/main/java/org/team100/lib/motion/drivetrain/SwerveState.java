@@ -47,6 +47,8 @@ public class SwerveState {
         this(new State100(), new State100(), new State100());
     }
 
+    public static final SwerveStateStruct struct = new SwerveStateStruct();
+
     public Pose2d pose() {
         return new Pose2d(m_x.x(), m_y.x(), new Rotation2d(m_theta.x()));
     }
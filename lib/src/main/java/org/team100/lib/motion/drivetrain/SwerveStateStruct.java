@@ -0,0 +1,51 @@
+package org.team100.lib.motion.drivetrain;
+
+import java.nio.ByteBuffer;
+
+import org.team100.lib.controller.State100;
+
+import edu.wpi.first.util.struct.Struct;
+
+public class SwerveStateStruct implements Struct<SwerveState> {
+
+    @Override
+    public Class<SwerveState> getTypeClass() {
+        return SwerveState.class;
+    }
+
+    @Override
+    public String getTypeString() {
+        return "struct:SwerveState";
+    }
+
+    @Override
+    public int getSize() {
+        return State100.struct.getSize() * 3;
+    }
+
+    @Override
+    public String getSchema() {
+        return "State100 x;State100 y;State100 theta";
+    }
+
+    @Override
+    public Struct<?>[] getNested() {
+        return new Struct<?>[] { State100.struct };
+    }
+
+    @Override
+    public SwerveState unpack(ByteBuffer bb) {
+        State100 x = State100.struct.unpack(bb);
+        State100 y = State100.struct.unpack(bb);
+        State100 theta = State100.struct.unpack(bb);
+        return new SwerveState(x, y, theta);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, SwerveState value) {
+        State100.struct.pack(bb, value.x());
+        State100.struct.pack(bb, value.y());
+        State100.struct.pack(bb, value.theta());
+    }
+
+}
@@ -3,6 +3,8 @@ package org.team100.lib.motion.drivetrain.kinodynamics;
 import edu.wpi.first.math.MathUtil;
 
 public record FieldRelativeAcceleration(double x, double y, double theta) {
+    public static final FieldRelativeAccelerationStruct struct = new FieldRelativeAccelerationStruct();
+
     public FieldRelativeVelocity integrate(double dtSec) {
         return new FieldRelativeVelocity(x * dtSec, y * dtSec, theta * dtSec);
     }
@@ -0,0 +1,44 @@
+package org.team100.lib.motion.drivetrain.kinodynamics;
+
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.util.struct.Struct;
+
+public class FieldRelativeAccelerationStruct implements Struct<FieldRelativeAcceleration> {
+
+    @Override
+    public Class<FieldRelativeAcceleration> getTypeClass() {
+        return FieldRelativeAcceleration.class;
+    }
+
+    @Override
+    public String getTypeString() {
+        return "struct:FieldRelativeAcceleration";
+    }
+
+    @Override
+    public int getSize() {
+        return kSizeDouble * 3;
+    }
+
+    @Override
+    public String getSchema() {
+        return "double x;double y;double theta";
+    }
+
+    @Override
+    public FieldRelativeAcceleration unpack(ByteBuffer bb) {
+        double x = bb.getDouble();
+        double y = bb.getDouble();
+        double theta = bb.getDouble();
+        return new FieldRelativeAcceleration(x, y, theta);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, FieldRelativeAcceleration value) {
+        bb.putDouble(value.x());
+        bb.putDouble(value.y());
+        bb.putDouble(value.theta());
+    }
+
+}
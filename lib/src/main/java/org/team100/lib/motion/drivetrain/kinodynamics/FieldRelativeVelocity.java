@@ -7,6 +7,8 @@ import edu.wpi.first.math.geometry.Rotation2d;
  * Just like ChassisSpeeds, but field-relative, to avoid mixing them up.
  */
 public record FieldRelativeVelocity(double x, double y, double theta) {
+    public static final FieldRelativeVelocityStruct struct = new FieldRelativeVelocityStruct();
+
     public double norm() {
         return Math.hypot(x, y);
     }
@@ -0,0 +1,44 @@
+package org.team100.lib.motion.drivetrain.kinodynamics;
+
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.util.struct.Struct;
+
+public class FieldRelativeVelocityStruct implements Struct<FieldRelativeVelocity> {
+
+    @Override
+    public Class<FieldRelativeVelocity> getTypeClass() {
+        return FieldRelativeVelocity.class;
+    }
+
+    @Override
+    public String getTypeString() {
+        return "struct:FieldRelativeVelocity";
+    }
+
+    @Override
+    public int getSize() {
+        return kSizeDouble * 3;
+    }
+
+    @Override
+    public String getSchema() {
+        return "double x;double y;double theta";
+    }
+
+    @Override
+    public FieldRelativeVelocity unpack(ByteBuffer bb) {
+        double x = bb.getDouble();
+        double y = bb.getDouble();
+        double theta = bb.getDouble();
+        return new FieldRelativeVelocity(x, y, theta);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, FieldRelativeVelocity value) {
+        bb.putDouble(value.x());
+        bb.putDouble(value.y());
+        bb.putDouble(value.theta());
+    }
+
+}
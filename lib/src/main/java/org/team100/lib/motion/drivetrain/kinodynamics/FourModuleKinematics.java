@@ -0,0 +1,163 @@
+package org.team100.lib.motion.drivetrain.kinodynamics;
+
+import org.ejml.simple.SimpleMatrix;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * The same math as the matrices in SwerveDriveKinematics100, unrolled for four
+ * modules, which is what every robot has.
+ *
+ * The inverse only needs the module locations. The forward is the (3 x 8)
+ * pseudo-inverse, copied into fields, and the sums are in the same order as
+ * the matrix multiplication, so the results agree to within rounding.
+ *
+ * Nothing here allocates except the Rotation2d for each module angle.
+ */
+class FourModuleKinematics {
+    // module locations
+    private final double m_x0;
+    private final double m_y0;
+    private final double m_x1;
+    private final double m_y1;
+    private final double m_x2;
+    private final double m_y2;
+    private final double m_x3;
+    private final double m_y3;
+
+    // forward kinematics, row r, column c
+    private final double m_f00, m_f01, m_f02, m_f03, m_f04, m_f05, m_f06, m_f07;
+    private final double m_f10, m_f11, m_f12, m_f13, m_f14, m_f15, m_f16, m_f17;
+    private final double m_f20, m_f21, m_f22, m_f23, m_f24, m_f25, m_f26, m_f27;
+
+    /**
+     * @param locations module locations
+     * @param forward   the (3 x 8) forward kinematics matrix
+     */
+    FourModuleKinematics(Translation2d[] locations, SimpleMatrix forward) {
+        m_x0 = locations[0].getX();
+        m_y0 = locations[0].getY();
+        m_x1 = locations[1].getX();
+        m_y1 = locations[1].getY();
+        m_x2 = locations[2].getX();
+        m_y2 = locations[2].getY();
+        m_x3 = locations[3].getX();
+        m_y3 = locations[3].getY();
+
+        m_f00 = forward.get(0, 0);
+        m_f01 = forward.get(0, 1);
+        m_f02 = forward.get(0, 2);
+        m_f03 = forward.get(0, 3);
+        m_f04 = forward.get(0, 4);
+        m_f05 = forward.get(0, 5);
+        m_f06 = forward.get(0, 6);
+        m_f07 = forward.get(0, 7);
+
+        m_f10 = forward.get(1, 0);
+        m_f11 = forward.get(1, 1);
+        m_f12 = forward.get(1, 2);
+        m_f13 = forward.get(1, 3);
+        m_f14 = forward.get(1, 4);
+        m_f15 = forward.get(1, 5);
+        m_f16 = forward.get(1, 6);
+        m_f17 = forward.get(1, 7);
+
+        m_f20 = forward.get(2, 0);
+        m_f21 = forward.get(2, 1);
+        m_f22 = forward.get(2, 2);
+        m_f23 = forward.get(2, 3);
+        m_f24 = forward.get(2, 4);
+        m_f25 = forward.get(2, 5);
+        m_f26 = forward.get(2, 6);
+        m_f27 = forward.get(2, 7);
+    }
+
+    /** INVERSE: chassis speeds -> module states. Speeds are always positive. */
+    void toSwerveModuleStates(double vx, double vy, double omega, SwerveModuleState[] out) {
+        setState(out[0], vx - m_y0 * omega, vy + m_x0 * omega);
+        setState(out[1], vx - m_y1 * omega, vy + m_x1 * omega);
+        setState(out[2], vx - m_y2 * omega, vy + m_x2 * omega);
+        setState(out[3], vx - m_y3 * omega, vy + m_x3 * omega);
+    }
+
+    /** INVERSE: twist -> module deltas. Distances are always positive. */
+    void toSwerveModulePositions(double dx, double dy, double dtheta, SwerveModulePosition[] out) {
+        setPosition(out[0], dx - m_y0 * dtheta, dy + m_x0 * dtheta);
+        setPosition(out[1], dx - m_y1 * dtheta, dy + m_x1 * dtheta);
+        setPosition(out[2], dx - m_y2 * dtheta, dy + m_x2 * dtheta);
+        setPosition(out[3], dx - m_y3 * dtheta, dy + m_x3 * dtheta);
+    }
+
+    /** FORWARD: module states -> chassis speeds. */
+    void toChassisSpeeds(SwerveModuleState[] states, ChassisSpeeds out) {
+        double v0 = states[0].speedMetersPerSecond;
+        double v1 = states[1].speedMetersPerSecond;
+        double v2 = states[2].speedMetersPerSecond;
+        double v3 = states[3].speedMetersPerSecond;
+        double c0 = v0 * states[0].angle.getCos();
+        double s0 = v0 * states[0].angle.getSin();
+        double c1 = v1 * states[1].angle.getCos();
+        double s1 = v1 * states[1].angle.getSin();
+        double c2 = v2 * states[2].angle.getCos();
+        double s2 = v2 * states[2].angle.getSin();
+        double c3 = v3 * states[3].angle.getCos();
+        double s3 = v3 * states[3].angle.getSin();
+        out.vxMetersPerSecond = row0(c0, s0, c1, s1, c2, s2, c3, s3);
+        out.vyMetersPerSecond = row1(c0, s0, c1, s1, c2, s2, c3, s3);
+        out.omegaRadiansPerSecond = row2(c0, s0, c1, s1, c2, s2, c3, s3);
+    }
+
+    /** FORWARD: module deltas -> twist. */
+    void toTwist2d(SwerveModulePosition[] deltas, Twist2d out) {
+        double d0 = deltas[0].distanceMeters;
+        double d1 = deltas[1].distanceMeters;
+        double d2 = deltas[2].distanceMeters;
+        double d3 = deltas[3].distanceMeters;
+        double c0 = d0 * deltas[0].angle.getCos();
+        double s0 = d0 * deltas[0].angle.getSin();
+        double c1 = d1 * deltas[1].angle.getCos();
+        double s1 = d1 * deltas[1].angle.getSin();
+        double c2 = d2 * deltas[2].angle.getCos();
+        double s2 = d2 * deltas[2].angle.getSin();
+        double c3 = d3 * deltas[3].angle.getCos();
+        double s3 = d3 * deltas[3].angle.getSin();
+        out.dx = row0(c0, s0, c1, s1, c2, s2, c3, s3);
+        out.dy = row1(c0, s0, c1, s1, c2, s2, c3, s3);
+        out.dtheta = row2(c0, s0, c1, s1, c2, s2, c3, s3);
+    }
+
+    ////////////////////////////////////////////////
+
+    private double row0(double c0, double s0, double c1, double s1,
+            double c2, double s2, double c3, double s3) {
+        return m_f00 * c0 + m_f01 * s0 + m_f02 * c1 + m_f03 * s1
+                + m_f04 * c2 + m_f05 * s2 + m_f06 * c3 + m_f07 * s3;
+    }
+
+    private double row1(double c0, double s0, double c1, double s1,
+            double c2, double s2, double c3, double s3) {
+        return m_f10 * c0 + m_f11 * s0 + m_f12 * c1 + m_f13 * s1
+                + m_f14 * c2 + m_f15 * s2 + m_f16 * c3 + m_f17 * s3;
+    }
+
+    private double row2(double c0, double s0, double c1, double s1,
+            double c2, double s2, double c3, double s3) {
+        return m_f20 * c0 + m_f21 * s0 + m_f22 * c1 + m_f23 * s1
+                + m_f24 * c2 + m_f25 * s2 + m_f26 * c3 + m_f27 * s3;
+    }
+
+    private static void setState(SwerveModuleState state, double x, double y) {
+        state.speedMetersPerSecond = Math.hypot(x, y);
+        state.angle = new Rotation2d(x, y);
+    }
+
+    private static void setPosition(SwerveModulePosition position, double x, double y) {
+        position.distanceMeters = Math.hypot(x, y);
+        position.angle = new Rotation2d(x, y);
+    }
+}
@@ -86,18 +86,37 @@ public class SwerveDriveKinematics100 {
      * </pre>
      */
     private final SimpleMatrix m_forwardKinematics;
+    /** Unrolled version of the matrices above, for four modules, or null. */
+    private final FourModuleKinematics m_fourModules;
     /** Used when velocity is zero, to keep the steering the same */
     private Rotation2d[] m_moduleHeadings;
 
     /**
+     * With four modules, this uses the unrolled math in FourModuleKinematics,
+     * which is much faster than the matrices.
+     * 
      * @param moduleTranslationsM relative to the center of rotation
      */
     public SwerveDriveKinematics100(Translation2d... moduleTranslationsM) {
+        this(true, moduleTranslationsM);
+    }
+
+    /**
+     * @param unrolled            use the four-module math if possible. Turn
+     *                            this off to compare with the matrices.
+     * @param moduleTranslationsM relative to the center of rotation
+     */
+    SwerveDriveKinematics100(boolean unrolled, Translation2d... moduleTranslationsM) {
         checkModuleCount(moduleTranslationsM);
         m_numModules = moduleTranslationsM.length;
         m_moduleLocations = Arrays.copyOf(moduleTranslationsM, m_numModules);
         m_inverseKinematics = inverseMatrix(m_moduleLocations);
         m_forwardKinematics = m_inverseKinematics.pseudoInverse();
+        if (unrolled && m_numModules == 4) {
+            m_fourModules = new FourModuleKinematics(m_moduleLocations, m_forwardKinematics);
+        } else {
+            m_fourModules = null;
+        }
         m_moduleHeadings = zeros(m_numModules);
     }
 
@@ -117,34 +136,83 @@ public class SwerveDriveKinematics100 {
      * Does not take Tires into account.
      */
     public SwerveModuleState[] toSwerveModuleStates(ChassisSpeeds chassisSpeeds) {
-        if (fullStop(chassisSpeeds)) {
-            return constantModuleHeadings(); // avoid steering when stopped
+        SwerveModuleState[] states = new SwerveModuleState[m_numModules];
+        for (int i = 0; i < m_numModules; i++) {
+            states[i] = new SwerveModuleState();
         }
-        // [vx; vy; omega] (3 x 1)
-        SimpleMatrix chassisSpeedsVector = chassisSpeeds2Vector(chassisSpeeds);
-        // [v cos; v sin; ...] (2n x 1)
-        SimpleMatrix statesVector = m_inverseKinematics.mult(chassisSpeedsVector);
-        SwerveModuleState[] states = statesFromVector(statesVector);
-        updateHeadings(states);
+        toSwerveModuleStates(chassisSpeeds, states);
         return states;
     }
 
+    /**
+     * INVERSE: chassis speeds -> module states, into the supplied states.
+     * 
+     * The resulting module state speeds are always positive.
+     * 
+     * Does not take Tires into account.
+     */
+    public void toSwerveModuleStates(ChassisSpeeds chassisSpeeds, SwerveModuleState[] out) {
+        checkLength(out);
+        if (fullStop(chassisSpeeds)) {
+            // avoid steering when stopped
+            for (int i = 0; i < m_numModules; i++) {
+                out[i].speedMetersPerSecond = 0.0;
+                out[i].angle = m_moduleHeadings[i];
+            }
+            return;
+        }
+        if (m_fourModules != null) {
+            m_fourModules.toSwerveModuleStates(
+                    chassisSpeeds.vxMetersPerSecond,
+                    chassisSpeeds.vyMetersPerSecond,
+                    chassisSpeeds.omegaRadiansPerSecond,
+                    out);
+        } else {
+            // [vx; vy; omega] (3 x 1)
+            SimpleMatrix chassisSpeedsVector = chassisSpeeds2Vector(chassisSpeeds);
+            // [v cos; v sin; ...] (2n x 1)
+            SimpleMatrix statesVector = m_inverseKinematics.mult(chassisSpeedsVector);
+            statesFromVector(statesVector, out);
+        }
+        updateHeadings(out);
+    }
+
     /**
      * INVERSE: twist -> module position deltas
      */
     public SwerveModulePosition[] toSwerveModulePosition(Twist2d twist) {
-        if (fullStop(twist)) {
-            return constantModulePositions();
+        SwerveModulePosition[] deltas = new SwerveModulePosition[m_numModules];
+        for (int i = 0; i < m_numModules; i++) {
+            deltas[i] = new SwerveModulePosition();
         }
-        // [dx; dy; dtheta] (3 x 1)
-        SimpleMatrix twistVector = twist2Vector(twist);
-        // [d cos; d sin; ...] (2n x 1)
-        SimpleMatrix deltaVector = m_inverseKinematics.mult(twistVector);
-        SwerveModulePosition[] deltas = deltasFromVector(deltaVector);
-        updateHeadings(deltas);
+        toSwerveModulePosition(twist, deltas);
         return deltas;
     }
 
+    /**
+     * INVERSE: twist -> module position deltas, into the supplied deltas.
+     */
+    public void toSwerveModulePosition(Twist2d twist, SwerveModulePosition[] out) {
+        checkLength(out);
+        if (fullStop(twist)) {
+            for (int i = 0; i < m_numModules; i++) {
+                out[i].distanceMeters = 0.0;
+                out[i].angle = m_moduleHeadings[i];
+            }
+            return;
+        }
+        if (m_fourModules != null) {
+            m_fourModules.toSwerveModulePositions(twist.dx, twist.dy, twist.dtheta, out);
+        } else {
+            // [dx; dy; dtheta] (3 x 1)
+            SimpleMatrix twistVector = twist2Vector(twist);
+            // [d cos; d sin; ...] (2n x 1)
+            SimpleMatrix deltaVector = m_inverseKinematics.mult(twistVector);
+            deltasFromVector(deltaVector, out);
+        }
+        updateHeadings(out);
+    }
+
     public Vector2d[] pos2vec(SwerveModulePosition[] m) {
         Vector2d[] vec = new Vector2d[m_numModules];
         for (int i = 0; i < m_numModules; ++i) {
@@ -162,12 +230,29 @@ public class SwerveDriveKinematics100 {
      * 
      */
     public ChassisSpeeds toChassisSpeeds(SwerveModuleState... states) {
+        ChassisSpeeds speeds = new ChassisSpeeds();
+        toChassisSpeeds(states, speeds);
+        return speeds;
+    }
+
+    /**
+     * FORWARD: module states -> chassis speeds, into the supplied speeds.
+     * 
+     * NOTE: do not use the resulting omega, use the gyro instead.
+     */
+    public void toChassisSpeeds(SwerveModuleState[] states, ChassisSpeeds out) {
         checkLength(states);
+        if (m_fourModules != null) {
+            m_fourModules.toChassisSpeeds(states, out);
+            return;
+        }
         // [v cos; v sin; ...] (2n x 1)
         SimpleMatrix statesVector = states2Vector(states);
         // [vx; vy; omega]
         SimpleMatrix chassisSpeedsVector = m_forwardKinematics.mult(statesVector);
-        return vector2ChassisSpeeds(chassisSpeedsVector);
+        out.vxMetersPerSecond = chassisSpeedsVector.get(0, 0);
+        out.vyMetersPerSecond = chassisSpeedsVector.get(1, 0);
+        out.omegaRadiansPerSecond = chassisSpeedsVector.get(2, 0);
     }
 
     /**
@@ -179,12 +264,29 @@ public class SwerveDriveKinematics100 {
      * with corner deltas not wheel deltas.
      */
     public Twist2d toTwist2d(SwerveModulePosition... deltas) {
+        Twist2d twist = new Twist2d();
+        toTwist2d(deltas, twist);
+        return twist;
+    }
+
+    /**
+     * FORWARD: module deltas -> twist, into the supplied twist.
+     * 
+     * NOTE: do not use the resulting dtheta, use the gyro instead.
+     */
+    public void toTwist2d(SwerveModulePosition[] deltas, Twist2d out) {
         checkLength(deltas);
+        if (m_fourModules != null) {
+            m_fourModules.toTwist2d(deltas, out);
+            return;
+        }
         // [d cos; d sin; ...] (2n x 1)
         SimpleMatrix deltaVector = deltas2Vector(deltas);
         // [dx ;dy; dtheta]
         SimpleMatrix twistVector = m_forwardKinematics.mult(deltaVector);
-        return vector2Twist(twistVector);
+        out.dx = twistVector.get(0, 0);
+        out.dy = twistVector.get(1, 0);
+        out.dtheta = twistVector.get(2, 0);
     }
 
     /**
@@ -253,16 +355,6 @@ public class SwerveDriveKinematics100 {
         return twistVector;
     }
 
-    /** [vx; vy; omega] (3 x 1) -> ChassisSpeeds */
-    private static ChassisSpeeds vector2ChassisSpeeds(SimpleMatrix v) {
-        return new ChassisSpeeds(v.get(0, 0), v.get(1, 0), v.get(2, 0));
-    }
-
-    /** [dx; dy; dtheta] (3 x 1) -> Twist2d */
-    private static Twist2d vector2Twist(SimpleMatrix v) {
-        return new Twist2d(v.get(0, 0), v.get(1, 0), v.get(2, 0));
-    }
-
     /** True if speeds are (nearly) stopped. Deadband upstream for this to work. */
     private boolean fullStop(ChassisSpeeds chassisSpeeds) {
         return Math.abs(chassisSpeeds.vxMetersPerSecond) < kEpsilon
@@ -276,53 +368,30 @@ public class SwerveDriveKinematics100 {
                 && Math.abs(twist.dtheta) < kEpsilon;
     }
 
-    /** Zero velocity, same heading as before. */
-    private SwerveModuleState[] constantModuleHeadings() {
-        SwerveModuleState[] mods = new SwerveModuleState[m_numModules];
-        for (int i = 0; i < m_numModules; i++) {
-            mods[i] = new SwerveModuleState(0.0, m_moduleHeadings[i]);
-        }
-        return mods;
-    }
-
-    private SwerveModulePosition[] constantModulePositions() {
-        SwerveModulePosition[] mods = new SwerveModulePosition[m_numModules];
-        for (int i = 0; i < m_numModules; i++) {
-            mods[i] = new SwerveModulePosition(0.0, m_moduleHeadings[i]);
-        }
-        return mods;
-    }
-
     /**
      * [v cos; v sin; ... ] (2n x 1) -> states[]
      * 
      * The resulting module speed is always positive.
      */
-    private SwerveModuleState[] statesFromVector(SimpleMatrix moduleStatesMatrix) {
-        SwerveModuleState[] moduleStates = new SwerveModuleState[m_numModules];
+    private void statesFromVector(SimpleMatrix moduleStatesMatrix, SwerveModuleState[] moduleStates) {
         for (int i = 0; i < m_numModules; i++) {
             double x = moduleStatesMatrix.get(i * 2, 0);
             double y = moduleStatesMatrix.get(i * 2 + 1, 0);
-            double speed = Math.hypot(x, y);
-            Rotation2d angle = new Rotation2d(x, y);
-            moduleStates[i] = new SwerveModuleState(speed, angle);
+            moduleStates[i].speedMetersPerSecond = Math.hypot(x, y);
+            moduleStates[i].angle = new Rotation2d(x, y);
         }
-        return moduleStates;
     }
 
     /**
      * The resulting distance is always positive.
      */
-    private SwerveModulePosition[] deltasFromVector(SimpleMatrix moduleDeltaVector) {
-        SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[m_numModules];
+    private void deltasFromVector(SimpleMatrix moduleDeltaVector, SwerveModulePosition[] moduleDeltas) {
         for (int i = 0; i < m_numModules; i++) {
             double x = moduleDeltaVector.get(i * 2, 0);
             double y = moduleDeltaVector.get(i * 2 + 1, 0);
-            double dist = Math.hypot(x, y);
-            Rotation2d angle = new Rotation2d(x, y);
-            moduleDeltas[i] = new SwerveModulePosition(dist, angle);
+            moduleDeltas[i].distanceMeters = Math.hypot(x, y);
+            moduleDeltas[i].angle = new Rotation2d(x, y);
         }
-        return moduleDeltas;
     }
 
     /** Keep a copy of headings in case we need them for full-stop. */
@@ -366,6 +366,22 @@ public class SwerveKinodynamics implements Glassy {
         return m_kinematics.toSwerveModuleStates(descretized);
     }
 
+    /** Same as above, into the supplied states. */
+    public void toSwerveModuleStates(
+            ChassisSpeeds in,
+            double gyroRateRad_S,
+            double dt,
+            SwerveModuleState[] out) {
+        Rotation2d angle = new Rotation2d(VeeringCorrection.correctionRad(gyroRateRad_S));
+        ChassisSpeeds chassisSpeeds = ChassisSpeeds.fromFieldRelativeSpeeds(
+                in.vxMetersPerSecond,
+                in.vyMetersPerSecond,
+                in.omegaRadiansPerSecond,
+                angle);
+        ChassisSpeeds descretized = ChassisSpeeds.discretize(chassisSpeeds, dt);
+        m_kinematics.toSwerveModuleStates(descretized, out);
+    }
+
     /**
      * The resulting state speeds are always positive.
      */
@@ -373,6 +389,11 @@ public class SwerveKinodynamics implements Glassy {
         return m_kinematics.toSwerveModuleStates(speeds);
     }
 
+    /** Same as above, into the supplied states. */
+    public void toSwerveModuleStatesWithoutDiscretization(ChassisSpeeds speeds, SwerveModuleState[] out) {
+        m_kinematics.toSwerveModuleStates(speeds, out);
+    }
+
     /**
      * Forward kinematics, module states => chassis speeds.
      * 
@@ -385,6 +406,11 @@ public class SwerveKinodynamics implements Glassy {
         return m_kinematics.toChassisSpeeds(moduleStates);
     }
 
+    /** Same as above, into the supplied speeds. */
+    public void toChassisSpeeds(SwerveModuleState[] moduleStates, ChassisSpeeds out) {
+        m_kinematics.toChassisSpeeds(moduleStates, out);
+    }
+
     /**
      * This could be used with odometry, but because odometry uses module positions
      * instead of velocities, it is not needed.
@@ -1,12 +1,16 @@
 package org.team100.lib.motion.drivetrain.module;
 
+import java.util.function.Supplier;
+
 import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
+import org.team100.lib.encoder.EncoderRate;
 import org.team100.lib.encoder.turning.AnalogTurningEncoder;
 import org.team100.lib.encoder.turning.Drive;
 import org.team100.lib.motion.components.OutboardVelocityServo;
 import org.team100.lib.motion.components.PositionServo;
 import org.team100.lib.motion.components.PositionServoInterface;
+import org.team100.lib.motion.components.ServoFactory;
 import org.team100.lib.motion.components.VelocityServo;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.motor.MotorPhase;
@@ -18,6 +22,8 @@ import org.team100.lib.units.Angle100;
 import org.team100.lib.units.Distance100;
 
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
 
 /**
  * For outboard closed-loop control.
@@ -43,47 +49,46 @@ public class AMCANSwerveModule100 extends SwerveModule100 {
             int turningEncoderChannel,
             double turningOffset,
             Drive turningDrive,
-            SwerveKinodynamics kinodynamics) {
+            SwerveKinodynamics kinodynamics,
+            EncoderRate steeringRate) {
         PIDConstants drivePidConstants = new PIDConstants(0.05);
         Feedforward100 ff = Feedforward100.makeAMSwerveDriveFalcon6();
-        VelocityServo<Distance100> driveServo = driveServo(
+        Falcon6DriveMotor driveMotor = new Falcon6DriveMotor(
                 name + "/Drive",
+                driveMotorCanId,
+                MotorPhase.FORWARD,
                 currentLimit,
                 statorLimit,
-                driveMotorCanId,
+                kDriveReduction,
+                kWheelDiameterM,
                 drivePidConstants,
                 ff);
+        VelocityServo<Distance100> driveServo = driveServo(
+                name + "/Drive",
+                driveMotor);
 
-        PositionServoInterface<Angle100> turningServo = turningServo(
+        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(
                 name + "/Turning",
-                turningMotorCanId,
                 turningEncoderChannel,
                 turningOffset,
-                turningDrive,
+                turningGearRatio, turningDrive,
+                ServoFactory.steeringRateEstimator(steeringRate));
+        PositionServoInterface<Angle100> turningServo = turningServo(
+                name + "/Turning",
+                turningEncoder,
+                turningMotorCanId,
                 kinodynamics);
 
-        return new AMCANSwerveModule100(name, driveServo, turningServo);
+        return new AMCANSwerveModule100(name, driveServo, turningServo,
+                () -> new SwerveModulePosition(
+                        driveMotor.getOdometryPosition(),
+                        new Rotation2d(turningEncoder.getPosition())));
 
     }
 
     private static VelocityServo<Distance100> driveServo(
             String name,
-            double currentLimit,
-            double statorLimit,
-            int driveMotorCanId,
-            PIDConstants pidConstants,
-            Feedforward100 ff) {
-        MotorWithEncoder100<Distance100> driveMotor = new Falcon6DriveMotor(
-                name,
-                driveMotorCanId,
-                MotorPhase.FORWARD,
-                currentLimit,
-                statorLimit,
-                kDriveReduction,
-                kWheelDiameterM,
-                pidConstants,
-                ff);
-
+            MotorWithEncoder100<Distance100> driveMotor) {
         return new OutboardVelocityServo<>(
                 name,
                 driveMotor,
@@ -92,17 +97,10 @@ public class AMCANSwerveModule100 extends SwerveModule100 {
 
     private static PositionServoInterface<Angle100> turningServo(
             String name,
+            AnalogTurningEncoder turningEncoder,
             int turningMotorCanId,
-            int turningEncoderChannel,
-            double turningOffset,
-            Drive turningDrive,
             SwerveKinodynamics kinodynamics) {
         CANTurningMotor turningMotor = new CANTurningMotor(name, turningMotorCanId);
-        AnalogTurningEncoder turningEncoder = new AnalogTurningEncoder(
-                name,
-                turningEncoderChannel,
-                turningOffset,
-                turningGearRatio, turningDrive);
         PIDController turningPositionController = new PIDController(
                 5, // kP
                 0, // kI
@@ -126,7 +124,8 @@ public class AMCANSwerveModule100 extends SwerveModule100 {
     private AMCANSwerveModule100(
             String name,
             VelocityServo<Distance100> driveServo,
-            PositionServoInterface<Angle100> turningServo) {
-        super(name, driveServo, turningServo);
+            PositionServoInterface<Angle100> turningServo,
+            Supplier<SwerveModulePosition> odometryPosition) {
+        super(name, driveServo, turningServo, odometryPosition);
     }
 }
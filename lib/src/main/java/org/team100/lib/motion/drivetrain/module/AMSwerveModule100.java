@@ -2,11 +2,13 @@ package org.team100.lib.motion.drivetrain.module;
 
 import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
+import org.team100.lib.encoder.EncoderRate;
 import org.team100.lib.encoder.turning.AnalogTurningEncoder;
 import org.team100.lib.encoder.turning.Drive;
 import org.team100.lib.motion.components.OutboardVelocityServo;
 import org.team100.lib.motion.components.PositionServo;
 import org.team100.lib.motion.components.PositionServoInterface;
+import org.team100.lib.motion.components.ServoFactory;
 import org.team100.lib.motion.components.VelocityServo;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.motor.MotorPhase;
@@ -42,7 +44,8 @@ public class AMSwerveModule100 extends SwerveModule100 {
             double turningOffset,
             SwerveKinodynamics kinodynamics,
             PIDConstants pidConstants,
-            Feedforward100 ff) {
+            Feedforward100 ff,
+            EncoderRate steeringRate) {
 
         VelocityServo<Distance100> driveServo = driveServo(
                 name + "/Drive",
@@ -57,7 +60,8 @@ public class AMSwerveModule100 extends SwerveModule100 {
                 turningMotorChannel,
                 turningEncoderChannel,
                 turningOffset,
-                kinodynamics);
+                kinodynamics,
+                steeringRate);
 
         return new AMSwerveModule100(name, driveServo, turningServo);
     }
@@ -89,7 +93,8 @@ public class AMSwerveModule100 extends SwerveModule100 {
             int turningMotorChannel,
             int turningEncoderChannel,
             double turningOffset,
-            SwerveKinodynamics kinodynamics) {
+            SwerveKinodynamics kinodynamics,
+            EncoderRate steeringRate) {
         TurningMotorController100 turningMotor = new TurningMotorController100(name, 
                  new VictorSP(turningMotorChannel),
                 turningMotorChannel);
@@ -98,7 +103,8 @@ public class AMSwerveModule100 extends SwerveModule100 {
                 turningEncoderChannel,
                 turningOffset,
                 turningGearRatio,
-                Drive.DIRECT);
+                Drive.DIRECT,
+                ServoFactory.steeringRateEstimator(steeringRate));
 
         PIDController turningPositionController = new PIDController(
                 0.5, // kP
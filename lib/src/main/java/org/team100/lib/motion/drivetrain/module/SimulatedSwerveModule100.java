@@ -1,5 +1,7 @@
 package org.team100.lib.motion.drivetrain.module;
 
+import java.util.function.Supplier;
+
 import org.team100.lib.encoder.SimulatedEncoder;
 import org.team100.lib.motion.components.OutboardVelocityServo;
 import org.team100.lib.motion.components.PositionServo;
@@ -12,6 +14,8 @@ import org.team100.lib.units.Angle100;
 import org.team100.lib.units.Distance100;
 
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
 
 public class SimulatedSwerveModule100 extends SwerveModule100 {
 
@@ -19,20 +23,39 @@ public class SimulatedSwerveModule100 extends SwerveModule100 {
     public static SimulatedSwerveModule100 get(
             String name,
             SwerveKinodynamics kinodynamics) {
-        VelocityServo<Distance100> driveServo = simulatedDriveServo(name + "/Drive");
-        PositionServoInterface<Angle100> turningServo = simulatedTurningServo(name + "/Turning", kinodynamics);
-        return new SimulatedSwerveModule100(name, driveServo, turningServo);
-    }
-
-    private static VelocityServo<Distance100> simulatedDriveServo(String name) {
         // simulated drive motor free speed is 5 m/s
-        SimulatedMotor<Distance100> driveMotor = new SimulatedMotor<>(name, 5);
+        SimulatedMotor<Distance100> driveMotor = new SimulatedMotor<>(name + "/Drive", 5);
         SimulatedEncoder<Distance100> driveEncoder = new SimulatedEncoder<>(
-                name,
+                name + "/Drive",
                 driveMotor,
                 1,
                 Double.NEGATIVE_INFINITY,
                 Double.POSITIVE_INFINITY);
+        VelocityServo<Distance100> driveServo = simulatedDriveServo(name + "/Drive", driveMotor, driveEncoder);
+
+        // simulated turning motor free speed is 20 rad/s
+        SimulatedMotor<Angle100> turningMotor = new SimulatedMotor<>(name + "/Turning", 20);
+        SimulatedEncoder<Angle100> turningEncoder = new SimulatedEncoder<>(
+                name + "/Turning",
+                turningMotor,
+                1,
+                Double.NEGATIVE_INFINITY,
+                Double.POSITIVE_INFINITY);
+        PositionServoInterface<Angle100> turningServo = simulatedTurningServo(
+                name + "/Turning", turningMotor, turningEncoder, kinodynamics);
+
+        // the simulated encoders aren't thread-safe, so this is only for
+        // OdometryThread.sampleOnce() on the caller's thread.
+        return new SimulatedSwerveModule100(name, driveServo, turningServo,
+                () -> new SwerveModulePosition(
+                        driveEncoder.getPosition(),
+                        new Rotation2d(turningEncoder.getPosition())));
+    }
+
+    private static VelocityServo<Distance100> simulatedDriveServo(
+            String name,
+            SimulatedMotor<Distance100> driveMotor,
+            SimulatedEncoder<Distance100> driveEncoder) {
         return new OutboardVelocityServo<>(
                 name,
                 driveMotor,
@@ -41,15 +64,9 @@ public class SimulatedSwerveModule100 extends SwerveModule100 {
 
     private static PositionServoInterface<Angle100> simulatedTurningServo(
             String name,
+            SimulatedMotor<Angle100> turningMotor,
+            SimulatedEncoder<Angle100> turningEncoder,
             SwerveKinodynamics kinodynamics) {
-        // simulated turning motor free speed is 20 rad/s
-        SimulatedMotor<Angle100> turningMotor = new SimulatedMotor<>(name, 20);
-        SimulatedEncoder<Angle100> turningEncoder = new SimulatedEncoder<>(
-                name,
-                turningMotor,
-                1,
-                Double.NEGATIVE_INFINITY,
-                Double.POSITIVE_INFINITY);
         PIDController turningPositionController = new PIDController(
                 20, // kP
                 0, // kI
@@ -74,8 +91,9 @@ public class SimulatedSwerveModule100 extends SwerveModule100 {
     private SimulatedSwerveModule100(
             String name,
             VelocityServo<Distance100> driveServo,
-            PositionServoInterface<Angle100> turningServo) {
-        super(name, driveServo, turningServo);
+            PositionServoInterface<Angle100> turningServo,
+            Supplier<SwerveModulePosition> odometryPosition) {
+        super(name, driveServo, turningServo, odometryPosition);
         //
     }
 
@@ -1,5 +1,7 @@
 package org.team100.lib.motion.drivetrain.module;
 
+import java.util.function.Supplier;
+
 import org.team100.lib.controller.State100;
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.experiments.Experiment;
@@ -31,16 +33,32 @@ public class SwerveModule100 implements Glassy {
     private final String m_name;
     private final VelocityServo<Distance100> m_driveServo;
     private final PositionServoInterface<Angle100> m_turningServo;
+    private final Supplier<SwerveModulePosition> m_odometryPosition;
 
+    /** This module can't be sampled by OdometryThread. */
     public SwerveModule100(
             String name,
             VelocityServo<Distance100> driveServo,
             PositionServoInterface<Angle100> turningServo) {
+        this(name, driveServo, turningServo, null);
+    }
+
+    /**
+     * @param odometryPosition reads the sensors directly, for OdometryThread,
+     *                         without touching any servo or estimator state.
+     *                         May be null.
+     */
+    public SwerveModule100(
+            String name,
+            VelocityServo<Distance100> driveServo,
+            PositionServoInterface<Angle100> turningServo,
+            Supplier<SwerveModulePosition> odometryPosition) {
         if (name.startsWith("/"))
             throw new IllegalArgumentException();
         m_name = Names.append(name, this);
         m_driveServo = driveServo;
         m_turningServo = turningServo;
+        m_odometryPosition = odometryPosition;
         SwerveModuleVisualization.make(this);
     }
 
@@ -114,6 +132,15 @@ public class SwerveModule100 implements Glassy {
         return new SwerveModulePosition(m_driveServo.getDistance(), new Rotation2d(m_turningServo.getPosition()));
     }
 
+    boolean hasOdometryPosition() {
+        return m_odometryPosition != null;
+    }
+
+    /** Only OdometryThread should use this, see hasOdometryPosition(). */
+    SwerveModulePosition getOdometryPosition() {
+        return m_odometryPosition.get();
+    }
+
     boolean atSetpoint() {
         return m_turningServo.atSetpoint();
     }
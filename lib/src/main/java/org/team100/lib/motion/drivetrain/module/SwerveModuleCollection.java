@@ -2,6 +2,7 @@ package org.team100.lib.motion.drivetrain.module;
 
 import org.team100.lib.config.Identity;
 import org.team100.lib.controller.State100;
+import org.team100.lib.encoder.EncoderRate;
 import org.team100.lib.encoder.turning.AnalogTurningEncoder;
 import org.team100.lib.encoder.turning.Drive;
 import org.team100.lib.encoder.turning.DutyCycleTurningEncoder;
@@ -55,49 +56,57 @@ public class SwerveModuleCollection {
                         WCPSwerveModule100.get(
                                 kFrontLeft, currentLimit, statorLimit, 30, DriveRatio.FAST,
                                 AnalogTurningEncoder.class, 11, 0, 0.620381, kinodynamics, Drive.DIRECT,
-                                MotorPhase.REVERSE),
+                                MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE),
                         WCPSwerveModule100.get(
                                 kFrontRight, currentLimit, statorLimit, 12, DriveRatio.FAST,
                                 AnalogTurningEncoder.class, 32, 1, 0.162019, kinodynamics, Drive.DIRECT,
-                                MotorPhase.REVERSE),
+                                MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE),
                         WCPSwerveModule100.get(
                                 kRearLeft, currentLimit, statorLimit, 31, DriveRatio.FAST,
                                 AnalogTurningEncoder.class, 21, 2, 0.875648, kinodynamics, Drive.DIRECT,
-                                MotorPhase.REVERSE),
+                                MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE),
                         WCPSwerveModule100.get(
                                 kRearRight, currentLimit, statorLimit, 22, DriveRatio.FAST,
                                 AnalogTurningEncoder.class, 33, 3, 0.323889, kinodynamics, Drive.DIRECT,
-                                MotorPhase.REVERSE));
+                                MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE));
             case SWERVE_TWO:
                 Util.println("************** AM CAN MODULES **************");
                 return new SwerveModuleCollection(
                         AMCANSwerveModule100.get(
                                 kFrontLeft, currentLimit, statorLimit, 3,
-                                36, 2, 0.354994, Drive.INVERSE, kinodynamics),
+                                36, 2, 0.354994, Drive.INVERSE, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE),
                         AMCANSwerveModule100.get(
                                 kFrontRight, currentLimit, statorLimit, 12,
-                                13, 3, 0.880423, Drive.INVERSE, kinodynamics),
+                                13, 3, 0.880423, Drive.INVERSE, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE),
                         AMCANSwerveModule100.get(
                                 kRearLeft, currentLimit, statorLimit, 22,
-                                1, 1, 0.916801, Drive.INVERSE, kinodynamics),
+                                1, 1, 0.916801, Drive.INVERSE, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE),
                         AMCANSwerveModule100.get(
                                 kRearRight, currentLimit, statorLimit, 21,
-                                0, 0, 0.806963, Drive.INVERSE, kinodynamics));
+                                0, 0, 0.806963, Drive.INVERSE, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE));
             case SWERVE_ONE:
                 Util.println("************** AM CAN MODULES **************");
                 return new SwerveModuleCollection(
                         AMCANSwerveModule100.get(
                                 kFrontLeft, currentLimit, statorLimit, 11,
-                                5, 2, 0.694815, Drive.DIRECT, kinodynamics),
+                                5, 2, 0.694815, Drive.DIRECT, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE),
                         AMCANSwerveModule100.get(
                                 kFrontRight, currentLimit, statorLimit, 12,
-                                2, 0, 0.718789, Drive.DIRECT, kinodynamics),
+                                2, 0, 0.718789, Drive.DIRECT, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE),
                         AMCANSwerveModule100.get(
                                 kRearLeft, currentLimit, statorLimit, 21,
-                                3, 3, 0.365612, Drive.DIRECT, kinodynamics),
+                                3, 3, 0.365612, Drive.DIRECT, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE),
                         AMCANSwerveModule100.get(
                                 kRearRight, currentLimit, statorLimit, 22,
-                                1, 1, 0.942851, Drive.DIRECT, kinodynamics));
+                                1, 1, 0.942851, Drive.DIRECT, kinodynamics,
+                                EncoderRate.FINITE_DIFFERENCE));
             case BLANK:
                 Util.println("************** SIMULATED MODULES **************");
                 return new SwerveModuleCollection(
@@ -114,28 +123,28 @@ public class SwerveModuleCollection {
                                 54,
                                 9,
                                 0.058735,
-                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE),
+                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE),
                         WCPSwerveModule100.get(
                                 kFrontRight, currentLimit, statorLimit, 22, WCPSwerveModule100.DriveRatio.FAST,
                                 DutyCycleTurningEncoder.class,
                                 52,
                                 8,
                                 0.773486,
-                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE),
+                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE),
                         WCPSwerveModule100.get(
                                 kRearLeft, currentLimit, statorLimit, 56, WCPSwerveModule100.DriveRatio.FAST,
                                 DutyCycleTurningEncoder.class,
                                 51,
                                 6,
                                 0.334580,
-                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE),
+                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE),
                         WCPSwerveModule100.get(
                                 kRearRight, currentLimit, statorLimit, 11, WCPSwerveModule100.DriveRatio.FAST,
                                 DutyCycleTurningEncoder.class,
                                 21,
                                 7,
                                 0.714328,
-                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE));
+                                kinodynamics, Drive.INVERSE, MotorPhase.REVERSE, EncoderRate.FINITE_DIFFERENCE));
             default:
                 Util.println("WARNING: using default module collection");
                 return new SwerveModuleCollection(
@@ -189,6 +198,28 @@ public class SwerveModuleCollection {
         };
     }
 
+    /** True if OdometryThread can sample every module. */
+    public boolean hasOdometryPositions() {
+        return m_frontLeft.hasOdometryPosition()
+                && m_frontRight.hasOdometryPosition()
+                && m_rearLeft.hasOdometryPosition()
+                && m_rearRight.hasOdometryPosition();
+    }
+
+    /**
+     * Positions read directly from the sensors, without touching any servo or
+     * estimator state, so OdometryThread can call this while the main loop uses
+     * the modules. Nothing else should call it.
+     */
+    public SwerveModulePosition[] odometryPositions() {
+        return new SwerveModulePosition[] {
+                m_frontLeft.getOdometryPosition(),
+                m_frontRight.getOdometryPosition(),
+                m_rearLeft.getOdometryPosition(),
+                m_rearRight.getOdometryPosition()
+        };
+    }
+
     /** @return current measurements */
     public SwerveModuleState[] states() {
         return new SwerveModuleState[] {
@@ -1,14 +1,18 @@
 package org.team100.lib.motion.drivetrain.module;
 
+import java.util.function.Supplier;
+
 import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderRate;
 import org.team100.lib.encoder.turning.AnalogTurningEncoder;
 import org.team100.lib.encoder.turning.Drive;
 import org.team100.lib.encoder.turning.DutyCycleTurningEncoder;
 import org.team100.lib.motion.components.OutboardVelocityServo;
 import org.team100.lib.motion.components.PositionServo;
 import org.team100.lib.motion.components.PositionServoInterface;
+import org.team100.lib.motion.components.ServoFactory;
 import org.team100.lib.motion.components.VelocityServo;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.motor.Motor100;
@@ -21,6 +25,8 @@ import org.team100.lib.units.Angle100;
 import org.team100.lib.units.Distance100;
 
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
 
 public class WCPSwerveModule100 extends SwerveModule100 {
     /**
@@ -52,6 +58,7 @@ public class WCPSwerveModule100 extends SwerveModule100 {
      * @param turningEncoderChannel
      * @param turningOffset
      * @param kinodynamics
+     * @param steeringRate          how the steering encoder estimates its rate
      */
     public static WCPSwerveModule100 get(
             String name,
@@ -65,56 +72,55 @@ public class WCPSwerveModule100 extends SwerveModule100 {
             double turningOffset,
             SwerveKinodynamics kinodynamics,
             Drive drive,
-            MotorPhase motorPhase) {
+            MotorPhase motorPhase,
+            EncoderRate steeringRate) {
         PIDConstants drivePidConstants = new PIDConstants(.2); //.2
         PIDConstants turningPidConstants = new PIDConstants(.32); // 5
         Feedforward100 turningFF = Feedforward100.makeWCPSwerveTurningFalcon6();
         Feedforward100 driveFF = Feedforward100.makeWCPSwerveDriveFalcon6();
 
-        VelocityServo<Distance100> driveServo = driveServo(
+        Kraken6DriveMotor driveMotor = new Kraken6DriveMotor(
                 name + "/Drive",
+                driveMotorCanId,
+                MotorPhase.FORWARD,
                 currentLimit,
                 statorLimit,
-                driveMotorCanId,
-                ratio,
+                ratio.m_ratio,
+                kWheelDiameterM,
                 drivePidConstants,
                 driveFF);
+        VelocityServo<Distance100> driveServo = driveServo(
+                name + "/Drive",
+                driveMotor);
 
-        PositionServoInterface<Angle100> turningServo = turningServo(
-                name + "/Turning",
+        final double turningGearRatio = 1.0;
+        Encoder100<Angle100> turningEncoder = turningEncoder(
                 encoderClass,
-                turningMotorCanId,
+                name + "/Turning",
                 turningEncoderChannel,
                 turningOffset,
+                turningGearRatio,
+                drive,
+                steeringRate);
+        PositionServoInterface<Angle100> turningServo = turningServo(
+                name + "/Turning",
+                turningEncoder,
+                turningMotorCanId,
                 10.29,
                 kinodynamics,
-                drive,
                 motorPhase,
                 turningPidConstants,
                 turningFF);
 
-        return new WCPSwerveModule100(name, driveServo, turningServo);
+        return new WCPSwerveModule100(name, driveServo, turningServo,
+                () -> new SwerveModulePosition(
+                        driveMotor.getOdometryPosition(),
+                        new Rotation2d(turningEncoder.getPosition())));
     }
 
     private static VelocityServo<Distance100> driveServo(
             String name,
-            double currentLimit,
-            double statorLimit,
-            int driveMotorCanId,
-            DriveRatio ratio,
-            PIDConstants pidConstants,
-            Feedforward100 ff) {
-                
-        MotorWithEncoder100<Distance100> driveMotor = new Kraken6DriveMotor(
-                name,
-                driveMotorCanId,
-                MotorPhase.FORWARD,
-                currentLimit,
-                statorLimit,
-                ratio.m_ratio,
-                kWheelDiameterM,
-                pidConstants,
-                ff);
+            MotorWithEncoder100<Distance100> driveMotor) {
         return new OutboardVelocityServo<>(
                 name,
                 driveMotor,
@@ -123,17 +129,13 @@ public class WCPSwerveModule100 extends SwerveModule100 {
 
     private static PositionServoInterface<Angle100> turningServo(
             String name,
-            Class<? extends Encoder100<Angle100>> encoderClass,
+            Encoder100<Angle100> turningEncoder,
             int turningMotorCanId,
-            int turningEncoderChannel,
-            double turningOffset,
             double gearRatio,
             SwerveKinodynamics kinodynamics,
-            Drive drive,
             MotorPhase motorPhase,
             PIDConstants lowLevelPID,
             Feedforward100 ff) {
-        final double turningGearRatio = 1.0;
         Motor100<Angle100> turningMotor = new Falcon6TurningMotor(
                 name,
                 turningMotorCanId,
@@ -141,13 +143,6 @@ public class WCPSwerveModule100 extends SwerveModule100 {
                 gearRatio,
                 lowLevelPID,
                 ff);
-        Encoder100<Angle100> turningEncoder = turningEncoder(
-                encoderClass,
-                name,
-                turningEncoderChannel,
-                turningOffset,
-                turningGearRatio,
-                drive);
         PIDController turningPositionController = new PIDController(
                 20, // kP
                 0.06, // kI
@@ -175,20 +170,23 @@ public class WCPSwerveModule100 extends SwerveModule100 {
             int channel,
             double inputOffset,
             double gearRatio,
-            Drive drive) {
+            Drive drive,
+            EncoderRate rate) {
         if (encoderClass == AnalogTurningEncoder.class) {
             return new AnalogTurningEncoder(name,
                     channel,
                     inputOffset,
                     gearRatio,
-                    drive);
+                    drive,
+                    ServoFactory.steeringRateEstimator(rate));
         }
         if (encoderClass == DutyCycleTurningEncoder.class) {
             return new DutyCycleTurningEncoder(name,
                     channel,
                     inputOffset,
                     gearRatio,
-                    drive);
+                    drive,
+                    ServoFactory.steeringRateEstimator(rate));
         }
         throw new IllegalArgumentException("unknown encoder class: " + encoderClass.getName());
 
@@ -197,8 +195,9 @@ public class WCPSwerveModule100 extends SwerveModule100 {
     private WCPSwerveModule100(
             String name,
             VelocityServo<Distance100> driveServo,
-            PositionServoInterface<Angle100> turningServo) {
-        super(name, driveServo, turningServo);
+            PositionServoInterface<Angle100> turningServo,
+            Supplier<SwerveModulePosition> odometryPosition) {
+        super(name, driveServo, turningServo, odometryPosition);
         //
     }
 }
@@ -1,20 +1,33 @@
 package org.team100.lib.motor;
 
+import java.util.function.DoubleSupplier;
+
 import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.TelemetryPolicy;
 import org.team100.lib.units.Measure100;
 import org.team100.lib.util.Names;
 
 import com.revrobotics.CANSparkBase;
 import com.revrobotics.CANSparkBase.ControlType;
 import com.revrobotics.CANSparkBase.IdleMode;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.SparkPIDController;
 import com.revrobotics.SparkPIDController.ArbFFUnits;
 
 public abstract class CANSparkMotor<T extends Measure100> implements Motor100<T> {
+    private static final TelemetryPolicy kTempPolicy = new TelemetryPolicy(1, 0.5, 1);
+    /** Signals used for control, every loop. */
+    private static final double kControlHz = 50;
+    /** Signals that are only logged. */
+    private static final double kDiagnosticHz = 10;
+    /** Temperature changes slowly. */
+    private static final double kTempHz = 4;
+
     protected final Telemetry t = Telemetry.get();
     private final String m_name;
     protected final Feedforward100 m_ff;
@@ -22,6 +35,29 @@ public abstract class CANSparkMotor<T extends Measure100> implements Motor100<T>
     protected final RelativeEncoder m_encoder;
     protected final SparkPIDController m_pidController;
 
+    // suppliers are made once so that logging doesn't allocate, and so that the
+    // sensors aren't touched in the non-logging case.
+    private final DoubleSupplier m_position;
+    private final DoubleSupplier m_velocityRev_S;
+    private final DoubleSupplier m_velocityRPM;
+    private final DoubleSupplier m_current;
+    private final DoubleSupplier m_dutyCycle;
+    private final DoubleSupplier m_temp;
+
+    // LOGGERS
+    private final DoubleLogger m_log_output;
+    private final DoubleLogger m_log_friction_ff;
+    private final DoubleLogger m_log_velocity_ff;
+    private final DoubleLogger m_log_accel_ff;
+    private final DoubleLogger m_log_torque_ff;
+    private final DoubleLogger m_log_desired_speed;
+    private final DoubleLogger m_log_position;
+    private final DoubleLogger m_log_velocity_rev_s;
+    private final DoubleLogger m_log_velocity_rpm;
+    private final DoubleLogger m_log_current;
+    private final DoubleLogger m_log_duty_cycle;
+    private final DoubleLogger m_log_temp;
+
     protected CANSparkMotor(
             String name,
             CANSparkBase motor,
@@ -43,12 +79,37 @@ public abstract class CANSparkMotor<T extends Measure100> implements Motor100<T>
         t.register(Level.TRACE, m_name, "I", pid.getI(), this::setI);
         t.register(Level.TRACE, m_name, "D", pid.getD(), this::setD);
         t.register(Level.TRACE, m_name, "IZone", pid.getIZone(), this::setIZone);
+
+        // these getters just read the most recent status frame; the registry sets
+        // the frame periods. position is in Status2; velocity, current, and
+        // temperature are in Status1. applied output is in Status0, which is left
+        // alone.
+        m_position = SignalRegistry.rev(m_motor, PeriodicFrame.kStatus2, m_encoder::getPosition, kControlHz);
+        m_velocityRPM = SignalRegistry.rev(m_motor, PeriodicFrame.kStatus1, m_encoder::getVelocity, kControlHz);
+        m_velocityRev_S = () -> m_velocityRPM.getAsDouble() / 60;
+        m_current = SignalRegistry.rev(m_motor, PeriodicFrame.kStatus1, m_motor::getOutputCurrent, kDiagnosticHz);
+        m_dutyCycle = m_motor::getAppliedOutput;
+        m_temp = SignalRegistry.rev(m_motor, PeriodicFrame.kStatus1, m_motor::getMotorTemperature, kTempHz);
+
+        m_log_output = t.doubleLogger(Level.TRACE, m_name, "Output");
+        m_log_friction_ff = t.doubleLogger(Level.TRACE, m_name, "friction feedforward volts");
+        m_log_velocity_ff = t.doubleLogger(Level.TRACE, m_name, "velocity feedforward volts");
+        m_log_accel_ff = t.doubleLogger(Level.TRACE, m_name, "accel feedforward volts");
+        m_log_torque_ff = t.doubleLogger(Level.TRACE, m_name, "torque feedforward volts");
+        m_log_desired_speed = t.doubleLogger(Level.TRACE, m_name, "desired speed (rev_s)");
+        m_log_position = t.doubleLogger(Level.TRACE, m_name, "position (rev)");
+        m_log_velocity_rev_s = t.doubleLogger(Level.TRACE, m_name, "velocity (rev_s)");
+        m_log_velocity_rpm = t.doubleLogger(Level.TRACE, m_name, "velocity (RPM)");
+        m_log_current = t.doubleLogger(Level.TRACE, m_name, "current (A)");
+        m_log_duty_cycle = t.doubleLogger(Level.TRACE, m_name, "duty cycle");
+        // temperature changes slowly
+        m_log_temp = t.doubleLogger(Level.TRACE, m_name, "temperature (C)", kTempPolicy);
     }
 
     @Override
     public void setDutyCycle(double output) {
         m_motor.set(output);
-        t.log(Level.TRACE, m_name, "Output", output);
+        m_log_output.log(output);
         log();
     }
 
@@ -83,11 +144,11 @@ public abstract class CANSparkMotor<T extends Measure100> implements Motor100<T>
 
         Rev100.warn(() -> m_pidController.setReference(motorRev_M, ControlType.kVelocity, 0, kFF, ArbFFUnits.kVoltage));
 
-        t.log(Level.TRACE, m_name, "friction feedforward volts", frictionFFVolts);
-        t.log(Level.TRACE, m_name, "velocity feedforward volts", velocityFFVolts);
-        t.log(Level.TRACE, m_name, "accel feedforward volts", accelFFVolts);
-        t.log(Level.TRACE, m_name, "torque feedforward volts", torqueFFVolts);
-        t.log(Level.TRACE, m_name, "desired speed (rev_s)", motorRev_S);
+        m_log_friction_ff.log(frictionFFVolts);
+        m_log_velocity_ff.log(velocityFFVolts);
+        m_log_accel_ff.log(accelFFVolts);
+        m_log_torque_ff.log(torqueFFVolts);
+        m_log_desired_speed.log(motorRev_S);
         log();
     }
 
@@ -115,12 +176,12 @@ public abstract class CANSparkMotor<T extends Measure100> implements Motor100<T>
     }
 
     protected void log() {
-        t.log(Level.TRACE, m_name, "position (rev)", m_encoder.getPosition());
-        t.log(Level.TRACE, m_name, "velocity (rev_s)", m_encoder.getVelocity() / 60);
-        t.log(Level.TRACE, m_name, "velocity (RPM)", m_encoder.getVelocity());
-        t.log(Level.TRACE, m_name, "current (A)", m_motor.getOutputCurrent());
-        t.log(Level.TRACE, m_name, "duty cycle", m_motor.getAppliedOutput());
-        t.log(Level.TRACE, m_name, "temperature (C)", m_motor.getMotorTemperature());
+        m_log_position.log(m_position);
+        m_log_velocity_rev_s.log(m_velocityRev_S);
+        m_log_velocity_rpm.log(m_velocityRPM);
+        m_log_current.log(m_current);
+        m_log_duty_cycle.log(m_dutyCycle);
+        m_log_temp.log(m_temp);
     }
 
     private void setP(double p) {
@@ -1,10 +1,13 @@
 package org.team100.lib.motor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Supplier;
 
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.util.Util;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
@@ -16,6 +19,8 @@ import com.ctre.phoenix6.signals.NeutralModeValue;
 
 /** Utilities for CTRE Phoenix motors: Falcon, Kraken. */
 public class Phoenix100 {
+    /** Signals that OdometryThread should wait for. */
+    private static final List<BaseStatusSignal> odometrySignals = new ArrayList<>();
 
     public static void crash(Supplier<StatusCode> s) {
         StatusCode statusCode = s.get();
@@ -69,6 +74,21 @@ public class Phoenix100 {
         crash(() -> conf.apply(slot0Configs));
     }
 
+    /**
+     * Register a signal, e.g. drive position, for OdometryThread to wait for.
+     * The waits refresh it, so it should be a separate copy (see
+     * StatusSignal.clone()) that nothing on the main loop reads. This doesn't
+     * change the update frequency; the odometry thread does that, if it's
+     * enabled.
+     */
+    public static synchronized void addOdometrySignal(BaseStatusSignal signal) {
+        odometrySignals.add(signal);
+    }
+
+    public static synchronized BaseStatusSignal[] odometrySignals() {
+        return odometrySignals.toArray(new BaseStatusSignal[0]);
+    }
+
     private Phoenix100() {
         //
     }
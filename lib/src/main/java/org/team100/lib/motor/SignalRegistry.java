@@ -0,0 +1,134 @@
+package org.team100.lib.motor;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+import org.team100.lib.util.Util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.revrobotics.CANSparkBase;
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+
+/**
+ * Refreshes CAN status signals in batches, once per loop, instead of one
+ * blocking refresh for each read.
+ *
+ * Motors register each signal they read, with the rate they need it at, and
+ * the update frequency of the signal is set to the fastest registered rate.
+ *
+ * Robot.robotPeriodic() should call refreshAll() at the top of the loop, which
+ * does one BaseStatusSignal.refreshAll() per CAN bus. The suppliers returned
+ * by phoenix() just read the value from the most recent refresh, so they never
+ * touch the bus. (The odometry thread waits on its own copies of the drive
+ * position signals, so it never refreshes these.)
+ *
+ * If refreshAll() hasn't run for a couple of loops, e.g. in a robot that
+ * doesn't call it, or in a test, the suppliers refresh their own signals on
+ * each read instead, which is slower, but never stale.
+ *
+ * REV getters already return the most recent periodic frame without blocking,
+ * so there's nothing to refresh; rev() just sets each status frame period from
+ * the fastest rate registered for any signal in that frame.
+ */
+public class SignalRegistry {
+    /** Phoenix rejects anything slower, except zero, which means "off". */
+    private static final double kMinPhoenixHz = 4;
+    private static final double kMaxPhoenixHz = 1000;
+    /** Two loops without refreshAll() means nobody is calling it. */
+    private static final long kStaleNs = 40_000_000;
+
+    private static final Map<String, List<BaseStatusSignal>> buses = new LinkedHashMap<>();
+    private static final Map<BaseStatusSignal, Double> phoenixRates = new IdentityHashMap<>();
+    private static final Map<CANSparkBase, Map<PeriodicFrame, Double>> revRates = new IdentityHashMap<>();
+    /** One batch per bus, rebuilt on registration, so refreshAll() doesn't allocate. */
+    private static BaseStatusSignal[][] batches = new BaseStatusSignal[0][];
+    /** When refreshAll() last ran; starts stale. */
+    private static volatile long lastRefreshNs = System.nanoTime() - 2 * kStaleNs;
+
+    /**
+     * Register a Phoenix signal.
+     *
+     * @param network the CAN bus, see ParentDevice.getNetwork().
+     * @param signal  the signal
+     * @param rateHz  how often the consumer needs it
+     * @return the value as of the most recent refresh, or, if refreshAll()
+     *         isn't being called, as of a refresh of this signal alone.
+     */
+    public static synchronized DoubleSupplier phoenix(String network, BaseStatusSignal signal, double rateHz) {
+        Double previous = phoenixRates.get(signal);
+        if (previous == null) {
+            buses.computeIfAbsent(network, k -> new ArrayList<>()).add(signal);
+            batches = buses.values().stream()
+                    .map(l -> l.toArray(new BaseStatusSignal[0]))
+                    .toArray(BaseStatusSignal[][]::new);
+        }
+        double rate = previous == null ? rateHz : Math.max(previous, rateHz);
+        phoenixRates.put(signal, rate);
+        Phoenix100.crash(() -> signal.setUpdateFrequency(phoenixFrequency(rate)));
+        return () -> {
+            if (stale())
+                signal.refresh();
+            return signal.getValueAsDouble();
+        };
+    }
+
+    /**
+     * Register a REV signal, i.e. a getter that reads one of the status frames.
+     *
+     * Don't use this for Status0, which carries faults and follower output; just
+     * leave it at the default.
+     *
+     * @param motor  the motor
+     * @param frame  the status frame containing the signal
+     * @param getter reads the signal from the most recent frame
+     * @param rateHz how often the consumer needs it
+     * @return the getter
+     */
+    public static synchronized DoubleSupplier rev(
+            CANSparkBase motor,
+            PeriodicFrame frame,
+            DoubleSupplier getter,
+            double rateHz) {
+        Map<PeriodicFrame, Double> frames = revRates.computeIfAbsent(
+                motor, k -> new EnumMap<>(PeriodicFrame.class));
+        double rate = frames.merge(frame, rateHz, Math::max);
+        Rev100.crash(() -> motor.setPeriodicFramePeriod(frame, revPeriodMs(rate)));
+        return getter;
+    }
+
+    /** Refresh every registered Phoenix signal, one batch per bus. */
+    public static void refreshAll() {
+        // read the field once, in case someone is registering.
+        BaseStatusSignal[][] b = batches;
+        for (int i = 0; i < b.length; ++i) {
+            StatusCode status = BaseStatusSignal.refreshAll(b[i]);
+            if (status.isError()) {
+                Util.warn(status.toString());
+            }
+        }
+        lastRefreshNs = System.nanoTime();
+    }
+
+    /** True if refreshAll() hasn't run lately. */
+    static boolean stale() {
+        return System.nanoTime() - lastRefreshNs > kStaleNs;
+    }
+
+    static double phoenixFrequency(double rateHz) {
+        return Math.max(kMinPhoenixHz, Math.min(kMaxPhoenixHz, rateHz));
+    }
+
+    static int revPeriodMs(double rateHz) {
+        return Math.max(1, (int) Math.round(1000 / rateHz));
+    }
+
+    private SignalRegistry() {
+        //
+    }
+}
@@ -4,26 +4,46 @@ import java.util.function.DoubleSupplier;
 
 import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
+import org.team100.lib.encoder.EncoderSample;
 import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.TelemetryPolicy;
 import org.team100.lib.units.Measure100;
 import org.team100.lib.util.Names;
 
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.hardware.TalonFX;
 
+import edu.wpi.first.wpilibj.Timer;
+
 /**
  * Superclass for TalonFX motors.
+ *
+ * Status signals are registered with SignalRegistry, and read from its cache,
+ * which Robot.robotPeriodic() should fill by calling SignalRegistry.refreshAll()
+ * at the top of every loop. Without that, each read does its own blocking
+ * refresh; see SignalRegistry.
  */
 public abstract class Talon6Motor<T extends Measure100> implements MotorWithEncoder100<T> {
+    private static final TelemetryPolicy kTempPolicy = new TelemetryPolicy(1, 0.5, 1);
+    /** Signals used for control, every loop. */
+    private static final double kControlHz = 50;
+    /** Signals that are only logged. */
+    private static final double kDiagnosticHz = 10;
+    /** Temperature changes slowly. */
+    private static final double kTempHz = 4;
+
     protected final Telemetry t = Telemetry.get();
     protected final String m_name;
     private final TalonFX m_motor;
     private final Feedforward100 m_ff;
 
-    // caching these status signals saves a lookup
+    // values as of the most recent SignalRegistry.refreshAll(), which the
+    // robot must call every loop, or each read refreshes on its own.
     protected final DoubleSupplier m_position;
     protected final DoubleSupplier m_velocity;
     protected final DoubleSupplier m_dutyCycle;
@@ -32,11 +52,27 @@ public abstract class Talon6Motor<T extends Measure100> implements MotorWithEnco
     protected final DoubleSupplier m_stator;
     protected final DoubleSupplier m_temp;
     protected final DoubleSupplier m_torque;
+    // the status of the most recent refresh says if the motor is there.
+    private final StatusSignal<Double> m_positionSignal;
 
     // caching the control requests saves allocation
     private final VelocityVoltage m_velocityVoltage = new VelocityVoltage(0);
     private final DutyCycleOut m_dutyCycleOut = new DutyCycleOut(0);
 
+    // LOGGERS
+    private final DoubleLogger m_log_desired_duty_cycle;
+    private final DoubleLogger m_log_motor_input;
+    private final DoubleLogger m_log_friction_ff;
+    private final DoubleLogger m_log_velocity_ff;
+    private final DoubleLogger m_log_accel_ff;
+    private final DoubleLogger m_log_torque_ff;
+    private final DoubleLogger m_log_velocity;
+    private final DoubleLogger m_log_output;
+    private final DoubleLogger m_log_error;
+    private final DoubleLogger m_log_supply;
+    private final DoubleLogger m_log_stator;
+    private final DoubleLogger m_log_temp;
+
     protected Talon6Motor(
             String name,
             int canId,
@@ -55,26 +91,39 @@ public abstract class Talon6Motor<T extends Measure100> implements MotorWithEnco
         Phoenix100.currentConfig(talonFXConfigurator, supplyLimit, statorLimit);
         Phoenix100.pidConfig(talonFXConfigurator, lowLevelVelocityConstants);
 
-        Phoenix100.crash(() -> m_motor.getPosition().setUpdateFrequency(50));
-        Phoenix100.crash(() -> m_motor.getVelocity().setUpdateFrequency(50));
-        Phoenix100.crash(() -> m_motor.getTorqueCurrent().setUpdateFrequency(50));
-
-        m_position = () -> m_motor.getPosition().refresh().getValueAsDouble();
-        m_velocity = () -> m_motor.getVelocity().refresh().getValueAsDouble();
-        m_dutyCycle = () -> m_motor.getDutyCycle().refresh().getValueAsDouble();
-        m_error = () -> m_motor.getClosedLoopError().refresh().getValueAsDouble();
-        m_supply = () -> m_motor.getSupplyCurrent().refresh().getValueAsDouble();
-        m_stator = () -> m_motor.getStatorCurrent().refresh().getValueAsDouble();
-        m_temp = () -> m_motor.getDeviceTemp().refresh().getValueAsDouble();
-        m_torque = () -> m_motor.getTorqueCurrent().refresh().getValueAsDouble();
+        // the registry refreshes these once per loop, and sets the update frequency.
+        String bus = m_motor.getNetwork();
+        m_positionSignal = m_motor.getPosition();
+        m_position = SignalRegistry.phoenix(bus, m_positionSignal, kControlHz);
+        m_velocity = SignalRegistry.phoenix(bus, m_motor.getVelocity(), kControlHz);
+        m_torque = SignalRegistry.phoenix(bus, m_motor.getTorqueCurrent(), kControlHz);
+        m_dutyCycle = SignalRegistry.phoenix(bus, m_motor.getDutyCycle(), kDiagnosticHz);
+        m_error = SignalRegistry.phoenix(bus, m_motor.getClosedLoopError(), kDiagnosticHz);
+        m_supply = SignalRegistry.phoenix(bus, m_motor.getSupplyCurrent(), kDiagnosticHz);
+        m_stator = SignalRegistry.phoenix(bus, m_motor.getStatorCurrent(), kDiagnosticHz);
+        m_temp = SignalRegistry.phoenix(bus, m_motor.getDeviceTemp(), kTempHz);
         t.log(Level.TRACE, m_name, "Device ID", m_motor.getDeviceID());
+
+        m_log_desired_duty_cycle = t.doubleLogger(Level.TRACE, m_name, "desired duty cycle [-1,1]");
+        m_log_motor_input = t.doubleLogger(Level.TRACE, m_name, "motor input (RPS)");
+        m_log_friction_ff = t.doubleLogger(Level.TRACE, m_name, "friction feedforward volts");
+        m_log_velocity_ff = t.doubleLogger(Level.TRACE, m_name, "velocity feedforward volts");
+        m_log_accel_ff = t.doubleLogger(Level.TRACE, m_name, "accel feedforward volts");
+        m_log_torque_ff = t.doubleLogger(Level.TRACE, m_name, "torque feedforward volts");
+        m_log_velocity = t.doubleLogger(Level.TRACE, m_name, "velocity (rev_s)");
+        m_log_output = t.doubleLogger(Level.TRACE, m_name, "output [-1,1]");
+        m_log_error = t.doubleLogger(Level.TRACE, m_name, "error (rev_s)");
+        m_log_supply = t.doubleLogger(Level.TRACE, m_name, "supply current (A)");
+        m_log_stator = t.doubleLogger(Level.TRACE, m_name, "stator current (A)");
+        // temperature changes slowly
+        m_log_temp = t.doubleLogger(Level.DEBUG, m_name, "temperature (C)", kTempPolicy);
     }
 
     @Override
     public void setDutyCycle(double output) {
         Phoenix100.warn(() -> m_motor.setControl(m_dutyCycleOut
                 .withOutput(output)));
-        t.log(Level.TRACE, m_name, "desired duty cycle [-1,1]", output);
+        m_log_desired_duty_cycle.log(output);
         log();
     }
 
@@ -95,11 +144,11 @@ public abstract class Talon6Motor<T extends Measure100> implements MotorWithEnco
                 .withVelocity(motorRev_S)
                 .withFeedForward(kFFVolts)));
 
-        t.log(Level.TRACE, m_name, "motor input (RPS)", motorRev_S);
-        t.log(Level.TRACE, m_name, "friction feedforward volts", frictionFFVolts);
-        t.log(Level.TRACE, m_name, "velocity feedforward volts", velocityFFVolts);
-        t.log(Level.TRACE, m_name, "accel feedforward volts", accelFFVolts);
-        t.log(Level.TRACE, m_name, "torque feedforward volts", torqueFFVolts);
+        m_log_motor_input.log(motorRev_S);
+        m_log_friction_ff.log(frictionFFVolts);
+        m_log_velocity_ff.log(velocityFFVolts);
+        m_log_accel_ff.log(accelFFVolts);
+        m_log_torque_ff.log(torqueFFVolts);
         log();
     }
 
@@ -133,13 +182,38 @@ public abstract class Talon6Motor<T extends Measure100> implements MotorWithEnco
         Phoenix100.warn(() -> m_motor.setPosition(0));
     }
 
+    /** Invalid if the most recent refresh failed, e.g. if the motor is missing. */
+    @Override
+    public void sample(EncoderSample out) {
+        double timeS = Timer.getFPGATimestamp();
+        // read first, in case this read is what refreshes the signal.
+        double position = position();
+        if (!m_positionSignal.getStatus().isOK()) {
+            out.invalidate(timeS);
+            return;
+        }
+        out.set(position, getRate(), timeS);
+    }
+
+    /** Position in the subclass units, without boxing. */
+    protected abstract double position();
+
+    /**
+     * A separate copy of the position signal, for another thread to refresh and
+     * read without touching the one the main loop uses. See
+     * Phoenix100.addOdometrySignal().
+     */
+    protected StatusSignal<Double> clonePositionSignal() {
+        return m_positionSignal.clone();
+    }
+
     protected void log() {
         // suppliers here are never touched in the non-logging case.
-        t.log(Level.TRACE, m_name, "velocity (rev_s)", m_velocity);
-        t.log(Level.TRACE, m_name, "output [-1,1]", m_dutyCycle);
-        t.log(Level.TRACE, m_name, "error (rev_s)", m_error);
-        t.log(Level.TRACE, m_name, "supply current (A)", m_supply);
-        t.log(Level.TRACE, m_name, "stator current (A)", m_stator);
-        t.log(Level.DEBUG, m_name, "temperature (C)", m_temp);
+        m_log_velocity.log(m_velocity);
+        m_log_output.log(m_dutyCycle);
+        m_log_error.log(m_error);
+        m_log_supply.log(m_supply);
+        m_log_stator.log(m_stator);
+        m_log_temp.log(m_temp);
     }
 }
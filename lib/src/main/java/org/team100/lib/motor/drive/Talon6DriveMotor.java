@@ -4,9 +4,13 @@ import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.motor.Talon6Motor;
 import org.team100.lib.motor.MotorPhase;
+import org.team100.lib.motor.Phoenix100;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.units.Distance100;
 
+import com.ctre.phoenix6.StatusSignal;
+
 /**
  * Swerve drive motor using Talon FX and Phoenix 6.
  * 
@@ -19,6 +23,15 @@ public abstract class Talon6DriveMotor extends Talon6Motor<Distance100> {
     private final double m_gearRatio;
     private final double m_wheelDiameterM;
     private final double m_distancePerTurn;
+    /** Only the odometry thread refreshes this copy, see OdometryThread.phoenix(). */
+    private final StatusSignal<Double> m_odometryPosition;
+
+    // LOGGERS
+    private final DoubleLogger m_log_module_input;
+    private final DoubleLogger m_log_position_rev;
+    private final DoubleLogger m_log_position_m;
+    private final DoubleLogger m_log_velocity_rev_s;
+    private final DoubleLogger m_log_velocity_m_s;
 
     protected Talon6DriveMotor(
             String name,
@@ -34,12 +47,19 @@ public abstract class Talon6DriveMotor extends Talon6Motor<Distance100> {
         m_gearRatio = gearRatio;
         m_wheelDiameterM = wheelDiameter;
         m_distancePerTurn = wheelDiameter * Math.PI / gearRatio;
+        m_log_module_input = t.doubleLogger(Level.TRACE, m_name, "module input (RPS)");
+        m_log_position_rev = t.doubleLogger(Level.TRACE, m_name, "position (rev)");
+        m_log_position_m = t.doubleLogger(Level.DEBUG, m_name, "position (m)");
+        m_log_velocity_rev_s = t.doubleLogger(Level.TRACE, m_name, "velocity (rev_s)");
+        m_log_velocity_m_s = t.doubleLogger(Level.DEBUG, m_name, "velocity (m_s)");
+        m_odometryPosition = clonePositionSignal();
+        Phoenix100.addOdometrySignal(m_odometryPosition);
     }
 
     @Override
     public void setVelocity(double outputM_S, double accelM_S_S, double outputTorqueN) {
         double wheelRev_S = outputM_S / (m_wheelDiameterM * Math.PI);
-        t.log(Level.TRACE, m_name, "module input (RPS)", wheelRev_S);
+        m_log_module_input.log(wheelRev_S);
         double motorRev_S = wheelRev_S * m_gearRatio;
         double wheelRev_S2 = accelM_S_S / (m_wheelDiameterM * Math.PI);
         double motorRev_S2 = wheelRev_S2 * m_gearRatio;
@@ -58,20 +78,34 @@ public abstract class Talon6DriveMotor extends Talon6Motor<Distance100> {
     /** Position in meters */
     @Override
     public Double getPosition() {
+        return position();
+    }
+
+    @Override
+    protected double position() {
         double positionRev = m_position.getAsDouble();
         double positionM = positionRev * m_distancePerTurn;
-        t.log(Level.TRACE, m_name, "position (rev)", positionRev);
-        t.log(Level.DEBUG, m_name, "position (m)", positionM);
+        m_log_position_rev.log(positionRev);
+        m_log_position_m.log(positionM);
         return positionM;
     }
 
+    /**
+     * Position in meters, from the odometry thread's own copy of the position
+     * signal, as of that thread's most recent wait. This doesn't log, or touch
+     * anything the main loop uses, so only the odometry thread should call it.
+     */
+    public double getOdometryPosition() {
+        return m_odometryPosition.getValueAsDouble() * m_distancePerTurn;
+    }
+
     /** Velocity in meters/sec */
     @Override
     public double getRate() {
         double velocityRev_S = m_velocity.getAsDouble();
         double velocityM_S = velocityRev_S * m_distancePerTurn;
-        t.log(Level.TRACE, m_name, "velocity (rev_s)", velocityRev_S);
-        t.log(Level.DEBUG, m_name, "velocity (m_s)", velocityM_S);
+        m_log_velocity_rev_s.log(velocityRev_S);
+        m_log_velocity_m_s.log(velocityM_S);
         return velocityM_S;
     }
 
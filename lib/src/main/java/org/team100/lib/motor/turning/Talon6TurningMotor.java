@@ -4,6 +4,7 @@ import org.team100.lib.config.Feedforward100;
 import org.team100.lib.config.PIDConstants;
 import org.team100.lib.motor.Talon6Motor;
 import org.team100.lib.motor.MotorPhase;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.units.Angle100;
 
@@ -17,6 +18,12 @@ public abstract class Talon6TurningMotor extends Talon6Motor<Angle100> {
 
     private final double m_gearRatio;
 
+    // LOGGERS
+    private final DoubleLogger m_log_position_rev;
+    private final DoubleLogger m_log_position_rad;
+    private final DoubleLogger m_log_velocity_rev_s;
+    private final DoubleLogger m_log_velocity_rad_s;
+
     protected Talon6TurningMotor(
             String name,
             int canId,
@@ -26,6 +33,10 @@ public abstract class Talon6TurningMotor extends Talon6Motor<Angle100> {
             Feedforward100 ff) {
         super(name, canId, motorPhase, kSupplyLimit, kStatorLimit, pid, ff);
         m_gearRatio = gearRatio;
+        m_log_position_rev = t.doubleLogger(Level.TRACE, m_name, "position (rev)");
+        m_log_position_rad = t.doubleLogger(Level.DEBUG, m_name, "position (rad)");
+        m_log_velocity_rev_s = t.doubleLogger(Level.TRACE, m_name, "velocity (rev_s)");
+        m_log_velocity_rad_s = t.doubleLogger(Level.DEBUG, m_name, "velocity (rad_s)");
     }
 
     @Override
@@ -47,10 +58,15 @@ public abstract class Talon6TurningMotor extends Talon6Motor<Angle100> {
     /** Position in rad */
     @Override
     public Double getPosition() {
+        return position();
+    }
+
+    @Override
+    protected double position() {
         double positionRev = m_position.getAsDouble();
         double positionRad = positionRev * 2 * Math.PI;
-        t.log(Level.TRACE, m_name, "position (rev)", positionRev);
-        t.log(Level.DEBUG, m_name, "position (rad)", positionRad);
+        m_log_position_rev.log(positionRev);
+        m_log_position_rad.log(positionRad);
         return positionRad;
     }
 
@@ -59,8 +75,8 @@ public abstract class Talon6TurningMotor extends Talon6Motor<Angle100> {
     public double getRate() {
         double velocityRev_S = m_velocity.getAsDouble();
         double velocityRad_S = velocityRev_S * 2 * Math.PI;
-        t.log(Level.TRACE, m_name, "velocity (rev_s)", velocityRev_S);
-        t.log(Level.DEBUG, m_name, "velocity (rad_s)", velocityRad_S);
+        m_log_velocity_rev_s.log(velocityRev_S);
+        m_log_velocity_rad_s.log(velocityRad_S);
         return velocityRad_S;
     }
 
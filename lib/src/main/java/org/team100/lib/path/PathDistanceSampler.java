@@ -1,15 +1,41 @@
 package org.team100.lib.path;
 
 import org.team100.lib.timing.TimingUtil;
+import org.team100.lib.util.ArraySearch;
 
 /**
  * Samples a path by distance along it.
+ *
+ * Sampling is a binary search over the cumulative distances. For sampling in
+ * distance order, e.g. time parameterization, use a cursor, which resumes from
+ * the last sample.
  */
 public class PathDistanceSampler {
     private final Path100 m_path;
     /** in meters */
     private final double[] m_distances;
 
+    /**
+     * Remembers where the last sample was, so that sampling forward in small
+     * steps is O(1). Not thread-safe: each user should have its own.
+     */
+    public class Cursor {
+        private int m_index;
+
+        private Cursor() {
+            m_index = 1;
+        }
+
+        /** Same as PathDistanceSampler.sample(). */
+        public PathSamplePoint sample(double distance) throws TimingUtil.TimingException {
+            PathSamplePoint end = endpoint(distance);
+            if (end != null)
+                return end;
+            m_index = ArraySearch.lowerBound(m_distances, distance, m_index);
+            return between(distance, m_index);
+        }
+    }
+
     public PathDistanceSampler(final Path100 path) {
         m_path = path;
         m_distances = new double[m_path.length()];
@@ -20,10 +46,30 @@ public class PathDistanceSampler {
         }
     }
 
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
     /**
      * @param distance in meters
      */
     public PathSamplePoint sample(double distance) throws TimingUtil.TimingException {
+        PathSamplePoint end = endpoint(distance);
+        if (end != null)
+            return end;
+        return between(distance, ArraySearch.lowerBound(m_distances, distance));
+    }
+
+    public double getMaxDistance() {
+        return m_distances[m_distances.length - 1];
+    }
+
+    public double getMinDistance() {
+        return 0.0;
+    }
+
+    /** The first or last point, if distance is off the end, or null. */
+    private PathSamplePoint endpoint(double distance) {
         if (distance >= getMaxDistance()) {
             PathPoint point = m_path.getPoint(m_path.length() - 1);
             return new PathSamplePoint(point.state(), point.index(), point.index());
@@ -32,28 +78,27 @@ public class PathDistanceSampler {
             PathPoint point = m_path.getPoint(0);
             return new PathSamplePoint(point.state(), point.index(), point.index());
         }
-        for (int i = 1; i < m_distances.length; ++i) {
-            final PathPoint point = m_path.getPoint(i);
-            if (m_distances[i] >= distance) {
-                final PathPoint prev_s = m_path.getPoint(i - 1);
-                if (Math.abs(m_distances[i] - m_distances[i - 1]) <= 1e-12) {
-                    return new PathSamplePoint(point.state(), point.index(), point.index());
-                } else {
-                    return new PathSamplePoint(
-                            prev_s.state().interpolate(point.state(),
-                                    (distance - m_distances[i - 1]) / (m_distances[i] - m_distances[i - 1])),
-                            i - 1, i);
-                }
-            }
-        }
-        throw new TimingUtil.TimingException();
-    }
-
-    public double getMaxDistance() {
-        return m_distances[m_distances.length - 1];
+        return null;
     }
 
-    public double getMinDistance() {
-        return 0.0;
+    /**
+     * Interpolate between point i-1 and point i.
+     *
+     * @param i the first point at or after distance.
+     */
+    private PathSamplePoint between(double distance, int i) throws TimingUtil.TimingException {
+        if (i < 1 || i >= m_distances.length) {
+            // NaN ends up here.
+            throw new TimingUtil.TimingException();
+        }
+        final PathPoint point = m_path.getPoint(i);
+        final PathPoint prev_s = m_path.getPoint(i - 1);
+        if (Math.abs(m_distances[i] - m_distances[i - 1]) <= 1e-12) {
+            return new PathSamplePoint(point.state(), point.index(), point.index());
+        }
+        return new PathSamplePoint(
+                prev_s.state().interpolate(point.state(),
+                        (distance - m_distances[i - 1]) / (m_distances[i] - m_distances[i - 1])),
+                i - 1, i);
     }
 }
@@ -1,5 +1,6 @@
 package org.team100.lib.profile;
 
+import org.team100.lib.controller.MutableState100;
 import org.team100.lib.controller.State100;
 import org.team100.lib.telemetry.ProfileModeChooser;
 
@@ -75,6 +76,16 @@ public class ChoosableProfile implements Profile100 {
         }
     }
 
+    /** Only PROFILE_100 avoids allocation. */
+    @Override
+    public void calculate(double dt, State100 initial, State100 goal, MutableState100 out) {
+        if (m_chooser.getSelected() == Mode.PROFILE_100) {
+            m_trapezoid.calculate(dt, initial, goal, out);
+            return;
+        }
+        out.set(calculate(dt, initial, goal));
+    }
+
     Mode getSelected() {
         return m_chooser.getSelected();
     }
@@ -1,5 +1,6 @@
 package org.team100.lib.profile;
 
+import org.team100.lib.controller.MutableState100;
 import org.team100.lib.controller.State100;
 
 public interface Profile100 {
@@ -7,4 +8,16 @@ public interface Profile100 {
     /** Note order here, initial first, goal second. */
     State100 calculate(double dt, State100 initial, State100 goal);
 
-}
\ No newline at end of file
+    /**
+     * Same as above, but writes the result into out, so it need not allocate.
+     * 
+     * The out parameter may be the same object as initial.
+     * 
+     * The default just copies; profiles used in the control loop should override
+     * it.
+     */
+    default void calculate(double dt, State100 initial, State100 goal, MutableState100 out) {
+        out.set(calculate(dt, initial, goal));
+    }
+
+}
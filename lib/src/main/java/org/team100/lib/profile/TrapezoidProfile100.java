@@ -1,5 +1,6 @@
 package org.team100.lib.profile;
 
+import org.team100.lib.controller.MutableState100;
 import org.team100.lib.controller.State100;
 import org.team100.lib.util.Util;
 
@@ -45,6 +46,9 @@ import edu.wpi.first.math.MathUtil;
  * 
  * It might be slower around the switching points, since it can call itself once
  * or twice, once per segment.
+ * 
+ * Internally everything is done with primitives, and the result is written into
+ * a caller-owned MutableState100, so the control loop doesn't allocate.
  */
 public class TrapezoidProfile100 implements Profile100 {
     private final Constraints100 m_constraints;
@@ -59,9 +63,19 @@ public class TrapezoidProfile100 implements Profile100 {
         this(new Constraints100(maxVel, maxAccel), tolerance);
     }
 
+    /** Allocates the result; use the four-argument form in the control loop. */
+    @Override
+    public State100 calculate(double dt, final State100 initialRaw, final State100 goalRaw) {
+        MutableState100 out = new MutableState100();
+        calculate(dt, initialRaw, goalRaw, out);
+        return out.copy();
+    }
+
     /**
      * Note order of the arguments: initial state first, then goal.
      * 
+     * The result is written into out, which may be the same object as initial.
+     * 
      * Input velocities are clamped to the velocity constraint.
      * 
      * Input accelerations are ignored: jerk is unmanaged.
@@ -77,51 +91,61 @@ public class TrapezoidProfile100 implements Profile100 {
      * period.
      */
     @Override
-    public State100 calculate(double dt, final State100 initialRaw, final State100 goalRaw) {
-        State100 initial = new State100(initialRaw.x(),
-                MathUtil.clamp(initialRaw.v(), -m_constraints.maxVelocity, m_constraints.maxVelocity));
-        State100 goal = new State100(goalRaw.x(),
-                MathUtil.clamp(goalRaw.v(), -m_constraints.maxVelocity, m_constraints.maxVelocity));
+    public void calculate(double dt, final State100 initialRaw, final State100 goalRaw, MutableState100 out) {
+        calculate(dt, initialRaw.x(), initialRaw.v(), goalRaw.x(), goalRaw.v(), out);
+    }
+
+    private void calculate(double dt, double ix, double ivRaw, double gx, double gvRaw, MutableState100 out) {
+        double iv = MathUtil.clamp(ivRaw, -m_constraints.maxVelocity, m_constraints.maxVelocity);
+        double gv = MathUtil.clamp(gvRaw, -m_constraints.maxVelocity, m_constraints.maxVelocity);
 
-        if (goal.near(initial, m_tolerance)) {
-            return goal;
+        if (MathUtil.isNear(gx, ix, m_tolerance) && MathUtil.isNear(gv, iv, m_tolerance)) {
+            out.set(gx, gv, 0);
+            return;
         }
 
-        if (MathUtil.isNear(m_constraints.maxVelocity, initial.v(), 1e-12)) {
-            return keepCruising(dt, initial, goal);
+        if (MathUtil.isNear(m_constraints.maxVelocity, iv, 1e-12)) {
+            keepCruising(dt, ix, iv, gx, gv, out);
+            return;
         }
-        if (MathUtil.isNear(-m_constraints.maxVelocity, initial.v(), 1e-12)) {
-            return keepCruisingMinus(dt, initial, goal);
+        if (MathUtil.isNear(-m_constraints.maxVelocity, iv, 1e-12)) {
+            keepCruisingMinus(dt, ix, iv, gx, gv, out);
+            return;
         }
 
         // Calculate the ETA to each switch point, or NaN if there's no valid path.
-        double t1IplusGminus = t1IplusGminus(initial, goal);
-        double t1IminusGplus = t1IminusGplus(initial, goal);
+        double t1IplusGminus = t1IplusGminus(ix, iv, gx, gv);
+        double t1IminusGplus = t1IminusGplus(ix, iv, gx, gv);
 
         if (Double.isNaN(t1IminusGplus) && Double.isNaN(t1IplusGminus)) {
             Util.warn("Both I-G+ and I+G- are NaN, this should never happen");
-            return initial;
+            out.set(ix, iv, 0);
+            return;
         }
 
         if (Double.isNaN(t1IplusGminus)) {
             // the valid path is I-G+, assume we're on I-
-            return handleIminus(dt, initial, goal, t1IminusGplus);
+            handleIminus(dt, ix, iv, gx, gv, t1IminusGplus, out);
+            return;
         }
 
         if (Double.isNaN(t1IminusGplus)) {
             // the valid path is I+G-, assume we're on I+
-            return handleIplus(dt, initial, goal, t1IplusGminus);
+            handleIplus(dt, ix, iv, gx, gv, t1IplusGminus, out);
+            return;
         }
 
         // There can be one path with zero duration, indicating that we're on the goal
         // path at the switch point. In that case, we want to switch immediately and
         // proceed to the goal.
-        dt = truncateDt(dt, initial, goal);
+        dt = truncateDt(dt, iv, gv);
         if (MathUtil.isNear(0, t1IminusGplus, 1e-12)) {
-            return full(dt, initial, 1);
+            full(dt, ix, iv, 1, out);
+            return;
         }
         if (MathUtil.isNear(0, t1IplusGminus, 1e-12)) {
-            return full(dt, initial, -1);
+            full(dt, ix, iv, -1, out);
+            return;
         }
 
         // There can be two non-zero-duration paths. As above, this happens when we're
@@ -130,91 +154,104 @@ public class TrapezoidProfile100 implements Profile100 {
         // a little loop in phase space, backing up and ending up in the same place, on
         // the way to the goal. We want to avoid these little loops.
         if (t1IminusGplus > t1IplusGminus) {
-            return full(dt, initial, 1);
+            full(dt, ix, iv, 1, out);
+            return;
         }
-        return full(dt, initial, -1);
+        full(dt, ix, iv, -1, out);
     }
 
-    private State100 handleIplus(double dt, State100 initial, State100 goal, double t1) {
+    private void handleIplus(double dt, double ix, double iv, double gx, double gv, double t1,
+            MutableState100 out) {
         if (MathUtil.isNear(t1, 0, 1e-12)) {
             // switch eta is zero: go to the goal via G-
-            return full(truncateDt(dt, initial, goal), initial, -1);
+            full(truncateDt(dt, iv, gv), ix, iv, -1, out);
+            return;
         }
         if (t1 < dt) {
             // We Encounter G- during dt, so switch.
-            return traverseSwitch(dt, initial, goal, t1, 1);
+            traverseSwitch(dt, ix, iv, gx, gv, t1, 1, out);
+            return;
         }
-        if (initial.v() + m_constraints.maxAcceleration * dt > m_constraints.maxVelocity) {
+        if (iv + m_constraints.maxAcceleration * dt > m_constraints.maxVelocity) {
             // We encounter vmax, so cruise.
-            return cruise(dt, initial, 1);
+            cruise(dt, ix, iv, 1, out);
+            return;
         }
         // We will not encounter any boundary during dt
-        return full(dt, initial, 1);
+        full(dt, ix, iv, 1, out);
     }
 
-    private State100 handleIminus(double dt, State100 initial, State100 goal, double t1) {
+    private void handleIminus(double dt, double ix, double iv, double gx, double gv, double t1,
+            MutableState100 out) {
 
         if (MathUtil.isNear(t1, 0, 1e-12)) {
             // Switch ETA is zero: go to the goal via G+
-            return full(truncateDt(dt, initial, goal), initial, 1);
+            full(truncateDt(dt, iv, gv), ix, iv, 1, out);
+            return;
         }
         if (t1 < dt) {
             // We encounter G+ during dt, so switch.
-            return traverseSwitch(dt, initial, goal, t1, -1);
+            traverseSwitch(dt, ix, iv, gx, gv, t1, -1, out);
+            return;
         }
-        if (initial.v() - m_constraints.maxAcceleration * dt < -m_constraints.maxVelocity) {
+        if (iv - m_constraints.maxAcceleration * dt < -m_constraints.maxVelocity) {
             // we did encounter vmax, though
-            return cruise(dt, initial, -1);
+            cruise(dt, ix, iv, -1, out);
+            return;
         }
         // We will not encounter any boundary during dt
-        return full(dt, initial, -1);
+        full(dt, ix, iv, -1, out);
     }
 
-    private State100 keepCruising(double dt, State100 initial, State100 goal) {
+    private void keepCruising(double dt, double ix, double iv, double gx, double gv, MutableState100 out) {
         // We're already at positive cruising speed, which means G- is next.
         // will we reach it during dt?
-        double c_minus = c_minus(goal);
+        double c_minus = c_minus(gx, gv);
         // the G- value at vmax
         double gminus = c_minus - Math.pow(m_constraints.maxVelocity, 2) / (2 * m_constraints.maxAcceleration);
         // distance to go
-        double dc = gminus - initial.x();
+        double dc = gminus - ix;
         // time to go
         double dct = dc / m_constraints.maxVelocity;
         if (MathUtil.isNear(0, dct, 1e-12)) {
             // we are at the intersection of vmax and G-, so head down G-
-            return full(truncateDt(dt, initial, goal), initial, -1);
+            full(truncateDt(dt, iv, gv), ix, iv, -1, out);
+            return;
         }
         if (dct < dt) {
             // there are two segments
             double tremaining = dt - dct;
-            return calculate(tremaining, new State100(gminus, m_constraints.maxVelocity), goal);
+            calculate(tremaining, gminus, m_constraints.maxVelocity, gx, gv, out);
+            return;
         }
         // we won't reach G-, so cruise for all of dt.
-        return new State100(
-                initial.x() + m_constraints.maxVelocity * dt,
+        out.set(
+                ix + m_constraints.maxVelocity * dt,
                 m_constraints.maxVelocity,
                 0);
     }
 
-    private State100 keepCruisingMinus(double dt, State100 initial, State100 goal) {
+    private void keepCruisingMinus(double dt, double ix, double iv, double gx, double gv, MutableState100 out) {
         // We're already at negative cruising speed, which means G+ is next.
         // will we reach it during dt?
-        double c_plus = c_plus(goal);
+        double c_plus = c_plus(gx, gv);
         double gplus = c_plus + Math.pow(m_constraints.maxVelocity, 2) / (2 * m_constraints.maxAcceleration);
         // negative
-        double dc = gplus - initial.x();
+        double dc = gplus - ix;
         double dct = dc / -m_constraints.maxVelocity;
         if (MathUtil.isNear(0, dct, 1e-12)) {
             // We're at the intersection of -vmax and G+, so head up G+
-            return full(truncateDt(dt, initial, goal), initial, 1);
+            full(truncateDt(dt, iv, gv), ix, iv, 1, out);
+            return;
         }
         if (dct < dt) {
             double tremaining = dt - dct;
-            return calculate(tremaining, new State100(gplus, -m_constraints.maxVelocity), goal);
+            calculate(tremaining, gplus, -m_constraints.maxVelocity, gx, gv, out);
+            return;
         }
         // we won't reach G+, so cruise for all of dt
-        return new State100(
-                initial.x() - m_constraints.maxVelocity * dt,
+        out.set(
+                ix - m_constraints.maxVelocity * dt,
                 -m_constraints.maxVelocity,
                 0);
     }
@@ -223,44 +260,45 @@ public class TrapezoidProfile100 implements Profile100 {
      * Travel to the switching point, and then the remainder of time on the goal
      * path.
      */
-    private State100 traverseSwitch(double dt, State100 in_initial, final State100 goal, double t1, double direction) {
+    private void traverseSwitch(double dt, double ix, double iv, double gx, double gv, double t1,
+            double direction, MutableState100 out) {
         // first get to the switching point
-        double x = in_initial.x() + in_initial.v() * t1
+        double x = ix + iv * t1
                 + 0.5 * direction * m_constraints.maxAcceleration * Math.pow(t1, 2);
-        double v = in_initial.v() + direction * m_constraints.maxAcceleration * t1;
+        double v = iv + direction * m_constraints.maxAcceleration * t1;
         // then go the other way for the remaining time
         double t2 = dt - t1;
         // just use the same method for the second part
         // note this is slower than the code below so maybe put it back
-        return calculate(t2, new State100(x, v), goal);
+        calculate(t2, x, v, gx, gv, out);
     }
 
     /** Returns a shorter dt to avoid overshooting the goal state. */
-    private double truncateDt(double dt, State100 in_initial, State100 in_goal) {
-        double dtg = Math.abs((in_initial.v() - in_goal.v()) / m_constraints.maxAcceleration);
+    private double truncateDt(double dt, double iv, double gv) {
+        double dtg = Math.abs((iv - gv) / m_constraints.maxAcceleration);
         return Math.min(dt, dtg);
     }
 
     /** Return dt at full accel. */
-    private State100 full(double dt, State100 in_initial, double direction) {
-        double x = in_initial.x() + in_initial.v() * dt
+    private void full(double dt, double ix, double iv, double direction, MutableState100 out) {
+        double x = ix + iv * dt
                 + 0.5 * direction * m_constraints.maxAcceleration * Math.pow(dt, 2);
-        double v = in_initial.v() + direction * m_constraints.maxAcceleration * dt;
+        double v = iv + direction * m_constraints.maxAcceleration * dt;
         double a = direction * m_constraints.maxAcceleration;
-        return new State100(x, v, a);
+        out.set(x, v, a);
     }
 
     /**
      * The path contains an I-cruise boundary, so proceed in I to the boundary and
      * then at the cruise speed for the remaining time.
      */
-    private State100 cruise(double dt, State100 in_initial, double direction) {
+    private void cruise(double dt, double ix, double iv, double direction, MutableState100 out) {
         // need to clip (this is negative)
-        double dv = direction * m_constraints.maxVelocity - in_initial.v();
+        double dv = direction * m_constraints.maxVelocity - iv;
         // time to get to limit (positive)
         double vt = dv / (direction * m_constraints.maxAcceleration);
         // location of that limit
-        double xt = in_initial.x() + in_initial.v() * vt
+        double xt = ix + iv * vt
                 + 0.5 * direction * m_constraints.maxAcceleration * Math.pow(vt, 2);
         // remaining time
         double vt2 = dt - vt;
@@ -268,16 +306,20 @@ public class TrapezoidProfile100 implements Profile100 {
         // because this is the "not switching" branch.
         // so we just move along it
         double x = xt + direction * m_constraints.maxVelocity * vt2;
-        return new State100(x, direction * m_constraints.maxVelocity, 0);
+        out.set(x, direction * m_constraints.maxVelocity, 0);
     }
 
     /** Time to switch point for I+G- path, or NaN if there is no path. */
     double t1IplusGminus(State100 initial, State100 goal) {
-        double q_dot_switch = qDotSwitchIplusGminus(initial, goal);
+        return t1IplusGminus(initial.x(), initial.v(), goal.x(), goal.v());
+    }
+
+    private double t1IplusGminus(double ix, double iv, double gx, double gv) {
+        double q_dot_switch = qDotSwitchIplusGminus(ix, iv, gx, gv);
         // this fixes rounding errors
-        if (MathUtil.isNear(initial.v(), q_dot_switch, 1e-6))
+        if (MathUtil.isNear(iv, q_dot_switch, 1e-6))
             return 0;
-        double t1 = (q_dot_switch - initial.v()) / m_constraints.maxAcceleration;
+        double t1 = (q_dot_switch - iv) / m_constraints.maxAcceleration;
         if (t1 < 0) {
             return Double.NaN;
         }
@@ -286,12 +328,16 @@ public class TrapezoidProfile100 implements Profile100 {
 
     /** Time to switch point for I-G+ path, or NaN if there is no path. */
     double t1IminusGplus(State100 initial, State100 goal) {
-        double q_dot_switch = qDotSwitchIminusGplus(initial, goal);
+        return t1IminusGplus(initial.x(), initial.v(), goal.x(), goal.v());
+    }
+
+    private double t1IminusGplus(double ix, double iv, double gx, double gv) {
+        double q_dot_switch = qDotSwitchIminusGplus(ix, iv, gx, gv);
         // this fixes rounding errors
-        if (MathUtil.isNear(initial.v(), q_dot_switch, 1e-6))
+        if (MathUtil.isNear(iv, q_dot_switch, 1e-6))
             return 0;
 
-        double t1 = (q_dot_switch - initial.v()) / (-1.0 * m_constraints.maxAcceleration);
+        double t1 = (q_dot_switch - iv) / (-1.0 * m_constraints.maxAcceleration);
         if (t1 < 0) {
             return Double.NaN;
         }
@@ -305,25 +351,29 @@ public class TrapezoidProfile100 implements Profile100 {
      * shaped curve including I.
      */
     double qDotSwitchIplusGminus(State100 initial, State100 goal) {
-        if (initial.equals(goal))
-            return initial.v();
+        return qDotSwitchIplusGminus(initial.x(), initial.v(), goal.x(), goal.v());
+    }
+
+    private double qDotSwitchIplusGminus(double ix, double iv, double gx, double gv) {
+        if (ix == gx && iv == gv)
+            return iv;
 
         // intercept of I-
-        double c_minus = c_minus(initial);
+        double c_minus = c_minus(ix, iv);
         // intercept of I+
-        double c_plus = c_plus(initial);
+        double c_plus = c_plus(ix, iv);
         // position of I- at the velocity of goal
-        double p_minus = c_minus - Math.pow(goal.v(), 2) / (2 * m_constraints.maxAcceleration);
-        double p_plus = c_plus + Math.pow(goal.v(), 2) / (2 * m_constraints.maxAcceleration);
+        double p_minus = c_minus - Math.pow(gv, 2) / (2 * m_constraints.maxAcceleration);
+        double p_plus = c_plus + Math.pow(gv, 2) / (2 * m_constraints.maxAcceleration);
 
         // "limit" path we don't want.
-        if (goal.v() <= initial.v() && goal.x() < p_minus)
+        if (gv <= iv && gx < p_minus)
             return Double.NaN;
-        if (goal.v() > initial.v() && goal.x() < p_plus)
+        if (gv > iv && gx < p_plus)
             return Double.NaN;
 
         // progress along I+
-        double d = qSwitchIplusGminus(initial, goal) - c_plus(initial);
+        double d = qSwitchIplusGminus(ix, iv, gx, gv) - c_plus;
         // prevent rounding errors
         if (d < 0)
             d = 0;
@@ -337,26 +387,30 @@ public class TrapezoidProfile100 implements Profile100 {
      * for goal.v less than i.v, and to the left of the I+ curve for goal.v > i.v
      */
     double qDotSwitchIminusGplus(State100 initial, State100 goal) {
-        if (initial.equals(goal))
-            return goal.v();
+        return qDotSwitchIminusGplus(initial.x(), initial.v(), goal.x(), goal.v());
+    }
+
+    private double qDotSwitchIminusGplus(double ix, double iv, double gx, double gv) {
+        if (ix == gx && iv == gv)
+            return gv;
 
         // intercept of I-
-        double c_minus = c_minus(initial);
+        double c_minus = c_minus(ix, iv);
         // intercept of I+
-        double c_plus = c_plus(initial);
+        double c_plus = c_plus(ix, iv);
         // position of I- at the velocity of goal
-        double p_minus = c_minus - Math.pow(goal.v(), 2) / (2 * m_constraints.maxAcceleration);
-        double p_plus = c_plus + Math.pow(goal.v(), 2) / (2 * m_constraints.maxAcceleration);
+        double p_minus = c_minus - Math.pow(gv, 2) / (2 * m_constraints.maxAcceleration);
+        double p_plus = c_plus + Math.pow(gv, 2) / (2 * m_constraints.maxAcceleration);
 
         // "limit" path we don't want.
 
-        if (goal.v() <= initial.v() && goal.x() > p_minus)
+        if (gv <= iv && gx > p_minus)
             return Double.NaN;
-        if (goal.v() > initial.v() && goal.x() > p_plus)
+        if (gv > iv && gx > p_plus)
             return Double.NaN;
 
         // progress along I-
-        double d = qSwitchIminusGplus(initial, goal) - c_plus(goal);
+        double d = qSwitchIminusGplus(ix, iv, gx, gv) - c_plus(gx, gv);
         // prevent rounding errors
         if (d < 0)
             d = 0;
@@ -370,24 +424,40 @@ public class TrapezoidProfile100 implements Profile100 {
      * goal state, i.e. the I+G- path.
      */
     double qSwitchIplusGminus(State100 initial, State100 goal) {
-        return (c_plus(initial) + c_minus(goal)) / 2;
+        return qSwitchIplusGminus(initial.x(), initial.v(), goal.x(), goal.v());
+    }
+
+    private double qSwitchIplusGminus(double ix, double iv, double gx, double gv) {
+        return (c_plus(ix, iv) + c_minus(gx, gv)) / 2;
     }
 
     /**
      * Midpoint position for the I-G+ path.
      */
     double qSwitchIminusGplus(State100 initial, State100 goal) {
-        return (c_minus(initial) + c_plus(goal)) / 2;
+        return qSwitchIminusGplus(initial.x(), initial.v(), goal.x(), goal.v());
+    }
+
+    private double qSwitchIminusGplus(double ix, double iv, double gx, double gv) {
+        return (c_minus(ix, iv) + c_plus(gx, gv)) / 2;
     }
 
     /** Intercept of negative-acceleration path intersecting s */
     double c_minus(State100 s) {
-        return s.x() - Math.pow(s.v(), 2) / (-2.0 * m_constraints.maxAcceleration);
+        return c_minus(s.x(), s.v());
+    }
+
+    private double c_minus(double x, double v) {
+        return x - Math.pow(v, 2) / (-2.0 * m_constraints.maxAcceleration);
     }
 
     /** Intercept of negative-acceleration path intersecting s */
     double c_plus(State100 s) {
-        return s.x() - Math.pow(s.v(), 2) / (2.0 * m_constraints.maxAcceleration);
+        return c_plus(s.x(), s.v());
+    }
+
+    private double c_plus(double x, double v) {
+        return x - Math.pow(v, 2) / (2.0 * m_constraints.maxAcceleration);
     }
 
     // for testing
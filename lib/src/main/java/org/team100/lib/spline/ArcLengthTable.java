@@ -0,0 +1,85 @@
+package org.team100.lib.spline;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.team100.lib.util.ArraySearch;
+
+/**
+ * Arc length of a curve as a function of its parameter, in [0,1].
+ *
+ * The length is tabulated at evenly spaced knots, integrating the speed, ds/dp,
+ * over each interval with five-point Gauss-Legendre quadrature, which is
+ * plenty for quintic splines. Distance-to-parameter lookup bisects the table
+ * and then refines within the interval with a few Newton steps.
+ */
+public class ArcLengthTable {
+    private static final int kIntervals = 32;
+    private static final int kNewtonSteps = 3;
+    private static final double[] kNodes = {
+            0.0,
+            -0.5384693101056831, 0.5384693101056831,
+            -0.9061798459386640, 0.9061798459386640 };
+    private static final double[] kWeights = {
+            0.5688888888888889,
+            0.4786286704993665, 0.4786286704993665,
+            0.2369268850561891, 0.2369268850561891 };
+
+    private final DoubleUnaryOperator m_speed;
+    /** Cumulative length at each knot; the first is zero. */
+    private final double[] m_lengths;
+
+    /**
+     * @param speed ds/dp, never negative.
+     */
+    public ArcLengthTable(DoubleUnaryOperator speed) {
+        m_speed = speed;
+        m_lengths = new double[kIntervals + 1];
+        for (int i = 1; i <= kIntervals; ++i) {
+            m_lengths[i] = m_lengths[i - 1] + integrate(knot(i - 1), knot(i));
+        }
+    }
+
+    public double getLength() {
+        return m_lengths[kIntervals];
+    }
+
+    /**
+     * The parameter at the given distance, which is clamped to [0, length].
+     */
+    public double getParameter(double distance) {
+        if (distance <= 0)
+            return 0;
+        if (distance >= getLength())
+            return 1;
+        int i = ArraySearch.lowerBound(m_lengths, distance);
+        double p0 = knot(i - 1);
+        double p1 = knot(i);
+        double s0 = m_lengths[i - 1];
+        double s1 = m_lengths[i];
+        // start with linear interpolation
+        double p = p0 + (p1 - p0) * (distance - s0) / (s1 - s0);
+        for (int k = 0; k < kNewtonSteps; ++k) {
+            double speed = m_speed.applyAsDouble(p);
+            if (speed < 1e-9)
+                break;
+            double error = s0 + integrate(p0, p) - distance;
+            p = Math.max(p0, Math.min(p1, p - error / speed));
+        }
+        return p;
+    }
+
+    private static double knot(int i) {
+        return (double) i / kIntervals;
+    }
+
+    /** Gauss-Legendre quadrature over [a, b]. */
+    private double integrate(double a, double b) {
+        double half = (b - a) / 2;
+        double mid = (a + b) / 2;
+        double sum = 0;
+        for (int i = 0; i < kNodes.length; ++i) {
+            sum += kWeights[i] * m_speed.applyAsDouble(mid + half * kNodes[i]);
+        }
+        return half * sum;
+    }
+}
@@ -36,6 +36,15 @@ public class HolonomicSpline {
     private final Spline1d theta;
     private final Rotation2d r0;
 
+    /**
+     * Splines are immutable, and optimization only changes two at a time, so
+     * each one remembers its own sum, and the others are reused.
+     */
+    private double m_sumDCurvature2;
+    private boolean m_hasSumDCurvature2;
+    /** Made when first needed. */
+    private ArcLengthTable m_arcLength;
+
     /**
      * @param p0 The starting point and direction of the spline
      * @param p1 The ending point and direction of the spline
@@ -111,10 +120,32 @@ public class HolonomicSpline {
      * @return the final sumDCurvature2
      */
     public static double optimizeSpline(List<HolonomicSpline> splines) {
+        return optimizeSpline(splines, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Same as optimizeSpline(), but stops early if it runs out of time, leaving
+     * the splines as they are after the last full iteration. That's always a
+     * valid set of splines, just not as smooth. An iteration isn't started if
+     * the previous one suggests it wouldn't finish in time.
+     *
+     * @param splines the list of splines to optimize
+     * @param budgetS time limit in seconds
+     * @return the final sumDCurvature2
+     */
+    public static double optimizeSpline(List<HolonomicSpline> splines, double budgetS) {
+        long deadlineNs = System.nanoTime() + (long) (budgetS * 1e9);
+        // the first iteration is a guess; after that, assume each costs the same
+        // as the last one, and don't start one that would run past the deadline.
+        long iterationNs = 0;
         int count = 0;
         double prev = sumDCurvature2(splines);
         while (count < kMaxIterations) {
+            long startNs = System.nanoTime();
+            if (startNs + iterationNs > deadlineNs)
+                return prev;
             runOptimizationIteration(splines);
+            iterationNs = System.nanoTime() - startNs;
             double current = sumDCurvature2(splines);
             if (prev - current < kMinDelta)
                 return current;
@@ -125,6 +156,70 @@ public class HolonomicSpline {
         return prev;
     }
 
+    /**
+     * Start replanned splines from the previous plan.
+     *
+     * The first spline starts with the given curvature, i.e. the curvature of
+     * the old path where the new one leaves it, so the course doesn't kink at
+     * the splice. This is the only thing to carry over for a single spline,
+     * which the optimizer doesn't touch.
+     *
+     * The optimized second derivatives at the joints of the previous splines
+     * are copied into the joints of the new ones, to warm-start
+     * optimizeSpline(). The lists are aligned at the end, since when
+     * replanning, the new splines cover the rest of the old path, and the
+     * joints are the same waypoints.
+     *
+     * The new splines should be fresh, i.e. have zero second derivatives.
+     *
+     * @param startCurvature rad/m
+     */
+    public static void warmStart(
+            List<HolonomicSpline> splines,
+            List<HolonomicSpline> previous,
+            double startCurvature) {
+        if (splines.isEmpty())
+            return;
+        HolonomicSpline first = splines.get(0);
+        // an acceleration normal to the velocity, k*|v|^2, gives curvature k.
+        double dx0 = first.dx(0);
+        double dy0 = first.dy(0);
+        double speed = Math.hypot(dx0, dy0);
+        splines.set(0, first.adjustSecondDerivatives(
+                -startCurvature * speed * dy0, 0,
+                startCurvature * speed * dx0, 0));
+
+        int offset = previous.size() - splines.size();
+        for (int i = 0; i < splines.size() - 1; ++i) {
+            int k = i + offset;
+            if (k < 0 || k >= previous.size() - 1)
+                continue;
+            double ddx = previous.get(k).ddx(1);
+            double ddy = previous.get(k).ddy(1);
+            splines.set(i, splines.get(i).adjustSecondDerivatives(0, ddx, 0, ddy));
+            splines.set(i + 1, splines.get(i + 1).adjustSecondDerivatives(ddx, 0, ddy, 0));
+        }
+    }
+
+    /** Arc length in meters. */
+    public double getLength() {
+        return arcLength().getLength();
+    }
+
+    /**
+     * The parameter at the given distance along the spline, in O(log n).
+     * Distance is clamped to [0, length].
+     */
+    public double getParameter(double distanceM) {
+        return arcLength().getParameter(distanceM);
+    }
+
+    private ArcLengthTable arcLength() {
+        if (m_arcLength == null)
+            m_arcLength = new ArcLengthTable(this::getVelocity);
+        return m_arcLength;
+    }
+
     Pose2d getPose2d(double p) {
         return new Pose2d(getPoint(p), getHeading(p));
     }
@@ -263,11 +358,15 @@ public class HolonomicSpline {
      * @return integral of dCurvature^2 over the length of the spline
      */
     private double sumDCurvature2() {
+        if (m_hasSumDCurvature2)
+            return m_sumDCurvature2;
         double dt = 1.0 / kSamples;
         double sum = 0;
         for (double t = 0; t < 1.0; t += dt) {
             sum += (dt * dCurvature2(t));
         }
+        m_sumDCurvature2 = sum;
+        m_hasSumDCurvature2 = true;
         return sum;
     }
 
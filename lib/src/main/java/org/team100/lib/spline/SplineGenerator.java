@@ -30,7 +30,7 @@ public class SplineGenerator {
         rv.add(s.getPose2dWithMotion(0.0));
         double dt = (t1 - t0);
         for (double t = 0; t < t1; t += dt) {
-            getSegmentArc(s, rv, t, t + dt, maxDx, maxDy, maxDTheta);
+            getSegmentArc(s, rv, t, t + dt, s.getPose2d(t), s.getPose2d(t + dt), maxDx, maxDy, maxDTheta);
         }
         return rv;
     }
@@ -53,17 +53,50 @@ public class SplineGenerator {
         return rv;
     }
 
+    /**
+     * Samples at even steps of arc length, no longer than stepM, using each
+     * spline's arc-length table, instead of subdividing against tolerances.
+     *
+     * The number of samples, and so the cost, is proportional to the length of
+     * the path, whatever its shape. The samples lie on the splines at their true
+     * distances, so PathDistanceSampler only interpolates over short steps.
+     */
+    public static List<Pose2dWithMotion> parameterizeSplinesByDistance(
+            List<? extends HolonomicSpline> splines,
+            double stepM) {
+        List<Pose2dWithMotion> rv = new ArrayList<>();
+        if (splines.isEmpty())
+            return rv;
+        rv.add(splines.get(0).getPose2dWithMotion(0.0));
+        for (HolonomicSpline s : splines) {
+            double length = s.getLength();
+            int n = Math.max(1, (int) Math.ceil(length / stepM));
+            for (int i = 1; i < n; ++i) {
+                rv.add(s.getPose2dWithMotion(s.getParameter(length * i / n)));
+            }
+            rv.add(s.getPose2dWithMotion(1.0));
+        }
+        return rv;
+    }
+
+    /**
+     * Subdivides until each segment is close enough to a constant twist, so
+     * sampling is dense where the curvature is high, and sparse where it's low.
+     * 
+     * The poses at the ends are passed in, so each pose is computed just once;
+     * the midpoints are dyadic, so they're exact.
+     */
     private static void getSegmentArc(
             HolonomicSpline s,
             List<Pose2dWithMotion> rv,
             double t0,
             double t1,
+            Pose2d p0,
+            Pose2d p1,
             double maxDx,
             double maxDy,
             double maxDTheta) {
-        Pose2d p0 = s.getPose2d(t0);
         Pose2d phalf = s.getPose2d(t0 + (t1 - t0) * .5);
-        Pose2d p1 = s.getPose2d(t1);
         Twist2d twist_full = GeometryUtil.kPoseZero.log(GeometryUtil.transformBy(GeometryUtil.inverse(p0), p1));
         Pose2d phalf_predicted = GeometryUtil.transformBy(p0,
                 GeometryUtil.kPoseZero.exp(GeometryUtil.scale(twist_full, 0.5)));
@@ -76,8 +109,8 @@ public class SplineGenerator {
                 Math.abs(error.getTranslation().getX()) > maxDx ||
                 Math.abs(error.getRotation().getRadians()) > maxDTheta ||
                 Math.abs(course_error) > maxDTheta) {
-            getSegmentArc(s, rv, t0, (t0 + t1) / 2, maxDx, maxDy, maxDTheta);
-            getSegmentArc(s, rv, (t0 + t1) / 2, t1, maxDx, maxDy, maxDTheta);
+            getSegmentArc(s, rv, t0, (t0 + t1) / 2, p0, phalf, maxDx, maxDy, maxDTheta);
+            getSegmentArc(s, rv, (t0 + t1) / 2, t1, phalf, p1, maxDx, maxDy, maxDTheta);
         } else {
             rv.add(s.getPose2dWithMotion(t1));
         }
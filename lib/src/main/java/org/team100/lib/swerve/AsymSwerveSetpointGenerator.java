@@ -12,6 +12,7 @@ import org.team100.lib.motion.drivetrain.kinodynamics.SwerveDriveKinematics100;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.util.Names;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
@@ -44,6 +45,26 @@ public class AsymSwerveSetpointGenerator implements Glassy {
     private final BatterySagLimiter m_BatterySagLimiter;
     private final String m_name;
 
+    // Per-module scratch for the allocation-free variant, sized on first use.
+    private double[] m_prevVx = new double[0];
+    private double[] m_prevVy = new double[0];
+    private double[] m_prevHeadingRad = new double[0];
+    private double[] m_prevHeadingCos = new double[0];
+    private double[] m_prevHeadingSin = new double[0];
+    private double[] m_desiredVx = new double[0];
+    private double[] m_desiredVy = new double[0];
+    private double[] m_desiredHeadingRad = new double[0];
+    private double[] m_desiredHeadingCos = new double[0];
+    private double[] m_desiredHeadingSin = new double[0];
+    /** Null means no override. */
+    private Rotation2d[] m_overrideSteering = new Rotation2d[0];
+    private SwerveModuleState[] m_desiredStates = new SwerveModuleState[0];
+    private SwerveModuleState[] m_setpointStates = new SwerveModuleState[0];
+    private final ChassisSpeeds m_desiredSpeeds = new ChassisSpeeds();
+    private final ChassisSpeeds m_setpointSpeeds = new ChassisSpeeds();
+    /** Never mutated. */
+    private final ChassisSpeeds m_stop = new ChassisSpeeds();
+
     public AsymSwerveSetpointGenerator(String parent, SwerveKinodynamics limits) {
         m_limits = limits;
         m_name = Names.append(parent, this);
@@ -161,6 +182,103 @@ public class AsymSwerveSetpointGenerator implements Glassy {
                 kDtSec);
     }
 
+    /**
+     * Same as above, with exactly the same result, but without the garbage:
+     * per-module intermediates go into preallocated scratch, the steering
+     * overrides are an array rather than a list of Optional, and the result is
+     * written into out.
+     * 
+     * New module angles are still new Rotation2d instances, since Rotation2d is
+     * immutable.
+     * 
+     * @param out receives the new setpoint, and may be prevSetpoint itself. Its
+     *            speeds and states are overwritten, so it should own them, e.g.
+     *            from new SwerveSetpoint().
+     */
+    public void generateSetpoint(
+            SwerveSetpoint prevSetpoint,
+            ChassisSpeeds desiredState,
+            double kDtSec,
+            SwerveSetpoint out) {
+        SwerveModuleState[] prevModuleStates = prevSetpoint.getModuleStates();
+        resize(prevModuleStates.length);
+
+        // the desired module state speeds are always positive.
+        SwerveModuleState[] desiredModuleStates = m_desiredStates;
+        m_limits.toSwerveModuleStatesWithoutDiscretization(desiredState, desiredModuleStates);
+        if (m_limits.getMaxDriveVelocityM_S() > 0.0) {
+            // same as desaturate()
+            SwerveDriveKinematics100.desaturateWheelSpeeds(desiredModuleStates, m_limits.getMaxDriveVelocityM_S());
+            m_limits.toChassisSpeeds(desiredModuleStates, m_desiredSpeeds);
+            desiredState = m_desiredSpeeds;
+        }
+        boolean desiredIsStopped = SwerveUtil.desiredIsStopped(desiredState, desiredModuleStates, prevModuleStates);
+
+        computeComponents(prevModuleStates, m_prevVx, m_prevVy, m_prevHeadingRad, m_prevHeadingCos, m_prevHeadingSin);
+        computeComponents(desiredModuleStates, m_desiredVx, m_desiredVy,
+                m_desiredHeadingRad, m_desiredHeadingCos, m_desiredHeadingSin);
+
+        if (shouldStopAndReverse()
+                && !GeometryUtil.isZero(prevSetpoint.getChassisSpeeds())
+                && !GeometryUtil.isZero(desiredState)) {
+            generateSetpoint(prevSetpoint, m_stop, kDtSec, out);
+            return;
+        }
+
+        ChassisSpeeds chassisSpeeds = prevSetpoint.getChassisSpeeds();
+        double dx = desiredState.vxMetersPerSecond - chassisSpeeds.vxMetersPerSecond;
+        double dy = desiredState.vyMetersPerSecond - chassisSpeeds.vyMetersPerSecond;
+        double dtheta = desiredState.omegaRadiansPerSecond - chassisSpeeds.omegaRadiansPerSecond;
+
+        double min_s = m_centripetalLimiter.enforceCentripetalLimit(dx, dy, kDtSec);
+
+        if (desiredIsStopped) {
+            for (int i = 0; i < prevModuleStates.length; ++i) {
+                m_overrideSteering[i] = prevModuleStates[i].angle;
+            }
+        } else {
+            double steering_min_s = m_steeringRateLimiter.enforceSteeringLimit(
+                    desiredModuleStates,
+                    prevModuleStates,
+                    m_prevVx,
+                    m_prevVy,
+                    m_prevHeadingRad,
+                    m_desiredVx,
+                    m_desiredVy,
+                    m_desiredHeadingRad,
+                    m_overrideSteering,
+                    kDtSec);
+            min_s = Math.min(min_s, steering_min_s);
+        }
+
+        double accel_min_s = m_DriveAccelerationLimiter.enforceWheelAccelLimit(
+                m_prevVx,
+                m_prevVy,
+                m_desiredVx,
+                m_desiredVy,
+                kDtSec);
+
+        min_s = Math.min(min_s, accel_min_s);
+
+        if (Experiments.instance.enabled(Experiment.LimitBatterySag)) {
+            double battery_min_s = m_BatterySagLimiter.get(RobotController.getBatteryVoltage());
+            min_s = Math.min(min_s, battery_min_s);
+        }
+
+        // read everything from prevSetpoint before writing, since it may be out.
+        makeSpeeds(chassisSpeeds, dx, dy, dtheta, min_s, kDtSec, m_setpointSpeeds);
+        // the speeds in these states are always positive.
+        SwerveModuleState[] setpointStates = m_setpointStates;
+        m_limits.toSwerveModuleStates(
+                m_setpointSpeeds,
+                m_setpointSpeeds.omegaRadiansPerSecond,
+                kDtSec,
+                setpointStates);
+        applyOverrides(m_overrideSteering, setpointStates);
+        flipIfRequired(prevModuleStates, setpointStates);
+        out.set(m_setpointSpeeds, setpointStates);
+    }
+
     @Override
     public String getGlassName() {
         return "AsymSwerveSetpointGenerator";
@@ -198,6 +316,88 @@ public class AsymSwerveSetpointGenerator implements Glassy {
         return heading;
     }
 
+    private void resize(int n) {
+        if (m_prevVx.length == n)
+            return;
+        m_prevVx = new double[n];
+        m_prevVy = new double[n];
+        m_prevHeadingRad = new double[n];
+        m_prevHeadingCos = new double[n];
+        m_prevHeadingSin = new double[n];
+        m_desiredVx = new double[n];
+        m_desiredVy = new double[n];
+        m_desiredHeadingRad = new double[n];
+        m_desiredHeadingCos = new double[n];
+        m_desiredHeadingSin = new double[n];
+        m_overrideSteering = new Rotation2d[n];
+        m_desiredStates = new SwerveModuleState[n];
+        m_setpointStates = new SwerveModuleState[n];
+        for (int i = 0; i < n; ++i) {
+            m_desiredStates[i] = new SwerveModuleState();
+            m_setpointStates[i] = new SwerveModuleState();
+        }
+    }
+
+    /**
+     * Same as computeVx(), computeVy(), and computeHeading(), into the supplied
+     * arrays. The flipped heading has the same radians, cosine, and sine as the
+     * Rotation2d that GeometryUtil.flip() would make.
+     */
+    private static void computeComponents(
+            SwerveModuleState[] states,
+            double[] vx,
+            double[] vy,
+            double[] headingRad,
+            double[] headingCos,
+            double[] headingSin) {
+        for (int i = 0; i < states.length; ++i) {
+            Rotation2d angle = states[i].angle;
+            double speed = states[i].speedMetersPerSecond;
+            vx[i] = angle.getCos() * speed;
+            vy[i] = angle.getSin() * speed;
+            if (speed < 0.0) {
+                double flipped = MathUtil.angleModulus(angle.getRadians() + Math.PI);
+                headingRad[i] = flipped;
+                headingCos[i] = Math.cos(flipped);
+                headingSin[i] = Math.sin(flipped);
+            } else {
+                headingRad[i] = angle.getRadians();
+                headingCos[i] = angle.getCos();
+                headingSin[i] = angle.getSin();
+            }
+        }
+    }
+
+    /** Same as below, using the scratch headings. */
+    private boolean shouldStopAndReverse() {
+        for (int i = 0; i < m_prevHeadingRad.length; ++i) {
+            double diff = minusRad(
+                    m_desiredHeadingCos[i],
+                    m_desiredHeadingSin[i],
+                    m_prevHeadingRad[i]);
+            if (Math.abs(diff) < flipLimitRad) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The radians of a.minus(b), with the same arithmetic as Rotation2d, i.e.
+     * a.rotateBy(new Rotation2d(-b)), without making either one.
+     */
+    private static double minusRad(double aCos, double aSin, double bRad) {
+        double bCos = Math.cos(-bRad);
+        double bSin = Math.sin(-bRad);
+        double x = aCos * bCos - aSin * bSin;
+        double y = aCos * bSin + aSin * bCos;
+        double magnitude = Math.hypot(x, y);
+        if (magnitude > 1e-6) {
+            return Math.atan2(y / magnitude, x / magnitude);
+        }
+        return 0.0;
+    }
+
     /**
      * If we want to go back the way we came, it might be faster to stop
      * and then reverse. This is certainly true for near-180 degree turns, but
@@ -270,6 +470,19 @@ public class AsymSwerveSetpointGenerator implements Glassy {
         }
     }
 
+    /** Same as above, where null means no override. */
+    private void applyOverrides(Rotation2d[] overrides, SwerveModuleState[] states) {
+        for (int i = 0; i < states.length; ++i) {
+            Rotation2d override = overrides[i];
+            if (override != null) {
+                if (SwerveUtil.shouldFlip(override.minus(states[i].angle))) {
+                    states[i].speedMetersPerSecond *= -1.0;
+                }
+                states[i].angle = override;
+            }
+        }
+    }
+
     private void flipIfRequired(SwerveModuleState[] prevStates, SwerveModuleState[] setpointStates) {
         for (int i = 0; i < prevStates.length; ++i) {
             final Rotation2d deltaRotation = setpointStates[i].angle.minus(prevStates[i].angle);
@@ -308,4 +521,26 @@ public class AsymSwerveSetpointGenerator implements Glassy {
                 + min_s * dy;
         return new ChassisSpeeds(vx, vy, omega);
     }
+
+    /** Same as above, into result. */
+    private static void makeSpeeds(
+            ChassisSpeeds prev,
+            double dx,
+            double dy,
+            double dtheta,
+            double min_s,
+            double kDtSec,
+            ChassisSpeeds result) {
+        double omega = prev.omegaRadiansPerSecond + min_s * dtheta;
+        double drift = -omega * kDtSec;
+        double vx = prev.vxMetersPerSecond * Math.cos(drift)
+                - prev.vyMetersPerSecond * Math.sin(drift)
+                + min_s * dx;
+        double vy = prev.vxMetersPerSecond * Math.sin(drift)
+                + prev.vyMetersPerSecond * Math.cos(drift)
+                + min_s * dy;
+        result.vxMetersPerSecond = vx;
+        result.vyMetersPerSecond = vy;
+        result.omegaRadiansPerSecond = omega;
+    }
 }
@@ -43,11 +43,49 @@ public class SteeringRateLimiter implements Glassy {
             Rotation2d[] desired_heading,
             List<Optional<Rotation2d>> overrideSteering,
             double kDtSec) {
+        Rotation2d[] overrides = new Rotation2d[prevModuleStates.length];
+        double min_s = enforceSteeringLimit(
+                desiredModuleStates,
+                prevModuleStates,
+                prev_vx,
+                prev_vy,
+                radians(prev_heading),
+                desired_vx,
+                desired_vy,
+                radians(desired_heading),
+                overrides,
+                kDtSec);
+        for (Rotation2d override : overrides) {
+            overrideSteering.add(Optional.ofNullable(override));
+        }
+        return min_s;
+    }
+
+    /**
+     * Same as above, without allocating, for AsymSwerveSetpointGenerator's
+     * scratch buffers.
+     * 
+     * @param prev_heading_rad    which way each module was going
+     * @param desired_heading_rad which way each module should go
+     * @param overrideSteering    output: steering for each module, or null if
+     *                            the module isn't overridden.
+     */
+    public double enforceSteeringLimit(
+            SwerveModuleState[] desiredModuleStates,
+            SwerveModuleState[] prevModuleStates,
+            double[] prev_vx,
+            double[] prev_vy,
+            double[] prev_heading_rad,
+            double[] desired_vx,
+            double[] desired_vy,
+            double[] desired_heading_rad,
+            Rotation2d[] overrideSteering,
+            double kDtSec) {
 
         double min_s = 1.0;
         final double max_theta_step = kDtSec * m_limits.getMaxSteeringVelocityRad_S();
         for (int i = 0; i < prevModuleStates.length; ++i) {
-            overrideSteering.add(Optional.empty());
+            overrideSteering[i] = null;
             if (Math.abs(prevModuleStates[i].speedMetersPerSecond - 0.0) <= 1e-12) {
                 // If module is stopped, we know that we will need to move straight to the final
                 // steering angle, so limit based purely on rotation in place.
@@ -55,7 +93,7 @@ public class SteeringRateLimiter implements Glassy {
                 if (Math.abs(desiredModuleStates[i].speedMetersPerSecond - 0.0) <= 1e-12) {
                     // Both previous and desired states are stopped.
                     // Just leave module at its current angle.
-                    overrideSteering.set(i, Optional.of(prevModuleStates[i].angle));
+                    overrideSteering[i] = prevModuleStates[i].angle;
                     continue;
                 }
 
@@ -68,13 +106,13 @@ public class SteeringRateLimiter implements Glassy {
 
                 if (numStepsNeeded <= 1.0) {
                     // Steer directly to goal angle.
-                    overrideSteering.set(i, Optional.of(desiredModuleStates[i].angle));
+                    overrideSteering[i] = desiredModuleStates[i].angle;
                     // Don't limit the global min_s;
                     continue;
                 } else {
                     // Adjust steering by max_theta_step.
-                    overrideSteering.set(i, Optional.of(prevModuleStates[i].angle.rotateBy(
-                            Rotation2d.fromRadians(Math.signum(rotationRad) * max_theta_step))));
+                    overrideSteering[i] = prevModuleStates[i].angle.rotateBy(
+                            Rotation2d.fromRadians(Math.signum(rotationRad) * max_theta_step));
                     min_s = 0.0;
                     continue;
                 }
@@ -87,10 +125,10 @@ public class SteeringRateLimiter implements Glassy {
             double s = SwerveUtil.findSteeringMaxS(
                     prev_vx[i],
                     prev_vy[i],
-                    prev_heading[i].getRadians(),
+                    prev_heading_rad[i],
                     desired_vx[i],
                     desired_vy[i],
-                    desired_heading[i].getRadians(),
+                    desired_heading_rad[i],
                     max_theta_step,
                     kMaxIterations);
             min_s = Math.min(min_s, s);
@@ -104,4 +142,12 @@ public class SteeringRateLimiter implements Glassy {
         return "SteeringRateLimiter";
     }
 
+    private static double[] radians(Rotation2d[] r) {
+        double[] rad = new double[r.length];
+        for (int i = 0; i < r.length; ++i) {
+            rad[i] = r[i].getRadians();
+        }
+        return rad;
+    }
+
 }
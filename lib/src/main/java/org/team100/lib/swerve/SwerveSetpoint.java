@@ -29,6 +29,23 @@ public class SwerveSetpoint {
         m_ModuleStates = initialStates;
     }
 
+    /**
+     * Overwrite this setpoint with the given speeds and states, without
+     * allocating. The values are copied, not retained, but the objects being
+     * overwritten are the ones supplied to the constructor, if any.
+     */
+    public void set(ChassisSpeeds chassisSpeeds, SwerveModuleState[] states) {
+        if (states.length != m_ModuleStates.length)
+            throw new IllegalArgumentException("Wrong module count: " + states.length);
+        m_ChassisSpeeds.vxMetersPerSecond = chassisSpeeds.vxMetersPerSecond;
+        m_ChassisSpeeds.vyMetersPerSecond = chassisSpeeds.vyMetersPerSecond;
+        m_ChassisSpeeds.omegaRadiansPerSecond = chassisSpeeds.omegaRadiansPerSecond;
+        for (int i = 0; i < states.length; ++i) {
+            m_ModuleStates[i].speedMetersPerSecond = states[i].speedMetersPerSecond;
+            m_ModuleStates[i].angle = states[i].angle;
+        }
+    }
+
     public ChassisSpeeds getChassisSpeeds() {
         return m_ChassisSpeeds;
     }
@@ -1,7 +1,5 @@
 package org.team100.lib.swerve;
 
-import java.util.function.DoubleBinaryOperator;
-
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.util.Math100;
@@ -12,6 +10,8 @@ import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 
 public class SwerveUtil {
+    /** Same as Math100. */
+    private static final double kRootTolerance = 0.0001;
 
     /**
      * Check if it would be faster to go to the opposite of the goal heading (and
@@ -68,10 +68,8 @@ public class SwerveUtil {
 
         double offset = f_0 + Math.signum(diff) * max_deviation;
 
-        DoubleBinaryOperator func = (x, y) -> SwerveUtil.unwrapAngle(f_0, Math.atan2(y, x)) - offset;
-
-        return Math100.findRoot(
-                func,
+        return findRoot(
+                true, f_0, offset,
                 x_0, y_0, f_0 - offset,
                 x_1, y_1, f_1 - offset,
                 max_iterations);
@@ -93,8 +91,7 @@ public class SwerveUtil {
             return 1.0;
         }
         double offset = f_0 + Math.signum(diff) * max_vel_step;
-        DoubleBinaryOperator func = (x, y) -> (Math.hypot(x, y) - offset);
-        return Math100.findRoot(func, x_0, y_0, f_0 - offset, x_1, y_1, f_1 - offset, max_iterations);
+        return findRoot(false, 0, offset, x_0, y_0, f_0 - offset, x_1, y_1, f_1 - offset, max_iterations);
     }
 
     /**
@@ -181,6 +178,56 @@ public class SwerveUtil {
         return (dot >= 0);
     }
 
+    /**
+     * Same as Math100.findRoot(), step for step, with the function inlined so
+     * that nothing is captured or allocated: for steering it's the unwrapped
+     * course relative to ref, otherwise it's the speed, less the offset either
+     * way.
+     */
+    private static double findRoot(
+            boolean steering,
+            double ref,
+            double offset,
+            double x_0,
+            double y_0,
+            double f_0,
+            double x_1,
+            double y_1,
+            double f_1,
+            int iterations_left) {
+        if (iterations_left < 0) {
+            return 1.0;
+        }
+        if (Math.abs(f_0 - f_1) <= kRootTolerance) {
+            return 1.0;
+        }
+        double s_guess = Math.max(0.0, Math.min(1.0, -f_0 / (f_1 - f_0)));
+        double x_guess = (x_1 - x_0) * s_guess + x_0;
+        double y_guess = (y_1 - y_0) * s_guess + y_0;
+        double f_guess;
+        if (steering) {
+            f_guess = unwrapAngle(ref, Math.atan2(y_guess, x_guess)) - offset;
+        } else {
+            f_guess = Math.hypot(x_guess, y_guess) - offset;
+        }
+        if (Math.abs(f_guess) < kRootTolerance) {
+            return s_guess;
+        }
+        if (Math.signum(f_0) == Math.signum(f_guess)) {
+            return s_guess + (1.0 - s_guess) * findRoot(
+                    steering, ref, offset,
+                    x_guess, y_guess, f_guess,
+                    x_1, y_1, f_1,
+                    iterations_left - 1);
+        } else {
+            return s_guess * findRoot(
+                    steering, ref, offset,
+                    x_0, y_0, f_0,
+                    x_guess, y_guess, f_guess,
+                    iterations_left - 1);
+        }
+    }
+
     private SwerveUtil() {
         //
     }
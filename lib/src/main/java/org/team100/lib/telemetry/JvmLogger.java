@@ -4,66 +4,100 @@ import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryPoolMXBean;
-import java.lang.management.MemoryUsage;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 import org.team100.lib.dashboard.Glassy;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.LongLogger;
 import org.team100.lib.util.Names;
 
 /**
  * Logs stuff about the JVM. Inspired by Advantage Kit's
  * LoggedRobot.GcStatsCollector().
+ *
+ * The set of collectors and pools is fixed for the life of the JVM, so the
+ * handles are made once, up front.
+ *
+ * The memory publish rate is limited by the "/JVM Logger" telemetry policy.
+ * The GC logs are per-loop deltas, so they're published every time.
  */
 public class JvmLogger implements Glassy {
     private final Telemetry t = Telemetry.get();
     private final String m_name;
-    private final Map<String, Long> times;
-    private final Map<String, Long> counts;
+    private final List<GarbageCollectorMXBean> m_collectors;
+    private final List<MemoryPoolMXBean> m_pools;
+    private final MemoryMXBean m_memory;
+    private final long[] m_times;
+    private final long[] m_counts;
+
+    // LOGGERS
+    private final LongLogger[] m_log_gc_time;
+    private final LongLogger[] m_log_gc_count;
+    private final LongLogger m_log_gc_time_total;
+    private final LongLogger m_log_gc_count_total;
+    private final LongLogger[] m_log_pool;
+    private final LongLogger m_log_pool_total;
+    private final LongLogger m_log_heap;
+    private final LongLogger m_log_non_heap;
 
     public JvmLogger() {
         m_name = Names.name(this);
-        times = new HashMap<>();
-        counts = new HashMap<>();
+        m_collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        m_pools = ManagementFactory.getMemoryPoolMXBeans();
+        m_memory = ManagementFactory.getMemoryMXBean();
+        m_times = new long[m_collectors.size()];
+        m_counts = new long[m_collectors.size()];
+        m_log_gc_time = new LongLogger[m_collectors.size()];
+        m_log_gc_count = new LongLogger[m_collectors.size()];
+        for (int i = 0; i < m_collectors.size(); ++i) {
+            String pool = m_collectors.get(i).getName();
+            m_log_gc_time[i] = t.longLogger(Level.DEBUG, m_name, "GCTimeMS/" + pool, TelemetryPolicy.ALWAYS);
+            m_log_gc_count[i] = t.longLogger(Level.DEBUG, m_name, "GCCounts/" + pool, TelemetryPolicy.ALWAYS);
+        }
+        m_log_gc_time_total = t.longLogger(Level.DEBUG, m_name, "GCTimeMS/total", TelemetryPolicy.ALWAYS);
+        m_log_gc_count_total = t.longLogger(Level.DEBUG, m_name, "GCCounts/total", TelemetryPolicy.ALWAYS);
+        m_log_pool = new LongLogger[m_pools.size()];
+        for (int i = 0; i < m_pools.size(); ++i) {
+            m_log_pool[i] = t.longLogger(Level.DEBUG, m_name, "MemoryPool/" + m_pools.get(i).getName());
+        }
+        m_log_pool_total = t.longLogger(Level.DEBUG, m_name, "MemoryPool/total");
+        m_log_heap = t.longLogger(Level.DEBUG, m_name, "MemoryUsage/heap");
+        m_log_non_heap = t.longLogger(Level.DEBUG, m_name, "MemoryUsage/non-heap");
     }
 
     public void logGarbageCollectors() {
         long accumTime = 0;
         long accumCount = 0;
-        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
-            String pool = bean.getName();
-            times.computeIfAbsent(pool, x -> 0l);
-            counts.computeIfAbsent(pool, x -> 0l);
+        for (int i = 0; i < m_collectors.size(); ++i) {
+            GarbageCollectorMXBean bean = m_collectors.get(i);
             long collectionTime = bean.getCollectionTime();
             long collectionCount = bean.getCollectionCount();
-            long thisTime = collectionTime - times.get(pool);
-            long thisCount = collectionCount - counts.get(pool);
-            times.put(pool, collectionTime);
-            counts.put(pool, collectionCount);
-            t.log(Level.DEBUG, m_name, "GCTimeMS/" + pool, thisTime);
-            t.log(Level.DEBUG, m_name, "GCCounts/" + pool, thisCount);
+            long thisTime = collectionTime - m_times[i];
+            long thisCount = collectionCount - m_counts[i];
+            m_times[i] = collectionTime;
+            m_counts[i] = collectionCount;
+            m_log_gc_time[i].log(thisTime);
+            m_log_gc_count[i].log(thisCount);
             accumTime += thisTime;
             accumCount += thisCount;
         }
-        t.log(Level.DEBUG, m_name, "GCTimeMS/total", accumTime);
-        t.log(Level.DEBUG, m_name, "GCCounts/total", accumCount);
+        m_log_gc_time_total.log(accumTime);
+        m_log_gc_count_total.log(accumCount);
     }
 
     public void logMemoryPools() {
         long accumUsage = 0;
-        for (MemoryPoolMXBean bean : ManagementFactory.getMemoryPoolMXBeans()) {
-            MemoryUsage usage = bean.getUsage();
-            accumUsage += usage.getUsed();
-            t.log(Level.DEBUG, m_name, "MemoryPool/" + bean.getName(), usage.getUsed());
+        for (int i = 0; i < m_pools.size(); ++i) {
+            long used = m_pools.get(i).getUsage().getUsed();
+            accumUsage += used;
+            m_log_pool[i].log(used);
         }
-        t.log(Level.DEBUG, m_name, "MemoryPool/total", accumUsage);
+        m_log_pool_total.log(accumUsage);
     }
 
     public void logMemoryUsage() {
-        MemoryMXBean bean = ManagementFactory.getMemoryMXBean();
-        t.log(Level.DEBUG, m_name, "MemoryUsage/heap", bean.getHeapMemoryUsage().getUsed());
-        t.log(Level.DEBUG, m_name, "MemoryUsage/non-heap", bean.getNonHeapMemoryUsage().getUsed());
+        m_log_heap.log(m_memory.getHeapMemoryUsage().getUsed());
+        m_log_non_heap.log(m_memory.getNonHeapMemoryUsage().getUsed());
     }
 
     @Override
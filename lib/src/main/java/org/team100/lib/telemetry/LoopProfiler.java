@@ -0,0 +1,219 @@
+package org.team100.lib.telemetry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
+import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.LongLogger;
+import org.team100.lib.telemetry.Telemetry.StringLogger;
+import org.team100.lib.util.Names;
+
+/**
+ * Attributes loop time to named sections, e.g. subsystem periodics, command
+ * executes, and listener callbacks.
+ *
+ * Use it like this:
+ *
+ * <pre>
+ * long startNs = m_section.start();
+ * doSomething();
+ * m_section.stop(startNs);
+ * </pre>
+ *
+ * The cost is two calls to System.nanoTime() and an array store, so it's
+ * always on.
+ *
+ * Robot.robotPeriodic() should call beginLoop() and endLoop(). Every few loops,
+ * the p50, p99, and max of each section are published. If the loop overruns
+ * the budget, the sections that used the most time in that loop are published
+ * as "overrun offenders".
+ *
+ * Sections can nest, e.g. the scheduler section contains the subsystem and
+ * command sections, so the offenders list may include both.
+ *
+ * Sections recorded on other threads (e.g. NT listeners, the command executor)
+ * are attributed to whatever loop is running when they finish.
+ */
+public class LoopProfiler implements Glassy {
+    /** TimedRobot default period. */
+    private static final double kBudgetS = 0.02;
+    /** A few seconds of samples at the loop rate. */
+    private static final int kWindow = 256;
+    /** Publish the summaries about once a second. */
+    private static final int kPublishLoops = 50;
+    private static final int kOffenders = 3;
+    private static final LoopProfiler instance = new LoopProfiler(kBudgetS);
+
+    private final Telemetry t = Telemetry.get();
+    private final String m_name;
+    private final long m_budgetNs;
+    private final Map<String, Section> m_sections;
+    /** For iteration without allocation. */
+    private final List<Section> m_sectionList;
+    private final SectionStats m_loop;
+    private final Section[] m_offenders;
+    private final StringBuilder m_builder;
+    private long m_loopStartNs;
+    private int m_loops;
+    private long m_overruns;
+
+    // LOGGERS
+    private final DoubleLogger m_log_loop_p50;
+    private final DoubleLogger m_log_loop_p99;
+    private final DoubleLogger m_log_loop_max;
+    private final LongLogger m_log_overruns;
+    private final StringLogger m_log_offenders;
+
+    /** One profiled section. Record it from one thread only. */
+    public class Section {
+        private final String m_sectionName;
+        private final SectionStats m_stats;
+        private final DoubleLogger m_log_p50;
+        private final DoubleLogger m_log_p99;
+        private final DoubleLogger m_log_max;
+
+        private Section(String name) {
+            m_sectionName = name;
+            m_stats = new SectionStats(kWindow);
+            String root = m_name + "/" + name;
+            m_log_p50 = t.doubleLogger(Level.DEBUG, root, "p50 ms");
+            m_log_p99 = t.doubleLogger(Level.DEBUG, root, "p99 ms");
+            m_log_max = t.doubleLogger(Level.DEBUG, root, "max ms");
+        }
+
+        public long start() {
+            return System.nanoTime();
+        }
+
+        public void stop(long startNs) {
+            m_stats.record(System.nanoTime() - startNs);
+        }
+
+        private void publish() {
+            m_stats.summarize();
+            m_log_p50.log(m_stats.p50Ns() * 1e-6);
+            m_log_p99.log(m_stats.p99Ns() * 1e-6);
+            m_log_max.log(m_stats.maxNs() * 1e-6);
+        }
+    }
+
+    LoopProfiler(double budgetS) {
+        m_name = Names.name(this);
+        m_budgetNs = (long) (budgetS * 1e9);
+        m_sections = new ConcurrentHashMap<>();
+        m_sectionList = new CopyOnWriteArrayList<>();
+        m_loop = new SectionStats(kWindow);
+        m_offenders = new Section[kOffenders];
+        m_builder = new StringBuilder();
+        m_loopStartNs = System.nanoTime();
+        m_log_loop_p50 = t.doubleLogger(Level.INFO, m_name, "loop p50 ms");
+        m_log_loop_p99 = t.doubleLogger(Level.INFO, m_name, "loop p99 ms");
+        m_log_loop_max = t.doubleLogger(Level.INFO, m_name, "loop max ms");
+        m_log_overruns = t.longLogger(Level.WARN, m_name, "overruns");
+        m_log_offenders = t.stringLogger(Level.WARN, m_name, "overrun offenders");
+    }
+
+    public static LoopProfiler get() {
+        return instance;
+    }
+
+    /**
+     * The section with this name, created if necessary. Sections are never
+     * removed, so use a fixed set of names, e.g. class names, not per-instance
+     * ones. Callers should keep the result rather than calling this every time.
+     */
+    public Section section(String name) {
+        Section existing = m_sections.get(name);
+        if (existing != null)
+            return existing;
+        return m_sections.computeIfAbsent(name, n -> {
+            Section s = new Section(n);
+            m_sectionList.add(s);
+            return s;
+        });
+    }
+
+    /** Wraps a callback, e.g. an NT listener, so that it's profiled. */
+    public <T> Consumer<T> wrap(String name, Consumer<T> callback) {
+        Section section = section(name);
+        return x -> {
+            long startNs = section.start();
+            callback.accept(x);
+            section.stop(startNs);
+        };
+    }
+
+    /** Call at the start of robotPeriodic(). */
+    public void beginLoop() {
+        m_loopStartNs = System.nanoTime();
+    }
+
+    /** Call at the end of robotPeriodic(). */
+    public void endLoop() {
+        long loopNs = System.nanoTime() - m_loopStartNs;
+        m_loop.record(loopNs);
+        if (loopNs > m_budgetNs) {
+            m_overruns++;
+            m_log_overruns.log(m_overruns);
+            m_log_offenders.log(offenders(loopNs));
+        }
+        for (Section s : m_sectionList) {
+            s.m_stats.resetLoop();
+        }
+        m_loop.resetLoop();
+        if (++m_loops % kPublishLoops == 0) {
+            publish();
+        }
+    }
+
+    /** The sections that used the most time in this loop, worst first. */
+    String offenders(long loopNs) {
+        for (int i = 0; i < kOffenders; ++i) {
+            m_offenders[i] = null;
+        }
+        for (Section s : m_sectionList) {
+            long ns = s.m_stats.loopNs();
+            if (ns == 0)
+                continue;
+            // insertion into the short sorted list
+            for (int i = 0; i < kOffenders; ++i) {
+                if (m_offenders[i] == null || ns > m_offenders[i].m_stats.loopNs()) {
+                    for (int j = kOffenders - 1; j > i; --j) {
+                        m_offenders[j] = m_offenders[j - 1];
+                    }
+                    m_offenders[i] = s;
+                    break;
+                }
+            }
+        }
+        m_builder.setLength(0);
+        m_builder.append(String.format("loop %.1f ms:", loopNs * 1e-6));
+        for (int i = 0; i < kOffenders; ++i) {
+            Section s = m_offenders[i];
+            if (s == null)
+                break;
+            m_builder.append(String.format(" %s %.1f ms", s.m_sectionName, s.m_stats.loopNs() * 1e-6));
+        }
+        return m_builder.toString();
+    }
+
+    private void publish() {
+        m_loop.summarize();
+        m_log_loop_p50.log(m_loop.p50Ns() * 1e-6);
+        m_log_loop_p99.log(m_loop.p99Ns() * 1e-6);
+        m_log_loop_max.log(m_loop.maxNs() * 1e-6);
+        for (Section s : m_sectionList) {
+            s.publish();
+        }
+    }
+
+    @Override
+    public String getGlassName() {
+        return "Loop Profiler";
+    }
+}
@@ -4,6 +4,8 @@ import java.util.function.BooleanSupplier;
 
 import org.team100.lib.config.Identity;
 import org.team100.lib.dashboard.Glassy;
+import org.team100.lib.telemetry.Telemetry.BooleanLogger;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
 import org.team100.lib.telemetry.Telemetry.Level;
 import org.team100.lib.util.Names;
 
@@ -26,6 +28,10 @@ public class Monitor implements Glassy {
     private final PowerDistribution m_pdp;
     private boolean m_shouldAlert;
 
+    // LOGGERS
+    private final DoubleLogger m_log_battery_voltage;
+    private final BooleanLogger m_log_master_warning;
+
     /**
      * @param annunciator some sort of alert.
      * @param test        activates the annunciator, to make sure it's working.
@@ -35,13 +41,17 @@ public class Monitor implements Glassy {
         m_annunciator = annunciator;
         m_test = test;
         m_pdp = new PowerDistribution(1, ModuleType.kRev);
+        // the "/Monitor" policy limits the rate and ignores small changes.
+        m_log_battery_voltage = t.doubleLogger(Level.INFO, m_name, "battery_voltage");
+        // warnings are published every time.
+        m_log_master_warning = t.booleanLogger(Level.INFO, m_name, "master_warning", TelemetryPolicy.ALWAYS);
     }
 
     public void periodic() {
         m_shouldAlert = false;
         // this should test different things for different identities.
         if (Identity.instance == Identity.COMP_BOT || Identity.instance == Identity.BETA_BOT) {
-            t.log(Level.INFO, m_name, "battery_voltage", getBatteryVoltage());
+            m_log_battery_voltage.log(getBatteryVoltage());
             // TODO: fix the pdp observer
             // t.log(Level.INFO,  m_name, "bus_voltage", getBusVoltage());
             // t.log(Level.INFO,  m_name, "total_current", getTotalCurrent());
@@ -53,7 +63,7 @@ public class Monitor implements Glassy {
 
         if (m_test.getAsBoolean())
             m_shouldAlert = true;
-        t.log(Level.INFO, m_name, "master_warning", m_shouldAlert);
+        m_log_master_warning.log(m_shouldAlert);
         m_annunciator.accept(m_shouldAlert);
     }
 
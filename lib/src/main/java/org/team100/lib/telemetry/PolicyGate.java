@@ -0,0 +1,71 @@
+package org.team100.lib.telemetry;
+
+/**
+ * Per-handle state for a TelemetryPolicy. Primitive fields only, so checking
+ * the gate doesn't allocate.
+ *
+ * Not thread-safe; handles are meant to be used from one thread.
+ */
+class PolicyGate {
+    private final boolean m_always;
+    private final long m_minPeriodNs;
+    private final double m_deadband;
+    private final int m_decimation;
+
+    private boolean m_published;
+    private long m_lastNs;
+    private double m_last;
+    private int m_count;
+
+    PolicyGate(TelemetryPolicy policy) {
+        m_always = policy.always();
+        m_minPeriodNs = policy.minPeriodNs();
+        m_deadband = policy.deadband();
+        m_decimation = policy.decimation();
+    }
+
+    /** For values with magnitude: decimation, rate, and deadband. */
+    boolean pass(double val) {
+        if (m_always)
+            return true;
+        return pass(val, now(), true);
+    }
+
+    /** For values without magnitude, e.g. structs: decimation and rate only. */
+    boolean pass() {
+        if (m_always)
+            return true;
+        return pass(0, now(), false);
+    }
+
+    /** For testing. */
+    boolean pass(double val, long nowNs) {
+        if (m_always)
+            return true;
+        return pass(val, nowNs, true);
+    }
+
+    private long now() {
+        // avoid reading the clock if we don't need it.
+        return m_minPeriodNs > 0 ? System.nanoTime() : 0;
+    }
+
+    private boolean pass(double val, long nowNs, boolean useDeadband) {
+        if (m_decimation > 1) {
+            int count = m_count;
+            m_count = (count + 1) % m_decimation;
+            if (count != 0)
+                return false;
+        }
+        if (m_published) {
+            if (m_minPeriodNs > 0 && nowNs - m_lastNs < m_minPeriodNs)
+                return false;
+            if (useDeadband && m_deadband > 0 && Math.abs(val - m_last) <= m_deadband)
+                return false;
+        }
+        m_published = true;
+        m_lastNs = nowNs;
+        m_last = val;
+        return true;
+    }
+}
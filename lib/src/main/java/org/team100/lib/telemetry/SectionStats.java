@@ -0,0 +1,89 @@
+package org.team100.lib.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * Rolling window of durations for one profiled section.
+ *
+ * Recording is just an array store. The percentiles are computed only when
+ * asked, by sorting a copy of the window into a preallocated scratch array, so
+ * nothing here allocates after construction.
+ *
+ * Not thread-safe: a section should be recorded from one thread. Summarizing
+ * from another thread sees a slightly stale window, which is fine for
+ * diagnostics.
+ */
+class SectionStats {
+    private final long[] m_window;
+    private final long[] m_scratch;
+    private int m_next;
+    private int m_count;
+    /** Time spent in this section since the last resetLoop(). */
+    private long m_loopNs;
+
+    private long m_p50Ns;
+    private long m_p99Ns;
+    private long m_maxNs;
+
+    /** @param size number of samples to keep */
+    SectionStats(int size) {
+        if (size < 1)
+            throw new IllegalArgumentException("size must be at least 1");
+        m_window = new long[size];
+        m_scratch = new long[size];
+    }
+
+    void record(long durationNs) {
+        m_window[m_next] = durationNs;
+        m_next = (m_next + 1) % m_window.length;
+        if (m_count < m_window.length)
+            m_count++;
+        m_loopNs += durationNs;
+    }
+
+    long loopNs() {
+        return m_loopNs;
+    }
+
+    void resetLoop() {
+        m_loopNs = 0;
+    }
+
+    /** Compute the percentiles over the current window. */
+    void summarize() {
+        int n = m_count;
+        if (n == 0) {
+            m_p50Ns = 0;
+            m_p99Ns = 0;
+            m_maxNs = 0;
+            return;
+        }
+        System.arraycopy(m_window, 0, m_scratch, 0, n);
+        Arrays.sort(m_scratch, 0, n);
+        m_p50Ns = m_scratch[index(n, 0.50)];
+        m_p99Ns = m_scratch[index(n, 0.99)];
+        m_maxNs = m_scratch[n - 1];
+    }
+
+    /** Nearest-rank percentile index. */
+    static int index(int n, double p) {
+        int rank = (int) Math.ceil(p * n);
+        return Math.max(0, Math.min(n - 1, rank - 1));
+    }
+
+    long p50Ns() {
+        return m_p50Ns;
+    }
+
+    long p99Ns() {
+        return m_p99Ns;
+    }
+
+    long maxNs() {
+        return m_maxNs;
+    }
+
+    int count() {
+        return m_count;
+    }
+}
@@ -1,7 +1,10 @@
 package org.team100.lib.telemetry;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -13,6 +16,8 @@ import java.util.stream.Stream;
 
 import org.team100.lib.async.AsyncFactory;
 import org.team100.lib.controller.State100;
+import org.team100.lib.experiments.Experiment;
+import org.team100.lib.experiments.Experiments;
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.geometry.Vector2d;
 import org.team100.lib.motion.arm.ArmAngles;
@@ -41,11 +46,16 @@ import edu.wpi.first.networktables.IntegerPublisher;
 import edu.wpi.first.networktables.IntegerTopic;
 import edu.wpi.first.networktables.NetworkTableEvent;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTablesJNI;
 import edu.wpi.first.networktables.Publisher;
 import edu.wpi.first.networktables.StringArrayPublisher;
 import edu.wpi.first.networktables.StringArrayTopic;
+import edu.wpi.first.networktables.StringEntry;
 import edu.wpi.first.networktables.StringPublisher;
 import edu.wpi.first.networktables.StringTopic;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.networktables.StructTopic;
+import edu.wpi.first.util.struct.Struct;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -53,6 +63,12 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 /**
  * Simple logging wrapper.
  * 
+ * The global level is set with a chooser. Handles can also have per-subtree
+ * level overrides, e.g. "/Swerve Modules=TRACE", set with setLevel(), or at
+ * runtime by writing a comma-separated list of overrides to the
+ * "/Telemetry/level overrides" topic. The string-keyed log methods use only
+ * the global level.
+ * 
  * Use keys of the form "/foo/bar"; the slashes separate levels in the tree.
  * 
  * Don't use a slash for any other reason, e.g. for "meters per second" don't
@@ -91,11 +107,24 @@ public class Telemetry {
      * useful for troubleshooting unit tests. it's quite slow.
      */
     private static final boolean kAlsoPrint = false;
+    /** Enough for a few loops of everything at TRACE. */
+    private static final int kRingCapacity = 8192;
     private static final Telemetry instance = new Telemetry();
     private final NetworkTableInstance inst;
     private final Map<String, Publisher> pubs;
     private final SendableChooser<Level> m_levelChooser;
     private Level m_level;
+    /** Level overrides by key prefix, applied to handles. */
+    private final Map<String, Level> m_levels;
+    /** All the handles, so their levels can be recomputed. */
+    private final List<Logger> m_handles;
+    /** Dashboard-editable level overrides. */
+    private final StringEntry m_levelOverrides;
+    private String m_levelOverridesValue;
+    /** Null unless the AsyncTelemetry experiment is enabled. */
+    private final TelemetryRing m_ring;
+    /** Publish policies by key prefix, applied to handles. */
+    private final Map<String, TelemetryPolicy> m_policies;
 
     /**
      * Uses the default network table instance.
@@ -104,6 +133,18 @@ public class Telemetry {
     private Telemetry() {
         inst = NetworkTableInstance.getDefault();
         pubs = new ConcurrentHashMap<>();
+        m_policies = new ConcurrentHashMap<>();
+        m_levels = new ConcurrentHashMap<>();
+        m_handles = new ArrayList<>();
+
+        // slowly-changing diagnostics don't need to be published at loop rate.
+        setPolicy("/JVM Logger", TelemetryPolicy.maxRate(1));
+        setPolicy("/Monitor", new TelemetryPolicy(5, 0.05, 1));
+
+        m_levelOverrides = inst.getStringTopic("/Telemetry/level overrides").getEntry("");
+        m_levelOverrides.setDefault("");
+        m_levelOverridesValue = "";
+
         m_levelChooser = TelemetryLevelChooser.get();
         for (Level level : Level.values()) {
             m_levelChooser.addOption(level.name(), level);
@@ -122,10 +163,133 @@ public class Telemetry {
         updateLevel();
         AsyncFactory.get().addPeriodic(this::updateLevel, 1, "Telemetry");
         DataLogManager.start();
+
+        if (Experiments.instance.enabled(Experiment.AsyncTelemetry)) {
+            Util.println("Using async telemetry");
+            m_ring = new TelemetryRing(kRingCapacity);
+            m_ring.start();
+            AsyncFactory.get().addPeriodic(this::logRing, 1, "Telemetry Ring");
+        } else {
+            m_ring = null;
+        }
     }
 
     private void updateLevel() {
-        m_level = m_levelChooser.getSelected();
+        Level level = m_levelChooser.getSelected();
+        String overrides = m_levelOverrides.get();
+        if (level == m_level && overrides.equals(m_levelOverridesValue))
+            return;
+        m_level = level;
+        if (!overrides.equals(m_levelOverridesValue)) {
+            m_levelOverridesValue = overrides;
+            m_levels.clear();
+            m_levels.putAll(parseLevels(overrides));
+        }
+        rebind();
+    }
+
+    /**
+     * Overrides the global level for handles under the prefix, e.g.
+     * "/Swerve Modules". The most specific prefix wins.
+     */
+    public void setLevel(String prefix, Level level) {
+        m_levels.put(valid(prefix), level);
+        rebind();
+    }
+
+    /** Removes all the level overrides. */
+    public void clearLevels() {
+        m_levels.clear();
+        rebind();
+    }
+
+    /**
+     * Parses overrides like "/Swerve Modules=TRACE, /Monitor=SILENT". Bad
+     * entries are ignored.
+     */
+    static Map<String, Level> parseLevels(String overrides) {
+        Map<String, Level> result = new HashMap<>();
+        for (String item : overrides.split(",")) {
+            String trimmed = item.trim();
+            if (trimmed.isEmpty())
+                continue;
+            int eq = trimmed.lastIndexOf('=');
+            if (eq < 1) {
+                Util.warn("ignoring telemetry level override: " + trimmed);
+                continue;
+            }
+            String prefix = trimmed.substring(0, eq).trim();
+            String name = trimmed.substring(eq + 1).trim();
+            if (!prefix.startsWith("/")) {
+                Util.warn("ignoring telemetry level override: " + trimmed);
+                continue;
+            }
+            try {
+                result.put(prefix, Level.valueOf(name));
+            } catch (IllegalArgumentException e) {
+                Util.warn("ignoring telemetry level override: " + trimmed);
+            }
+        }
+        return result;
+    }
+
+    /** The most specific level for the key; this is slow. */
+    Level levelFor(String key) {
+        Level result = m_level;
+        int longest = -1;
+        for (Map.Entry<String, Level> entry : m_levels.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > longest && inSubtree(key, prefix)) {
+                longest = prefix.length();
+                result = entry.getValue();
+            }
+        }
+        return result;
+    }
+
+    /** Recompute the level of every handle. */
+    private void rebind() {
+        synchronized (m_handles) {
+            for (Logger handle : m_handles) {
+                handle.m_threshold = levelFor(handle.m_key);
+            }
+        }
+    }
+
+    /**
+     * Sets the publish policy for handles under the prefix, e.g. "/Monitor".
+     * The most specific prefix wins. This applies to handles created afterwards,
+     * so do it before constructing the subsystems.
+     */
+    public void setPolicy(String prefix, TelemetryPolicy policy) {
+        m_policies.put(valid(prefix), policy);
+    }
+
+    /** Finds the most specific policy for the key; this is slow. */
+    TelemetryPolicy policyFor(String key) {
+        TelemetryPolicy result = TelemetryPolicy.ALWAYS;
+        int longest = -1;
+        for (Map.Entry<String, TelemetryPolicy> entry : m_policies.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > longest && inSubtree(key, prefix)) {
+                longest = prefix.length();
+                result = entry.getValue();
+            }
+        }
+        return result;
+    }
+
+    /** True if the key is the prefix or is somewhere beneath it. */
+    static boolean inSubtree(String key, String prefix) {
+        if (!key.startsWith(prefix))
+            return false;
+        return key.length() == prefix.length()
+                || prefix.endsWith("/")
+                || key.charAt(prefix.length()) == '/';
+    }
+
+    private void logRing() {
+        log(Level.INFO, "Telemetry", "ring drops", m_ring.drops());
     }
 
     public static Telemetry get() {
@@ -137,12 +301,7 @@ public class Telemetry {
             return;
         String key = Telemetry.append(root, leaf);
         print(key, val);
-        pub(key, k -> {
-            BooleanTopic t = inst.getBooleanTopic(k);
-            t.publish();
-            t.setRetained(true);
-            return t.publish();
-        }, BooleanPublisher.class).set(val);
+        booleanPub(key).set(val);
     }
 
     /**
@@ -168,12 +327,7 @@ public class Telemetry {
             return;
         String key = Telemetry.append(root, leaf);
         print(key, val);
-        pub(key, k -> {
-            DoubleTopic t = inst.getDoubleTopic(k);
-            t.publish();
-            t.setRetained(true);
-            return t.publish();
-        }, DoublePublisher.class).set(val);
+        doublePub(key).set(val);
     }
 
     // using a supplier here is faster in the non-logging case.
@@ -190,12 +344,7 @@ public class Telemetry {
             return;
         String key = Telemetry.append(root, leaf);
         print(key, val);
-        pub(key, k -> {
-            DoubleTopic t = inst.getDoubleTopic(k);
-            t.publish();
-            t.setRetained(true);
-            return t.publish();
-        }, DoublePublisher.class).set(val);
+        doublePub(key).set(val);
     }
 
     public void log(Level level, String root, String leaf, double[] val) {
@@ -203,12 +352,7 @@ public class Telemetry {
             return;
         String key = Telemetry.append(root, leaf);
         print(key, val);
-        pub(key, k -> {
-            DoubleArrayTopic t = inst.getDoubleArrayTopic(k);
-            t.publish();
-            t.setRetained(true);
-            return t.publish();
-        }, DoubleArrayPublisher.class).set(val);
+        doubleArrayPub(key).set(val);
     }
 
     public void log(Level level, String root, String leaf, Double[] val) {
@@ -222,12 +366,7 @@ public class Telemetry {
             return;
         String key = Telemetry.append(root, leaf);
         print(key, val);
-        pub(key, k -> {
-            IntegerTopic t = inst.getIntegerTopic(k);
-            t.publish();
-            t.setRetained(true);
-            return t.publish();
-        }, IntegerPublisher.class).set(val);
+        integerPub(key).set(val);
     }
 
     public void log(Level level, String root, String leaf, String val) {
@@ -235,12 +374,7 @@ public class Telemetry {
             return;
         String key = Telemetry.append(root, leaf);
         print(key, val);
-        pub(key, k -> {
-            StringTopic t = inst.getStringTopic(k);
-            t.publish();
-            t.setRetained(true);
-            return t.publish();
-        }, StringPublisher.class).set(val);
+        stringPub(key).set(val);
     }
 
     /** val is a supplier to avoid doing any work if we're not going to log it. */
@@ -261,14 +395,16 @@ public class Telemetry {
         log(level, root, leaf, val.name());
     }
 
+    /**
+     * Composite values are packed into a single struct topic, rather than one
+     * topic per field.
+     */
     public void log(Level level, String root, String leaf, Pose2d val) {
-        log(level, Telemetry.append(root, leaf), "translation", val.getTranslation());
-        log(level, Telemetry.append(root, leaf), "rotation", val.getRotation());
+        logStruct(level, root, leaf, Pose2d.struct, val);
     }
 
     public void log(Level level, String root, String leaf, Translation2d val) {
-        log(level, Telemetry.append(root, leaf), "x", val.getX());
-        log(level, Telemetry.append(root, leaf), "y", val.getY());
+        logStruct(level, root, leaf, Translation2d.struct, val);
     }
 
     public void log(Level level, String root, String leaf, Vector2d val) {
@@ -278,7 +414,7 @@ public class Telemetry {
     }
 
     public void log(Level level, String root, String leaf, Rotation2d val) {
-        log(level, Telemetry.append(root, leaf), "rad", val.getRadians());
+        logStruct(level, root, leaf, Rotation2d.struct, val);
     }
 
     public void log(Level level, String root, String leaf, TrajectorySamplePoint val) {
@@ -305,49 +441,44 @@ public class Telemetry {
     }
 
     public void log(Level level, String root, String leaf, Twist2d val) {
-        log(level, Telemetry.append(root, leaf), "dx", val.dx);
-        log(level, Telemetry.append(root, leaf), "dy", val.dy);
-        log(level, Telemetry.append(root, leaf), "dtheta", val.dtheta);
+        logStruct(level, root, leaf, Twist2d.struct, val);
     }
 
     public void log(Level level, String root, String leaf, ChassisSpeeds val) {
-        log(level, Telemetry.append(root, leaf), "vx m_s", val.vxMetersPerSecond);
-        log(level, Telemetry.append(root, leaf), "vy m_s", val.vyMetersPerSecond);
-        log(level, Telemetry.append(root, leaf), "omega rad_s", val.omegaRadiansPerSecond);
+        logStruct(level, root, leaf, ChassisSpeeds.struct, val);
     }
 
     public void log(Level level, String root, String leaf, FieldRelativeVelocity val) {
-        log(level, Telemetry.append(root, leaf), "x m_s", val.x());
-        log(level, Telemetry.append(root, leaf), "y m_s", val.y());
-        log(level, Telemetry.append(root, leaf), "theta rad_s", val.theta());
+        logStruct(level, root, leaf, FieldRelativeVelocity.struct, val);
     }
 
     public void log(Level level, String root, String leaf, FieldRelativeAcceleration val) {
-        log(level, Telemetry.append(root, leaf), "x m_s_s", val.x());
-        log(level, Telemetry.append(root, leaf), "y m_s_s", val.y());
-        log(level, Telemetry.append(root, leaf), "theta rad_s_s", val.theta());
+        logStruct(level, root, leaf, FieldRelativeAcceleration.struct, val);
     }
 
     public void log(Level level, String root, String leaf, State100 state) {
-        log(level, Telemetry.append(root, leaf), "x", state.x());
-        log(level, Telemetry.append(root, leaf), "v", state.v());
-        log(level, Telemetry.append(root, leaf), "a", state.a());
+        logStruct(level, root, leaf, State100.struct, state);
     }
 
     public void log(Level level, String root, String leaf, SwerveState state) {
-        log(level, Telemetry.append(root, leaf), "x", state.x());
-        log(level, Telemetry.append(root, leaf), "y", state.y());
-        log(level, Telemetry.append(root, leaf), "theta", state.theta());
+        logStruct(level, root, leaf, SwerveState.struct, state);
     }
 
     public void log(Level level, String root, String leaf, SwerveModulePosition val) {
-        log(level, Telemetry.append(root, leaf), "distance", val.distanceMeters);
-        log(level, Telemetry.append(root, leaf), "angle", val.angle);
+        logStruct(level, root, leaf, SwerveModulePosition.struct, val);
     }
 
     public void log(Level level, String root, String leaf, ArmAngles angles) {
-        log(level, Telemetry.append(root, leaf), "th1", angles.th1);
-        log(level, Telemetry.append(root, leaf), "th2", angles.th2);
+        logStruct(level, root, leaf, ArmAngles.struct, angles);
+    }
+
+    private <T> void logStruct(Level level, String root, String leaf, Struct<T> struct, T val) {
+        if (!m_level.admit(level))
+            return;
+        String key = Telemetry.append(root, leaf);
+        if (kAlsoPrint)
+            print(key, val.toString());
+        structPub(key, struct).set(val);
     }
 
     public void log(Level level, String root, String leaf, State state) {
@@ -357,6 +488,475 @@ public class Telemetry {
         log(level, Telemetry.append(root, leaf), "accel", state.accelerationMetersPerSecondSq);
     }
 
+    ///////////////////////////////////////////////////////////////
+    //
+    // Pre-bound handles
+    //
+    // Subsystems should make the handles they need once, at construction time,
+    // and then call log() in the loop. The handle knows its key and caches its
+    // publisher, so logging a value doesn't build any strings or do any hash
+    // lookups; if the level doesn't admit the handle, it does nothing at all.
+
+    public BooleanLogger booleanLogger(Level level, String root, String leaf) {
+        return new BooleanLogger(level, root, leaf, null);
+    }
+
+    /** @param policy overrides the policy for the subtree */
+    public BooleanLogger booleanLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+        return new BooleanLogger(level, root, leaf, policy);
+    }
+
+    public DoubleLogger doubleLogger(Level level, String root, String leaf) {
+        return new DoubleLogger(level, root, leaf, null);
+    }
+
+    /** @param policy overrides the policy for the subtree */
+    public DoubleLogger doubleLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+        return new DoubleLogger(level, root, leaf, policy);
+    }
+
+    public LongLogger longLogger(Level level, String root, String leaf) {
+        return new LongLogger(level, root, leaf, null);
+    }
+
+    /** @param policy overrides the policy for the subtree */
+    public LongLogger longLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+        return new LongLogger(level, root, leaf, policy);
+    }
+
+    public StringLogger stringLogger(Level level, String root, String leaf) {
+        return new StringLogger(level, root, leaf);
+    }
+
+    public EnumLogger enumLogger(Level level, String root, String leaf) {
+        return new EnumLogger(level, root, leaf);
+    }
+
+    public DoubleArrayLogger doubleArrayLogger(Level level, String root, String leaf) {
+        return new DoubleArrayLogger(level, root, leaf);
+    }
+
+    public Rotation2dLogger rotation2dLogger(Level level, String root, String leaf) {
+        return new Rotation2dLogger(level, root, leaf);
+    }
+
+    public Translation2dLogger translation2dLogger(Level level, String root, String leaf) {
+        return new Translation2dLogger(level, root, leaf);
+    }
+
+    public Pose2dLogger pose2dLogger(Level level, String root, String leaf) {
+        return new Pose2dLogger(level, root, leaf);
+    }
+
+    public Twist2dLogger twist2dLogger(Level level, String root, String leaf) {
+        return new Twist2dLogger(level, root, leaf);
+    }
+
+    public ChassisSpeedsLogger chassisSpeedsLogger(Level level, String root, String leaf) {
+        return new ChassisSpeedsLogger(level, root, leaf);
+    }
+
+    public FieldRelativeVelocityLogger fieldRelativeVelocityLogger(Level level, String root, String leaf) {
+        return new FieldRelativeVelocityLogger(level, root, leaf);
+    }
+
+    public FieldRelativeAccelerationLogger fieldRelativeAccelerationLogger(Level level, String root, String leaf) {
+        return new FieldRelativeAccelerationLogger(level, root, leaf);
+    }
+
+    public State100Logger state100Logger(Level level, String root, String leaf) {
+        return new State100Logger(level, root, leaf);
+    }
+
+    public SwerveStateLogger swerveStateLogger(Level level, String root, String leaf) {
+        return new SwerveStateLogger(level, root, leaf);
+    }
+
+    public SwerveModulePositionLogger swerveModulePositionLogger(Level level, String root, String leaf) {
+        return new SwerveModulePositionLogger(level, root, leaf);
+    }
+
+    public ArmAnglesLogger armAnglesLogger(Level level, String root, String leaf) {
+        return new ArmAnglesLogger(level, root, leaf);
+    }
+
+    /**
+     * Base for all the handles: a fixed key and level.
+     */
+    public abstract class Logger {
+        final Level m_level;
+        final String m_key;
+        final PolicyGate m_gate;
+        /**
+         * The global level, or the override for this subtree, precomputed so that
+         * the check is cheap.
+         */
+        volatile Level m_threshold;
+
+        /** Uses the policy for the subtree containing the key. */
+        Logger(Level level, String root, String leaf) {
+            this(level, root, leaf, null);
+        }
+
+        /** @param policy overrides the subtree policy, if not null */
+        Logger(Level level, String root, String leaf, TelemetryPolicy policy) {
+            m_level = level;
+            m_key = valid(Telemetry.append(root, leaf));
+            m_gate = new PolicyGate(policy == null ? policyFor(m_key) : policy);
+            synchronized (m_handles) {
+                m_threshold = levelFor(m_key);
+                m_handles.add(this);
+            }
+        }
+
+        /** True if the level for this subtree admits this handle. */
+        public boolean enabled() {
+            return m_threshold.admit(m_level);
+        }
+
+        public String getKey() {
+            return m_key;
+        }
+    }
+
+    /**
+     * A handle for a primitive value, which can be published asynchronously:
+     * if the ring is enabled, the caller just enqueues the value and its
+     * timestamp, and the drain thread publishes it later.
+     * 
+     * Only these handles use the ring. Struct handles and the string-keyed
+     * log() methods still publish on the caller's thread: the ring slots hold
+     * primitives, and holding a reference to a struct value until the drain
+     * thread gets to it would be wrong for values that the caller reuses.
+     */
+    public abstract class PrimitiveLogger extends Logger implements TelemetryRing.Sink {
+
+        PrimitiveLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+            super(level, root, leaf, policy);
+        }
+
+        /** @return true if the ring took the value, so the caller shouldn't publish. */
+        boolean enqueue(long bits) {
+            if (m_ring == null)
+                return false;
+            m_ring.offer(this, bits, NetworkTablesJNI.now());
+            return true;
+        }
+    }
+
+    public class BooleanLogger extends PrimitiveLogger {
+        private BooleanPublisher m_pub;
+
+        BooleanLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+            super(level, root, leaf, policy);
+        }
+
+        public void log(boolean val) {
+            if (!enabled())
+                return;
+            if (!m_gate.pass(val ? 1 : 0))
+                return;
+            if (kAlsoPrint)
+                print(m_key, val);
+            if (enqueue(val ? 1 : 0))
+                return;
+            if (m_pub == null)
+                m_pub = booleanPub(m_key);
+            m_pub.set(val);
+        }
+
+        @Override
+        public void drain(long bits, long timeUs) {
+            if (m_pub == null)
+                m_pub = booleanPub(m_key);
+            m_pub.set(bits != 0, timeUs);
+        }
+    }
+
+    public class DoubleLogger extends PrimitiveLogger {
+        private DoublePublisher m_pub;
+
+        DoubleLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+            super(level, root, leaf, policy);
+        }
+
+        public void log(double val) {
+            if (!enabled())
+                return;
+            if (!m_gate.pass(val))
+                return;
+            if (kAlsoPrint)
+                print(m_key, val);
+            if (enqueue(Double.doubleToRawLongBits(val)))
+                return;
+            if (m_pub == null)
+                m_pub = doublePub(m_key);
+            m_pub.set(val);
+        }
+
+        @Override
+        public void drain(long bits, long timeUs) {
+            if (m_pub == null)
+                m_pub = doublePub(m_key);
+            m_pub.set(Double.longBitsToDouble(bits), timeUs);
+        }
+
+        /**
+         * The supplier is not touched in the non-logging case. Make the supplier
+         * once, e.g. in a field, since a capturing lambda in the loop allocates.
+         */
+        public void log(DoubleSupplier val) {
+            if (!enabled())
+                return;
+            log(val.getAsDouble());
+        }
+    }
+
+    public class LongLogger extends PrimitiveLogger {
+        private IntegerPublisher m_pub;
+
+        LongLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+            super(level, root, leaf, policy);
+        }
+
+        public void log(long val) {
+            if (!enabled())
+                return;
+            if (!m_gate.pass(val))
+                return;
+            if (kAlsoPrint)
+                print(m_key, val);
+            if (enqueue(val))
+                return;
+            if (m_pub == null)
+                m_pub = integerPub(m_key);
+            m_pub.set(val);
+        }
+
+        @Override
+        public void drain(long bits, long timeUs) {
+            if (m_pub == null)
+                m_pub = integerPub(m_key);
+            m_pub.set(bits, timeUs);
+        }
+    }
+
+    public class StringLogger extends Logger {
+        private StringPublisher m_pub;
+
+        StringLogger(Level level, String root, String leaf) {
+            super(level, root, leaf);
+        }
+
+        StringLogger(Level level, String root, String leaf, TelemetryPolicy policy) {
+            super(level, root, leaf, policy);
+        }
+
+        public void log(String val) {
+            if (!enabled())
+                return;
+            if (!m_gate.pass())
+                return;
+            if (kAlsoPrint)
+                print(m_key, val);
+            if (m_pub == null)
+                m_pub = stringPub(m_key);
+            m_pub.set(val);
+        }
+    }
+
+    /** Enum names are interned, so this doesn't allocate. */
+    public class EnumLogger extends Logger {
+        private final StringLogger m_name;
+
+        EnumLogger(Level level, String root, String leaf) {
+            super(level, root, leaf);
+            // the parent applies the policy
+            m_name = new StringLogger(level, root, leaf, TelemetryPolicy.ALWAYS);
+        }
+
+        public void log(Enum<?> val) {
+            if (!enabled())
+                return;
+            m_name.log(val.name());
+        }
+    }
+
+    public class DoubleArrayLogger extends Logger {
+        private DoubleArrayPublisher m_pub;
+
+        DoubleArrayLogger(Level level, String root, String leaf) {
+            super(level, root, leaf);
+        }
+
+        /** The array is copied by the publisher, so the caller can reuse it. */
+        public void log(double[] val) {
+            if (!enabled())
+                return;
+            if (!m_gate.pass())
+                return;
+            if (kAlsoPrint)
+                print(m_key, val);
+            if (m_pub == null)
+                m_pub = doubleArrayPub(m_key);
+            m_pub.set(val);
+        }
+    }
+
+    /**
+     * Packs the whole value into a single struct topic. The publisher reuses its
+     * buffer, so this doesn't allocate.
+     */
+    public class StructLogger<T> extends Logger {
+        private final Struct<T> m_struct;
+        private StructPublisher<T> m_pub;
+
+        StructLogger(Level level, String root, String leaf, Struct<T> struct) {
+            super(level, root, leaf);
+            m_struct = struct;
+        }
+
+        public void log(T val) {
+            if (!enabled())
+                return;
+            if (!m_gate.pass())
+                return;
+            if (kAlsoPrint)
+                print(m_key, val.toString());
+            if (m_pub == null)
+                m_pub = structPub(m_key, m_struct);
+            m_pub.set(val);
+        }
+
+        /** Avoids touching the supplier in the non-logging case. */
+        public void log(Supplier<T> val) {
+            if (!enabled())
+                return;
+            log(val.get());
+        }
+    }
+
+    public class Rotation2dLogger extends StructLogger<Rotation2d> {
+        Rotation2dLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, Rotation2d.struct);
+        }
+    }
+
+    public class Translation2dLogger extends StructLogger<Translation2d> {
+        Translation2dLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, Translation2d.struct);
+        }
+    }
+
+    public class Pose2dLogger extends StructLogger<Pose2d> {
+        Pose2dLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, Pose2d.struct);
+        }
+    }
+
+    public class Twist2dLogger extends StructLogger<Twist2d> {
+        Twist2dLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, Twist2d.struct);
+        }
+    }
+
+    public class ChassisSpeedsLogger extends StructLogger<ChassisSpeeds> {
+        ChassisSpeedsLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, ChassisSpeeds.struct);
+        }
+    }
+
+    public class FieldRelativeVelocityLogger extends StructLogger<FieldRelativeVelocity> {
+        FieldRelativeVelocityLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, FieldRelativeVelocity.struct);
+        }
+    }
+
+    public class FieldRelativeAccelerationLogger extends StructLogger<FieldRelativeAcceleration> {
+        FieldRelativeAccelerationLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, FieldRelativeAcceleration.struct);
+        }
+    }
+
+    public class State100Logger extends StructLogger<State100> {
+        State100Logger(Level level, String root, String leaf) {
+            super(level, root, leaf, State100.struct);
+        }
+    }
+
+    public class SwerveStateLogger extends StructLogger<SwerveState> {
+        SwerveStateLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, SwerveState.struct);
+        }
+    }
+
+    public class SwerveModulePositionLogger extends StructLogger<SwerveModulePosition> {
+        SwerveModulePositionLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, SwerveModulePosition.struct);
+        }
+    }
+
+    public class ArmAnglesLogger extends StructLogger<ArmAngles> {
+        ArmAnglesLogger(Level level, String root, String leaf) {
+            super(level, root, leaf, ArmAngles.struct);
+        }
+    }
+
+    private BooleanPublisher booleanPub(String key) {
+        return pub(key, k -> {
+            BooleanTopic t = inst.getBooleanTopic(k);
+            t.publish();
+            t.setRetained(true);
+            return t.publish();
+        }, BooleanPublisher.class);
+    }
+
+    private DoublePublisher doublePub(String key) {
+        return pub(key, k -> {
+            DoubleTopic t = inst.getDoubleTopic(k);
+            t.publish();
+            t.setRetained(true);
+            return t.publish();
+        }, DoublePublisher.class);
+    }
+
+    private DoubleArrayPublisher doubleArrayPub(String key) {
+        return pub(key, k -> {
+            DoubleArrayTopic t = inst.getDoubleArrayTopic(k);
+            t.publish();
+            t.setRetained(true);
+            return t.publish();
+        }, DoubleArrayPublisher.class);
+    }
+
+    private IntegerPublisher integerPub(String key) {
+        return pub(key, k -> {
+            IntegerTopic t = inst.getIntegerTopic(k);
+            t.publish();
+            t.setRetained(true);
+            return t.publish();
+        }, IntegerPublisher.class);
+    }
+
+    private StringPublisher stringPub(String key) {
+        return pub(key, k -> {
+            StringTopic t = inst.getStringTopic(k);
+            t.publish();
+            t.setRetained(true);
+            return t.publish();
+        }, StringPublisher.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> StructPublisher<T> structPub(String key, Struct<T> struct) {
+        return pub(key, k -> {
+            StructTopic<T> t = inst.getStructTopic(k, struct);
+            t.publish();
+            t.setRetained(true);
+            return t.publish();
+        }, StructPublisher.class);
+    }
+
     private <T extends Publisher> T pub(String key, Function<String, Publisher> fn, Class<T> pubClass) {
         Publisher publisher = pubs.computeIfAbsent(valid(key), fn);
         if (!pubClass.isInstance(publisher))
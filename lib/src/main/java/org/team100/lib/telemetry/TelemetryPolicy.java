@@ -0,0 +1,75 @@
+package org.team100.lib.telemetry;
+
+/**
+ * Controls how often a telemetry handle actually publishes.
+ *
+ * Many things (pool sizes, voltages, temperatures) change slowly, so publishing
+ * them at loop rate wastes radio and log bandwidth.
+ *
+ * A value passes the policy if all of these are true:
+ *
+ * -- decimation: it's the Nth call since the last one that passed
+ * -- rate: it's been at least 1/maxRate since the last publish
+ * -- deadband: it differs from the last published value by more than epsilon
+ *
+ * Policies are immutable; the state lives in each handle.
+ */
+public class TelemetryPolicy {
+    /** Publish every value. */
+    public static final TelemetryPolicy ALWAYS = new TelemetryPolicy(0, 0, 1);
+
+    private final long m_minPeriodNs;
+    private final double m_deadband;
+    private final int m_decimation;
+
+    /**
+     * @param maxRateHz  maximum publish rate, or zero for no limit
+     * @param deadband   publish only if the value changes by more than this, or
+     *                   zero to publish every value
+     * @param decimation publish only every Nth value, or 1 for every value
+     */
+    public TelemetryPolicy(double maxRateHz, double deadband, int decimation) {
+        if (maxRateHz < 0)
+            throw new IllegalArgumentException("negative rate");
+        if (deadband < 0)
+            throw new IllegalArgumentException("negative deadband");
+        if (decimation < 1)
+            throw new IllegalArgumentException("decimation must be at least 1");
+        m_minPeriodNs = maxRateHz == 0 ? 0 : (long) (1e9 / maxRateHz);
+        m_deadband = deadband;
+        m_decimation = decimation;
+    }
+
+    /** Limit the rate only. */
+    public static TelemetryPolicy maxRate(double maxRateHz) {
+        return new TelemetryPolicy(maxRateHz, 0, 1);
+    }
+
+    /** Publish on change only. */
+    public static TelemetryPolicy deadband(double deadband) {
+        return new TelemetryPolicy(0, deadband, 1);
+    }
+
+    long minPeriodNs() {
+        return m_minPeriodNs;
+    }
+
+    double deadband() {
+        return m_deadband;
+    }
+
+    int decimation() {
+        return m_decimation;
+    }
+
+    boolean always() {
+        return m_minPeriodNs == 0 && m_deadband == 0 && m_decimation == 1;
+    }
+
+    @Override
+    public String toString() {
+        return "TelemetryPolicy [minPeriodNs=" + m_minPeriodNs
+                + ", deadband=" + m_deadband
+                + ", decimation=" + m_decimation + "]";
+    }
+}
@@ -0,0 +1,171 @@
+package org.team100.lib.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.team100.lib.util.Util;
+
+/**
+ * Bounded, preallocated, lock-free queue of (sink, timestamp, value) records,
+ * drained by a low-priority thread.
+ *
+ * This moves the NT publish off the caller's thread: the caller just writes a
+ * few primitives into a slot, and the drain thread does the actual publishing,
+ * in batches.
+ *
+ * If the queue is full, the record is dropped and counted, rather than
+ * blocking the caller.
+ *
+ * Values are primitives encoded as long bits, e.g. using
+ * Double.doubleToRawLongBits().
+ *
+ * The slot sequence scheme is from Dmitry Vyukov's bounded MPMC queue; it's
+ * safe for several producers (e.g. the main loop and NT listeners) but there
+ * must be only one consumer.
+ */
+public class TelemetryRing {
+    /** Receives drained records. */
+    public interface Sink {
+        void drain(long bits, long timeUs);
+    }
+
+    /** Idle time for the drain thread when the queue is empty. */
+    private static final long kIdleNs = 2_000_000;
+
+    private final int m_mask;
+    private final Sink[] m_sinks;
+    private final long[] m_bits;
+    private final long[] m_times;
+    /** Slot sequence numbers, used to hand each slot back and forth. */
+    private final AtomicLongArray m_sequence;
+    private final AtomicLong m_enqueuePos;
+    private final AtomicLong m_drops;
+    /** Only the consumer touches this. */
+    private long m_dequeuePos;
+    private volatile boolean m_running;
+    private Thread m_thread;
+
+    /**
+     * @param capacity rounded up to a power of two.
+     */
+    public TelemetryRing(int capacity) {
+        if (capacity < 2)
+            throw new IllegalArgumentException("capacity must be at least 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        m_mask = size - 1;
+        m_sinks = new Sink[size];
+        m_bits = new long[size];
+        m_times = new long[size];
+        m_sequence = new AtomicLongArray(size);
+        for (int i = 0; i < size; ++i) {
+            m_sequence.set(i, i);
+        }
+        m_enqueuePos = new AtomicLong();
+        m_drops = new AtomicLong();
+    }
+
+    /**
+     * Start the drain thread, which runs at minimum priority.
+     */
+    public synchronized void start() {
+        if (m_thread != null)
+            return;
+        m_running = true;
+        m_thread = new Thread(this::run);
+        m_thread.setPriority(Thread.MIN_PRIORITY);
+        m_thread.setDaemon(true);
+        m_thread.setName("Telemetry Ring");
+        m_thread.start();
+    }
+
+    /**
+     * Stop the drain thread and wait for it to exit. Anything still in the queue
+     * stays there.
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (m_thread == null)
+            return;
+        m_running = false;
+        LockSupport.unpark(m_thread);
+        m_thread.join();
+        m_thread = null;
+    }
+
+    /**
+     * Caller side. Does not block or allocate.
+     *
+     * @return false if the queue was full and the record was dropped.
+     */
+    public boolean offer(Sink sink, long bits, long timeUs) {
+        long pos = m_enqueuePos.get();
+        int slot;
+        while (true) {
+            slot = (int) (pos & m_mask);
+            long dif = m_sequence.get(slot) - pos;
+            if (dif == 0) {
+                if (m_enqueuePos.compareAndSet(pos, pos + 1))
+                    break;
+                pos = m_enqueuePos.get();
+            } else if (dif < 0) {
+                // the consumer hasn't reached this slot yet, so we're full.
+                m_drops.incrementAndGet();
+                return false;
+            } else {
+                // another producer got here first.
+                pos = m_enqueuePos.get();
+            }
+        }
+        m_sinks[slot] = sink;
+        m_bits[slot] = bits;
+        m_times[slot] = timeUs;
+        m_sequence.lazySet(slot, pos + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side. Hands up to max records to their sinks.
+     *
+     * @return the number of records drained.
+     */
+    public int drain(int max) {
+        int count = 0;
+        while (count < max) {
+            long pos = m_dequeuePos;
+            int slot = (int) (pos & m_mask);
+            if (m_sequence.get(slot) != pos + 1) {
+                // the producer hasn't finished with this slot, so we're empty.
+                return count;
+            }
+            Sink sink = m_sinks[slot];
+            long bits = m_bits[slot];
+            long timeUs = m_times[slot];
+            m_sinks[slot] = null;
+            m_dequeuePos = pos + 1;
+            m_sequence.lazySet(slot, pos + m_mask + 1);
+            sink.drain(bits, timeUs);
+            count++;
+        }
+        return count;
+    }
+
+    /** Records dropped because the queue was full. */
+    public long drops() {
+        return m_drops.get();
+    }
+
+    public int capacity() {
+        return m_mask + 1;
+    }
+
+    private void run() {
+        while (m_running) {
+            try {
+                if (drain(capacity()) == 0)
+                    LockSupport.parkNanos(kIdleNs);
+            } catch (Throwable e) {
+                Util.warn(e.toString());
+            }
+        }
+    }
+}
@@ -24,9 +24,19 @@ public class CentripetalAccelerationConstraint implements TimingConstraint {
         mMaxCentripetalAccel = limits.getMaxCapsizeAccelM_S2() * scale;
     }
 
+    @Override
+    public double[] parameters() {
+        return new double[] { mMaxCentripetalAccel };
+    }
+
     @Override
     public NonNegativeDouble getMaxVelocity(final Pose2dWithMotion state) {
-        return new NonNegativeDouble(Math.sqrt(Math.abs(mMaxCentripetalAccel / state.getCurvature())));
+        return new NonNegativeDouble(maxVelocity(state));
+    }
+
+    @Override
+    public double maxVelocity(Pose2dWithMotion state) {
+        return Math.sqrt(Math.abs(mMaxCentripetalAccel / state.getCurvature()));
     }
 
     /**
@@ -37,4 +47,14 @@ public class CentripetalAccelerationConstraint implements TimingConstraint {
     public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocity) {
         return MinMaxAcceleration.kNoLimits;
     }
+
+    @Override
+    public double minAccel(Pose2dWithMotion state, double velocityM_S) {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public double maxAccel(Pose2dWithMotion state, double velocityM_S) {
+        return Double.POSITIVE_INFINITY;
+    }
 }
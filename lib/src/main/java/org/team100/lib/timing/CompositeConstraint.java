@@ -0,0 +1,75 @@
+package org.team100.lib.timing;
+
+import java.util.List;
+
+import org.team100.lib.geometry.Pose2dWithMotion;
+
+/**
+ * All the constraints, evaluated together: the slowest velocity and the
+ * narrowest acceleration range. The list is copied into an array so the loops
+ * are tight and don't allocate iterators.
+ */
+public class CompositeConstraint implements TimingConstraint {
+    private final TimingConstraint[] m_constraints;
+
+    public CompositeConstraint(List<TimingConstraint> constraints) {
+        m_constraints = constraints.toArray(new TimingConstraint[0]);
+    }
+
+    /** Each child's parameters, preceded by their count. */
+    @Override
+    public double[] parameters() {
+        int n = 0;
+        double[][] children = new double[m_constraints.length][];
+        for (int i = 0; i < m_constraints.length; ++i) {
+            children[i] = m_constraints[i].parameters();
+            n += children[i].length + 1;
+        }
+        double[] result = new double[n];
+        int j = 0;
+        for (double[] child : children) {
+            result[j++] = child.length;
+            for (double x : child) {
+                result[j++] = x;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
+        return new NonNegativeDouble(maxVelocity(state));
+    }
+
+    @Override
+    public double maxVelocity(Pose2dWithMotion state) {
+        double result = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < m_constraints.length; ++i) {
+            result = Math.min(result, m_constraints[i].maxVelocity(state));
+        }
+        return result;
+    }
+
+    @Override
+    public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocityM_S) {
+        return new MinMaxAcceleration(minAccel(state, velocityM_S), maxAccel(state, velocityM_S));
+    }
+
+    @Override
+    public double minAccel(Pose2dWithMotion state, double velocityM_S) {
+        double result = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < m_constraints.length; ++i) {
+            result = Math.max(result, m_constraints[i].minAccel(state, velocityM_S));
+        }
+        return result;
+    }
+
+    @Override
+    public double maxAccel(Pose2dWithMotion state, double velocityM_S) {
+        double result = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < m_constraints.length; ++i) {
+            result = Math.min(result, m_constraints[i].maxAccel(state, velocityM_S));
+        }
+        return result;
+    }
+}
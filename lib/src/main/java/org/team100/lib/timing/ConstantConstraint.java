@@ -16,9 +16,19 @@ public class ConstantConstraint implements TimingConstraint {
         this.m_maxAccel = m_maxAccel;
     }
 
+    @Override
+    public double[] parameters() {
+        return new double[] { m_maxVelocity, m_maxAccel };
+    }
+
     @Override
     public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
-        return new NonNegativeDouble(m_maxVelocity);
+        return new NonNegativeDouble(maxVelocity(state));
+    }
+
+    @Override
+    public double maxVelocity(Pose2dWithMotion state) {
+        return m_maxVelocity;
     }
 
     @Override
@@ -26,4 +36,14 @@ public class ConstantConstraint implements TimingConstraint {
         return new MinMaxAcceleration(-m_maxAccel, m_maxAccel);
     }
 
+    @Override
+    public double minAccel(Pose2dWithMotion state, double velocityM_S) {
+        return -m_maxAccel;
+    }
+
+    @Override
+    public double maxAccel(Pose2dWithMotion state, double velocityM_S) {
+        return m_maxAccel;
+    }
+
 }
@@ -29,12 +29,35 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
         m_limits = limits;
     }
 
+    /**
+     * The drive limits. The module geometry isn't exposed, so only the cache's
+     * probes notice changes to it.
+     */
+    @Override
+    public double[] parameters() {
+        return new double[] {
+                kDtSec,
+                m_limits.getMaxDriveVelocityM_S(),
+                m_limits.getStallAccelerationM_S2(),
+                m_limits.getMaxDriveAccelerationM_S2(),
+                m_limits.getMaxDriveDecelerationM_S2() };
+    }
+
     /**
      * Given a target spatial heading rate (rad/m), return the maximum translational
      * speed allowed (m/s) that maintains the target spatial heading rate.
      */
     @Override
     public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
+        return new NonNegativeDouble(maxVelocity(state));
+    }
+
+    /**
+     * This still allocates, in the kinematics, but it only depends on the state,
+     * so TimingUtil calls it just once per sample.
+     */
+    @Override
+    public double maxVelocity(Pose2dWithMotion state) {
         // First check instantaneous velocity and compute a limit based on drive
         // velocity.
         Optional<Rotation2d> course = state.getCourse();
@@ -56,7 +79,7 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
         for (var module : module_states) {
             max_vel = Math.min(max_vel, m_limits.getMaxDriveVelocityM_S() / Math.abs(module.speedMetersPerSecond));
         }
-        return new NonNegativeDouble(max_vel);
+        return max_vel;
     }
 
     /**
@@ -68,8 +91,16 @@ public class SwerveDriveDynamicsConstraint implements TimingConstraint {
      */
     @Override
     public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocity) {
-        return new MinMaxAcceleration(
-                -m_limits.getMaxDriveDecelerationM_S2(),
-                SwerveUtil.minAccel(m_limits, velocity));
+        return new MinMaxAcceleration(minAccel(state, velocity), maxAccel(state, velocity));
+    }
+
+    @Override
+    public double minAccel(Pose2dWithMotion state, double velocityM_S) {
+        return -m_limits.getMaxDriveDecelerationM_S2();
+    }
+
+    @Override
+    public double maxAccel(Pose2dWithMotion state, double velocityM_S) {
+        return SwerveUtil.minAccel(m_limits, velocityM_S);
     }
 }
\ No newline at end of file
@@ -2,12 +2,43 @@ package org.team100.lib.timing;
 
 import org.team100.lib.geometry.Pose2dWithMotion;
 
+/**
+ * Each constraint has two APIs: the object one, getMaxVelocity() and
+ * getMinMaxAcceleration(), and the primitive one, maxVelocity(), minAccel(),
+ * and maxAccel(), which TimingUtil uses, since it's called many times per
+ * sample and shouldn't allocate. The primitive methods default to the object
+ * ones; constraints used for planning should override them, and implement the
+ * object ones in terms of them.
+ */
 public interface TimingConstraint {
     /**
      * Maximum allowed velocity m/s.
      */
     NonNegativeDouble getMaxVelocity(Pose2dWithMotion state);
 
+    /** Maximum allowed velocity m/s, never negative. */
+    default double maxVelocity(Pose2dWithMotion state) {
+        return getMaxVelocity(state).getValue();
+    }
+
+    /** Minimum allowed acceleration m/s^2, always negative (or zero). */
+    default double minAccel(Pose2dWithMotion state, double velocityM_S) {
+        return getMinMaxAcceleration(state, velocityM_S).getMinAccel();
+    }
+
+    /** Maximum allowed acceleration m/s^2, always positive (or zero). */
+    default double maxAccel(Pose2dWithMotion state, double velocityM_S) {
+        return getMinMaxAcceleration(state, velocityM_S).getMaxAccel();
+    }
+
+    /**
+     * The values that determine the limits, so TrajectoryCache can tell when a
+     * constraint has changed. Constraints with parameters should override this.
+     */
+    default double[] parameters() {
+        return new double[0];
+    }
+
     class NonNegativeDouble {
         private final double m_value;
 
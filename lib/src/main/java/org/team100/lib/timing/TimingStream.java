@@ -0,0 +1,197 @@
+package org.team100.lib.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.path.PathDistanceSampler;
+import org.team100.lib.timing.TimingUtil.ConstrainedState;
+import org.team100.lib.timing.TimingUtil.TimingException;
+
+/**
+ * Time-parameterizes a path a chunk at a time, so a follower can start before
+ * the whole path is timed. The result is the same as
+ * TimingUtil.timeParameterizeTrajectory().
+ *
+ * The forward pass runs as samples are pulled from the path, a window ahead of
+ * the first state not yet emitted. The backward pass runs over the window
+ * twice: once assuming the robot must stop at the far end, and once assuming
+ * nothing beyond the far end matters. The real answer is between the two, so
+ * where they agree, the states are final, and they're emitted. If the window
+ * is longer than the stopping distance, they agree on most of it; if not, the
+ * window is extended. At the end of the path, everything left is emitted,
+ * using the real end velocity.
+ *
+ * The last pose emitted so far is held back until its acceleration is known,
+ * i.e. until the next pose is timed.
+ */
+public class TimingStream {
+    /** Emit about this much path per chunk, beyond the window. */
+    private static final double kChunkM = 0.5;
+    private static final double kEpsilon = 1e-6;
+
+    private final TimingUtil m_util;
+    private final PathDistanceSampler.Cursor m_cursor;
+    private final double m_step;
+    private final double m_maxDistance;
+    private final int m_numStates;
+    private final double m_endVel;
+    private final double m_windowM;
+    /** Forward-pass states not emitted yet. The backward pass uses copies. */
+    private final List<ConstrainedState> m_pending;
+
+    /** The most recent forward-pass state. */
+    private ConstrainedState m_predecessor;
+    private int m_nextSample;
+
+    // integration state, carried between chunks
+    private TimedPose m_lastPose;
+    private double m_time;
+    private double m_distance;
+    private double m_v0;
+    private boolean m_done;
+
+    /**
+     * @param windowM lookahead for the backward pass. Longer than the stopping
+     *                distance is best; shorter is still correct, but slower.
+     */
+    public TimingStream(
+            TimingUtil util,
+            PathDistanceSampler sampler,
+            double step,
+            double start_vel,
+            double end_vel,
+            double windowM) throws TimingException {
+        m_maxDistance = sampler.getMaxDistance();
+        if (m_maxDistance == 0)
+            throw new IllegalArgumentException();
+        m_util = util;
+        m_cursor = sampler.cursor();
+        m_step = step;
+        m_numStates = (int) Math.ceil(m_maxDistance / step + 1);
+        m_endVel = end_vel;
+        m_windowM = windowM;
+        m_pending = new ArrayList<>();
+
+        double accelLimit = util.absAccelerationLimit();
+        m_predecessor = new ConstrainedState(m_cursor.sample(0).state(), 0);
+        m_predecessor.vel = start_vel;
+        m_predecessor.min_acceleration = -accelLimit;
+        m_predecessor.max_acceleration = accelLimit;
+    }
+
+    /** True when every pose has been emitted. */
+    public boolean isDone() {
+        return m_done;
+    }
+
+    /**
+     * The next chunk of poses, in order, continuing the time from the previous
+     * chunk. Empty when done.
+     */
+    public List<TimedPose> next() throws TimingException {
+        List<TimedPose> result = new ArrayList<>();
+        if (m_done)
+            return result;
+        while (true) {
+            double start = m_pending.isEmpty() ? m_predecessor.distance : m_pending.get(0).distance;
+            double target = start + m_windowM + kChunkM;
+            while (m_nextSample < m_numStates
+                    && (m_pending.isEmpty() || m_predecessor.distance < target)) {
+                pull();
+            }
+            boolean exhausted = m_nextSample >= m_numStates;
+
+            List<ConstrainedState> window = backwardsPass(exhausted ? m_endVel : 0);
+            int n = window.size();
+            if (!exhausted) {
+                List<ConstrainedState> optimistic = backwardsPass(m_predecessor.vel);
+                n = 0;
+                while (n < window.size()
+                        && Math.abs(window.get(n).vel - optimistic.get(n).vel) < kEpsilon)
+                    ++n;
+                if (n == 0) {
+                    // nothing is final yet, look further.
+                    pull();
+                    continue;
+                }
+            }
+
+            for (int i = 0; i < n; ++i) {
+                integrate(window.get(i), result);
+            }
+            m_pending.subList(0, n).clear();
+
+            if (exhausted && m_pending.isEmpty()) {
+                result.add(m_lastPose);
+                m_done = true;
+                return result;
+            }
+            if (!result.isEmpty())
+                return result;
+        }
+    }
+
+    /** Everything left, in one list. */
+    public List<TimedPose> rest() throws TimingException {
+        List<TimedPose> result = new ArrayList<>();
+        while (!m_done) {
+            result.addAll(next());
+        }
+        return result;
+    }
+
+    /** Forward pass for the next sample. */
+    private void pull() throws TimingException {
+        Pose2dWithMotion sample = m_cursor.sample(Math.min(m_nextSample * m_step, m_maxDistance)).state();
+        m_nextSample++;
+        double ds = sample.distance(m_predecessor.state);
+        ConstrainedState state = new ConstrainedState(sample, ds + m_predecessor.distance);
+        m_util.forwardWork(m_predecessor, state);
+        m_pending.add(state);
+        m_predecessor = state;
+    }
+
+    /**
+     * Backward pass over copies of the pending states, ending at the end
+     * velocity.
+     */
+    private List<ConstrainedState> backwardsPass(double end_vel) {
+        List<ConstrainedState> window = new ArrayList<>(m_pending.size());
+        for (ConstrainedState s : m_pending) {
+            window.add(s.copy());
+        }
+        double accelLimit = m_util.absAccelerationLimit();
+        ConstrainedState endState = window.get(window.size() - 1);
+        ConstrainedState successor = new ConstrainedState(endState.state, endState.distance);
+        successor.vel = end_vel;
+        successor.min_acceleration = -accelLimit;
+        successor.max_acceleration = accelLimit;
+        for (int i = window.size() - 1; i >= 0; --i) {
+            ConstrainedState constrainedState = window.get(i);
+            m_util.backwardsWork(constrainedState, successor);
+            successor = constrainedState;
+        }
+        return window;
+    }
+
+    /** Same as TimingUtil.integrate(), one state at a time. */
+    private void integrate(ConstrainedState state, List<TimedPose> result) throws TimingException {
+        double ds = state.distance - m_distance;
+        double v1 = state.vel;
+        double dt = 0.0;
+        if (m_lastPose != null) {
+            double prevAccel = TimingUtil.accel(m_v0, v1, ds);
+            m_lastPose.set_acceleration(prevAccel);
+            dt = TimingUtil.dt(m_v0, v1, ds, prevAccel);
+            result.add(m_lastPose);
+        }
+        m_time += dt;
+        if (Double.isNaN(m_time) || Double.isInfinite(m_time)) {
+            throw new TimingException();
+        }
+        m_lastPose = new TimedPose(state.state, m_time, v1, 0);
+        m_v0 = v1;
+        m_distance = state.distance;
+    }
+}
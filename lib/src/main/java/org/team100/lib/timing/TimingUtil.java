@@ -5,7 +5,6 @@ import java.util.List;
 
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.path.PathDistanceSampler;
-import org.team100.lib.timing.TimingConstraint.NonNegativeDouble;
 import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.util.Util;
 
@@ -18,7 +17,7 @@ import org.team100.lib.util.Util;
 public class TimingUtil {
     private static final double kEpsilon = 1e-6;
 
-    private final List<TimingConstraint> m_constraints;
+    private final CompositeConstraint m_constraints;
     private final double m_velocityLimit;
     private final double m_absAccelerationLimit;
 
@@ -26,11 +25,29 @@ public class TimingUtil {
             List<TimingConstraint> constraints,
             double velocityLimit,
             double absAccelerationLimit) {
-        m_constraints = constraints;
+        m_constraints = new CompositeConstraint(constraints);
         m_velocityLimit = velocityLimit;
         m_absAccelerationLimit = absAccelerationLimit;
     }
 
+    /**
+     * Like timeParameterizeTrajectory(), but a chunk at a time, so the first
+     * chunk is available quickly. The lookahead window is twice the distance
+     * needed to stop from the velocity limit.
+     */
+    public TimingStream stream(
+            PathDistanceSampler sampler,
+            double step,
+            double start_vel,
+            double end_vel) throws TimingException {
+        double windowM = m_velocityLimit * m_velocityLimit / m_absAccelerationLimit;
+        return new TimingStream(this, sampler, step, start_vel, end_vel, windowM);
+    }
+
+    double absAccelerationLimit() {
+        return m_absAccelerationLimit;
+    }
+
     /**
      * sample the path evenly by distance, and then assign times to each sample.
      */
@@ -45,8 +62,10 @@ public class TimingUtil {
                 throw new IllegalArgumentException();
             int num_states = (int) Math.ceil(maxDistance / step + 1);
             List<Pose2dWithMotion> samples = new ArrayList<>(num_states);
+            // samples are in distance order, so the cursor makes this O(n).
+            PathDistanceSampler.Cursor cursor = sampler.cursor();
             for (int i = 0; i < num_states; ++i) {
-                samples.add(sampler.sample(Math.min(i * step, maxDistance)).state());
+                samples.add(cursor.sample(Math.min(i * step, maxDistance)).state());
             }
             return timeParameterizeTrajectory(samples, start_vel, end_vel);
         } catch (TimingException e) {
@@ -99,7 +118,7 @@ public class TimingUtil {
         return constrainedStates;
     }
 
-    private void forwardWork(ConstrainedState s0, ConstrainedState s1) {
+    void forwardWork(ConstrainedState s0, ConstrainedState s1) {
         // constant-twist path length between states
         // note this is zero for turn-in-place.
         double ds = s1.state.distance(s0.state);
@@ -164,7 +183,7 @@ public class TimingUtil {
     }
 
     /** s0 is earlier, s1 is "successor", we're walking backwards. */
-    private void backwardsWork(ConstrainedState s0, ConstrainedState s1) {
+    void backwardsWork(ConstrainedState s0, ConstrainedState s1) {
         // backwards (negative) distance from successor to initial state.
         double ds = s0.distance - s1.distance;
         if (ds > 0) {
@@ -238,7 +257,7 @@ public class TimingUtil {
         return new Trajectory100(poses);
     }
 
-    private static double dt(
+    static double dt(
             double v0,
             double v1,
             double ds,
@@ -307,37 +326,38 @@ public class TimingUtil {
         public double vel;
         public double min_acceleration;
         public double max_acceleration;
+        /** The velocity limit depends only on the state, so remember it. */
+        private double m_maxVelocity = Double.NaN;
 
         public ConstrainedState(Pose2dWithMotion state, double distance) {
             this.state = state;
             this.distance = distance;
         }
 
+        ConstrainedState copy() {
+            ConstrainedState result = new ConstrainedState(state, distance);
+            result.vel = vel;
+            result.min_acceleration = min_acceleration;
+            result.max_acceleration = max_acceleration;
+            result.m_maxVelocity = m_maxVelocity;
+            return result;
+        }
+
         /**
          * Clamp state velocity to constraints.
          */
-        public void clampVelocity(List<TimingConstraint> constraints) {
-            for (TimingConstraint constraint : constraints) {
-                NonNegativeDouble constraintVel = constraint.getMaxVelocity(state);
-                vel = Math.min(vel, constraintVel.getValue());
-            }
+        public void clampVelocity(CompositeConstraint constraints) {
+            if (Double.isNaN(m_maxVelocity))
+                m_maxVelocity = constraints.maxVelocity(state);
+            vel = Math.min(vel, m_maxVelocity);
         }
 
         /**
          * Clamp constraint state accelerations to the constraints.
          */
-        public void clampAccel(List<TimingConstraint> constraints) {
-            for (TimingConstraint constraint : constraints) {
-                TimingConstraint.MinMaxAcceleration min_max_accel = constraint
-                        .getMinMaxAcceleration(state, vel);
-                min_acceleration = Math.max(
-                        min_acceleration,
-                        min_max_accel.getMinAccel());
-                max_acceleration = Math.min(
-                        max_acceleration,
-                        min_max_accel.getMaxAccel());
-            }
-
+        public void clampAccel(CompositeConstraint constraints) {
+            min_acceleration = Math.max(min_acceleration, constraints.minAccel(state, vel));
+            max_acceleration = Math.min(max_acceleration, constraints.maxAccel(state, vel));
         }
 
         @Override
@@ -23,14 +23,24 @@ public class VelocityLimitRegionConstraint implements TimingConstraint {
         m_limit = velocity_limit;
     }
 
+    @Override
+    public double[] parameters() {
+        return new double[] { m_min.getX(), m_min.getY(), m_max.getX(), m_max.getY(), m_limit };
+    }
+
     @Override
     public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
+        return new NonNegativeDouble(maxVelocity(state));
+    }
+
+    @Override
+    public double maxVelocity(Pose2dWithMotion state) {
         final Translation2d translation = state.getTranslation();
         if (translation.getX() <= m_max.getX() && translation.getX() >= m_min.getX() &&
                 translation.getY() <= m_max.getY() && translation.getY() >= m_min.getY()) {
-            return new NonNegativeDouble(m_limit);
+            return m_limit;
         }
-        return new NonNegativeDouble(Double.POSITIVE_INFINITY);
+        return Double.POSITIVE_INFINITY;
     }
 
     @Override
@@ -39,4 +49,14 @@ public class VelocityLimitRegionConstraint implements TimingConstraint {
         return MinMaxAcceleration.kNoLimits;
     }
 
+    @Override
+    public double minAccel(Pose2dWithMotion state, double velocityM_S) {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public double maxAccel(Pose2dWithMotion state, double velocityM_S) {
+        return Double.POSITIVE_INFINITY;
+    }
+
 }
\ No newline at end of file
@@ -1,12 +1,8 @@
 package org.team100.lib.timing;
 
-import java.util.Optional;
-
 import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 
-import edu.wpi.first.math.geometry.Rotation2d;
-
 /**
  * Linear velocity limit based on spatial yaw rate and drivetrain omega limit
  * (scaled).
@@ -31,22 +27,40 @@ public class YawRateConstraint implements TimingConstraint {
         m_maxOmegaRad_S = limits.getMaxAngleSpeedRad_S() * scale;
     }
 
+    @Override
+    public double[] parameters() {
+        return new double[] { m_maxOmegaRad_S };
+    }
+
     @Override
     public NonNegativeDouble getMaxVelocity(Pose2dWithMotion state) {
-        Optional<Rotation2d> course = state.getCourse();
-        if (course.isEmpty()) {
+        return new NonNegativeDouble(maxVelocity(state));
+    }
+
+    @Override
+    public double maxVelocity(Pose2dWithMotion state) {
+        if (!state.hasCourse()) {
             // This is turn in place.
-            return new NonNegativeDouble(Double.MAX_VALUE);
-        } else {
-            // Heading rate in rad/m
-            final double heading_rate = state.getHeadingRate();
-            // rad/s / rad/m => m/s.
-            return new NonNegativeDouble(m_maxOmegaRad_S / Math.abs(heading_rate));
+            return Double.MAX_VALUE;
         }
+        // Heading rate in rad/m
+        final double heading_rate = state.getHeadingRate();
+        // rad/s / rad/m => m/s.
+        return m_maxOmegaRad_S / Math.abs(heading_rate);
     }
 
     @Override
     public MinMaxAcceleration getMinMaxAcceleration(Pose2dWithMotion state, double velocity) {
         return MinMaxAcceleration.kNoLimits;
     }
+
+    @Override
+    public double minAccel(Pose2dWithMotion state, double velocityM_S) {
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public double maxAccel(Pose2dWithMotion state, double velocityM_S) {
+        return Double.POSITIVE_INFINITY;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package org.team100.lib.trajectory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.util.Util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Plans trajectories lazily, in parallel, on otherwise idle cores.
+ *
+ * Commands are made with PlannedTrajectory handles instead of trajectories,
+ * so making them is cheap. Handles made inside group() are remembered under
+ * the group's name, e.g. "FIVE_NOTE/Red", so that when the routine and
+ * alliance are known, e.g. in disabledPeriodic(), prefetch() can start
+ * planning just that group. Anything not prefetched starts planning in the
+ * background when the command starts, and the command waits for it; see
+ * PlannedTrajectory.poll().
+ *
+ * The workers are low priority daemons, so they don't compete with the main
+ * loop. When a prefetched group is done, the cache is saved.
+ */
+public class AsyncTrajectoryPlanner {
+    private final TrajectoryCache m_cache;
+    private final ForkJoinPool m_pool;
+    private final Map<String, List<PlannedTrajectory>> m_groups;
+    /** Only touched on the thread making commands. */
+    private List<PlannedTrajectory> m_currentGroup;
+    private String m_prefetched;
+
+    public AsyncTrajectoryPlanner(TrajectoryCache cache) {
+        m_cache = cache;
+        // leave a core for the main loop.
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        m_pool = new ForkJoinPool(parallelism, AsyncTrajectoryPlanner::newThread, null, false);
+        m_groups = new HashMap<>();
+    }
+
+    /**
+     * Same as TrajectoryPlanner.generateTrajectory(), except the planning
+     * happens later.
+     */
+    public PlannedTrajectory plan(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel,
+            double max_vel,
+            double max_accel) {
+        PlannedTrajectory result = new PlannedTrajectory(
+                () -> m_cache.generateTrajectory(
+                        waypoints, headings, constraints, start_vel, end_vel, max_vel, max_accel),
+                m_pool);
+        if (m_currentGroup != null)
+            m_currentGroup.add(result);
+        return result;
+    }
+
+    /**
+     * Call the maker, remembering any trajectories it plans under the name.
+     */
+    public <T> T group(String name, Supplier<T> maker) {
+        List<PlannedTrajectory> previous = m_currentGroup;
+        m_currentGroup = m_groups.computeIfAbsent(name, x -> new ArrayList<>());
+        try {
+            return maker.get();
+        } finally {
+            m_currentGroup = previous;
+        }
+    }
+
+    /**
+     * Start planning everything in the group, in the background. Cheap to call
+     * repeatedly.
+     */
+    public void prefetch(String name) {
+        if (name.equals(m_prefetched))
+            return;
+        m_prefetched = name;
+        List<PlannedTrajectory> group = m_groups.get(name);
+        if (group == null)
+            return;
+        Util.println("Planning " + group.size() + " trajectories for " + name);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[group.size()];
+        for (int i = 0; i < futures.length; ++i) {
+            futures[i] = group.get(i).prefetch();
+        }
+        CompletableFuture.allOf(futures).whenCompleteAsync((x, e) -> m_cache.save(), m_pool);
+    }
+
+    private static ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.setName("AsyncTrajectoryPlanner-" + thread.getPoolIndex());
+        return thread;
+    }
+}
@@ -0,0 +1,372 @@
+package org.team100.lib.trajectory;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Optional;
+
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.timing.TimedPose;
+import org.team100.lib.util.ArraySearch;
+import org.team100.lib.util.Math100;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+
+/**
+ * An immutable trajectory stored as parallel primitive arrays, one per field,
+ * instead of a list of points each made of half a dozen small objects.
+ *
+ * Use this to keep trajectories around, e.g. in commands made ahead of time.
+ *
+ * Sampling writes into a caller-provided MutableTimedPose, so it doesn't
+ * allocate. It matches TrajectoryTimeSampler, i.e. TimedPose.interpolate2().
+ *
+ * For consumers of the usual types, e.g. DriveMotionController via
+ * TrajectoryTimeIterator, asTrajectory100() provides a view that makes points
+ * as they're requested. TrajectoryTimeSampler recognizes the view, and samples
+ * the arrays directly, rather than making points to interpolate between.
+ *
+ * Course is stored as a unit vector, so the magnitude of the original motion
+ * direction is not preserved.
+ */
+public class CompactTrajectory {
+    private static final int kFields = 11;
+    private final double[] m_timeS;
+    private final double[] m_x;
+    private final double[] m_y;
+    private final double[] m_headingRad;
+    /** Unit vector, or zero if motionless. */
+    private final double[] m_courseCos;
+    private final double[] m_courseSin;
+    private final double[] m_headingRateRad_M;
+    private final double[] m_curvatureRad_M;
+    private final double[] m_dCurvatureDsRad_M2;
+    private final double[] m_velocityM_S;
+    private final double[] m_accelM_S_S;
+
+    public CompactTrajectory(Trajectory100 trajectory) {
+        int n = trajectory.length();
+        if (n == 0)
+            throw new IllegalArgumentException("empty trajectory");
+        m_timeS = new double[n];
+        m_x = new double[n];
+        m_y = new double[n];
+        m_headingRad = new double[n];
+        m_courseCos = new double[n];
+        m_courseSin = new double[n];
+        m_headingRateRad_M = new double[n];
+        m_curvatureRad_M = new double[n];
+        m_dCurvatureDsRad_M2 = new double[n];
+        m_velocityM_S = new double[n];
+        m_accelM_S_S = new double[n];
+        for (int i = 0; i < n; ++i) {
+            TimedPose p = trajectory.getPoint(i).state();
+            Pose2dWithMotion s = p.state();
+            Pose2d pose = s.getPose();
+            m_timeS[i] = p.getTimeS();
+            m_x[i] = pose.getX();
+            m_y[i] = pose.getY();
+            m_headingRad[i] = pose.getRotation().getRadians();
+            Optional<Rotation2d> course = s.getCourse();
+            if (course.isPresent()) {
+                m_courseCos[i] = course.get().getCos();
+                m_courseSin[i] = course.get().getSin();
+            }
+            m_headingRateRad_M[i] = s.getHeadingRate();
+            m_curvatureRad_M[i] = s.getCurvature();
+            m_dCurvatureDsRad_M2[i] = s.getDCurvatureDs();
+            m_velocityM_S[i] = p.velocityM_S();
+            m_accelM_S_S[i] = p.acceleration();
+        }
+    }
+
+    private CompactTrajectory(double[][] fields) {
+        m_timeS = fields[0];
+        m_x = fields[1];
+        m_y = fields[2];
+        m_headingRad = fields[3];
+        m_courseCos = fields[4];
+        m_courseSin = fields[5];
+        m_headingRateRad_M = fields[6];
+        m_curvatureRad_M = fields[7];
+        m_dCurvatureDsRad_M2 = fields[8];
+        m_velocityM_S = fields[9];
+        m_accelM_S_S = fields[10];
+    }
+
+    /**
+     * Read the format written by write(): the length, and then each field in
+     * turn.
+     */
+    static CompactTrajectory read(ByteBuffer buf) {
+        int n = buf.getInt();
+        if (n < 1)
+            throw new IllegalArgumentException("bad length " + n);
+        double[][] fields = new double[kFields][n];
+        for (double[] field : fields) {
+            buf.asDoubleBuffer().get(field);
+            buf.position(buf.position() + n * Double.BYTES);
+        }
+        return new CompactTrajectory(fields);
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(length());
+        for (double[] field : fields()) {
+            for (double d : field) {
+                out.writeDouble(d);
+            }
+        }
+    }
+
+    public int length() {
+        return m_timeS.length;
+    }
+
+    public double getStartS() {
+        return m_timeS[0];
+    }
+
+    public double getTotalTimeSeconds() {
+        return m_timeS[m_timeS.length - 1];
+    }
+
+    public double getTimeS(int i) {
+        return m_timeS[i];
+    }
+
+    /** The schedule itself, not a copy, for TrajectoryTimeSampler. Don't modify it. */
+    double[] times() {
+        return m_timeS;
+    }
+
+    public double getX(int i) {
+        return m_x[i];
+    }
+
+    public double getY(int i) {
+        return m_y[i];
+    }
+
+    public double getHeadingRad(int i) {
+        return m_headingRad[i];
+    }
+
+    /** Write point i into the output. */
+    public void getPoint(int i, MutableTimedPose out) {
+        out.set(
+                m_timeS[i],
+                m_x[i],
+                m_y[i],
+                m_headingRad[i],
+                m_courseCos[i],
+                m_courseSin[i],
+                m_headingRateRad_M[i],
+                m_curvatureRad_M[i],
+                m_dCurvatureDsRad_M2[i],
+                m_velocityM_S[i],
+                m_accelM_S_S[i]);
+    }
+
+    /** Make point i, allocating. */
+    public TrajectoryPoint getPoint(int i) {
+        return new TrajectoryPoint(
+                new TimedPose(
+                        new Pose2dWithMotion(
+                                new Pose2d(m_x[i], m_y[i], new Rotation2d(m_headingRad[i])),
+                                new Twist2d(m_courseCos[i], m_courseSin[i], m_headingRateRad_M[i]),
+                                m_curvatureRad_M[i],
+                                m_dCurvatureDsRad_M2[i]),
+                        m_timeS[i],
+                        m_velocityM_S[i],
+                        m_accelM_S_S[i]),
+                i);
+    }
+
+    /**
+     * Sample the schedule, writing the result into the output. Before the start
+     * or after the end, the result is the first or last point.
+     *
+     * @param timeS seconds
+     * @param hint  the return value of a previous call, to make sampling in time
+     *              order O(1), or zero.
+     * @return the first index at or after timeS, for the next hint.
+     */
+    public int sample(double timeS, int hint, MutableTimedPose out) {
+        if (Double.isNaN(timeS)) {
+            throw new IllegalArgumentException("time is NaN");
+        }
+        int last = m_timeS.length - 1;
+        if (timeS >= m_timeS[last]) {
+            getPoint(last, out);
+            return last;
+        }
+        if (timeS <= m_timeS[0]) {
+            getPoint(0, out);
+            return 0;
+        }
+        int i = ArraySearch.lowerBound(m_timeS, timeS, hint);
+        if (Math.abs(m_timeS[i] - m_timeS[i - 1]) <= 1e-12) {
+            getPoint(i, out);
+            return i;
+        }
+        interpolate(i - 1, i, (timeS - m_timeS[i - 1]) / (m_timeS[i] - m_timeS[i - 1]), out);
+        return i;
+    }
+
+    /** The same order as the array constructor. */
+    private double[][] fields() {
+        return new double[][] {
+                m_timeS,
+                m_x,
+                m_y,
+                m_headingRad,
+                m_courseCos,
+                m_courseSin,
+                m_headingRateRad_M,
+                m_curvatureRad_M,
+                m_dCurvatureDsRad_M2,
+                m_velocityM_S,
+                m_accelM_S_S };
+    }
+
+    /** A view for consumers of the usual types. Points are made on demand. */
+    public Trajectory100 asTrajectory100() {
+        return new View();
+    }
+
+    /**
+     * Same as TimedPose.interpolate2() between points a and b, where a is earlier.
+     */
+    void interpolate(int a, int b, double x, MutableTimedPose out) {
+        double t0 = m_timeS[a];
+        double newT = MathUtil.interpolate(t0, m_timeS[b], x);
+        double dt = newT - t0;
+        double v0 = m_velocityM_S[a];
+        double a0 = m_accelM_S_S[a];
+        boolean reversing = v0 < 0.0 || (Math.abs(v0) <= 1e-12 && a0 < 0.0);
+        double newV = v0 + a0 * dt;
+        double newS = (reversing ? -1.0 : 1.0) * (v0 * dt + .5 * a0 * dt * dt);
+
+        // Pose2d.log(), the constant-twist arc from a to b.
+        double h0 = m_headingRad[a];
+        double cos0 = Math.cos(h0);
+        double sin0 = Math.sin(h0);
+        double dxField = m_x[b] - m_x[a];
+        double dyField = m_y[b] - m_y[a];
+        double tx = dxField * cos0 + dyField * sin0;
+        double ty = -dxField * sin0 + dyField * cos0;
+        double dtheta = MathUtil.angleModulus(m_headingRad[b] - h0);
+        double halfDtheta = dtheta / 2.0;
+        double cosMinusOne = Math.cos(dtheta) - 1;
+        double halfThetaByTanOfHalfDtheta;
+        if (Math.abs(cosMinusOne) < 1e-9) {
+            halfThetaByTanOfHalfDtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+        } else {
+            halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+        }
+        double twistDx = tx * halfThetaByTanOfHalfDtheta + ty * halfDtheta;
+        double twistDy = -tx * halfDtheta + ty * halfThetaByTanOfHalfDtheta;
+
+        double interpolant = newS / Math.hypot(twistDx, twistDy);
+        if (Double.isNaN(interpolant)) {
+            interpolant = 1.0;
+        }
+
+        // Pose2d.interpolate(), i.e. Pose2d.exp() of the scaled twist.
+        double x1;
+        double y1;
+        double h1;
+        if (interpolant < 0) {
+            x1 = m_x[a];
+            y1 = m_y[a];
+            h1 = h0;
+        } else if (interpolant >= 1) {
+            x1 = m_x[b];
+            y1 = m_y[b];
+            h1 = m_headingRad[b];
+        } else {
+            double sdx = twistDx * interpolant;
+            double sdy = twistDy * interpolant;
+            double sdtheta = dtheta * interpolant;
+            double sinTheta = Math.sin(sdtheta);
+            double cosTheta = Math.cos(sdtheta);
+            double s;
+            double c;
+            if (Math.abs(sdtheta) < 1e-9) {
+                s = 1.0 - 1.0 / 6.0 * sdtheta * sdtheta;
+                c = 0.5 * sdtheta;
+            } else {
+                s = sinTheta / sdtheta;
+                c = (1 - cosTheta) / sdtheta;
+            }
+            double lx = sdx * s - sdy * c;
+            double ly = sdx * c + sdy * s;
+            x1 = m_x[a] + lx * cos0 - ly * sin0;
+            y1 = m_y[a] + lx * sin0 + ly * cos0;
+            h1 = MathUtil.angleModulus(h0 + sdtheta);
+        }
+
+        out.set(
+                newT,
+                x1,
+                y1,
+                h1,
+                MathUtil.interpolate(m_courseCos[a], m_courseCos[b], interpolant),
+                MathUtil.interpolate(m_courseSin[a], m_courseSin[b], interpolant),
+                MathUtil.interpolate(m_headingRateRad_M[a], m_headingRateRad_M[b], interpolant),
+                Math100.interpolate(m_curvatureRad_M[a], m_curvatureRad_M[b], interpolant),
+                Math100.interpolate(m_dCurvatureDsRad_M2[a], m_dCurvatureDsRad_M2[b], interpolant),
+                newV,
+                a0);
+    }
+
+    /** Makes points on demand, so it's compact too. */
+    class View extends Trajectory100 {
+        private final List<TrajectoryPoint> m_view = new AbstractList<>() {
+            @Override
+            public TrajectoryPoint get(int index) {
+                return CompactTrajectory.this.getPoint(index);
+            }
+
+            @Override
+            public int size() {
+                return CompactTrajectory.this.length();
+            }
+        };
+
+        CompactTrajectory compact() {
+            return CompactTrajectory.this;
+        }
+
+        @Override
+        public void append(List<TimedPose> states) {
+            throw new UnsupportedOperationException("compact trajectories are immutable");
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return false;
+        }
+
+        @Override
+        public int length() {
+            return CompactTrajectory.this.length();
+        }
+
+        @Override
+        public TrajectoryPoint getPoint(int index) {
+            return CompactTrajectory.this.getPoint(index);
+        }
+
+        @Override
+        public List<TrajectoryPoint> getPoints() {
+            return m_view;
+        }
+    }
+}
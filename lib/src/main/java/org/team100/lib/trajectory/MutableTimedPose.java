@@ -0,0 +1,119 @@
+package org.team100.lib.trajectory;
+
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.timing.TimedPose;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+
+/**
+ * The same information as TimedPose, as primitives, so that CompactTrajectory
+ * can write samples into it without allocating.
+ *
+ * Keep one of these and reuse it.
+ */
+public class MutableTimedPose {
+    private double m_timeS;
+    private double m_x;
+    private double m_y;
+    private double m_headingRad;
+    private double m_courseCos;
+    private double m_courseSin;
+    private double m_headingRateRad_M;
+    private double m_curvatureRad_M;
+    private double m_dCurvatureDsRad_M2;
+    private double m_velocityM_S;
+    private double m_accelM_S_S;
+
+    void set(
+            double timeS,
+            double x,
+            double y,
+            double headingRad,
+            double courseCos,
+            double courseSin,
+            double headingRateRad_M,
+            double curvatureRad_M,
+            double dCurvatureDsRad_M2,
+            double velocityM_S,
+            double accelM_S_S) {
+        m_timeS = timeS;
+        m_x = x;
+        m_y = y;
+        m_headingRad = headingRad;
+        m_courseCos = courseCos;
+        m_courseSin = courseSin;
+        m_headingRateRad_M = headingRateRad_M;
+        m_curvatureRad_M = curvatureRad_M;
+        m_dCurvatureDsRad_M2 = dCurvatureDsRad_M2;
+        m_velocityM_S = velocityM_S;
+        m_accelM_S_S = accelM_S_S;
+    }
+
+    public double getTimeS() {
+        return m_timeS;
+    }
+
+    public double getX() {
+        return m_x;
+    }
+
+    public double getY() {
+        return m_y;
+    }
+
+    public double getHeadingRad() {
+        return m_headingRad;
+    }
+
+    /** Course in radians, or NaN if motionless. */
+    public double getCourseRad() {
+        if (Math.hypot(m_courseCos, m_courseSin) > 1e-12)
+            return Math.atan2(m_courseSin, m_courseCos);
+        return Double.NaN;
+    }
+
+    /** Radians per meter. */
+    public double getHeadingRate() {
+        return m_headingRateRad_M;
+    }
+
+    /** Radians per meter. */
+    public double getCurvature() {
+        return m_curvatureRad_M;
+    }
+
+    /** Radians per meter squared */
+    public double getDCurvatureDs() {
+        return m_dCurvatureDsRad_M2;
+    }
+
+    public double velocityM_S() {
+        return m_velocityM_S;
+    }
+
+    /** this means acceleration along the path, not centripetal acceleration. */
+    public double acceleration() {
+        return m_accelM_S_S;
+    }
+
+    /** Allocates, for consumers that want the usual types. */
+    public TimedPose toTimedPose() {
+        return new TimedPose(
+                new Pose2dWithMotion(
+                        new Pose2d(m_x, m_y, new Rotation2d(m_headingRad)),
+                        new Twist2d(m_courseCos, m_courseSin, m_headingRateRad_M),
+                        m_curvatureRad_M,
+                        m_dCurvatureDsRad_M2),
+                m_timeS,
+                m_velocityM_S,
+                m_accelM_S_S);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableTimedPose [t=" + m_timeS + ", x=" + m_x + ", y=" + m_y + ", heading=" + m_headingRad
+                + ", v=" + m_velocityM_S + ", a=" + m_accelM_S_S + "]";
+    }
+}
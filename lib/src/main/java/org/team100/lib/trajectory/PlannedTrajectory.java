@@ -0,0 +1,88 @@
+package org.team100.lib.trajectory;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.team100.lib.util.Util;
+
+/**
+ * A trajectory that is planned when it's needed, or before, in the background.
+ *
+ * Call prefetch() to start planning on the executor. Commands should call
+ * poll() each cycle until the trajectory is ready, so the main loop never
+ * plans or waits. get() is for callers that can block: it waits for the
+ * background planning if it has started, or plans on the caller's thread if
+ * it hasn't, or if it failed.
+ */
+public class PlannedTrajectory implements Supplier<Trajectory100> {
+    private final Supplier<Trajectory100> m_planner;
+    private final Executor m_executor;
+    private CompletableFuture<Trajectory100> m_future;
+
+    public PlannedTrajectory(Supplier<Trajectory100> planner, Executor executor) {
+        m_planner = planner;
+        m_executor = executor;
+    }
+
+    /** Already planned. */
+    public static PlannedTrajectory of(Trajectory100 trajectory) {
+        PlannedTrajectory result = new PlannedTrajectory(() -> trajectory, Runnable::run);
+        result.m_future = CompletableFuture.completedFuture(trajectory);
+        return result;
+    }
+
+    /** Start planning in the background, if it hasn't started already. */
+    public synchronized CompletableFuture<Trajectory100> prefetch() {
+        if (m_future == null) {
+            m_future = CompletableFuture.supplyAsync(m_planner, m_executor);
+        }
+        return m_future;
+    }
+
+    /** True if the trajectory is ready, so get() won't block. */
+    public synchronized boolean isDone() {
+        return m_future != null && m_future.isDone();
+    }
+
+    /**
+     * The trajectory if it's ready, otherwise empty; never blocks. Starts
+     * planning in the background if it hasn't started, and starts again if it
+     * failed.
+     */
+    public synchronized Optional<Trajectory100> poll() {
+        if (m_future == null) {
+            m_future = CompletableFuture.supplyAsync(m_planner, m_executor);
+        }
+        if (!m_future.isDone())
+            return Optional.empty();
+        if (m_future.isCompletedExceptionally()) {
+            Util.warn("Background planning failed, trying again");
+            m_future = CompletableFuture.supplyAsync(m_planner, m_executor);
+            return Optional.empty();
+        }
+        return Optional.of(m_future.join());
+    }
+
+    /**
+     * The trajectory, waiting for the background planner, or planning it here.
+     */
+    @Override
+    public Trajectory100 get() {
+        CompletableFuture<Trajectory100> future;
+        synchronized (this) {
+            if (m_future == null) {
+                // never prefetched, so do it here.
+                m_future = CompletableFuture.completedFuture(m_planner.get());
+            }
+            future = m_future;
+        }
+        try {
+            return future.join();
+        } catch (RuntimeException e) {
+            Util.warn("Background planning failed, trying again: " + e);
+            return m_planner.get();
+        }
+    }
+}
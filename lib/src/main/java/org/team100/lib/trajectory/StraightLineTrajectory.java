@@ -1,16 +1,14 @@
 package org.team100.lib.trajectory;
 
-import java.util.List;
+import java.util.Optional;
 
 import org.team100.lib.experiments.Experiment;
 import org.team100.lib.experiments.Experiments;
 import org.team100.lib.motion.drivetrain.SwerveState;
-import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeVelocity;
+import org.team100.lib.timing.TimingStream;
 import org.team100.lib.util.Util;
 
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.TrajectoryParameterizer.TrajectoryGenerationException;
 
 /** Make straight lines, rest-to-rest. */
@@ -33,35 +31,35 @@ public class StraightLineTrajectory {
             return m_maker.restToRest(startState.translation(), end.getTranslation());
     }
 
+    /**
+     * Same as apply(), but timed a chunk at a time, so the follower can start
+     * sooner. Empty if the input is malformed.
+     */
+    public Optional<TimingStream> stream(SwerveState startState, Pose2d end) {
+        try {
+            if (Experiments.instance.enabled(Experiment.UseInitialVelocity) && isMoving(startState))
+                return m_maker.movingToRestStream(
+                        startState.translation(), startState.velocity(), end.getTranslation());
+            return m_maker.restToRestStream(startState.translation(), end.getTranslation());
+        } catch (TrajectoryGenerationException e) {
+            Util.warn("Trajectory Generation Exception");
+            return Optional.empty();
+        }
+    }
+
     private Trajectory100 movingToRest(SwerveState startState, Pose2d end) {
-        if (Math.abs(startState.velocity().x()) < 1e-6 && Math.abs(startState.velocity().y()) < 1e-6)
+        if (!isMoving(startState))
             return m_maker.restToRest(startState.translation(), end.getTranslation());
-
-        Translation2d currentTranslation = startState.translation();
-        FieldRelativeVelocity currentSpeed = startState.velocity();
-        Translation2d goalTranslation = end.getTranslation();
-        Translation2d translationToGoal = goalTranslation.minus(currentTranslation);
-        Rotation2d angleToGoal = translationToGoal.getAngle();
-
         try {
-            return TrajectoryPlanner.generateTrajectory(
-                    List.of(
-                            new Pose2d(
-                                    currentTranslation,
-                                    currentSpeed.angle()),
-                            new Pose2d(
-                                    goalTranslation,
-                                    angleToGoal)),
-                    List.of(new Rotation2d(), new Rotation2d()),
-                    m_maker.m_constraints,
-                    currentSpeed.norm(),
-                    0,
-                    1, // guess
-                    1); // guess
+            return m_maker.movingToRest(
+                    startState.translation(), startState.velocity(), end.getTranslation());
         } catch (TrajectoryGenerationException e) {
             Util.warn("Trajectory Generation Exception");
             return new Trajectory100();
         }
     }
 
+    private static boolean isMoving(SwerveState state) {
+        return Math.abs(state.velocity().x()) >= 1e-6 || Math.abs(state.velocity().y()) >= 1e-6;
+    }
 }
@@ -24,6 +24,16 @@ public class Trajectory100 {
         }
     }
 
+    /**
+     * Add states at the end, e.g. the next chunk from a TimingStream. Samplers
+     * of this trajectory see them after TrajectoryTimeSampler.extend().
+     */
+    public void append(final List<TimedPose> states) {
+        for (TimedPose state : states) {
+            m_points.add(new TrajectoryPoint(state, m_points.size()));
+        }
+    }
+
     public boolean isEmpty() {
         return m_points.isEmpty();
     }
@@ -33,7 +43,7 @@ public class Trajectory100 {
     }
 
     public TrajectoryPoint getLastPoint() {
-        return m_points.get(length() - 1);
+        return getPoint(length() - 1);
     }
 
     public double getTotalTimeSeconds() {
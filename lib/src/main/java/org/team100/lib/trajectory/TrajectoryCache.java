@@ -0,0 +1,372 @@
+package org.team100.lib.trajectory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.path.Path100;
+import org.team100.lib.path.PathDistanceSampler;
+import org.team100.lib.spline.HolonomicSpline;
+import org.team100.lib.spline.Spline1d;
+import org.team100.lib.spline.SplineGenerator;
+import org.team100.lib.timing.CentripetalAccelerationConstraint;
+import org.team100.lib.timing.CompositeConstraint;
+import org.team100.lib.timing.SwerveDriveDynamicsConstraint;
+import org.team100.lib.timing.TimedPose;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingConstraint.MinMaxAcceleration;
+import org.team100.lib.timing.TimingUtil;
+import org.team100.lib.timing.VelocityLimitRegionConstraint;
+import org.team100.lib.timing.YawRateConstraint;
+import org.team100.lib.util.Util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Remembers generated trajectories in a file, so the robot doesn't have to
+ * plan them all again at startup.
+ *
+ * Each trajectory is keyed by a hash of its inputs. If the key is in the file,
+ * the trajectory comes from the file, otherwise it's generated as usual. Call
+ * save() after making things: if anything was generated, the file is
+ * rewritten. Entries are never removed, since with lazy planning, a run may
+ * not ask for everything; delete the file to prune it.
+ *
+ * The file lives in the operating directory (/home/lvuser on the robot, the
+ * project directory in simulation), not the deploy directory, which belongs
+ * to the deploy task. On the robot, the first boot after a change rewrites
+ * the file, and later boots use it.
+ *
+ * The file is memory-mapped and read all at once. The format is a header
+ * followed by (key, CompactTrajectory) pairs; see CompactTrajectory.write().
+ *
+ * The key includes the planner tolerances, each constraint's parameters(),
+ * and, as a backstop, the constraint evaluated at a few states near each
+ * waypoint. The header includes a hash of the planner's bytecode, so any
+ * change to the planner code makes the whole file stale.
+ *
+ * Thread-safe, so trajectories can be planned in parallel. Planning itself
+ * happens outside the lock.
+ */
+public class TrajectoryCache {
+    /** Default file, in the operating directory. */
+    private static final String kFilename = "trajectories.bin";
+    private static final int kMagic = 0x54524a31; // "TRJ1"
+    /** Bump this when the file format changes. */
+    private static final int kVersion = 2;
+    /**
+     * Classes whose code determines the result. Classes nested in these are
+     * included; see classFiles().
+     */
+    private static final Class<?>[] kPlannerClasses = {
+            TrajectoryPlanner.class,
+            TrajectoryUtil100.class,
+            Trajectory100.class,
+            CompactTrajectory.class,
+            Pose2dWithMotion.class,
+            GeometryUtil.class,
+            TimedPose.class,
+            Path100.class,
+            PathDistanceSampler.class,
+            SplineGenerator.class,
+            HolonomicSpline.class,
+            Spline1d.class,
+            TimingUtil.class,
+            CompositeConstraint.class,
+            CentripetalAccelerationConstraint.class,
+            SwerveDriveDynamicsConstraint.class,
+            VelocityLimitRegionConstraint.class,
+            YawRateConstraint.class };
+    /** Stands in for a version number, so nobody has to remember to bump it. */
+    static final long kCodeHash = codeHash();
+    private static final double[] kProbeCurvatures = { 0, 1, -1 };
+    private static final double[] kProbeVelocities = { 0, 1, 3 };
+
+    private final Path m_path;
+    /** Loaded and then generated, in order. */
+    private final Map<Long, CompactTrajectory> m_trajectories;
+    private boolean m_dirty;
+    private int m_hits;
+    private int m_misses;
+
+    /** Use the default file in the operating directory. */
+    public TrajectoryCache() {
+        this(Filesystem.getOperatingDirectory().toPath().resolve(kFilename));
+    }
+
+    /**
+     * Loads the file, if it's there. If it's broken, warn and start empty.
+     */
+    public TrajectoryCache(Path path) {
+        m_path = path;
+        m_trajectories = new LinkedHashMap<>();
+        if (!Files.exists(path))
+            return;
+        try {
+            load(path, m_trajectories);
+        } catch (IOException | RuntimeException e) {
+            Util.warn("Ignoring trajectory cache " + path + ": " + e);
+            m_trajectories.clear();
+        }
+    }
+
+    /**
+     * Same as TrajectoryPlanner.generateTrajectory(), but uses the file if it
+     * can.
+     */
+    public Trajectory100 generateTrajectory(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel,
+            double max_vel,
+            double max_accel) {
+        long key = key(waypoints, headings, constraints, start_vel, end_vel, max_vel, max_accel);
+        CompactTrajectory cached;
+        synchronized (this) {
+            cached = m_trajectories.get(key);
+            if (cached != null) {
+                m_hits++;
+            } else {
+                m_misses++;
+            }
+        }
+        if (cached != null)
+            return cached.asTrajectory100();
+        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+                waypoints, headings, constraints, start_vel, end_vel, max_vel, max_accel);
+        if (trajectory.isEmpty()) {
+            // planning failed, nothing to remember.
+            return trajectory;
+        }
+        CompactTrajectory compact = new CompactTrajectory(trajectory);
+        synchronized (this) {
+            m_trajectories.put(key, compact);
+            m_dirty = true;
+        }
+        return compact.asTrajectory100();
+    }
+
+    /**
+     * If anything was generated, rewrite the file. Failure is just a warning,
+     * since the cache is only an optimization.
+     */
+    public synchronized void save() {
+        Util.println(String.format("Trajectory cache: %d hits, %d misses", m_hits, m_misses));
+        if (!m_dirty)
+            return;
+        try {
+            write(m_path, m_trajectories);
+            m_dirty = false;
+        } catch (IOException e) {
+            Util.warn("Could not write trajectory cache " + m_path + ": " + e);
+        }
+    }
+
+    synchronized int hits() {
+        return m_hits;
+    }
+
+    synchronized int misses() {
+        return m_misses;
+    }
+
+    /** A hash of everything that goes into planning. */
+    static long key(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel,
+            double max_vel,
+            double max_accel) {
+        Hash h = new Hash();
+        h.add(TrajectoryPlanner.kMaxDx);
+        h.add(TrajectoryPlanner.kMaxDy);
+        h.add(TrajectoryPlanner.kMaxDTheta);
+        h.add(waypoints.size());
+        for (Pose2d p : waypoints) {
+            h.add(p.getX());
+            h.add(p.getY());
+            h.add(p.getRotation().getRadians());
+        }
+        h.add(headings.size());
+        for (Rotation2d r : headings) {
+            h.add(r.getRadians());
+        }
+        h.add(start_vel);
+        h.add(end_vel);
+        h.add(max_vel);
+        h.add(max_accel);
+        h.add(constraints.size());
+        for (TimingConstraint c : constraints) {
+            h.add(c.getClass().getName());
+            double[] parameters = c.parameters();
+            h.add(parameters.length);
+            for (double x : parameters) {
+                h.add(x);
+            }
+            for (Pose2d p : waypoints) {
+                for (double curvature : kProbeCurvatures) {
+                    Pose2dWithMotion state = new Pose2dWithMotion(
+                            p,
+                            new Twist2d(1, 0, curvature),
+                            curvature,
+                            0);
+                    h.add(c.getMaxVelocity(state).getValue());
+                    for (double v : kProbeVelocities) {
+                        MinMaxAcceleration a = c.getMinMaxAcceleration(state, v);
+                        h.add(a.getMinAccel());
+                        h.add(a.getMaxAccel());
+                    }
+                }
+            }
+        }
+        return h.value();
+    }
+
+    /**
+     * A hash of the bytecode of the planner classes. If any of them can't be
+     * read, warn and return something that won't match, so the file is never
+     * used.
+     */
+    static long codeHash() {
+        Hash h = new Hash();
+        for (Class<?> c : kPlannerClasses) {
+            for (String name : classFiles(c)) {
+                try (InputStream in = c.getResourceAsStream("/" + name)) {
+                    if (in == null) {
+                        Util.warn("Trajectory cache can't read " + name);
+                        return System.nanoTime();
+                    }
+                    h.add(in.readAllBytes());
+                } catch (IOException e) {
+                    Util.warn("Trajectory cache can't read " + name + ": " + e);
+                    return System.nanoTime();
+                }
+            }
+        }
+        return h.value();
+    }
+
+    /**
+     * Resource names of the class files for c and everything nested in it,
+     * including anonymous classes, in a stable order.
+     */
+    static List<String> classFiles(Class<?> c) {
+        List<String> result = new ArrayList<>();
+        addClassFiles(c, result);
+        return result;
+    }
+
+    private static void addClassFiles(Class<?> c, List<String> result) {
+        String name = c.getName().replace('.', '/');
+        result.add(name + ".class");
+        // anonymous classes aren't "declared," they're just numbered.
+        for (int i = 1; c.getResource("/" + name + "$" + i + ".class") != null; ++i) {
+            result.add(name + "$" + i + ".class");
+        }
+        Class<?>[] nested = c.getDeclaredClasses();
+        Arrays.sort(nested, Comparator.comparing(Class::getName));
+        for (Class<?> n : nested) {
+            addClassFiles(n, result);
+        }
+    }
+
+    private static void load(Path path, Map<Long, CompactTrajectory> result) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            read(buf, result);
+        }
+    }
+
+    static void read(ByteBuffer buf, Map<Long, CompactTrajectory> result) {
+        if (buf.getInt() != kMagic)
+            throw new IllegalArgumentException("not a trajectory cache");
+        int version = buf.getInt();
+        if (version != kVersion) {
+            Util.warn("Trajectory cache version " + version + " is stale");
+            return;
+        }
+        if (buf.getLong() != kCodeHash) {
+            // the planner changed, so everything could be different.
+            Util.warn("Trajectory cache is from a different planner");
+            return;
+        }
+        int count = buf.getInt();
+        for (int i = 0; i < count; ++i) {
+            long key = buf.getLong();
+            result.put(key, CompactTrajectory.read(buf));
+        }
+    }
+
+    /** Write to a temporary file and then move it, so a crash can't leave half a file. */
+    private static void write(Path path, Map<Long, CompactTrajectory> trajectories) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(kMagic);
+            out.writeInt(kVersion);
+            out.writeLong(kCodeHash);
+            out.writeInt(trajectories.size());
+            for (Map.Entry<Long, CompactTrajectory> e : trajectories.entrySet()) {
+                out.writeLong(e.getKey());
+                e.getValue().write(out);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** 64-bit FNV-1a, over the bits of each value. */
+    private static class Hash {
+        private long m_value = 0xcbf29ce484222325L;
+
+        void add(double d) {
+            add(Double.doubleToLongBits(d));
+        }
+
+        void add(long x) {
+            for (int i = 0; i < 8; ++i) {
+                m_value ^= (x >>> (8 * i)) & 0xff;
+                m_value *= 0x100000001b3L;
+            }
+        }
+
+        void add(byte[] b) {
+            for (int i = 0; i < b.length; ++i) {
+                m_value ^= b[i] & 0xff;
+                m_value *= 0x100000001b3L;
+            }
+        }
+
+        void add(String s) {
+            for (int i = 0; i < s.length(); ++i) {
+                add((long) s.charAt(i));
+            }
+        }
+
+        long value() {
+            return m_value;
+        }
+    }
+}
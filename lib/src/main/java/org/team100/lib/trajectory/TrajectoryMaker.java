@@ -1,9 +1,12 @@
 package org.team100.lib.trajectory;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Function;
 
+import org.team100.lib.motion.drivetrain.kinodynamics.FieldRelativeVelocity;
 import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingStream;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -14,6 +17,14 @@ import edu.wpi.first.math.trajectory.TrajectoryParameterizer.TrajectoryGeneratio
  * Utility class to produce trajectories.
  */
 public class TrajectoryMaker {
+    // velocity and acceleration limits for each kind of line, all guesses.
+    private static final double kRestToRestVel = 10;
+    private static final double kRestToRestAccel = 10;
+    private static final double kMovingToRestVel = 1;
+    private static final double kMovingToRestAccel = 1;
+    /** Lines don't turn. */
+    private static final List<Rotation2d> kHeadings = List.of(new Rotation2d(), new Rotation2d());
+
     final List<TimingConstraint> m_constraints;
 
     public TrajectoryMaker(List<TimingConstraint> constraints) {
@@ -49,26 +60,84 @@ public class TrajectoryMaker {
                 initial.getTranslation().plus(new Translation2d(1, 0)));
     }
 
+    /** Null if generation fails. */
     public Trajectory100 restToRest(
             Translation2d start,
             Translation2d end) {
-        Translation2d currentTranslation = start;
-        Translation2d goalTranslation = end;
-        Translation2d translationToGoal = goalTranslation.minus(currentTranslation);
-        Rotation2d angleToGoal = translationToGoal.getAngle();
         try {
             return TrajectoryPlanner.generateTrajectory(
-                    List.of(
-                            new Pose2d(currentTranslation, angleToGoal),
-                            new Pose2d(goalTranslation, angleToGoal)),
-                    List.of(new Rotation2d(), new Rotation2d()),
+                    restToRestWaypoints(start, end),
+                    kHeadings,
                     m_constraints,
                     0.0,
                     0.0,
-                    10,
-                    10);// guess
+                    kRestToRestVel,
+                    kRestToRestAccel);
         } catch (TrajectoryGenerationException e) {
             return null;
         }
     }
+
+    /** Same as restToRest(), timed a chunk at a time. */
+    public Optional<TimingStream> restToRestStream(
+            Translation2d start,
+            Translation2d end) {
+        return TrajectoryPlanner.streamTrajectory(
+                restToRestWaypoints(start, end),
+                kHeadings,
+                m_constraints,
+                0.0,
+                0.0,
+                kRestToRestVel,
+                kRestToRestAccel);
+    }
+
+    /**
+     * From a moving start, leaving along its course, to rest at the end. The
+     * start must be moving.
+     */
+    public Trajectory100 movingToRest(
+            Translation2d start,
+            FieldRelativeVelocity startVelocity,
+            Translation2d end) {
+        return TrajectoryPlanner.generateTrajectory(
+                movingToRestWaypoints(start, startVelocity, end),
+                kHeadings,
+                m_constraints,
+                startVelocity.norm(),
+                0,
+                kMovingToRestVel,
+                kMovingToRestAccel);
+    }
+
+    /** Same as movingToRest(), timed a chunk at a time. */
+    public Optional<TimingStream> movingToRestStream(
+            Translation2d start,
+            FieldRelativeVelocity startVelocity,
+            Translation2d end) {
+        return TrajectoryPlanner.streamTrajectory(
+                movingToRestWaypoints(start, startVelocity, end),
+                kHeadings,
+                m_constraints,
+                startVelocity.norm(),
+                0,
+                kMovingToRestVel,
+                kMovingToRestAccel);
+    }
+
+    private static List<Pose2d> restToRestWaypoints(Translation2d start, Translation2d end) {
+        Rotation2d angleToGoal = end.minus(start).getAngle();
+        return List.of(
+                new Pose2d(start, angleToGoal),
+                new Pose2d(end, angleToGoal));
+    }
+
+    private static List<Pose2d> movingToRestWaypoints(
+            Translation2d start,
+            FieldRelativeVelocity startVelocity,
+            Translation2d end) {
+        return List.of(
+                new Pose2d(start, startVelocity.angle()),
+                new Pose2d(end, end.minus(start).getAngle()));
+    }
 }
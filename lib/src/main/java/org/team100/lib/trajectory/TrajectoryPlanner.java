@@ -1,11 +1,15 @@
 package org.team100.lib.trajectory;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.team100.lib.path.Path100;
 import org.team100.lib.path.PathDistanceSampler;
 import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingStream;
 import org.team100.lib.timing.TimingUtil;
+import org.team100.lib.timing.TimingUtil.TimingException;
+import org.team100.lib.util.Util;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -15,9 +19,9 @@ import edu.wpi.first.math.geometry.Rotation2d;
  * centripetal) so if you want those, supply them.
  */
 public class TrajectoryPlanner {
-    private static final double kMaxDx = 0.0127; // m
-    private static final double kMaxDy = 0.0127; // m
-    private static final double kMaxDTheta = Math.toRadians(1.0);
+    static final double kMaxDx = 0.0127; // m
+    static final double kMaxDy = 0.0127; // m
+    static final double kMaxDTheta = Math.toRadians(1.0);
 
     public static Trajectory100 generateTrajectory(
             List<Pose2d> waypoints,
@@ -45,6 +49,32 @@ public class TrajectoryPlanner {
         }
     }
 
+    /**
+     * Same as generateTrajectory(), but timed a chunk at a time, so a follower
+     * can start sooner. Empty if the input is malformed.
+     */
+    public static Optional<TimingStream> streamTrajectory(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            List<TimingConstraint> constraints,
+            double start_vel,
+            double end_vel,
+            double max_vel,
+            double max_accel) {
+        try {
+            Path100 path = TrajectoryUtil100.trajectoryFromWaypointsAndHeadings(
+                    waypoints, headings, kMaxDx, kMaxDy, kMaxDTheta);
+            var view = new PathDistanceSampler(path);
+            TimingUtil u = new TimingUtil(constraints, max_vel, max_accel);
+            return Optional.of(u.stream(view, kMaxDx, start_vel, end_vel));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        } catch (TimingException e) {
+            Util.warn("Timing exception");
+            return Optional.empty();
+        }
+    }
+
     private TrajectoryPlanner() {
         //
     }
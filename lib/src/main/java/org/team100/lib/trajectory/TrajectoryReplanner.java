@@ -0,0 +1,215 @@
+package org.team100.lib.trajectory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.path.Path100;
+import org.team100.lib.path.PathDistanceSampler;
+import org.team100.lib.spline.HolonomicSpline;
+import org.team100.lib.spline.SplineGenerator;
+import org.team100.lib.timing.TimedPose;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingUtil;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Plans a trajectory, and then replans it from wherever the follower is, e.g.
+ * when the goal moves, quickly enough to do it every loop.
+ *
+ * Replanning keeps the part of the current trajectory that's already been
+ * followed, and splices a new suffix onto it. The suffix starts at the current
+ * sample, in the current direction of motion, at the current speed and
+ * curvature, so the velocity and the course are smooth. The new splines are
+ * warm-started from the ones in the previous plan.
+ *
+ * The budget covers the whole replan. Timing and splicing are linear in the
+ * length of the path, so their cost is estimated from the previous replan,
+ * and the optimizer gets what's left. If the whole thing still overruns, the
+ * result is discarded, and the caller keeps following the previous
+ * trajectory.
+ *
+ * The path is sampled by arc length, rather than by subdividing against the
+ * planner's tolerances, so that the cost of timing really is linear in the
+ * length, and the estimate holds for the next replan, whatever its shape.
+ */
+public class TrajectoryReplanner {
+    /** Below this speed, the course isn't meaningful. */
+    private static final double kMinSpeedM_S = 0.01;
+
+    private final List<TimingConstraint> m_constraints;
+    private final double m_maxVel;
+    private final double m_maxAccel;
+    private final double m_budgetS;
+    /** False to subdivide like TrajectoryPlanner, for comparison. */
+    private final boolean m_byDistance;
+    /** The splines of the last plan, for warm-starting. */
+    private List<HolonomicSpline> m_splines;
+    /** How long timing and splicing took last time. */
+    private double m_tailS;
+    private int m_overruns;
+
+    /**
+     * @param budgetS time limit for each replan, in seconds.
+     */
+    public TrajectoryReplanner(
+            List<TimingConstraint> constraints,
+            double maxVel,
+            double maxAccel,
+            double budgetS) {
+        this(constraints, maxVel, maxAccel, budgetS, true);
+    }
+
+    /** For benchmarking the two ways of sampling the path. */
+    TrajectoryReplanner(
+            List<TimingConstraint> constraints,
+            double maxVel,
+            double maxAccel,
+            double budgetS,
+            boolean byDistance) {
+        m_constraints = constraints;
+        m_maxVel = maxVel;
+        m_maxAccel = maxAccel;
+        m_budgetS = budgetS;
+        m_byDistance = byDistance;
+        m_splines = new ArrayList<>();
+    }
+
+    /**
+     * Same as TrajectoryPlanner.generateTrajectory(), with no time limit, and
+     * remembers the splines for replanning.
+     */
+    public Trajectory100 plan(
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            double start_vel,
+            double end_vel) {
+        try {
+            List<HolonomicSpline> splines = splines(waypoints, headings);
+            HolonomicSpline.optimizeSpline(splines);
+            m_splines = splines;
+            return time(splines, start_vel, end_vel);
+        } catch (IllegalArgumentException e) {
+            // malformed input
+            return new Trajectory100();
+        }
+    }
+
+    /**
+     * Replan from the sample at timeS on the current trajectory.
+     *
+     * @param current   the trajectory being followed.
+     * @param timeS     progress along it.
+     * @param waypoints the rest of the waypoints, not including the start.
+     * @param headings  for each waypoint.
+     * @param end_vel   at the last waypoint.
+     * @return the current trajectory up to timeS, followed by the new plan, or
+     *         empty if replanning failed, e.g. if the robot is already at the
+     *         goal, or if it took longer than the budget.
+     */
+    public Optional<Trajectory100> replan(
+            Trajectory100 current,
+            double timeS,
+            List<Pose2d> waypoints,
+            List<Rotation2d> headings,
+            double end_vel) {
+        long deadlineNs = System.nanoTime() + (long) (m_budgetS * 1e9);
+        Optional<TrajectorySamplePoint> sample = new TrajectoryTimeSampler(current).sample(timeS);
+        if (sample.isEmpty())
+            return Optional.empty();
+        TimedPose now = sample.get().state();
+        Pose2dWithMotion state = now.state();
+        double start_vel = Math.max(0, now.velocityM_S());
+
+        // start in the direction of motion, if there is one.
+        Optional<Rotation2d> course = state.getCourse();
+        Rotation2d direction;
+        if (course.isPresent() && start_vel > kMinSpeedM_S) {
+            direction = course.get();
+        } else {
+            direction = waypoints.get(0).getTranslation().minus(state.getTranslation()).getAngle();
+            start_vel = 0;
+        }
+
+        List<Pose2d> allWaypoints = new ArrayList<>(waypoints.size() + 1);
+        allWaypoints.add(new Pose2d(state.getTranslation(), direction));
+        allWaypoints.addAll(waypoints);
+        List<Rotation2d> allHeadings = new ArrayList<>(headings.size() + 1);
+        allHeadings.add(state.getHeading());
+        allHeadings.addAll(headings);
+
+        try {
+            List<HolonomicSpline> splines = splines(allWaypoints, allHeadings);
+            HolonomicSpline.warmStart(splines, m_splines, start_vel > kMinSpeedM_S ? state.getCurvature() : 0);
+            // leave time for the rest.
+            double optimizerS = (deadlineNs - System.nanoTime()) * 1e-9 - m_tailS;
+            HolonomicSpline.optimizeSpline(splines, optimizerS);
+            long tailStartNs = System.nanoTime();
+            Trajectory100 suffix = time(splines, start_vel, end_vel);
+            if (suffix.isEmpty())
+                return Optional.empty();
+            Trajectory100 result = splice(current, timeS, suffix);
+            long endNs = System.nanoTime();
+            m_tailS = (endNs - tailStartNs) * 1e-9;
+            if (endNs > deadlineNs) {
+                m_overruns++;
+                return Optional.empty();
+            }
+            m_splines = splines;
+            return Optional.of(result);
+        } catch (IllegalArgumentException e) {
+            // malformed input, e.g. zero-length spline
+            return Optional.empty();
+        }
+    }
+
+    /** Replans discarded for taking too long. */
+    public int overruns() {
+        return m_overruns;
+    }
+
+    /** Points of the prefix before timeS, then the suffix, shifted to start at timeS. */
+    static Trajectory100 splice(Trajectory100 prefix, double timeS, Trajectory100 suffix) {
+        List<TimedPose> poses = new ArrayList<>(prefix.length() + suffix.length());
+        for (TrajectoryPoint p : prefix.getPoints()) {
+            if (p.state().getTimeS() >= timeS)
+                break;
+            poses.add(p.state());
+        }
+        for (TrajectoryPoint p : suffix.getPoints()) {
+            TimedPose s = p.state();
+            poses.add(new TimedPose(s.state(), s.getTimeS() + timeS, s.velocityM_S(), s.acceleration()));
+        }
+        return new Trajectory100(poses);
+    }
+
+    private static List<HolonomicSpline> splines(List<Pose2d> waypoints, List<Rotation2d> headings) {
+        List<HolonomicSpline> splines = new ArrayList<>(waypoints.size() - 1);
+        for (int i = 1; i < waypoints.size(); ++i) {
+            splines.add(new HolonomicSpline(
+                    waypoints.get(i - 1), waypoints.get(i),
+                    headings.get(i - 1), headings.get(i)));
+        }
+        return splines;
+    }
+
+    private Trajectory100 time(List<HolonomicSpline> splines, double start_vel, double end_vel) {
+        Path100 path = new Path100(m_byDistance
+                // the same step as the timing pass
+                ? SplineGenerator.parameterizeSplinesByDistance(splines, TrajectoryPlanner.kMaxDx)
+                : SplineGenerator.parameterizeSplines(
+                        splines,
+                        TrajectoryPlanner.kMaxDx,
+                        TrajectoryPlanner.kMaxDy,
+                        TrajectoryPlanner.kMaxDTheta));
+        TimingUtil u = new TimingUtil(m_constraints, m_maxVel, m_maxAccel);
+        return u.timeParameterizeTrajectory(
+                new PathDistanceSampler(path),
+                TrajectoryPlanner.kMaxDx,
+                start_vel,
+                end_vel);
+    }
+}
@@ -8,20 +8,35 @@ import edu.wpi.first.math.MathUtil;
 
 /**
  * Allows iterating over the schedule of a trajectory.
+ *
+ * Advancing and previewing each use a sampler cursor, so following the
+ * trajectory doesn't search the whole thing every time.
+ *
+ * Iterating over a CompactTrajectory, or its view, reads its arrays directly;
+ * see TrajectoryTimeSampler.
  */
 public class TrajectoryTimeIterator {
     private final TrajectoryTimeSampler m_sampler;
+    private final TrajectoryTimeSampler.Cursor m_cursor;
+    /** Previews are usually a little ahead of the current sample. */
+    private final TrajectoryTimeSampler.Cursor m_previewCursor;
     /** progress along the trajectory in seconds */
     private double m_timeS = 0.0;
     private Optional<TrajectorySamplePoint> m_current;
 
     public TrajectoryTimeIterator(TrajectoryTimeSampler sampler) {
         m_sampler = sampler;
+        m_cursor = m_sampler.cursor();
+        m_previewCursor = m_sampler.cursor();
         // No effect if view is empty.
-        m_current = m_sampler.sample(m_sampler.getStartS());
+        m_current = m_cursor.sample(m_sampler.getStartS());
         m_timeS = m_sampler.getStartS();
     }
 
+    public TrajectoryTimeIterator(CompactTrajectory trajectory) {
+        this(new TrajectoryTimeSampler(trajectory));
+    }
+
     public boolean isDone() {
         return getRemainingProgress() == 0.0;
     }
@@ -53,7 +68,7 @@ public class TrajectoryTimeIterator {
      */
     public Optional<TrajectorySamplePoint> advance(double additional_progress) {
         m_timeS = MathUtil.clamp(m_timeS + additional_progress, m_sampler.getStartS(), m_sampler.getEndS());
-        m_current = m_sampler.sample(m_timeS);
+        m_current = m_cursor.sample(m_timeS);
         return m_current;
     }
 
@@ -68,7 +83,7 @@ public class TrajectoryTimeIterator {
             throw new IllegalArgumentException("additional_progress is NaN");
         final double progress = Math.max(m_sampler.getStartS(),
                 Math.min(m_sampler.getEndS(), m_timeS + additional_progress));
-        return m_sampler.sample(progress);
+        return m_previewCursor.sample(progress);
     }
 
     public Trajectory100 trajectory() {
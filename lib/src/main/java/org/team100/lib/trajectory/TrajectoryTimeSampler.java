@@ -1,20 +1,90 @@
 package org.team100.lib.trajectory;
 
+import java.util.Arrays;
 import java.util.Optional;
 
+import org.team100.lib.util.ArraySearch;
+
 /**
  * Allows sampling a trajectory by its schedule.
  * Derived from 254 TimedView.
+ *
+ * The schedule is copied into an array, so sampling is a binary search. For
+ * sampling in time order, e.g. following the trajectory, use a cursor, which
+ * resumes from the last sample.
+ *
+ * A CompactTrajectory, or its view, already has the schedule as an array, so
+ * that's used as is, and samples are interpolated from the arrays directly,
+ * without making the points on either side.
+ *
+ * A trajectory that grows, e.g. a chunk at a time from a TimingStream, can be
+ * sampled as it grows: call extend() after appending.
  */
 public class TrajectoryTimeSampler {
     private final Trajectory100 m_trajectory;
+    /** Null unless the trajectory is a CompactTrajectory. */
+    private final CompactTrajectory m_compact;
+    /** Time of each point, in seconds, with room to grow. */
+    private double[] m_times;
+    /** Number of points in m_times. */
+    private int m_length;
     private final double m_startS;
-    private final double m_endS;
+    private double m_endS;
+
+    /**
+     * Remembers where the last sample was, so that sampling forward in small
+     * steps is O(1). Sampling backwards works too, it's just slower. Not
+     * thread-safe: each user should have its own.
+     */
+    public class Cursor {
+        /** Scratch for the compact path. */
+        private final MutableTimedPose m_out;
+        private int m_index;
+
+        private Cursor() {
+            m_out = m_compact == null ? null : new MutableTimedPose();
+            m_index = 1;
+        }
+
+        /** Same as TrajectoryTimeSampler.sample(). */
+        public Optional<TrajectorySamplePoint> sample(double timeS) {
+            TrajectorySamplePoint end = endpoint(timeS, m_out);
+            if (end != null)
+                return Optional.of(end);
+            m_index = ArraySearch.lowerBound(m_times, m_length, timeS, m_index);
+            return between(timeS, m_index, m_out);
+        }
+    }
 
     public TrajectoryTimeSampler(Trajectory100 trajectory) {
         m_trajectory = trajectory;
-        m_startS = m_trajectory.getPoint(0).state().getTimeS();
-        m_endS = m_trajectory.getPoint(m_trajectory.length() - 1).state().getTimeS();
+        if (trajectory instanceof CompactTrajectory.View) {
+            m_compact = ((CompactTrajectory.View) trajectory).compact();
+            m_times = m_compact.times();
+            m_length = m_times.length;
+        } else {
+            m_compact = null;
+            m_times = new double[m_trajectory.length()];
+            m_length = 0;
+            readTimes();
+        }
+        m_startS = m_times[0];
+        m_endS = m_times[m_length - 1];
+    }
+
+    public TrajectoryTimeSampler(CompactTrajectory trajectory) {
+        this(trajectory.asTrajectory100());
+    }
+
+    /**
+     * Catch up with points appended to the trajectory since this sampler was
+     * made or last extended. Only the new points are read, and the schedule
+     * grows by doubling, so this is O(1) per point. Existing cursors keep their
+     * place.
+     */
+    public void extend() {
+        readTimes();
+        m_endS = m_times[m_length - 1];
     }
 
     public double getStartS() {
@@ -25,48 +95,96 @@ public class TrajectoryTimeSampler {
         return m_endS;
     }
 
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
     /**
      * Returns empty if no sample can be found.  This shouldn't happen, but if it
      * does, there's no reasonable default.
-     * 
+     *
      * @param timeS seconds
      */
     public Optional<TrajectorySamplePoint> sample(double timeS) {
+        MutableTimedPose out = m_compact == null ? null : new MutableTimedPose();
+        TrajectorySamplePoint end = endpoint(timeS, out);
+        if (end != null)
+            return Optional.of(end);
+        return between(timeS, ArraySearch.lowerBound(m_times, m_length, timeS, 0), out);
+    }
+
+    public Trajectory100 trajectory() {
+        return m_trajectory;
+    }
+
+    @Override
+    public String toString() {
+        return "TrajectoryTimeSampler [trajectory_=" + m_trajectory + ", startTimeS=" + m_startS + ", endTimeS="
+                + m_endS + "]";
+    }
+
+    /** Copy the times of any points not yet in the schedule. */
+    private void readTimes() {
+        int n = m_trajectory.length();
+        if (n > m_times.length) {
+            m_times = Arrays.copyOf(m_times, Math.max(n, 2 * m_times.length));
+        }
+        for (int i = m_length; i < n; ++i) {
+            m_times[i] = m_trajectory.getPoint(i).state().getTimeS();
+        }
+        m_length = n;
+    }
+
+    /**
+     * The first or last point, if timeS is outside the schedule, or null.
+     *
+     * @param out scratch for the compact path, otherwise unused.
+     */
+    private TrajectorySamplePoint endpoint(double timeS, MutableTimedPose out) {
         if (Double.isNaN(timeS)) {
             throw new IllegalArgumentException("time is NaN");
         }
         if (timeS >= m_endS) {
-            TrajectoryPoint point = m_trajectory.getPoint(m_trajectory.length() - 1);
-            return Optional.of(new TrajectorySamplePoint(point.state(), point.index(), point.index()));
+            return point(m_length - 1, out);
         }
         if (timeS <= m_startS) {
-            TrajectoryPoint point = m_trajectory.getPoint(0);
-            return Optional.of(new TrajectorySamplePoint(point.state(), point.index(), point.index()));
-        }
-        for (int i = 1; i < m_trajectory.length(); ++i) {
-            final TrajectoryPoint point = m_trajectory.getPoint(i);
-            if (point.state().getTimeS() >= timeS) {
-                final TrajectoryPoint prev_s = m_trajectory.getPoint(i - 1);
-                if (Math.abs(point.state().getTimeS() - prev_s.state().getTimeS()) <= 1e-12) {
-                    return Optional.of(new TrajectorySamplePoint(point.state(), point.index(), point.index()));
-                }
-                return Optional.of(new TrajectorySamplePoint(
-                        prev_s.state().interpolate2(point.state(),
-                                (timeS - prev_s.state().getTimeS())
-                                        / (point.state().getTimeS() - prev_s.state().getTimeS())),
-                        i - 1, i));
-            }
+            return point(0, out);
         }
-        return Optional.empty();
+        return null;
     }
 
-    public Trajectory100 trajectory() {
-        return m_trajectory;
+    /** Point i, by itself. */
+    private TrajectorySamplePoint point(int i, MutableTimedPose out) {
+        if (m_compact != null) {
+            m_compact.getPoint(i, out);
+            return new TrajectorySamplePoint(out.toTimedPose(), i, i);
+        }
+        TrajectoryPoint point = m_trajectory.getPoint(i);
+        return new TrajectorySamplePoint(point.state(), point.index(), point.index());
     }
 
-    @Override
-    public String toString() {
-        return "TrajectoryTimeSampler [trajectory_=" + m_trajectory + ", startTimeS=" + m_startS + ", endTimeS="
-                + m_endS + "]";
+    /**
+     * Interpolate between point i-1 and point i.
+     *
+     * @param i   the first point at or after timeS.
+     * @param out scratch for the compact path, otherwise unused.
+     */
+    private Optional<TrajectorySamplePoint> between(double timeS, int i, MutableTimedPose out) {
+        if (i < 1 || i >= m_length) {
+            // only if the schedule itself is broken, e.g. NaN.
+            return Optional.empty();
+        }
+        if (Math.abs(m_times[i] - m_times[i - 1]) <= 1e-12) {
+            return Optional.of(point(i, out));
+        }
+        double x = (timeS - m_times[i - 1]) / (m_times[i] - m_times[i - 1]);
+        if (m_compact != null) {
+            m_compact.interpolate(i - 1, i, x, out);
+            return Optional.of(new TrajectorySamplePoint(out.toTimedPose(), i - 1, i));
+        }
+        final TrajectoryPoint point = m_trajectory.getPoint(i);
+        final TrajectoryPoint prev_s = m_trajectory.getPoint(i - 1);
+        return Optional.of(new TrajectorySamplePoint(
+                prev_s.state().interpolate2(point.state(), x), i - 1, i));
     }
 }
@@ -0,0 +1,66 @@
+package org.team100.lib.util;
+
+/**
+ * Searches over sorted primitive arrays, e.g. trajectory times or path
+ * distances.
+ */
+public class ArraySearch {
+    /** How far to scan forward from a hint before giving up and bisecting. */
+    private static final int kScan = 4;
+
+    /**
+     * Index of the first element at or after x, or a.length if none. O(log n).
+     *
+     * @param a sorted ascending, duplicates allowed.
+     */
+    public static int lowerBound(double[] a, double x) {
+        return lowerBound(a, x, 0, a.length);
+    }
+
+    /**
+     * Index of the first element at or after x, or a.length if none, starting
+     * from the result of a previous search. If x has moved forward a little since
+     * then, which is the usual case for iteration, this is O(1). Otherwise, it's
+     * O(log n).
+     *
+     * @param a    sorted ascending, duplicates allowed.
+     * @param hint result of a previous search, may be anything.
+     */
+    public static int lowerBound(double[] a, double x, int hint) {
+        return lowerBound(a, a.length, x, hint);
+    }
+
+    /**
+     * Same as lowerBound(a, x, hint), over the first n elements, e.g. of an
+     * array with room to grow. Returns n if none.
+     */
+    public static int lowerBound(double[] a, int n, double x, int hint) {
+        if (hint < 1 || hint > n || a[hint - 1] >= x) {
+            // the hint is useless, or x moved backwards.
+            return lowerBound(a, x, 0, n);
+        }
+        // the answer is at or after the hint.
+        int end = Math.min(n, hint + kScan);
+        for (int i = hint; i < end; ++i) {
+            if (a[i] >= x)
+                return i;
+        }
+        return lowerBound(a, x, end, n);
+    }
+
+    /** Bisect within [lo, hi). */
+    private static int lowerBound(double[] a, double x, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < x)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private ArraySearch() {
+        //
+    }
+}
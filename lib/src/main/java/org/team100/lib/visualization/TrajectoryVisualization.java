@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.team100.lib.telemetry.Telemetry;
 import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.trajectory.CompactTrajectory;
 import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.trajectory.TrajectoryPoint;
 
@@ -35,6 +36,18 @@ public class TrajectoryVisualization {
         t.log(Level.DEBUG, kField, kTrajectory, arr);
     }
 
+    public static void setViz(CompactTrajectory trajectory) {
+        double[] arr = new double[trajectory.length() * 3];
+        int ndx = 0;
+        for (int i = 0; i < trajectory.length(); ++i) {
+            arr[ndx + 0] = trajectory.getX(i);
+            arr[ndx + 1] = trajectory.getY(i);
+            arr[ndx + 2] = Math.toDegrees(trajectory.getHeadingRad(i));
+            ndx += 3;
+        }
+        t.log(Level.DEBUG, kField, kTrajectory, arr);
+    }
+
     public static void setViz(Trajectory m_trajectory) {
         double[] arr = new double[m_trajectory.getStates().size() * 3];
         int ndx = 0;
@@ -1,6 +1,7 @@
 package org.team100.lib.commands.drivetrain;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
@@ -10,7 +11,6 @@ import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.team100.lib.controller.HolonomicDriveController3;
 import org.team100.lib.geometry.GeometryUtil;
-import org.team100.lib.geometry.Pose2dWithMotion;
 import org.team100.lib.localization.AprilTagFieldLayoutWithCorrectOrientation;
 import org.team100.lib.localization.Target;
 import org.team100.lib.motion.drivetrain.Fixtured;
@@ -18,11 +18,10 @@ import org.team100.lib.motion.drivetrain.SwerveDriveSubsystem;
 import org.team100.lib.motion.drivetrain.SwerveState;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
-import org.team100.lib.timing.TimedPose;
 import org.team100.lib.timing.TimingConstraint;
 import org.team100.lib.timing.TimingConstraintFactory;
+import org.team100.lib.timing.TimingStream;
 import org.team100.lib.trajectory.StraightLineTrajectory;
-import org.team100.lib.trajectory.Trajectory100;
 import org.team100.lib.trajectory.TrajectoryMaker;
 
 import edu.wpi.first.math.geometry.Pose2d;
@@ -42,9 +41,11 @@ class DriveToWaypoint3Test extends Fixtured {
         Pose2d goal = GeometryUtil.kPoseZero;
         SwerveDriveSubsystem drivetrain = fixture.drive;
 
+        // planning fails
         StraightLineTrajectory trajectories = new StraightLineTrajectory(null) {
-            public Trajectory100 apply(SwerveState startState, Pose2d end) {
-                return new Trajectory100(List.of(new TimedPose(Pose2dWithMotion.kIdentity, 0, 0, 0)));
+            @Override
+            public Optional<TimingStream> stream(SwerveState startState, Pose2d end) {
+                return Optional.empty();
             }
         };
 
@@ -59,6 +60,8 @@ class DriveToWaypoint3Test extends Fixtured {
         command.initialize();
         assertEquals(0, fixture.drive.getPose().getX(), kDelta);
         command.execute100(0.02);
+        // so there's nothing to do
+        assertTrue(command.isFinished());
         command.end(false);
     }
 
@@ -87,6 +90,8 @@ class DriveToWaypoint3Test extends Fixtured {
         command.initialize();
         assertEquals(0, fixture.drive.getPose().getX(), kDelta);
         command.execute100(0.02);
+        // the trajectory is long, and it's still being timed.
+        assertFalse(command.isFinished());
         command.end(false);
     }
 
@@ -0,0 +1,91 @@
+package org.team100.lib.encoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class AlphaBetaGammaFilterTest {
+    private static final double kDelta = 0.001;
+    /** About one count of a 12-bit absolute encoder. */
+    private static final double kNoiseRad = 0.0015;
+
+    @Test
+    void testBadTimeConstant() {
+        assertThrows(IllegalArgumentException.class, () -> new AlphaBetaGammaFilter(0));
+    }
+
+    @Test
+    void testInitial() {
+        AlphaBetaGammaFilter f = new AlphaBetaGammaFilter(0.03);
+        f.update(1, 0);
+        assertEquals(1, f.getPosition(), kDelta);
+        assertEquals(0, f.getVelocity(), kDelta);
+        assertEquals(0, f.getAcceleration(), kDelta);
+    }
+
+    /** No steady-state error for constant acceleration. */
+    @Test
+    void testConstantAcceleration() {
+        AlphaBetaGammaFilter f = new AlphaBetaGammaFilter(0.03);
+        for (int i = 0; i <= 100; ++i) {
+            double t = i * 0.02;
+            f.update(0.5 * t * t, t);
+        }
+        assertEquals(2, f.getPosition(), kDelta);
+        assertEquals(2, f.getVelocity(), kDelta);
+        assertEquals(1, f.getAcceleration(), kDelta);
+    }
+
+    /** Jittery sampling is fine. */
+    @Test
+    void testJitter() {
+        AlphaBetaGammaFilter f = new AlphaBetaGammaFilter(0.03);
+        Random random = new Random(0);
+        double t = 0;
+        for (int i = 0; i < 100; ++i) {
+            t += 0.015 + 0.01 * random.nextDouble();
+            f.update(3 * t, t);
+        }
+        assertEquals(3, f.getVelocity(), kDelta);
+    }
+
+    /**
+     * Compare with finite difference on a noisy sinusoid, about as fast as
+     * steering moves, at the main loop rate and the odometry rate.
+     */
+    @Test
+    void testNoise() {
+        double fd50 = rmsVelocityError(new FiniteDifference(), 0.02);
+        double abg50 = rmsVelocityError(new AlphaBetaGammaFilter(0.03), 0.02);
+        double fd250 = rmsVelocityError(new FiniteDifference(), 0.004);
+        double abg250 = rmsVelocityError(new AlphaBetaGammaFilter(0.03), 0.004);
+        // finite difference gets worse as the sampling gets faster
+        assertTrue(fd250 > fd50);
+        // and the filter gets better
+        assertTrue(abg250 < abg50);
+        assertTrue(abg50 < fd50 / 1.5);
+        assertTrue(abg250 < fd250 / 5);
+    }
+
+    private static double rmsVelocityError(RateEstimator f, double dt) {
+        Random random = new Random(0);
+        double w = 3;
+        double sum = 0;
+        int n = 0;
+        for (int i = 0; i < (int) (20 / dt); ++i) {
+            double t = i * dt;
+            f.update(Math.sin(w * t) + kNoiseRad * random.nextGaussian(), t);
+            // skip the start
+            if (t < 2)
+                continue;
+            double err = f.getVelocity() - w * Math.cos(w * t);
+            sum += err * err;
+            n++;
+        }
+        return Math.sqrt(sum / n);
+    }
+}
@@ -0,0 +1,25 @@
+package org.team100.lib.encoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class EncoderSampleTest {
+    private static final double kDelta = 0.001;
+
+    @Test
+    void testInvalidKeepsLastValid() {
+        EncoderSample sample = new EncoderSample();
+        assertFalse(sample.valid());
+        sample.set(1, 2, 3);
+        assertTrue(sample.valid());
+        sample.invalidate(4);
+        assertFalse(sample.valid());
+        // stale, not crazy
+        assertEquals(1, sample.position(), kDelta);
+        assertEquals(2, sample.rate(), kDelta);
+        assertEquals(4, sample.timeS(), kDelta);
+    }
+}
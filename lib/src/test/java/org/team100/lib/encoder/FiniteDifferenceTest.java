@@ -0,0 +1,37 @@
+package org.team100.lib.encoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class FiniteDifferenceTest {
+    private static final double kDelta = 0.001;
+
+    @Test
+    void testRamp() {
+        FiniteDifference f = new FiniteDifference();
+        f.update(0, 0);
+        // the first measurement just initializes
+        assertEquals(0, f.getVelocity(), kDelta);
+        f.update(0.02, 0.02);
+        assertEquals(1, f.getVelocity(), kDelta);
+        f.update(0.06, 0.04);
+        assertEquals(2, f.getVelocity(), kDelta);
+        assertEquals(50, f.getAcceleration(), kDelta);
+        // repeated time is ignored
+        f.update(1, 0.04);
+        assertEquals(2, f.getVelocity(), kDelta);
+        assertEquals(0.06, f.getPosition(), kDelta);
+    }
+
+    @Test
+    void testReset() {
+        FiniteDifference f = new FiniteDifference();
+        f.update(0, 0);
+        f.update(0.02, 0.02);
+        f.reset();
+        // a long gap doesn't make a spike
+        f.update(5, 1);
+        assertEquals(0, f.getVelocity(), kDelta);
+    }
+}
@@ -1,13 +1,20 @@
 package org.team100.lib.encoder.turning;
 
 import org.team100.lib.encoder.Encoder100;
+import org.team100.lib.encoder.EncoderSample;
 import org.team100.lib.units.Measure100;
 
 public class MockEncoder100<T extends Measure100> implements Encoder100<T> {
     public double angle = 0;
     public double rate = 0;
+    public boolean connected = true;
+    /** How many times sample() was called. */
+    public int samples = 0;
+
     @Override
     public Double getPosition() {
+        if (!connected)
+            return null;
         return angle;
     }
 
@@ -16,6 +23,17 @@ public class MockEncoder100<T extends Measure100> implements Encoder100<T> {
         return rate;
     }
 
+    /** Doesn't box, so allocation tests can use it. */
+    @Override
+    public void sample(EncoderSample out) {
+        samples++;
+        if (!connected) {
+            out.invalidate(0);
+            return;
+        }
+        out.set(angle, rate, 0);
+    }
+
     @Override
     public void reset() {
         //
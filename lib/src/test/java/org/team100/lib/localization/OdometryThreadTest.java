@@ -0,0 +1,109 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.motion.drivetrain.module.SwerveModuleCollection;
+import org.team100.lib.sensors.SimulatedHeading;
+import org.team100.lib.testing.Timeless;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.Timer;
+
+class OdometryThreadTest implements Timeless {
+    private static final double kDelta = 0.001;
+
+    @Test
+    void testOrder() throws InterruptedException {
+        SwerveKinodynamics l = SwerveKinodynamicsFactory.get();
+        SwerveModuleCollection c = SwerveModuleCollection.get(10, 20, l);
+        SimulatedHeading h = new SimulatedHeading(l, c);
+        // the sync just steps the clock, 250 Hz.
+        OdometryThread odometry = new OdometryThread("test", c, h, () -> stepTime(0.004), 4);
+        double start = Timer.getFPGATimestamp();
+        odometry.sampleOnce();
+        odometry.sampleOnce();
+        assertEquals(0, odometry.drops());
+        assertEquals(start + 0.004, odometry.poll().timeS(), kDelta);
+        assertEquals(start + 0.008, odometry.poll().timeS(), kDelta);
+        assertNull(odometry.poll());
+    }
+
+    @Test
+    void testDropNewest() throws InterruptedException {
+        SwerveKinodynamics l = SwerveKinodynamicsFactory.get();
+        SwerveModuleCollection c = SwerveModuleCollection.get(10, 20, l);
+        SimulatedHeading h = new SimulatedHeading(l, c);
+        OdometryThread odometry = new OdometryThread("test", c, h, () -> stepTime(0.004), 2);
+        double start = Timer.getFPGATimestamp();
+        odometry.sampleOnce();
+        odometry.sampleOnce();
+        odometry.sampleOnce();
+        assertEquals(1, odometry.drops());
+        // positions are absolute, so the old ones are still good.
+        assertEquals(start + 0.004, odometry.poll().timeS(), kDelta);
+        assertEquals(start + 0.008, odometry.poll().timeS(), kDelta);
+        assertNull(odometry.poll());
+    }
+
+    @Test
+    void testOdometryPositions() {
+        SwerveKinodynamics l = SwerveKinodynamicsFactory.get();
+        SwerveModuleCollection c = SwerveModuleCollection.get(10, 20, l);
+        SwerveModuleState[] states = l.toSwerveModuleStates(new ChassisSpeeds(1, 0, 0), 0, 0.02);
+        c.reset();
+        for (int i = 0; i < 20; ++i) {
+            c.setDesiredStates(states);
+            stepTime(0.02);
+        }
+        // the thread's own path reads the same sensors as the servos do.
+        SwerveModulePosition[] positions = c.positions();
+        SwerveModulePosition[] odometry = c.odometryPositions();
+        for (int i = 0; i < 4; ++i) {
+            assertEquals(positions[i].distanceMeters, odometry[i].distanceMeters, kDelta);
+            assertEquals(positions[i].angle.getRadians(), odometry[i].angle.getRadians(), kDelta);
+        }
+    }
+
+    @Test
+    void testDrain() throws InterruptedException {
+        SwerveKinodynamics l = SwerveKinodynamicsFactory.get();
+        SwerveModuleCollection c = SwerveModuleCollection.get(10, 20, l);
+        SimulatedHeading h = new SimulatedHeading(l, c);
+        SwerveDrivePoseEstimator100 poseEstimator = l.newPoseEstimator(
+                h.getHeadingNWU(),
+                c.positions(),
+                GeometryUtil.kPoseZero,
+                Timer.getFPGATimestamp(),
+                VecBuilder.fill(0.1, 0.1, 0.1),
+                VecBuilder.fill(0.5, 0.5, Double.MAX_VALUE));
+        OdometryThread odometry = new OdometryThread("test", c, h, () -> stepTime(0.004), 128);
+
+        SwerveModuleState[] states = l.toSwerveModuleStates(new ChassisSpeeds(1, 0, 0), 0, 0.02);
+        c.reset();
+        // go for 0.4s, sampling five times per main loop.
+        for (int i = 0; i < 20; ++i) {
+            c.setDesiredStates(states);
+            for (int j = 0; j < 5; ++j) {
+                odometry.sampleOnce();
+            }
+        }
+        assertEquals(100, poseEstimator.update(odometry));
+        assertNull(odometry.poll());
+
+        Pose2d pose = poseEstimator.getEstimatedPosition().pose();
+        assertEquals(c.positions()[0].distanceMeters, pose.getX(), 0.01);
+        assertEquals(0, pose.getY(), kDelta);
+        assertEquals(0, pose.getRotation().getRadians(), kDelta);
+        // the timestamps are the sample times, so the velocity is right.
+        assertEquals(1, poseEstimator.getEstimatedPosition().x().v(), 0.05);
+    }
+}
@@ -3,6 +3,7 @@ package org.team100.lib.localization;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.TreeMap;
@@ -696,4 +697,58 @@ class SwerveDrivePoseEstimator100Test {
                 estimator.getEstimatedPosition().pose().getRotation().getRadians(),
                 "Incorrect Final Theta");
     }
-}
\ No newline at end of file
+
+    /** A batch gives the same result as adding the measurements one at a time. */
+    @Test
+    void testBatch() {
+        SwerveKinodynamics kinodynamics = SwerveKinodynamicsFactory.forTest();
+        SwerveDrivePoseEstimator100 oneAtATime = kinodynamics.newPoseEstimator(
+                GeometryUtil.kRotationZero,
+                positionZero,
+                GeometryUtil.kPoseZero,
+                0,
+                VecBuilder.fill(0.1, 0.1, 0.1),
+                VecBuilder.fill(0.5, 0.5, Double.MAX_VALUE));
+        SwerveDrivePoseEstimator100 batch = kinodynamics.newPoseEstimator(
+                GeometryUtil.kRotationZero,
+                positionZero,
+                GeometryUtil.kPoseZero,
+                0,
+                VecBuilder.fill(0.1, 0.1, 0.1),
+                VecBuilder.fill(0.5, 0.5, Double.MAX_VALUE));
+        // drive at 1 m/s for a second
+        for (int i = 1; i <= 50; ++i) {
+            double time = i * 0.02;
+            SwerveModulePosition p = new SwerveModulePosition(time, GeometryUtil.kRotationZero);
+            SwerveDriveWheelPositions positions = new SwerveDriveWheelPositions(
+                    new SwerveModulePosition[] { p, p, p, p });
+            oneAtATime.update(time, GeometryUtil.kRotationZero, positions);
+            batch.update(time, GeometryUtil.kRotationZero, positions);
+        }
+        // out of order, between samples, and two at the same time.
+        List<VisionMeasurement> measurements = List.of(
+                new VisionMeasurement(new Pose2d(0.9, 0.1, GeometryUtil.kRotationZero), 0.85,
+                        VecBuilder.fill(0.1, 0.1, 0.1), VecBuilder.fill(0.5, 0.5, Double.MAX_VALUE)),
+                new VisionMeasurement(new Pose2d(0.5, 0.1, GeometryUtil.kRotationZero), 0.51,
+                        VecBuilder.fill(0.1, 0.1, 0.1), VecBuilder.fill(0.2, 0.2, Double.MAX_VALUE)),
+                new VisionMeasurement(new Pose2d(0.55, 0.2, GeometryUtil.kRotationZero), 0.51,
+                        VecBuilder.fill(0.1, 0.1, 0.1), VecBuilder.fill(0.5, 0.5, Double.MAX_VALUE)),
+                new VisionMeasurement(new Pose2d(0.8, 0.1, GeometryUtil.kRotationZero), 0.7,
+                        VecBuilder.fill(0.1, 0.1, 0.1), VecBuilder.fill(0.5, 0.5, Double.MAX_VALUE)));
+        List<VisionMeasurement> sorted = new ArrayList<>(measurements);
+        sorted.sort((a, b) -> Double.compare(a.timestampS(), b.timestampS()));
+        for (VisionMeasurement m : sorted) {
+            oneAtATime.addVisionMeasurement(m.pose(), m.timestampS(), m.stateStdDevs(),
+                    m.visionMeasurementStdDevs());
+        }
+        batch.addVisionMeasurements(measurements);
+
+        Pose2d expected = oneAtATime.getEstimatedPosition().pose();
+        Pose2d actual = batch.getEstimatedPosition().pose();
+        // the vision moved it
+        assertTrue(expected.getY() > 0.01);
+        assertEquals(expected.getX(), actual.getX(), 1e-9);
+        assertEquals(expected.getY(), actual.getY(), 1e-9);
+        assertEquals(expected.getRotation().getRadians(), actual.getRotation().getRadians(), 1e-9);
+    }
+}
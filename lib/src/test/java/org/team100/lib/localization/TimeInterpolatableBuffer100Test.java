@@ -2,6 +2,11 @@ package org.team100.lib.localization;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map.Entry;
 
 import org.junit.jupiter.api.Test;
 
@@ -38,4 +43,129 @@ class TimeInterpolatableBuffer100Test {
             assertEquals(5, i.value, kDelta);
         }
     }
+
+    @Test
+    void testHistoryLimit() {
+        TimeInterpolatableBuffer100<Item> b = new TimeInterpolatableBuffer100<>(1, 0, new Item(0));
+        b.put(0.5, new Item(5));
+        b.put(1.2, new Item(12));
+        // the first one is too old
+        assertEquals(2, b.size());
+        assertEquals(0.5, b.ceilingEntry(0).getKey(), kDelta);
+        assertNull(b.lowerEntry(0.5));
+        assertEquals(1.2, b.lastKey(), kDelta);
+        assertEquals(12, b.lastValue().value, kDelta);
+        assertEquals(12, b.lastEntry().getValue().value, kDelta);
+    }
+
+    @Test
+    void testOutOfOrder() {
+        TimeInterpolatableBuffer100<Item> b = new TimeInterpolatableBuffer100<>(10, 0, new Item(0));
+        b.put(2, new Item(20));
+        b.put(1, new Item(10));
+        // replaces
+        b.put(2, new Item(21));
+        assertEquals(3, b.size());
+        assertEquals(10, b.get(1).value, kDelta);
+        assertEquals(15.5, b.get(1.5).value, kDelta);
+        assertEquals(21, b.get(3).value, kDelta);
+        assertEquals(0, b.get(-1).value, kDelta);
+    }
+
+    @Test
+    void testReset() {
+        TimeInterpolatableBuffer100<Item> b = new TimeInterpolatableBuffer100<>(10, 0, new Item(0));
+        b.put(1, new Item(10));
+        b.reset(5, new Item(50));
+        assertEquals(1, b.size());
+        assertEquals(50, b.get(0).value, kDelta);
+    }
+
+    @Test
+    void testConsistentPair() {
+        TimeInterpolatableBuffer100<Item> b = new TimeInterpolatableBuffer100<>(10, 0, new Item(0));
+        assertTrue(b.consistentPair(0, 0.02).isEmpty());
+        b.put(0.02, new Item(2));
+        b.put(0.04, new Item(4));
+        List<Entry<Double, Item>> pair = b.consistentPair(0.06, 0.02);
+        assertEquals(2, pair.size());
+        assertEquals(0.04, pair.get(0).getKey(), kDelta);
+        assertEquals(0.02, pair.get(1).getKey(), kDelta);
+        pair = b.consistentPair(0.01, 0.02);
+        assertEquals(1, pair.size());
+        assertEquals(0, pair.get(0).getKey(), kDelta);
+    }
+
+    @Test
+    void testCopyTail() {
+        TimeInterpolatableBuffer100<Item> b = new TimeInterpolatableBuffer100<>(10, 8, 0, new Item(0));
+        double[] times = new double[b.capacity()];
+        Item[] values = new Item[b.capacity()];
+        b.put(1, new Item(10));
+        b.put(2, new Item(20));
+        assertEquals(1, b.copyTail(1, false, times, values));
+        assertEquals(2, times[0], kDelta);
+        int n = b.copyTail(1, true, times, values);
+        assertEquals(2, n);
+        assertEquals(1, times[0], kDelta);
+        assertEquals(20, values[1].value, kDelta);
+        // it's a copy, so this is ok.
+        for (int i = 0; i < n; ++i) {
+            b.put(times[i], new Item(values[i].value + 1));
+        }
+        assertEquals(21, b.lastValue().value, kDelta);
+        assertEquals(0, b.copyTail(2, false, times, values));
+    }
+
+    @Test
+    void testCapacity() {
+        TimeInterpolatableBuffer100<Item> b = new TimeInterpolatableBuffer100<>(100, 4, 0, new Item(0));
+        for (int i = 1; i < 10; ++i) {
+            b.put(i, new Item(i));
+        }
+        // keeps the newest ones
+        assertEquals(4, b.size());
+        assertEquals(6, b.ceilingEntry(0).getKey(), kDelta);
+        // too old to fit
+        b.put(1, new Item(1));
+        assertEquals(6, b.ceilingEntry(0).getKey(), kDelta);
+        // fits, pushing out the oldest
+        b.put(7.5, new Item(7.5));
+        assertEquals(4, b.size());
+        assertEquals(7, b.ceilingEntry(0).getKey(), kDelta);
+        assertEquals(7.5, b.get(7.5).value, kDelta);
+    }
+
+    /** Readers on another thread always see a consistent buffer. */
+    @Test
+    void testConcurrent() throws InterruptedException {
+        TimeInterpolatableBuffer100<Item> b = new TimeInterpolatableBuffer100<>(0.5, 64, 0, new Item(0));
+        int n = 100000;
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= n; ++i) {
+                // the value is always the same as the time
+                b.put(i * 0.01, new Item(i * 0.01));
+                // out of order, so the writer shifts the entries around.
+                b.put((i - 0.5) * 0.01, new Item((i - 0.5) * 0.01));
+            }
+        });
+        writer.start();
+        int reads = 0;
+        while (writer.isAlive()) {
+            double last = b.lastKey();
+            // the writer may have evicted this time by now, in which case we get the
+            // oldest entry, which is newer.
+            double sampleTime = last - 0.105;
+            Item item = b.get(sampleTime);
+            assertTrue(item.value > sampleTime - kDelta);
+            List<Entry<Double, Item>> pair = b.consistentPair(last, 0.02);
+            for (Entry<Double, Item> e : pair) {
+                assertEquals(e.getKey(), e.getValue().value, kDelta);
+            }
+            reads++;
+        }
+        writer.join();
+        assertTrue(reads > 0);
+        assertEquals(n * 0.01, b.lastKey(), kDelta);
+    }
 }
@@ -143,6 +143,34 @@ class VisionDataProviderTest implements Timeless {
         assertEquals(0.075, delay, kDelta);
     }
 
+    @Test
+    void testArrivalTime() throws IOException {
+        // measurements are stamped from NT arrival, not from processing time.
+        AprilTagFieldLayoutWithCorrectOrientation layout = new AprilTagFieldLayoutWithCorrectOrientation();
+        final List<Double> timeEstimate = new ArrayList<Double>();
+        PoseEstimator100 poseEstimator = new PoseEstimator100() {
+            @Override
+            public void addVisionMeasurement(Pose2d p, double t) {
+                timeEstimate.add(t);
+            }
+
+            @Override
+            public Optional<Rotation2d> getSampledRotation(double timestampSeconds) {
+                return Optional.of(GeometryUtil.kRotationZero);
+            }
+        };
+        VisionDataProvider24 vdp = new VisionDataProvider24(layout, poseEstimator, f);
+        Blip24 blip = new Blip24(7, new Transform3d(new Translation3d(0, 0, 1), new Rotation3d()));
+        final Blip24[] blips = new Blip24[] { blip };
+
+        // arrived a while ago, e.g. it waited in the worker queue.
+        long receivedUs = 1000000;
+        vdp.estimateRobotPose("foo", blips, receivedUs, Alliance.Red);
+        vdp.estimateRobotPose("foo", blips, receivedUs, Alliance.Red);
+        assertEquals(1, timeEstimate.size());
+        assertEquals(1.0 - 0.075, timeEstimate.get(0), kDelta);
+    }
+
     @Test
     void testRotationInterpolation() {
         // just to be sure of what it's doing
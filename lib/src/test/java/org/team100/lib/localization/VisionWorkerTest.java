@@ -0,0 +1,62 @@
+package org.team100.lib.localization;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class VisionWorkerTest {
+    /** Records topics, and a marker for each flush. */
+    private static class Recorder implements VisionWorker.Handler {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void accept(String topic, byte[] raw, long receivedUs) {
+            events.add(topic);
+        }
+
+        @Override
+        public void flush() {
+            events.add("flush");
+        }
+    }
+
+    @Test
+    void testOrder() throws InterruptedException {
+        Recorder r = new Recorder();
+        VisionWorker worker = new VisionWorker("test", 4, Thread.NORM_PRIORITY, r);
+        worker.offer("a", new byte[0], 0);
+        worker.offer("b", new byte[0], 0);
+        worker.processBatch();
+        // both pending frames, then one flush
+        assertEquals(List.of("a", "b", "flush"), r.events);
+        assertEquals(0, worker.drops());
+    }
+
+    @Test
+    void testBatches() throws InterruptedException {
+        Recorder r = new Recorder();
+        VisionWorker worker = new VisionWorker("test", 4, Thread.NORM_PRIORITY, r);
+        worker.offer("a", new byte[0], 0);
+        worker.processBatch();
+        worker.offer("b", new byte[0], 0);
+        worker.offer("c", new byte[0], 0);
+        worker.processBatch();
+        assertEquals(List.of("a", "flush", "b", "c", "flush"), r.events);
+    }
+
+    @Test
+    void testDropOldest() throws InterruptedException {
+        Recorder r = new Recorder();
+        VisionWorker worker = new VisionWorker("test", 2, Thread.NORM_PRIORITY, r);
+        worker.offer("a", new byte[0], 0);
+        worker.offer("b", new byte[0], 0);
+        worker.offer("c", new byte[0], 0);
+        assertEquals(1, worker.drops());
+        worker.processBatch();
+        // the stale one is gone
+        assertEquals(List.of("b", "c", "flush"), r.events);
+    }
+}
@@ -7,6 +7,9 @@ import org.team100.lib.encoder.turning.MockEncoder100;
 import org.team100.lib.motor.MockMotor100;
 import org.team100.lib.profile.Profile100;
 import org.team100.lib.profile.TrapezoidProfile100;
+import org.team100.lib.telemetry.Telemetry;
+import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.testing.Allocations;
 import org.team100.lib.units.Angle100;
 
 import edu.wpi.first.math.controller.PIDController;
@@ -42,4 +45,92 @@ class Angle100PositionServoTest {
         assertEquals(1.0, servo.getSetpoint().v(), kDelta);
         assertEquals(1, turningMotor.velocity, kDelta);
     }
+
+    @Test
+    void testDisconnected() {
+        MockMotor100<Angle100> turningMotor = new MockMotor100<>();
+        MockEncoder100<Angle100> turningEncoder = new MockEncoder100<>();
+        PIDController turningController2 = new PIDController(1, 0, 0, 1);
+        Profile100 profile = new TrapezoidProfile100(1, 1, 0.05);
+        PositionServo<Angle100> servo = new PositionServo<>(
+                "test",
+                turningMotor,
+                turningEncoder,
+                1,
+                turningController2,
+                profile,
+                Angle100.instance);
+        servo.reset();
+        turningEncoder.connected = false;
+        turningMotor.output = 0.5;
+        servo.setPosition(1);
+        // no measurement, so no control: the motor is stopped.
+        assertEquals(0, turningMotor.output, kDelta);
+        assertEquals(0, turningMotor.velocity, kDelta);
+        assertEquals(0, servo.getSetpoint().x(), kDelta);
+    }
+
+    /** Reading the position doesn't sample, so it doesn't touch the rate. */
+    @Test
+    void testGetPosition() {
+        MockMotor100<Angle100> turningMotor = new MockMotor100<>();
+        MockEncoder100<Angle100> turningEncoder = new MockEncoder100<>();
+        PIDController turningController2 = new PIDController(1, 0, 0, 1);
+        Profile100 profile = new TrapezoidProfile100(1, 1, 0.05);
+        PositionServo<Angle100> servo = new PositionServo<>(
+                "test",
+                turningMotor,
+                turningEncoder,
+                1,
+                turningController2,
+                profile,
+                Angle100.instance);
+        turningEncoder.angle = 0.5;
+        servo.setPosition(1);
+        assertEquals(1, turningEncoder.samples);
+        turningEncoder.angle = 0.6;
+        assertEquals(0.6, servo.getPosition(), kDelta);
+        assertEquals(1, turningEncoder.samples);
+        // disconnected, so the last valid position.
+        turningEncoder.connected = false;
+        assertEquals(0.5, servo.getPosition(), kDelta);
+        assertEquals(1, turningEncoder.samples);
+    }
+
+    /** In steady state, none of the setPosition methods touch the heap. */
+    @Test
+    void testNoAllocation() {
+        // logging to network tables allocates, so turn it off.
+        Telemetry.get().setLevel("/AllocationTest", Level.SILENT);
+        try {
+            MockMotor100<Angle100> turningMotor = new MockMotor100<>();
+            MockEncoder100<Angle100> turningEncoder = new MockEncoder100<>();
+            PIDController turningController2 = new PIDController(1, 0, 0, 0.02);
+            Profile100 profile = new TrapezoidProfile100(1, 1, 0.05);
+            PositionServo<Angle100> servo = new PositionServo<>(
+                    "AllocationTest",
+                    turningMotor,
+                    turningEncoder,
+                    1,
+                    turningController2,
+                    profile,
+                    Angle100.instance);
+            servo.reset();
+            Runnable loop = () -> {
+                for (int i = 0; i < 100; ++i) {
+                    // crude plant, so the measurement moves
+                    turningEncoder.angle += turningMotor.velocity * 0.02;
+                    servo.setPosition(i < 50 ? 1 : -1);
+                    servo.setPositionDirect(i < 50 ? 1 : -1);
+                    servo.setPosition(i < 50 ? 1 : -1, 0.1);
+                }
+            };
+            for (int i = 0; i < 200; ++i) {
+                loop.run();
+            }
+            assertEquals(0, Allocations.bytes(loop));
+        } finally {
+            Telemetry.get().clearLevels();
+        }
+    }
 }
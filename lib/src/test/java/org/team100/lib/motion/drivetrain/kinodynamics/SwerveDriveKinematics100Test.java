@@ -3,6 +3,8 @@ package org.team100.lib.motion.drivetrain.kinodynamics;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -406,4 +408,65 @@ class SwerveDriveKinematics100Test {
                 () -> assertEquals(-1.0, arr[2].speedMetersPerSecond, kEpsilon),
                 () -> assertEquals(-1.0, arr[3].speedMetersPerSecond, kEpsilon));
     }
+
+    /** The unrolled four-module math should match the matrices. */
+    @Test
+    void testUnrolledSameAsMatrix() {
+        // not symmetric, to exercise the whole pseudo-inverse.
+        Translation2d[] locations = {
+                new Translation2d(0.3, 0.25),
+                new Translation2d(0.3, -0.25),
+                new Translation2d(-0.2, 0.25),
+                new Translation2d(-0.2, -0.2) };
+        SwerveDriveKinematics100 unrolled = new SwerveDriveKinematics100(true, locations);
+        SwerveDriveKinematics100 matrix = new SwerveDriveKinematics100(false, locations);
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; ++i) {
+            ChassisSpeeds speeds = new ChassisSpeeds(
+                    4 * random.nextGaussian(),
+                    4 * random.nextGaussian(),
+                    4 * random.nextGaussian());
+            SwerveModuleState[] expectedStates = matrix.toSwerveModuleStates(speeds);
+            SwerveModuleState[] actualStates = unrolled.toSwerveModuleStates(speeds);
+            for (int j = 0; j < 4; ++j) {
+                assertEquals(expectedStates[j].speedMetersPerSecond, actualStates[j].speedMetersPerSecond, 1e-12);
+                assertEquals(expectedStates[j].angle.getRadians(), actualStates[j].angle.getRadians(), 1e-12);
+            }
+            ChassisSpeeds expectedSpeeds = matrix.toChassisSpeeds(expectedStates);
+            ChassisSpeeds actualSpeeds = unrolled.toChassisSpeeds(expectedStates);
+            assertEquals(expectedSpeeds.vxMetersPerSecond, actualSpeeds.vxMetersPerSecond, 1e-12);
+            assertEquals(expectedSpeeds.vyMetersPerSecond, actualSpeeds.vyMetersPerSecond, 1e-12);
+            assertEquals(expectedSpeeds.omegaRadiansPerSecond, actualSpeeds.omegaRadiansPerSecond, 1e-12);
+            // round trip
+            assertEquals(speeds.vxMetersPerSecond, actualSpeeds.vxMetersPerSecond, 1e-12);
+
+            Twist2d twist = new Twist2d(
+                    random.nextGaussian(),
+                    random.nextGaussian(),
+                    random.nextGaussian());
+            SwerveModulePosition[] expectedDeltas = matrix.toSwerveModulePosition(twist);
+            SwerveModulePosition[] actualDeltas = unrolled.toSwerveModulePosition(twist);
+            for (int j = 0; j < 4; ++j) {
+                assertEquals(expectedDeltas[j].distanceMeters, actualDeltas[j].distanceMeters, 1e-12);
+                assertEquals(expectedDeltas[j].angle.getRadians(), actualDeltas[j].angle.getRadians(), 1e-12);
+            }
+            Twist2d expectedTwist = matrix.toTwist2d(expectedDeltas);
+            Twist2d actualTwist = unrolled.toTwist2d(expectedDeltas);
+            assertEquals(expectedTwist.dx, actualTwist.dx, 1e-12);
+            assertEquals(expectedTwist.dy, actualTwist.dy, 1e-12);
+            assertEquals(expectedTwist.dtheta, actualTwist.dtheta, 1e-12);
+        }
+        // stopped keeps the previous headings
+        SwerveModuleState[] out = {
+                new SwerveModuleState(),
+                new SwerveModuleState(),
+                new SwerveModuleState(),
+                new SwerveModuleState() };
+        unrolled.toSwerveModuleStates(new ChassisSpeeds(), out);
+        SwerveModuleState[] expectedStopped = matrix.toSwerveModuleStates(new ChassisSpeeds());
+        for (int j = 0; j < 4; ++j) {
+            assertEquals(0, out[j].speedMetersPerSecond, 1e-12);
+            assertEquals(expectedStopped[j].angle.getRadians(), out[j].angle.getRadians(), 1e-12);
+        }
+    }
 }
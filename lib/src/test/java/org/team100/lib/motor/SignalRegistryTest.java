@@ -0,0 +1,34 @@
+package org.team100.lib.motor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.api.Test;
+
+class SignalRegistryTest {
+    private static final double kDelta = 0.001;
+
+    @Test
+    void testPhoenixFrequency() {
+        assertEquals(50, SignalRegistry.phoenixFrequency(50), kDelta);
+        // phoenix doesn't allow slower than 4 hz
+        assertEquals(4, SignalRegistry.phoenixFrequency(1), kDelta);
+        assertEquals(1000, SignalRegistry.phoenixFrequency(2000), kDelta);
+    }
+
+    @Test
+    void testRevPeriod() {
+        assertEquals(20, SignalRegistry.revPeriodMs(50));
+        assertEquals(100, SignalRegistry.revPeriodMs(10));
+        assertEquals(250, SignalRegistry.revPeriodMs(4));
+        // never zero
+        assertEquals(1, SignalRegistry.revPeriodMs(5000));
+    }
+
+    @Test
+    void testStale() {
+        // once refreshAll() runs, suppliers read the cache.
+        SignalRegistry.refreshAll();
+        assertFalse(SignalRegistry.stale());
+    }
+}
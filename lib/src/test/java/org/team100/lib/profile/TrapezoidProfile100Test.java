@@ -7,7 +7,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.Random;
 
 import org.junit.jupiter.api.Test;
+import org.team100.lib.controller.MutableState100;
 import org.team100.lib.controller.State100;
+import org.team100.lib.testing.Allocations;
 import org.team100.lib.util.Util;
 
 class TrapezoidProfile100Test {
@@ -1397,4 +1399,75 @@ class TrapezoidProfile100Test {
         assertEquals(goal.v(), state.v(), 0.05);
     }
 
+    /**
+     * The four-argument form matches the old allocating implementation. The
+     * expected states were recorded from that implementation, before the
+     * rewrite, so this is a real regression check: accel, cruise, decel, and
+     * rest.
+     */
+    @Test
+    void testOut() {
+        // step, x, v, a
+        double[][] expected = {
+                { 0, 0.00005, 0.01, 1 },
+                { 50, 0.13005, 0.51, 1 },
+                { 99, 0.5, 1, 0 },
+                { 150, 1.01, 1, 0 },
+                { 199, 1.5, 1, -1 },
+                { 200, 1.50995, 0.99, -1 },
+                { 250, 1.87995, 0.49, -1 },
+                { 300, 2, 0, 0 },
+                { 499, 2, 0, 0 } };
+        TrapezoidProfile100 profile = new TrapezoidProfile100(1, 1, 0.01);
+        State100 goal = new State100(2, 0);
+        MutableState100 state = new MutableState100(0, 0);
+        int row = 0;
+        for (int i = 0; i < 500; ++i) {
+            profile.calculate(kDt, state, goal, state);
+            if (i == expected[row][0]) {
+                assertEquals(expected[row][1], state.x(), 1e-9);
+                assertEquals(expected[row][2], state.v(), 1e-9);
+                assertEquals(expected[row][3], state.a(), 1e-9);
+                row++;
+            }
+        }
+        assertEquals(expected.length, row);
+    }
+
+    /** Out can be the same object as initial. */
+    @Test
+    void testOutInPlace() {
+        TrapezoidProfile100 profile = new TrapezoidProfile100(1, 1, 0.01);
+        State100 goal = new State100(2, 0);
+        MutableState100 state = new MutableState100(0, 0);
+        for (int i = 0; i < 500; ++i) {
+            profile.calculate(kDt, state, goal, state);
+        }
+        assertEquals(2, state.x(), kDelta);
+        assertEquals(0, state.v(), kDelta);
+    }
+
+    /**
+     * Covers accel, cruise, decel, and a moving goal, in both directions, without
+     * touching the heap.
+     */
+    @Test
+    void testNoAllocation() {
+        TrapezoidProfile100 profile = new TrapezoidProfile100(1, 2, 0.01);
+        MutableState100 goal = new MutableState100();
+        MutableState100 state = new MutableState100();
+        Runnable loop = () -> {
+            state.set(0, 0);
+            for (int i = 0; i < 800; ++i) {
+                // back and forth, moving
+                goal.set(i < 400 ? 3 : -3, i % 200 < 100 ? 0.5 : -0.5);
+                profile.calculate(kDt, state, goal, state);
+            }
+        };
+        for (int i = 0; i < 200; ++i) {
+            loop.run();
+        }
+        assertEquals(0, Allocations.bytes(loop));
+    }
+
 }
@@ -0,0 +1,38 @@
+package org.team100.lib.spline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ArcLengthTableTest {
+    private static final double kDelta = 1e-9;
+
+    @Test
+    void testConstantSpeed() {
+        ArcLengthTable table = new ArcLengthTable(p -> 3);
+        assertEquals(3, table.getLength(), kDelta);
+        assertEquals(0, table.getParameter(-1), kDelta);
+        assertEquals(0.5, table.getParameter(1.5), kDelta);
+        assertEquals(1, table.getParameter(4), kDelta);
+    }
+
+    @Test
+    void testVaryingSpeed() {
+        // s = p^2, so p = sqrt(s)
+        ArcLengthTable table = new ArcLengthTable(p -> 2 * p);
+        assertEquals(1, table.getLength(), kDelta);
+        for (double s = 0; s <= 1; s += 0.01) {
+            assertEquals(Math.sqrt(s), table.getParameter(s), kDelta);
+        }
+    }
+
+    @Test
+    void testParabola() {
+        // x = p, y = p^2
+        ArcLengthTable table = new ArcLengthTable(
+                p -> Math.hypot(1, 2 * p));
+        // integral of sqrt(1 + 4p^2) from 0 to 1
+        double expected = Math.sqrt(5) / 2 + Math.log(2 + Math.sqrt(5)) / 4;
+        assertEquals(expected, table.getLength(), kDelta);
+    }
+}
@@ -102,4 +102,39 @@ class QuinticHermiteOptimizerTest {
 
     }
 
+    @Test
+    void testWarmStart() {
+        Pose2d a = new Pose2d(new Translation2d(0, 100), Rotation2d.fromDegrees(270));
+        Pose2d b = new Pose2d(new Translation2d(50, 0), Rotation2d.fromDegrees(0));
+        Pose2d c = new Pose2d(new Translation2d(100, 100), Rotation2d.fromDegrees(90));
+
+        List<HolonomicSpline> previous = new ArrayList<>();
+        previous.add(new HolonomicSpline(a, b, new Rotation2d(), new Rotation2d()));
+        previous.add(new HolonomicSpline(b, c, new Rotation2d(), new Rotation2d()));
+        double optimized = HolonomicSpline.optimizeSpline(previous);
+
+        List<HolonomicSpline> splines = new ArrayList<>();
+        splines.add(new HolonomicSpline(a, b, new Rotation2d(), new Rotation2d()));
+        splines.add(new HolonomicSpline(b, c, new Rotation2d(), new Rotation2d()));
+        HolonomicSpline.warmStart(splines, previous, 0);
+        // no time for optimizing, but it's already done.
+        assertEquals(optimized, HolonomicSpline.optimizeSpline(splines, 0), 0.001);
+    }
+
+    @Test
+    void testWarmStartOneSegment() {
+        // replanning a single spline, which the optimizer can't change.
+        Pose2d a = new Pose2d(new Translation2d(0, 0), Rotation2d.fromDegrees(0));
+        Pose2d b = new Pose2d(new Translation2d(2, 1), Rotation2d.fromDegrees(0));
+        List<HolonomicSpline> splines = new ArrayList<>();
+        splines.add(new HolonomicSpline(a, b, new Rotation2d(), new Rotation2d()));
+        assertEquals(0, splines.get(0).getCurvature(0), 1e-6);
+        // the old path was curving left where the new one starts
+        HolonomicSpline.warmStart(splines, new ArrayList<>(), 0.5);
+        assertEquals(0.5, splines.get(0).getCurvature(0), 1e-6);
+        // the endpoints don't move
+        assertEquals(2, splines.get(0).getPoint(1).getX(), 1e-6);
+        assertEquals(1, splines.get(0).getPoint(1).getY(), 1e-6);
+    }
+
 }
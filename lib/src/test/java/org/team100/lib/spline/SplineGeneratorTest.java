@@ -38,4 +38,32 @@ class SplineGeneratorTest {
         assertEquals(-78.690, cur_pose.getCourse().get().getDegrees(), 0.001);
         assertEquals(23.202, arclength, 0.001);
     }
+
+    @Test
+    void testByDistance() {
+        Pose2d p1 = new Pose2d(new Translation2d(0, 0), GeometryUtil.kRotationZero);
+        Pose2d p2 = new Pose2d(new Translation2d(15, 10), new Rotation2d(1, -5));
+        HolonomicSpline s = new HolonomicSpline(
+                p1, p2, new Rotation2d(), new Rotation2d());
+        // a bit longer than the sum of the chords above
+        double length = s.getLength();
+        assertEquals(23.202, length, 0.01);
+
+        List<Pose2dWithMotion> samples = SplineGenerator.parameterizeSplinesByDistance(List.of(s), 0.05);
+        // the step is a little shorter than asked, so the last one fits.
+        int steps = (int) Math.ceil(length / 0.05);
+        assertEquals(steps + 1, samples.size());
+        Pose2dWithMotion cur_pose = samples.get(0);
+        for (int i = 1; i < samples.size(); ++i) {
+            Pose2dWithMotion sample = samples.get(i);
+            Twist2d twist = GeometryUtil.slog(
+                    GeometryUtil.transformBy(
+                            GeometryUtil.inverse(cur_pose.getPose()), sample.getPose()));
+            assertEquals(length / steps, Math.hypot(twist.dx, twist.dy), 0.0001);
+            cur_pose = sample;
+        }
+        assertEquals(15.0, cur_pose.getTranslation().getX(), 0.001);
+        assertEquals(10.0, cur_pose.getTranslation().getY(), 0.001);
+        assertEquals(-78.690, cur_pose.getCourse().get().getDegrees(), 0.001);
+    }
 }
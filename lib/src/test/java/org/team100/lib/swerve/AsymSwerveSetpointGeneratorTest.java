@@ -3,6 +3,8 @@ package org.team100.lib.swerve;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 import org.team100.lib.geometry.GeometryUtil;
 import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
@@ -375,4 +377,75 @@ class AsymSwerveSetpointGeneratorTest {
         assertEquals(0.064, setpoint.getChassisSpeeds().vyMetersPerSecond, kDelta);
         assertEquals(0, setpoint.getChassisSpeeds().omegaRadiansPerSecond, kDelta);
     }
+
+    /**
+     * The allocation-free variant should produce exactly the same setpoints as
+     * the allocating one, including stop-and-reverse, flips, and overrides.
+     * Each generator gets its own limits, since the kinematics remembers the
+     * module headings.
+     *
+     * The inputs are scripted and seeded-random goals, not recorded driver
+     * inputs: there's no log of real goals in the repo to replay. The random
+     * goals change every loop, which is harsher than a driver, and the scripted
+     * ones cover the cases a driver can't reliably produce.
+     */
+    @Test
+    void testSameAsAllocating() {
+        AsymSwerveSetpointGenerator expectedGenerator = new AsymSwerveSetpointGenerator(
+                "foo", SwerveKinodynamicsFactory.limiting());
+        AsymSwerveSetpointGenerator actualGenerator = new AsymSwerveSetpointGenerator(
+                "bar", SwerveKinodynamicsFactory.limiting());
+        SwerveSetpoint expected = new SwerveSetpoint();
+        // output is written into the previous setpoint.
+        SwerveSetpoint actual = new SwerveSetpoint();
+
+        ChassisSpeeds[] goals = {
+                new ChassisSpeeds(0, 0, 1),
+                new ChassisSpeeds(0, 0, -1),
+                new ChassisSpeeds(2, 0, 0),
+                // reverse
+                new ChassisSpeeds(-2, 0, 0),
+                new ChassisSpeeds(0, 2, 0),
+                new ChassisSpeeds(0, 0, 0),
+                new ChassisSpeeds(1, -0.5, 0.5),
+                new ChassisSpeeds(10, 10, 10),
+                new ChassisSpeeds(-10, -10, -10)
+        };
+        for (ChassisSpeeds goal : goals) {
+            for (int i = 0; i < 50; ++i) {
+                expected = expectedGenerator.generateSetpoint(expected, goal, kDt);
+                actualGenerator.generateSetpoint(actual, goal, kDt, actual);
+                assertIdentical(expected, actual);
+            }
+        }
+
+        // a new goal every loop, like a driver
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; ++i) {
+            ChassisSpeeds goal = new ChassisSpeeds(
+                    4 * random.nextGaussian(),
+                    4 * random.nextGaussian(),
+                    4 * random.nextGaussian());
+            expected = expectedGenerator.generateSetpoint(expected, goal, kDt);
+            actualGenerator.generateSetpoint(actual, goal, kDt, actual);
+            assertIdentical(expected, actual);
+        }
+    }
+
+    /** Exact equality, not within delta. */
+    private static void assertIdentical(SwerveSetpoint expected, SwerveSetpoint actual) {
+        ChassisSpeeds e = expected.getChassisSpeeds();
+        ChassisSpeeds a = actual.getChassisSpeeds();
+        assertEquals(e.vxMetersPerSecond, a.vxMetersPerSecond);
+        assertEquals(e.vyMetersPerSecond, a.vyMetersPerSecond);
+        assertEquals(e.omegaRadiansPerSecond, a.omegaRadiansPerSecond);
+        for (int i = 0; i < expected.getModuleStates().length; ++i) {
+            SwerveModuleState es = expected.getModuleStates()[i];
+            SwerveModuleState as = actual.getModuleStates()[i];
+            assertEquals(es.speedMetersPerSecond, as.speedMetersPerSecond);
+            assertEquals(es.angle.getRadians(), as.angle.getRadians());
+            assertEquals(es.angle.getCos(), as.angle.getCos());
+            assertEquals(es.angle.getSin(), as.angle.getSin());
+        }
+    }
 }
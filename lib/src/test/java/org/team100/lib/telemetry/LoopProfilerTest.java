@@ -0,0 +1,18 @@
+package org.team100.lib.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class LoopProfilerTest {
+
+    /** Sections are keyed by name, so short-lived callers don't pile up. */
+    @Test
+    void testSectionReuse() {
+        LoopProfiler profiler = new LoopProfiler(0.02);
+        LoopProfiler.Section a = profiler.section("LoopProfilerTest/a");
+        assertSame(a, profiler.section("LoopProfilerTest/a"));
+        assertNotSame(a, profiler.section("LoopProfilerTest/b"));
+    }
+}
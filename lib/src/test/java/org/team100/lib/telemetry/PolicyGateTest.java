@@ -0,0 +1,70 @@
+package org.team100.lib.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PolicyGateTest {
+    @Test
+    void testAlways() {
+        PolicyGate gate = new PolicyGate(TelemetryPolicy.ALWAYS);
+        assertTrue(gate.pass(1, 0));
+        assertTrue(gate.pass(1, 0));
+        assertTrue(gate.pass());
+    }
+
+    @Test
+    void testRate() {
+        // 10 hz = 100 ms
+        PolicyGate gate = new PolicyGate(TelemetryPolicy.maxRate(10));
+        assertTrue(gate.pass(1, 0));
+        assertFalse(gate.pass(2, 50_000_000));
+        assertFalse(gate.pass(3, 99_000_000));
+        assertTrue(gate.pass(4, 100_000_000));
+        assertFalse(gate.pass(5, 150_000_000));
+        // measured from the last publish, not the last call
+        assertTrue(gate.pass(6, 200_000_000));
+    }
+
+    @Test
+    void testDeadband() {
+        PolicyGate gate = new PolicyGate(TelemetryPolicy.deadband(0.1));
+        assertTrue(gate.pass(1.0, 0));
+        assertFalse(gate.pass(1.05, 0));
+        assertFalse(gate.pass(0.95, 0));
+        // measured from the last published value, so drift adds up
+        assertFalse(gate.pass(1.09, 0));
+        assertTrue(gate.pass(1.11, 0));
+        assertFalse(gate.pass(1.2, 0));
+        assertTrue(gate.pass(1.0, 0));
+        // NaN always publishes
+        assertTrue(gate.pass(Double.NaN, 0));
+        assertTrue(gate.pass(1.0, 0));
+    }
+
+    @Test
+    void testDecimation() {
+        PolicyGate gate = new PolicyGate(new TelemetryPolicy(0, 0, 3));
+        assertTrue(gate.pass(1, 0));
+        assertFalse(gate.pass(2, 0));
+        assertFalse(gate.pass(3, 0));
+        assertTrue(gate.pass(4, 0));
+        assertFalse(gate.pass(5, 0));
+        assertFalse(gate.pass(6, 0));
+        assertTrue(gate.pass(7, 0));
+    }
+
+    @Test
+    void testCombined() {
+        // 10 hz and 0.1 deadband
+        PolicyGate gate = new PolicyGate(new TelemetryPolicy(10, 0.1, 1));
+        assertTrue(gate.pass(1.0, 0));
+        // big change, but too soon
+        assertFalse(gate.pass(2.0, 50_000_000));
+        // late enough, but no change
+        assertFalse(gate.pass(1.0, 200_000_000));
+        // late enough, and changed
+        assertTrue(gate.pass(2.0, 200_000_000));
+    }
+}
@@ -0,0 +1,60 @@
+package org.team100.lib.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class SectionStatsTest {
+
+    @Test
+    void testEmpty() {
+        SectionStats stats = new SectionStats(10);
+        stats.summarize();
+        assertEquals(0, stats.p50Ns());
+        assertEquals(0, stats.maxNs());
+    }
+
+    @Test
+    void testPercentiles() {
+        SectionStats stats = new SectionStats(100);
+        // 100 down to 1
+        for (int i = 100; i > 0; --i) {
+            stats.record(i);
+        }
+        stats.summarize();
+        assertEquals(50, stats.p50Ns());
+        assertEquals(99, stats.p99Ns());
+        assertEquals(100, stats.maxNs());
+    }
+
+    @Test
+    void testRolling() {
+        SectionStats stats = new SectionStats(4);
+        stats.record(1000);
+        for (int i = 0; i < 4; ++i) {
+            stats.record(1);
+        }
+        stats.summarize();
+        // the big one fell out of the window
+        assertEquals(4, stats.count());
+        assertEquals(1, stats.maxNs());
+    }
+
+    @Test
+    void testLoop() {
+        SectionStats stats = new SectionStats(4);
+        stats.record(3);
+        stats.record(4);
+        assertEquals(7, stats.loopNs());
+        stats.resetLoop();
+        assertEquals(0, stats.loopNs());
+    }
+
+    @Test
+    void testIndex() {
+        assertEquals(0, SectionStats.index(1, 0.5));
+        assertEquals(0, SectionStats.index(1, 0.99));
+        assertEquals(49, SectionStats.index(100, 0.5));
+        assertEquals(98, SectionStats.index(100, 0.99));
+    }
+}
@@ -0,0 +1,122 @@
+package org.team100.lib.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TelemetryRingTest {
+
+    /** Remembers the last thing it got. */
+    private static class LastSink implements TelemetryRing.Sink {
+        int count;
+        long bits;
+        long timeUs;
+
+        @Override
+        public void drain(long b, long t) {
+            count++;
+            bits = b;
+            timeUs = t;
+        }
+    }
+
+    @Test
+    void testCapacity() {
+        assertEquals(2, new TelemetryRing(2).capacity());
+        assertEquals(8, new TelemetryRing(5).capacity());
+        assertEquals(1024, new TelemetryRing(1024).capacity());
+    }
+
+    @Test
+    void testOfferDrain() {
+        TelemetryRing ring = new TelemetryRing(4);
+        LastSink sink = new LastSink();
+        assertEquals(0, ring.drain(10));
+        assertTrue(ring.offer(sink, Double.doubleToRawLongBits(1.5), 100));
+        assertTrue(ring.offer(sink, Double.doubleToRawLongBits(2.5), 200));
+        assertEquals(2, ring.drain(10));
+        assertEquals(2, sink.count);
+        assertEquals(2.5, Double.longBitsToDouble(sink.bits), 1e-9);
+        assertEquals(200, sink.timeUs);
+        assertEquals(0, ring.drain(10));
+    }
+
+    @Test
+    void testDropsWhenFull() {
+        TelemetryRing ring = new TelemetryRing(4);
+        LastSink sink = new LastSink();
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(ring.offer(sink, i, i));
+        }
+        assertFalse(ring.offer(sink, 4, 4));
+        assertFalse(ring.offer(sink, 5, 5));
+        assertEquals(2, ring.drops());
+        // drains in order
+        assertEquals(1, ring.drain(1));
+        assertEquals(0, sink.bits);
+        // now there's room for one more
+        assertTrue(ring.offer(sink, 6, 6));
+        assertEquals(4, ring.drain(10));
+        assertEquals(6, sink.bits);
+        assertEquals(5, sink.count);
+    }
+
+    @Test
+    void testWrap() {
+        TelemetryRing ring = new TelemetryRing(4);
+        LastSink sink = new LastSink();
+        for (int i = 0; i < 100; ++i) {
+            assertTrue(ring.offer(sink, i, i));
+            assertTrue(ring.offer(sink, i, i));
+            assertEquals(2, ring.drain(10));
+        }
+        assertEquals(200, sink.count);
+        assertEquals(0, ring.drops());
+    }
+
+    @Test
+    void testConcurrent() throws InterruptedException {
+        TelemetryRing ring = new TelemetryRing(1024);
+        LastSink sink = new LastSink();
+        int n = 100000;
+        Runnable producer = () -> {
+            for (int i = 0; i < n; ++i) {
+                ring.offer(sink, i, i);
+            }
+        };
+        Thread t1 = new Thread(producer);
+        Thread t2 = new Thread(producer);
+        t1.start();
+        t2.start();
+        int drained = 0;
+        while (t1.isAlive() || t2.isAlive()) {
+            drained += ring.drain(1024);
+        }
+        t1.join();
+        t2.join();
+        drained += ring.drain(Integer.MAX_VALUE);
+        // everything is accounted for
+        assertEquals(2 * n, drained + ring.drops());
+        assertEquals(drained, sink.count);
+    }
+
+    @Test
+    void testStartStop() throws InterruptedException {
+        TelemetryRing ring = new TelemetryRing(4);
+        LastSink sink = new LastSink();
+        ring.start();
+        assertTrue(ring.offer(sink, 7, 7));
+        while (sink.count == 0) {
+            Thread.sleep(1);
+        }
+        ring.stop();
+        // nobody is draining now
+        for (int i = 0; i < 4; ++i) {
+            assertTrue(ring.offer(sink, i, i));
+        }
+        assertFalse(ring.offer(sink, 4, 4));
+        assertEquals(1, sink.count);
+    }
+}
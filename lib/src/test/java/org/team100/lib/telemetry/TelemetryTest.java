@@ -0,0 +1,144 @@
+package org.team100.lib.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.controller.State100;
+import org.team100.lib.motion.drivetrain.SwerveState;
+import org.team100.lib.telemetry.Telemetry.DoubleLogger;
+import org.team100.lib.telemetry.Telemetry.EnumLogger;
+import org.team100.lib.telemetry.Telemetry.Level;
+import org.team100.lib.telemetry.Telemetry.Pose2dLogger;
+import org.team100.lib.telemetry.Telemetry.SwerveStateLogger;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.struct.StructBuffer;
+
+class TelemetryTest {
+    private static final double kDelta = 0.001;
+    private final Telemetry t = Telemetry.get();
+    private final NetworkTableInstance inst = NetworkTableInstance.getDefault();
+
+    @Test
+    void testDoubleLogger() {
+        DoubleLogger logger = t.doubleLogger(Level.INFO, "TelemetryTest", "double");
+        assertEquals("/TelemetryTest/double", logger.getKey());
+        logger.log(1.0);
+        assertEquals(1.0, inst.getEntry("/TelemetryTest/double").getDouble(0), kDelta);
+        logger.log(() -> 2.0);
+        assertEquals(2.0, inst.getEntry("/TelemetryTest/double").getDouble(0), kDelta);
+    }
+
+    @Test
+    void testSameKeyAsLog() {
+        // the handle and the string-keyed method share a publisher.
+        DoubleLogger logger = t.doubleLogger(Level.INFO, "TelemetryTest", "shared");
+        t.log(Level.INFO, "TelemetryTest", "shared", 1.0);
+        logger.log(2.0);
+        assertEquals(2.0, inst.getEntry("/TelemetryTest/shared").getDouble(0), kDelta);
+    }
+
+    @Test
+    void testEnumLogger() {
+        EnumLogger logger = t.enumLogger(Level.INFO, "TelemetryTest", "enum");
+        logger.log(Level.DEBUG);
+        assertEquals("DEBUG", inst.getEntry("/TelemetryTest/enum").getString(""));
+    }
+
+    @Test
+    void testPose2dLogger() {
+        Pose2dLogger logger = t.pose2dLogger(Level.INFO, "TelemetryTest", "pose");
+        logger.log(new Pose2d(1, 2, new Rotation2d(3)));
+        Pose2d pose = inst.getStructTopic("/TelemetryTest/pose", Pose2d.struct)
+                .subscribe(new Pose2d()).get();
+        assertEquals(1.0, pose.getX(), kDelta);
+        assertEquals(2.0, pose.getY(), kDelta);
+        assertEquals(3.0, pose.getRotation().getRadians(), kDelta);
+    }
+
+    @Test
+    void testSwerveStateLogger() {
+        SwerveStateLogger logger = t.swerveStateLogger(Level.INFO, "TelemetryTest", "state");
+        logger.log(new SwerveState(
+                new State100(1, 2, 3),
+                new State100(4, 5, 6),
+                new State100(7, 8, 9)));
+        SwerveState state = inst.getStructTopic("/TelemetryTest/state", SwerveState.struct)
+                .subscribe(new SwerveState()).get();
+        assertEquals(1.0, state.x().x(), kDelta);
+        assertEquals(5.0, state.y().v(), kDelta);
+        assertEquals(9.0, state.theta().a(), kDelta);
+    }
+
+    @Test
+    void testStructRoundTrip() {
+        SwerveState state = new SwerveState(
+                new State100(1, 2, 3),
+                new State100(4, 5, 6),
+                new State100(7, 8, 9));
+        StructBuffer<SwerveState> buf = StructBuffer.create(SwerveState.struct);
+        SwerveState copy = buf.read(buf.write(state));
+        assertEquals(1.0, copy.x().x(), kDelta);
+        assertEquals(2.0, copy.x().v(), kDelta);
+        assertEquals(6.0, copy.y().a(), kDelta);
+        assertEquals(8.0, copy.theta().v(), kDelta);
+    }
+
+    @Test
+    void testSubtree() {
+        assertTrue(Telemetry.inSubtree("/a/b", "/a"));
+        assertTrue(Telemetry.inSubtree("/a/b", "/a/"));
+        assertTrue(Telemetry.inSubtree("/a", "/a"));
+        assertFalse(Telemetry.inSubtree("/ab", "/a"));
+        assertFalse(Telemetry.inSubtree("/b/a", "/a"));
+    }
+
+    @Test
+    void testPolicy() {
+        t.setPolicy("/TelemetryTest/policy", TelemetryPolicy.deadband(0.1));
+        t.setPolicy("/TelemetryTest/policy/inner", TelemetryPolicy.ALWAYS);
+        DoubleLogger outer = t.doubleLogger(Level.INFO, "TelemetryTest/policy", "outer");
+        DoubleLogger inner = t.doubleLogger(Level.INFO, "TelemetryTest/policy/inner", "x");
+        outer.log(1.0);
+        outer.log(1.05);
+        assertEquals(1.0, inst.getEntry("/TelemetryTest/policy/outer").getDouble(0), kDelta);
+        inner.log(1.0);
+        inner.log(1.05);
+        assertEquals(1.05, inst.getEntry("/TelemetryTest/policy/inner/x").getDouble(0), kDelta);
+    }
+
+    @Test
+    void testLevelOverride() {
+        DoubleLogger outer = t.doubleLogger(Level.DEBUG, "TelemetryTest/levels", "outer");
+        DoubleLogger inner = t.doubleLogger(Level.DEBUG, "TelemetryTest/levels/inner", "x");
+        DoubleLogger other = t.doubleLogger(Level.DEBUG, "TelemetryTest/other", "x");
+        t.setLevel("/TelemetryTest/levels", Level.INFO);
+        t.setLevel("/TelemetryTest/levels/inner", Level.TRACE);
+        assertFalse(outer.enabled());
+        assertTrue(inner.enabled());
+        // follows the global level
+        assertEquals(t.levelFor("/TelemetryTest/other/x").admit(Level.DEBUG), other.enabled());
+        // handles made after the override also see it
+        DoubleLogger late = t.doubleLogger(Level.DEBUG, "TelemetryTest/levels", "late");
+        assertFalse(late.enabled());
+        t.clearLevels();
+        assertEquals(outer.enabled(), other.enabled());
+        assertEquals(inner.enabled(), other.enabled());
+    }
+
+    @Test
+    void testParseLevels() {
+        Map<String, Level> levels = Telemetry.parseLevels(
+                " /a=TRACE, /b/c = SILENT,nope,/d=LOUD,e=INFO,,");
+        assertEquals(2, levels.size());
+        assertEquals(Level.TRACE, levels.get("/a"));
+        assertEquals(Level.SILENT, levels.get("/b/c"));
+        assertTrue(Telemetry.parseLevels("").isEmpty());
+    }
+}
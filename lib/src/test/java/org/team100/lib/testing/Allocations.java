@@ -0,0 +1,27 @@
+package org.team100.lib.testing;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Counts heap allocation by the current thread, for tests of code that is
+ * supposed to be allocation-free in steady state.
+ * 
+ * Run the code a few hundred times first, so that class loading, lazy
+ * initialization, and JIT compilation are out of the way.
+ */
+public class Allocations {
+    private static final ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Bytes allocated by the current thread while running r. */
+    public static long bytes(Runnable r) {
+        long before = bean.getCurrentThreadAllocatedBytes();
+        r.run();
+        return bean.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    private Allocations() {
+        //
+    }
+}
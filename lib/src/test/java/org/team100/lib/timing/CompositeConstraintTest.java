@@ -0,0 +1,50 @@
+package org.team100.lib.timing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.geometry.Pose2dWithMotion;
+import org.team100.lib.timing.TimingConstraint.MinMaxAcceleration;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+class CompositeConstraintTest {
+    private static final double kDelta = 0.001;
+
+    @Test
+    void testEmpty() {
+        CompositeConstraint c = new CompositeConstraint(List.of());
+        Pose2dWithMotion state = new Pose2dWithMotion(GeometryUtil.kPoseZero);
+        assertEquals(Double.POSITIVE_INFINITY, c.maxVelocity(state), kDelta);
+        assertEquals(Double.NEGATIVE_INFINITY, c.minAccel(state, 0), kDelta);
+        assertEquals(Double.POSITIVE_INFINITY, c.maxAccel(state, 0), kDelta);
+    }
+
+    @Test
+    void testTightest() {
+        CompositeConstraint c = new CompositeConstraint(List.of(
+                new ConstantConstraint(3, 2),
+                new ConstantConstraint(4, 1),
+                new VelocityLimitRegionConstraint(
+                        new Translation2d(-1, -1),
+                        new Translation2d(1, 1),
+                        0.5)));
+        Pose2dWithMotion inside = new Pose2dWithMotion(GeometryUtil.kPoseZero);
+        Pose2dWithMotion outside = new Pose2dWithMotion(
+                new Pose2d(2, 2, GeometryUtil.kRotationZero));
+        assertEquals(0.5, c.maxVelocity(inside), kDelta);
+        assertEquals(3, c.maxVelocity(outside), kDelta);
+        assertEquals(-1, c.minAccel(inside, 0), kDelta);
+        assertEquals(1, c.maxAccel(inside, 0), kDelta);
+
+        // the object API says the same thing.
+        assertEquals(0.5, c.getMaxVelocity(inside).getValue(), kDelta);
+        MinMaxAcceleration a = c.getMinMaxAcceleration(inside, 0);
+        assertEquals(-1, a.getMinAccel(), kDelta);
+        assertEquals(1, a.getMaxAccel(), kDelta);
+    }
+}
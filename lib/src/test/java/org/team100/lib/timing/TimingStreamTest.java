@@ -0,0 +1,60 @@
+package org.team100.lib.timing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.path.Path100;
+import org.team100.lib.path.PathDistanceSampler;
+import org.team100.lib.timing.TimingUtil.TimingException;
+import org.team100.lib.trajectory.Trajectory100;
+
+class TimingStreamTest {
+    private static final double kDelta = 1e-9;
+
+    /** The streamed result should be the same as the batch one. */
+    @Test
+    void testSameAsBatch() throws TimingException {
+        PathDistanceSampler sampler = new PathDistanceSampler(new Path100(TimingUtilTest.kWaypoints));
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.get();
+        List<TimingConstraint> constraints = List.of(new CentripetalAccelerationConstraint(limits, 1.0));
+        TimingUtil u = new TimingUtil(constraints, 10.0, 5.0);
+        Trajectory100 batch = u.timeParameterizeTrajectory(sampler, 1.0, 0.0, 0.0);
+
+        TimingStream stream = u.stream(sampler, 1.0, 0.0, 0.0);
+        List<TimedPose> first = stream.next();
+        // the first chunk doesn't need the whole path
+        assertTrue(first.size() < batch.length());
+        List<TimedPose> all = new ArrayList<>(first);
+        all.addAll(stream.rest());
+        assertTrue(stream.isDone());
+        verify(batch, all);
+    }
+
+    /** A short window is slower but still correct. */
+    @Test
+    void testShortWindow() throws TimingException {
+        PathDistanceSampler sampler = new PathDistanceSampler(new Path100(TimingUtilTest.kWaypoints));
+        TimingUtil u = new TimingUtil(new ArrayList<>(), 10.0, 5.0);
+        Trajectory100 batch = u.timeParameterizeTrajectory(sampler, 1.0, 5.0, 2.0);
+        TimingStream stream = new TimingStream(u, sampler, 1.0, 5.0, 2.0, 0.5);
+        verify(batch, stream.rest());
+        assertTrue(stream.next().isEmpty());
+    }
+
+    private static void verify(Trajectory100 batch, List<TimedPose> streamed) {
+        assertEquals(batch.length(), streamed.size());
+        for (int i = 0; i < batch.length(); ++i) {
+            TimedPose expected = batch.getPoint(i).state();
+            TimedPose actual = streamed.get(i);
+            assertEquals(expected.getTimeS(), actual.getTimeS(), kDelta);
+            assertEquals(expected.velocityM_S(), actual.velocityM_S(), kDelta);
+            assertEquals(expected.acceleration(), actual.acceleration(), kDelta);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.timing.TimedPose;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingConstraintFactory;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class CompactTrajectoryTest {
+    private static final double kDelta = 0.001;
+
+    private static Trajectory100 trajectory() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.get();
+        List<Pose2d> waypointsM = List.of(
+                new Pose2d(0, 0, GeometryUtil.kRotationZero),
+                new Pose2d(1, 1, new Rotation2d(Math.PI / 2)));
+        List<Rotation2d> headings = List.of(
+                GeometryUtil.kRotationZero,
+                new Rotation2d(1));
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).forTest();
+        return TrajectoryPlanner.generateTrajectory(
+                waypointsM,
+                headings,
+                constraints,
+                0,
+                0,
+                4,
+                2);
+    }
+
+    @Test
+    void testPoints() {
+        Trajectory100 trajectory = trajectory();
+        CompactTrajectory compact = new CompactTrajectory(trajectory);
+        assertEquals(trajectory.length(), compact.length());
+        assertEquals(trajectory.getTotalTimeSeconds(), compact.getTotalTimeSeconds(), kDelta);
+        MutableTimedPose out = new MutableTimedPose();
+        for (int i = 0; i < trajectory.length(); ++i) {
+            compact.getPoint(i, out);
+            verify(trajectory.getPoint(i).state(), out);
+        }
+    }
+
+    @Test
+    void testSample() {
+        Trajectory100 trajectory = trajectory();
+        CompactTrajectory compact = new CompactTrajectory(trajectory);
+        TrajectoryTimeSampler sampler = new TrajectoryTimeSampler(trajectory);
+        MutableTimedPose out = new MutableTimedPose();
+        int hint = 0;
+        for (double t = -0.1; t < compact.getTotalTimeSeconds() + 0.1; t += 0.01) {
+            hint = compact.sample(t, hint, out);
+            verify(sampler.sample(t).get().state(), out);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> compact.sample(Double.NaN, 0, out));
+    }
+
+    @Test
+    void testView() {
+        Trajectory100 trajectory = trajectory();
+        Trajectory100 view = new CompactTrajectory(trajectory).asTrajectory100();
+        assertEquals(trajectory.length(), view.length());
+        assertEquals(trajectory.length(), view.getPoints().size());
+        assertEquals(trajectory.getTotalTimeSeconds(), view.getTotalTimeSeconds(), kDelta);
+        TrajectoryTimeSampler expected = new TrajectoryTimeSampler(trajectory);
+        TrajectoryTimeSampler actual = new TrajectoryTimeSampler(view);
+        MutableTimedPose out = new MutableTimedPose();
+        for (double t = 0; t < trajectory.getTotalTimeSeconds(); t += 0.1) {
+            TimedPose a = actual.sample(t).get().state();
+            new CompactTrajectory(view).sample(t, 0, out);
+            verify(expected.sample(t).get().state(), out);
+            assertEquals(out.getX(), a.state().getPose().getX(), kDelta);
+            assertEquals(out.getY(), a.state().getPose().getY(), kDelta);
+        }
+    }
+
+    @Test
+    void testSampler() {
+        Trajectory100 trajectory = trajectory();
+        CompactTrajectory compact = new CompactTrajectory(trajectory);
+        TrajectoryTimeSampler expected = new TrajectoryTimeSampler(trajectory);
+        TrajectoryTimeSampler actual = new TrajectoryTimeSampler(compact);
+        TrajectoryTimeSampler.Cursor cursor = actual.cursor();
+        MutableTimedPose out = new MutableTimedPose();
+        assertEquals(expected.getStartS(), actual.getStartS(), kDelta);
+        assertEquals(expected.getEndS(), actual.getEndS(), kDelta);
+        for (double t = -0.1; t < compact.getTotalTimeSeconds() + 0.1; t += 0.01) {
+            TrajectorySamplePoint e = expected.sample(t).get();
+            TrajectorySamplePoint a = actual.sample(t).get();
+            TrajectorySamplePoint c = cursor.sample(t).get();
+            assertEquals(e.getIndexFloor(), a.getIndexFloor());
+            assertEquals(e.getIndexCeil(), a.getIndexCeil());
+            assertEquals(e.getIndexFloor(), c.getIndexFloor());
+            assertEquals(e.getIndexCeil(), c.getIndexCeil());
+            compact.sample(t, 0, out);
+            verify(e.state(), out);
+            verify(a.state(), out);
+            verify(c.state(), out);
+        }
+    }
+
+    private static void verify(TimedPose expected, MutableTimedPose actual) {
+        Pose2d pose = expected.state().getPose();
+        assertEquals(expected.getTimeS(), actual.getTimeS(), kDelta);
+        assertEquals(pose.getX(), actual.getX(), kDelta);
+        assertEquals(pose.getY(), actual.getY(), kDelta);
+        assertEquals(pose.getRotation().getRadians(), actual.getHeadingRad(), kDelta);
+        assertEquals(expected.state().getCurvature(), actual.getCurvature(), kDelta);
+        assertEquals(expected.state().getHeadingRate(), actual.getHeadingRate(), kDelta);
+        assertEquals(expected.velocityM_S(), actual.velocityM_S(), kDelta);
+        assertEquals(expected.acceleration(), actual.acceleration(), kDelta);
+    }
+}
@@ -0,0 +1,114 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class PlannedTrajectoryTest {
+    @Test
+    void testInline() {
+        Trajectory100 trajectory = new Trajectory100();
+        AtomicInteger calls = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        PlannedTrajectory planned = new PlannedTrajectory(() -> {
+            calls.incrementAndGet();
+            return trajectory;
+        }, tasks::add);
+        assertFalse(planned.isDone());
+        // never prefetched, so get() plans on this thread.
+        assertSame(trajectory, planned.get());
+        assertSame(trajectory, planned.get());
+        assertEquals(1, calls.get());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void testPrefetch() {
+        Trajectory100 trajectory = new Trajectory100();
+        AtomicInteger calls = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        PlannedTrajectory planned = new PlannedTrajectory(() -> {
+            calls.incrementAndGet();
+            return trajectory;
+        }, tasks::add);
+        planned.prefetch();
+        planned.prefetch();
+        // just one task, not run yet.
+        assertEquals(1, tasks.size());
+        assertEquals(0, calls.get());
+        assertFalse(planned.isDone());
+        tasks.get(0).run();
+        assertTrue(planned.isDone());
+        assertSame(trajectory, planned.get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testFallback() {
+        Trajectory100 trajectory = new Trajectory100();
+        AtomicInteger calls = new AtomicInteger();
+        PlannedTrajectory planned = new PlannedTrajectory(() -> {
+            if (calls.incrementAndGet() == 1)
+                throw new IllegalStateException("first try fails");
+            return trajectory;
+        }, Runnable::run);
+        planned.prefetch();
+        // the background attempt failed, so get() tries again.
+        assertSame(trajectory, planned.get());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testPoll() {
+        Trajectory100 trajectory = new Trajectory100();
+        AtomicInteger calls = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        PlannedTrajectory planned = new PlannedTrajectory(() -> {
+            calls.incrementAndGet();
+            return trajectory;
+        }, tasks::add);
+        // starts planning in the background, doesn't wait or plan here.
+        assertTrue(planned.poll().isEmpty());
+        assertTrue(planned.poll().isEmpty());
+        assertEquals(1, tasks.size());
+        assertEquals(0, calls.get());
+        tasks.get(0).run();
+        assertSame(trajectory, planned.poll().get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testPollRetry() {
+        Trajectory100 trajectory = new Trajectory100();
+        AtomicInteger calls = new AtomicInteger();
+        List<Runnable> tasks = new ArrayList<>();
+        PlannedTrajectory planned = new PlannedTrajectory(() -> {
+            if (calls.incrementAndGet() == 1)
+                throw new IllegalStateException("first try fails");
+            return trajectory;
+        }, tasks::add);
+        assertTrue(planned.poll().isEmpty());
+        tasks.get(0).run();
+        // the failure starts another background attempt.
+        assertTrue(planned.poll().isEmpty());
+        assertEquals(2, tasks.size());
+        tasks.get(1).run();
+        assertSame(trajectory, planned.poll().get());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testOf() {
+        Trajectory100 trajectory = new Trajectory100();
+        PlannedTrajectory planned = PlannedTrajectory.of(trajectory);
+        assertTrue(planned.isDone());
+        assertSame(trajectory, planned.get());
+    }
+}
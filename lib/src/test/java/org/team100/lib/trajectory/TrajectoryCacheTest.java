@@ -0,0 +1,122 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.geometry.GeometryUtil;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamics;
+import org.team100.lib.motion.drivetrain.kinodynamics.SwerveKinodynamicsFactory;
+import org.team100.lib.timing.TimingConstraint;
+import org.team100.lib.timing.TimingConstraintFactory;
+import org.team100.lib.timing.TimingUtil;
+import org.team100.lib.timing.VelocityLimitRegionConstraint;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+
+class TrajectoryCacheTest {
+    private static final double kDelta = 0.001;
+
+    private final SwerveKinodynamics limits = SwerveKinodynamicsFactory.get();
+    private final List<TimingConstraint> constraints = new TimingConstraintFactory(limits).forTest();
+    private final List<Pose2d> waypoints = List.of(
+            new Pose2d(0, 0, GeometryUtil.kRotationZero),
+            new Pose2d(1, 1, new Rotation2d(Math.PI / 2)));
+    private final List<Rotation2d> headings = List.of(
+            GeometryUtil.kRotationZero,
+            GeometryUtil.kRotationZero);
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Path path = Files.createTempFile("trajectories", ".bin");
+        Files.delete(path);
+        try {
+            TrajectoryCache cache = new TrajectoryCache(path);
+            Trajectory100 generated = cache.generateTrajectory(
+                    waypoints, headings, constraints, 0, 0, 4, 2);
+            assertEquals(0, cache.hits());
+            assertEquals(1, cache.misses());
+            cache.save();
+
+            TrajectoryCache cache2 = new TrajectoryCache(path);
+            Trajectory100 loaded = cache2.generateTrajectory(
+                    waypoints, headings, constraints, 0, 0, 4, 2);
+            assertEquals(1, cache2.hits());
+            assertEquals(0, cache2.misses());
+            assertEquals(generated.length(), loaded.length());
+            for (int i = 0; i < generated.length(); ++i) {
+                Pose2d expected = generated.getPoint(i).state().state().getPose();
+                Pose2d actual = loaded.getPoint(i).state().state().getPose();
+                assertEquals(expected.getX(), actual.getX(), kDelta);
+                assertEquals(expected.getY(), actual.getY(), kDelta);
+                assertEquals(generated.getPoint(i).state().getTimeS(),
+                        loaded.getPoint(i).state().getTimeS(), kDelta);
+            }
+
+            // different inputs miss
+            cache2.generateTrajectory(waypoints, headings, constraints, 0, 0, 3, 2);
+            assertEquals(1, cache2.misses());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    void testKey() {
+        long key = TrajectoryCache.key(waypoints, headings, constraints, 0, 0, 4, 2);
+        assertEquals(key, TrajectoryCache.key(waypoints, headings, constraints, 0, 0, 4, 2));
+        assertNotEquals(key, TrajectoryCache.key(waypoints, headings, constraints, 0, 0, 4, 3));
+        assertNotEquals(key, TrajectoryCache.key(waypoints, headings, List.of(), 0, 0, 4, 2));
+        assertNotEquals(key, TrajectoryCache.key(
+                waypoints, List.of(GeometryUtil.kRotationZero, new Rotation2d(1)), constraints, 0, 0, 4, 2));
+    }
+
+    @Test
+    void testKeyParameters() {
+        // the region is far from the waypoints, so the probes can't tell these apart.
+        TimingConstraint slow = new VelocityLimitRegionConstraint(
+                new Translation2d(5, 5), new Translation2d(6, 6), 1);
+        TimingConstraint fast = new VelocityLimitRegionConstraint(
+                new Translation2d(5, 5), new Translation2d(6, 6), 2);
+        assertNotEquals(
+                TrajectoryCache.key(waypoints, headings, List.of(slow), 0, 0, 4, 2),
+                TrajectoryCache.key(waypoints, headings, List.of(fast), 0, 0, 4, 2));
+    }
+
+    @Test
+    void testCodeHash() {
+        // the class files are readable, so the hash is stable.
+        assertEquals(TrajectoryCache.kCodeHash, TrajectoryCache.codeHash());
+    }
+
+    @Test
+    void testClassFiles() {
+        // nested classes are part of the hash
+        assertTrue(TrajectoryCache.classFiles(TimingUtil.class)
+                .contains("org/team100/lib/timing/TimingUtil$ConstrainedState.class"));
+        // so are anonymous ones, even inside nested classes
+        assertTrue(TrajectoryCache.classFiles(CompactTrajectory.class)
+                .contains("org/team100/lib/trajectory/CompactTrajectory$View$1.class"));
+    }
+
+    @Test
+    void testBrokenFile() throws IOException {
+        Path path = Files.createTempFile("trajectories", ".bin");
+        try {
+            Files.write(path, new byte[] { 1, 2, 3 });
+            TrajectoryCache cache = new TrajectoryCache(path);
+            cache.generateTrajectory(waypoints, headings, constraints, 0, 0, 4, 2);
+            assertEquals(1, cache.misses());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+}
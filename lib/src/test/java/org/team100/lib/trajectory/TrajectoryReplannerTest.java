@@ -0,0 +1,89 @@
+package org.team100.lib.trajectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.team100.lib.timing.TimedPose;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+class TrajectoryReplannerTest {
+    private static final double kDelta = 0.01;
+
+    @Test
+    void testReplan() {
+        // the budget covers the whole replan, and the first one is slow (JIT).
+        TrajectoryReplanner replanner = new TrajectoryReplanner(new ArrayList<>(), 2, 2, 1.0);
+        Trajectory100 first = replanner.plan(
+                List.of(new Pose2d(), new Pose2d(4, 0, new Rotation2d())),
+                List.of(new Rotation2d(), new Rotation2d()),
+                0, 0);
+        assertFalse(first.isEmpty());
+
+        // the goal moves while the robot is underway.
+        double timeS = 1.0;
+        TimedPose before = new TrajectoryTimeSampler(first).sample(timeS).get().state();
+        Optional<Trajectory100> replanned = replanner.replan(
+                first, timeS,
+                List.of(new Pose2d(4, 1, new Rotation2d(0.5))),
+                List.of(new Rotation2d()),
+                0);
+        assertTrue(replanned.isPresent());
+        Trajectory100 second = replanned.get();
+
+        // the past is the same
+        assertEquals(first.getPoint(0).state().getTimeS(), second.getPoint(0).state().getTimeS(), kDelta);
+        TimedPose after = new TrajectoryTimeSampler(second).sample(timeS).get().state();
+        assertEquals(before.state().getPose().getX(), after.state().getPose().getX(), kDelta);
+        assertEquals(before.state().getPose().getY(), after.state().getPose().getY(), kDelta);
+        // no stutter
+        assertEquals(before.velocityM_S(), after.velocityM_S(), kDelta);
+
+        // and the end is the new goal
+        Pose2d end = second.getLastPoint().state().state().getPose();
+        assertEquals(4, end.getX(), kDelta);
+        assertEquals(1, end.getY(), kDelta);
+        assertEquals(0, second.getLastPoint().state().velocityM_S(), kDelta);
+    }
+
+    @Test
+    void testAtGoal() {
+        TrajectoryReplanner replanner = new TrajectoryReplanner(new ArrayList<>(), 2, 2, 0.01);
+        Trajectory100 first = replanner.plan(
+                List.of(new Pose2d(), new Pose2d(1, 0, new Rotation2d())),
+                List.of(new Rotation2d(), new Rotation2d()),
+                0, 0);
+        // at the end, there's nothing to plan.
+        Optional<Trajectory100> replanned = replanner.replan(
+                first, first.getTotalTimeSeconds(),
+                List.of(new Pose2d(1, 0, new Rotation2d())),
+                List.of(new Rotation2d()),
+                0);
+        assertTrue(replanned.isEmpty());
+    }
+
+    @Test
+    void testOverrun() {
+        TrajectoryReplanner replanner = new TrajectoryReplanner(new ArrayList<>(), 2, 2, 0);
+        Trajectory100 first = replanner.plan(
+                List.of(new Pose2d(), new Pose2d(4, 0, new Rotation2d())),
+                List.of(new Rotation2d(), new Rotation2d()),
+                0, 0);
+        assertFalse(first.isEmpty());
+        // no time at all, so the result is discarded, and the caller keeps the old one.
+        Optional<Trajectory100> replanned = replanner.replan(
+                first, 1.0,
+                List.of(new Pose2d(4, 1, new Rotation2d(0.5))),
+                List.of(new Rotation2d()),
+                0);
+        assertTrue(replanned.isEmpty());
+        assertEquals(1, replanner.overruns());
+    }
+}
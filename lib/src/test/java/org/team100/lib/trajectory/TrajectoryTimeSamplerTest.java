@@ -69,4 +69,77 @@ class TrajectoryTimeSamplerTest {
 
     }
 
+    @Test
+    void testCursor() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.get();
+        List<Pose2d> waypointsM = List.of(
+                new Pose2d(0, 0, GeometryUtil.kRotationZero),
+                new Pose2d(1, 1, new Rotation2d(Math.PI / 2)));
+        List<Rotation2d> headings = List.of(
+                GeometryUtil.kRotationZero,
+                GeometryUtil.kRotationZero);
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).forTest();
+        Trajectory100 trajectory = TrajectoryPlanner.generateTrajectory(
+                waypointsM,
+                headings,
+                constraints,
+                0,
+                0,
+                kMaxVelM_S,
+                kMaxAccelM_S_S);
+        TrajectoryTimeSampler sampler = new TrajectoryTimeSampler(trajectory);
+        TrajectoryTimeSampler.Cursor cursor = sampler.cursor();
+        // forward, like advance(), then backward
+        for (double t = -0.1; t < sampler.getEndS() + 0.1; t += 0.01) {
+            assertSame(sampler.sample(t).get(), cursor.sample(t).get());
+        }
+        for (double t = sampler.getEndS(); t > 0; t -= 0.1) {
+            assertSame(sampler.sample(t).get(), cursor.sample(t).get());
+        }
+    }
+
+    @Test
+    void testExtend() {
+        SwerveKinodynamics limits = SwerveKinodynamicsFactory.get();
+        List<Pose2d> waypointsM = List.of(
+                new Pose2d(0, 0, GeometryUtil.kRotationZero),
+                new Pose2d(1, 1, new Rotation2d(Math.PI / 2)));
+        List<Rotation2d> headings = List.of(
+                GeometryUtil.kRotationZero,
+                GeometryUtil.kRotationZero);
+        List<TimingConstraint> constraints = new TimingConstraintFactory(limits).forTest();
+        Trajectory100 whole = TrajectoryPlanner.generateTrajectory(
+                waypointsM,
+                headings,
+                constraints,
+                0,
+                0,
+                kMaxVelM_S,
+                kMaxAccelM_S_S);
+        TrajectoryTimeSampler expected = new TrajectoryTimeSampler(whole);
+
+        // append the same points a few at a time, sampling as it grows.
+        Trajectory100 growing = new Trajectory100();
+        growing.append(List.of(whole.getPoint(0).state()));
+        TrajectoryTimeSampler sampler = new TrajectoryTimeSampler(growing);
+        TrajectoryTimeSampler.Cursor cursor = sampler.cursor();
+        double t = 0;
+        for (int i = 1; i < whole.length(); i += 3) {
+            for (int j = i; j < Math.min(i + 3, whole.length()); ++j) {
+                growing.append(List.of(whole.getPoint(j).state()));
+            }
+            sampler.extend();
+            assertEquals(growing.getTotalTimeSeconds(), sampler.getEndS(), kDelta);
+            for (; t < sampler.getEndS(); t += 0.01) {
+                assertSame(expected.sample(t).get(), cursor.sample(t).get());
+            }
+        }
+        assertEquals(expected.getEndS(), sampler.getEndS(), kDelta);
+    }
+
+    private static void assertSame(TrajectorySamplePoint expected, TrajectorySamplePoint actual) {
+        assertEquals(expected.state().getTimeS(), actual.state().getTimeS(), kDelta);
+        assertEquals(expected.state().state().getPose().getX(), actual.state().state().getPose().getX(), kDelta);
+        assertEquals(expected.state().state().getPose().getY(), actual.state().state().getPose().getY(), kDelta);
+    }
 }
@@ -0,0 +1,61 @@
+package org.team100.lib.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ArraySearchTest {
+    @Test
+    void testLowerBound() {
+        double[] a = { 0, 1, 1, 2, 3 };
+        assertEquals(0, ArraySearch.lowerBound(a, -1));
+        assertEquals(0, ArraySearch.lowerBound(a, 0));
+        assertEquals(1, ArraySearch.lowerBound(a, 0.5));
+        // the first of the duplicates
+        assertEquals(1, ArraySearch.lowerBound(a, 1));
+        assertEquals(3, ArraySearch.lowerBound(a, 1.5));
+        assertEquals(4, ArraySearch.lowerBound(a, 3));
+        assertEquals(5, ArraySearch.lowerBound(a, 4));
+    }
+
+    @Test
+    void testHint() {
+        double[] a = { 0, 1, 1, 2, 3 };
+        // good hint
+        assertEquals(3, ArraySearch.lowerBound(a, 1.5, 3));
+        // x moved forward a little
+        assertEquals(4, ArraySearch.lowerBound(a, 2.5, 3));
+        // x moved backward
+        assertEquals(1, ArraySearch.lowerBound(a, 0.5, 3));
+        // garbage hints
+        assertEquals(3, ArraySearch.lowerBound(a, 1.5, -1));
+        assertEquals(3, ArraySearch.lowerBound(a, 1.5, 99));
+        assertEquals(5, ArraySearch.lowerBound(a, 4, 5));
+    }
+
+    @Test
+    void testHintMatchesBisection() {
+        Random random = new Random(0);
+        double[] a = new double[100];
+        for (int i = 1; i < a.length; ++i) {
+            // some duplicates
+            a[i] = a[i - 1] + random.nextInt(3);
+        }
+        int hint = 0;
+        for (int i = 0; i < 1000; ++i) {
+            double x = random.nextDouble() * 220 - 10;
+            int expected = ArraySearch.lowerBound(a, x);
+            hint = ArraySearch.lowerBound(a, x, hint);
+            assertEquals(expected, hint);
+        }
+        // forward in small steps, the cursor case
+        hint = 0;
+        for (double x = -1; x < 210; x += 0.1) {
+            int expected = ArraySearch.lowerBound(a, x);
+            hint = ArraySearch.lowerBound(a, x, hint);
+            assertEquals(expected, hint);
+        }
+    }
+}